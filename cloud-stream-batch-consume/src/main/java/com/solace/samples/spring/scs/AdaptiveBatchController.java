@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+/**
+ * Picks the batch size and timeout of a batch-mode consumer from the observed
+ * arrival rate and processing time, so that batches are as large as the
+ * latency budget allows.
+ *
+ * A batch of {@code n} messages arriving every {@code 1/rate} seconds and
+ * processed in {@code cost} seconds each keeps its first message waiting
+ * {@code n/rate + n*cost}. The controller picks the largest {@code n} within
+ * the budget, and a timeout of whatever budget is left after processing
+ * {@code n} messages: a full batch never waits for it, and when traffic drops
+ * the timeout closes the batch before the budget runs out. When processing
+ * cannot keep up with the arrivals the budget is out of reach anyway, and the
+ * largest batches give the most throughput.
+ *
+ * The rate is that of the messages recorded, which is the arrival rate only
+ * while the consumer keeps up. Behind a backlog it is the processing
+ * throughput, {@code 1/cost} at most, which the overload check turns into the
+ * largest batches until the backlog is drained.
+ *
+ * The size moves by at most a factor of two per interval so that a single
+ * noisy interval does not swing it. Time is passed in by the caller, so the
+ * controller can be driven by a simulated clock.
+ */
+public class AdaptiveBatchController {
+	private static final double OVERLOADED = 0.9;
+	private static final double NANOS_PER_SECOND = 1e9;
+
+	private final AdaptiveBatchProperties properties;
+
+	private long intervalStart;
+	private long messages;
+	private long processingNanos;
+
+	private double arrivalRate = Double.NaN;
+	private double processingNanosPerMessage = Double.NaN;
+	private volatile int batchMaxSize;
+	private volatile long batchTimeoutMillis;
+
+	public AdaptiveBatchController(AdaptiveBatchProperties properties, long nowNanos) {
+		this.properties = properties;
+		this.intervalStart = nowNanos;
+		this.batchMaxSize = properties.getMaxSize();
+		this.batchTimeoutMillis = properties.getMaxTimeout().toMillis();
+	}
+
+	/** Records one processed batch. */
+	public synchronized void record(int size, long processingNanos) {
+		this.messages += size;
+		this.processingNanos += processingNanos;
+	}
+
+	/**
+	 * Folds the batches recorded since the last call into the estimates and
+	 * recomputes the batch settings.
+	 */
+	public synchronized void adjust(long nowNanos) {
+		long elapsed = nowNanos - intervalStart;
+		if (elapsed <= 0) {
+			return;
+		}
+		double rate = messages * NANOS_PER_SECOND / elapsed;
+		arrivalRate = smooth(arrivalRate, rate);
+		if (messages > 0) {
+			processingNanosPerMessage = smooth(processingNanosPerMessage, (double) processingNanos / messages);
+		}
+		intervalStart = nowNanos;
+		messages = 0;
+		processingNanos = 0;
+
+		double cost = Double.isNaN(processingNanosPerMessage) ? 0 : processingNanosPerMessage;
+		double budget = properties.getLatencyBudget().toNanos();
+		int target;
+		if (arrivalRate * cost / NANOS_PER_SECOND >= OVERLOADED) {
+			target = properties.getMaxSize();
+		} else if (arrivalRate > 0) {
+			target = (int) Math.min(Integer.MAX_VALUE, budget / (NANOS_PER_SECOND / arrivalRate + cost));
+		} else {
+			target = properties.getMinSize();
+		}
+		int size = Math.max(batchMaxSize / 2, Math.min(target, batchMaxSize * 2));
+		size = Math.max(properties.getMinSize(), Math.min(size, properties.getMaxSize()));
+
+		long timeout = (long) ((budget - size * cost) / 1e6);
+		batchTimeoutMillis = Math.max(properties.getMinTimeout().toMillis(),
+				Math.min(timeout, properties.getMaxTimeout().toMillis()));
+		batchMaxSize = size;
+	}
+
+	private double smooth(double current, double sample) {
+		return Double.isNaN(current) ? sample : current + properties.getSmoothing() * (sample - current);
+	}
+
+	public int getBatchMaxSize() {
+		return batchMaxSize;
+	}
+
+	public long getBatchTimeoutMillis() {
+		return batchTimeoutMillis;
+	}
+
+	/** Smoothed messages processed per second, NaN until the first interval. */
+	public synchronized double getArrivalRate() {
+		return arrivalRate;
+	}
+
+	/** Smoothed processing time per message, NaN until the first batch. */
+	public synchronized double getProcessingNanosPerMessage() {
+		return processingNanosPerMessage;
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the {@link AdaptiveBatchController}, which tunes the Solace
+ * binder's {@code batchMaxSize} and {@code batchTimeout} of a batch-mode
+ * binding at runtime.
+ */
+@ConfigurationProperties("samples.batch.adaptive")
+public class AdaptiveBatchProperties {
+	private boolean enabled;
+
+	/** Batch-mode binding to tune. */
+	private String binding = "batchConsume-in-0";
+
+	/**
+	 * Longest a message should wait for its batch to be collected and
+	 * processed, when the consumer keeps up with the arrival rate.
+	 */
+	private Duration latencyBudget = Duration.ofMillis(500);
+
+	private int minSize = 1;
+
+	/** The binder's default batchMaxSize. */
+	private int maxSize = 255;
+
+	private Duration minTimeout = Duration.ofMillis(10);
+
+	/** The binder's default batchTimeout. */
+	private Duration maxTimeout = Duration.ofSeconds(5);
+
+	/** How often the batch settings are recomputed. */
+	private Duration interval = Duration.ofSeconds(1);
+
+	/** Weight of the latest interval in the smoothed arrival rate and processing time, 0 to 1. */
+	private double smoothing = 0.3;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public String getBinding() {
+		return binding;
+	}
+
+	public void setBinding(String binding) {
+		this.binding = binding;
+	}
+
+	public Duration getLatencyBudget() {
+		return latencyBudget;
+	}
+
+	public void setLatencyBudget(Duration latencyBudget) {
+		this.latencyBudget = latencyBudget;
+	}
+
+	public int getMinSize() {
+		return minSize;
+	}
+
+	public void setMinSize(int minSize) {
+		this.minSize = minSize;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public Duration getMinTimeout() {
+		return minTimeout;
+	}
+
+	public void setMinTimeout(Duration minTimeout) {
+		this.minTimeout = minTimeout;
+	}
+
+	public Duration getMaxTimeout() {
+		return maxTimeout;
+	}
+
+	public void setMaxTimeout(Duration maxTimeout) {
+		this.maxTimeout = maxTimeout;
+	}
+
+	public Duration getInterval() {
+		return interval;
+	}
+
+	public void setInterval(Duration interval) {
+		this.interval = interval;
+	}
+
+	public double getSmoothing() {
+		return smoothing;
+	}
+
+	public void setSmoothing(double smoothing) {
+		this.smoothing = smoothing;
+	}
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.stream.binder.Binder;
+import org.springframework.cloud.stream.binder.BinderFactory;
+import org.springframework.cloud.stream.binder.ExtendedPropertiesBinder;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.messaging.MessageChannel;
+
+import com.solace.spring.cloud.stream.binder.properties.SolaceConsumerProperties;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs the {@link AdaptiveBatchController} every interval and applies its
+ * decisions to the binding.
+ *
+ * The Solace binder reads {@code batchMaxSize} and {@code batchTimeout} from
+ * the binding's {@link SolaceConsumerProperties} for every batch it collects,
+ * so updating that instance takes effect from the next batch on, without
+ * rebinding. Those fields are not volatile, and the binder reads them on its
+ * consumer threads: the decisions are therefore written by {@link #record}, on
+ * the consumer thread that just processed a batch, rather than by the tuning
+ * thread, so that the thread collecting the next batch is guaranteed to see
+ * them. With another binder, as in tests, the decisions are only published as
+ * metrics.
+ */
+public class AdaptiveBatchTuner implements AutoCloseable {
+	private static final Logger log = LoggerFactory.getLogger(AdaptiveBatchTuner.class);
+
+	private final AdaptiveBatchController controller;
+	private final String binding;
+	private final BinderFactory binderFactory;
+	private final BindingServiceProperties bindingServiceProperties;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+		Thread thread = new Thread(task, "adaptive-batch");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private volatile SolaceConsumerProperties consumerProperties;
+	private volatile boolean unsupportedBinder;
+
+	public AdaptiveBatchTuner(AdaptiveBatchProperties properties, AdaptiveBatchController controller,
+			BinderFactory binderFactory, BindingServiceProperties bindingServiceProperties, MeterRegistry registry) {
+		this.controller = controller;
+		this.binding = properties.getBinding();
+		this.binderFactory = binderFactory;
+		this.bindingServiceProperties = bindingServiceProperties;
+		Gauge.builder("samples.batch.adaptive.max-size", controller, AdaptiveBatchController::getBatchMaxSize)
+				.tag("binding", binding)
+				.description("batchMaxSize picked for the binding")
+				.register(registry);
+		Gauge.builder("samples.batch.adaptive.timeout", controller, AdaptiveBatchController::getBatchTimeoutMillis)
+				.tag("binding", binding)
+				.baseUnit("milliseconds")
+				.description("batchTimeout picked for the binding")
+				.register(registry);
+		Gauge.builder("samples.batch.adaptive.arrival-rate", controller, AdaptiveBatchController::getArrivalRate)
+				.tag("binding", binding)
+				.baseUnit("messages/second")
+				.description("Smoothed rate of processed messages")
+				.register(registry);
+		Gauge.builder("samples.batch.adaptive.processing-time", controller,
+				c -> c.getProcessingNanosPerMessage() / 1e9)
+				.tag("binding", binding)
+				.baseUnit("seconds")
+				.description("Smoothed processing time per message")
+				.register(registry);
+		long interval = properties.getInterval().toNanos();
+		scheduler.scheduleAtFixedRate(this::tune, interval, interval, TimeUnit.NANOSECONDS);
+	}
+
+	void tune() {
+		try {
+			controller.adjust(System.nanoTime());
+		} catch (RuntimeException e) {
+			log.warn("Failed to tune the batch settings of {}", binding, e);
+		}
+	}
+
+	/**
+	 * Records one processed batch and applies the current decisions to the
+	 * binding. Called on the consumer thread.
+	 */
+	public void record(int size, long processingNanos) {
+		controller.record(size, processingNanos);
+		try {
+			apply();
+		} catch (RuntimeException e) {
+			log.warn("Failed to apply the batch settings of {}", binding, e);
+		}
+	}
+
+	private void apply() {
+		SolaceConsumerProperties target = consumerProperties();
+		if (target == null) {
+			return;
+		}
+		int size = controller.getBatchMaxSize();
+		int timeout = (int) controller.getBatchTimeoutMillis();
+		if (target.getBatchMaxSize() != size || target.getBatchTimeout() != timeout) {
+			log.debug("{}: batchMaxSize {}, batchTimeout {} ms", binding, size, timeout);
+			target.setBatchMaxSize(size);
+			target.setBatchTimeout(timeout);
+		}
+	}
+
+	/*
+	 * The same instance the binder handed to the binding's batch collector,
+	 * looked up once the binder exists.
+	 */
+	private SolaceConsumerProperties consumerProperties() {
+		if (consumerProperties == null && !unsupportedBinder) {
+			Binder<MessageChannel, ?, ?> binder = binderFactory.getBinder(bindingServiceProperties.getBinder(binding),
+					MessageChannel.class);
+			Object extension = binder instanceof ExtendedPropertiesBinder<?, ?, ?> extended
+					? extended.getExtendedConsumerProperties(binding)
+					: null;
+			if (extension instanceof SolaceConsumerProperties solace) {
+				consumerProperties = solace;
+			} else {
+				unsupportedBinder = true;
+				log.info("{} is not bound by the Solace binder, batch settings are only reported", binding);
+			}
+		}
+		return consumerProperties;
+	}
+
+	public AdaptiveBatchController getController() {
+		return controller;
+	}
+
+	@Override
+	public void close() {
+		scheduler.shutdownNow();
+	}
+}
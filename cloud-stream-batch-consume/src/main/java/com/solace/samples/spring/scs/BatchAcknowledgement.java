@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.StaticMessageHeaderAccessor;
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.integration.acks.AcknowledgmentCallback.Status;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.solace.spring.cloud.stream.binder.messaging.SolaceBinderHeaders;
+
+/**
+ * Settles the elements of a batch-mode message one by one, or by ranges,
+ * instead of the whole batch at once, so one poison message does not send
+ * the entire batch back to the queue.
+ *
+ * Elements are settled on their own when the element headers of
+ * {@link SolaceBinderHeaders#BATCHED_HEADERS} carry an
+ * {@code acknowledgmentCallback}. The Solace binder does not expose those
+ * callbacks, so with it the batch can only be settled as a whole, by
+ * {@link #settleRemaining(Status)}. A rejected element is then handed to the
+ * dead letter publisher, typically sending it to an error topic, and counts
+ * as settled, so the rest of the batch is still accepted. Should it fail to
+ * be published, the element counts as requeued. The batch is requeued if any
+ * element was, accepted otherwise; it is never rejected as a whole.
+ *
+ * Creating a {@code BatchAcknowledgement} disables the auto-acknowledgement
+ * of the batch; call {@link #settleRemaining(Status)} once every element has
+ * been handled.
+ */
+public final class BatchAcknowledgement {
+	private static final Logger log = LoggerFactory.getLogger(BatchAcknowledgement.class);
+
+	private final Message<? extends List<?>> batch;
+	private final AcknowledgmentCallback batchCallback;
+	private final List<? extends AcknowledgmentCallback> callbacks;
+	private final Consumer<Message<?>> deadLetters;
+	private final Status[] outcomes;
+
+	private BatchAcknowledgement(Message<? extends List<?>> batch, AcknowledgmentCallback batchCallback,
+			List<? extends AcknowledgmentCallback> callbacks, Consumer<Message<?>> deadLetters) {
+		this.batch = batch;
+		this.batchCallback = batchCallback;
+		this.callbacks = callbacks;
+		this.deadLetters = deadLetters;
+		this.outcomes = new Status[batch.getPayload().size()];
+	}
+
+	/**
+	 * @param deadLetters publishes a rejected element when the batch has no
+	 *                    per-element callbacks, throwing if it could not
+	 */
+	public static BatchAcknowledgement of(Message<? extends List<?>> batch, Consumer<Message<?>> deadLetters) {
+		AcknowledgmentCallback batchCallback = StaticMessageHeaderAccessor.getAcknowledgmentCallback(batch);
+		if (batchCallback != null) {
+			batchCallback.noAutoAck();
+		}
+		List<AcknowledgmentCallback> callbacks = fromBatchedHeaders(batch, batch.getPayload().size());
+		if (callbacks != null) {
+			callbacks.forEach(AcknowledgmentCallback::noAutoAck);
+		}
+		return new BatchAcknowledgement(batch, batchCallback, callbacks, deadLetters);
+	}
+
+	private static List<AcknowledgmentCallback> fromBatchedHeaders(Message<?> batch, int size) {
+		List<?> headers = batch.getHeaders().get(SolaceBinderHeaders.BATCHED_HEADERS, List.class);
+		if (headers == null || headers.size() != size) {
+			return null;
+		}
+		List<AcknowledgmentCallback> callbacks = new ArrayList<>(size);
+		for (Object element : headers) {
+			Object callback = element instanceof Map<?, ?> map
+					? map.get(IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK)
+					: null;
+			if (!(callback instanceof AcknowledgmentCallback)) {
+				return null;
+			}
+			callbacks.add((AcknowledgmentCallback) callback);
+		}
+		return callbacks;
+	}
+
+	public int size() {
+		return outcomes.length;
+	}
+
+	/** Whether elements are settled on the broker as soon as they are settled here. */
+	public boolean isPerMessage() {
+		return callbacks != null;
+	}
+
+	public void accept(int index) {
+		settle(index, Status.ACCEPT);
+	}
+
+	public void requeue(int index) {
+		settle(index, Status.REQUEUE);
+	}
+
+	public void reject(int index) {
+		settle(index, Status.REJECT);
+	}
+
+	public boolean isSettled(int index) {
+		return outcomes[index] != null;
+	}
+
+	/**
+	 * Settles one element. An element can only be settled once.
+	 *
+	 * @throws IllegalStateException if the element is settled already
+	 */
+	public void settle(int index, Status status) {
+		if (outcomes[index] != null) {
+			throw new IllegalStateException("Element " + index + " is already settled " + outcomes[index]);
+		}
+		if (callbacks != null) {
+			outcomes[index] = status;
+			callbacks.get(index).acknowledge(status);
+		} else if (status == Status.REJECT) {
+			outcomes[index] = deadLetter(index) ? Status.REJECT : Status.REQUEUE;
+		} else {
+			outcomes[index] = status;
+		}
+	}
+
+	/** Settles the elements from {@code from}, inclusive, to {@code to}, exclusive. */
+	public void settle(int from, int to, Status status) {
+		for (int i = from; i < to; i++) {
+			settle(i, status);
+		}
+	}
+
+	/**
+	 * Settles every element not settled yet, completing the batch. Without
+	 * per-message callbacks, this is when the batch is settled on the broker.
+	 */
+	public void settleRemaining(Status status) {
+		for (int i = 0; i < outcomes.length; i++) {
+			if (outcomes[i] == null) {
+				settle(i, status);
+			}
+		}
+		if (callbacks == null && batchCallback != null && !batchCallback.isAcknowledged()) {
+			batchCallback.acknowledge(batchOutcome());
+		}
+	}
+
+	private boolean deadLetter(int index) {
+		MessageBuilder<?> element = MessageBuilder.withPayload(batch.getPayload().get(index));
+		List<?> headers = batch.getHeaders().get(SolaceBinderHeaders.BATCHED_HEADERS, List.class);
+		if (headers != null && headers.size() == outcomes.length && headers.get(index) instanceof Map<?, ?> map) {
+			// The solace_ headers describe this delivery, not the message
+			map.forEach((name, value) -> {
+				if (name instanceof String header && !header.startsWith("solace_") && !header.equals(MessageHeaders.ID)
+						&& !header.equals(MessageHeaders.TIMESTAMP)
+						&& !header.equals(IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK)) {
+					element.setHeaderIfAbsent(header, value);
+				}
+			});
+		}
+		try {
+			deadLetters.accept(element.build());
+			return true;
+		} catch (RuntimeException e) {
+			log.warn("Could not publish rejected element {}, requeueing its batch", index, e);
+			return false;
+		}
+	}
+
+	private Status batchOutcome() {
+		for (Status outcome : outcomes) {
+			if (outcome == Status.REQUEUE) {
+				return Status.REQUEUE;
+			}
+		}
+		return Status.ACCEPT;
+	}
+}
@@ -1,20 +1,38 @@
 package com.solace.samples.spring.scs;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.stream.binder.BinderFactory;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.context.annotation.Bean;
+import org.springframework.integration.acks.AcknowledgmentCallback.Status;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHeaders;
 
+import com.solace.samples.spring.common.CompactSensorReading;
+import com.solace.samples.spring.common.SensorReadingCodec;
+import com.solace.samples.spring.common.SensorReadingJsonParser;
+import com.solace.samples.spring.common.logging.HotPathLogger;
+import com.solace.samples.spring.common.logging.HotPathLogging;
 import com.solace.spring.cloud.stream.binder.messaging.SolaceBinderHeaders;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @SpringBootApplication
+@EnableConfigurationProperties(AdaptiveBatchProperties.class)
 public class BatchConsumer {
 	private static final Logger log = LoggerFactory.getLogger(BatchConsumer.class);
 
@@ -23,17 +41,94 @@ public class BatchConsumer {
 	}
 	
 	@Bean
-	Consumer<Message<List<String>>> batchConsume() {
+	Consumer<Message<List<String>>> batchConsume(HotPathLogging logging,
+			ObjectProvider<AdaptiveBatchTuner> adaptiveBatch, StreamBridge streamBridge,
+			@Value("${samples.batch.error-destination:batch/consume/error}") String errorDestination) {
+		HotPathLogger hotLog = logging.forFunction("batchConsume", log);
+		AdaptiveBatchTuner batchTuner = adaptiveBatch.getIfAvailable();
 		return batchMsg -> { // (1)
+			long start = System.nanoTime();
 			List<?> data = batchMsg.getPayload();
 			MessageHeaders headers = batchMsg.getHeaders();
 			List<?> dataHeaders = (List<?>) headers.get(SolaceBinderHeaders.BATCHED_HEADERS);
 
-			log.info("Batch Size: " + data.size());
-			for (int i=0; i< data.size(); i++) {
-				log.info("Batch Headers: " + dataHeaders.get(i));
-				log.info("Batch Payload: " + new String((byte[]) data.get(i), StandardCharsets.UTF_8));
+			// (3) settle each message of the batch on its own, sending the rejected ones to the error destination
+			BatchAcknowledgement acks = BatchAcknowledgement.of(batchMsg, element -> {
+				if (!streamBridge.send(errorDestination, element)) {
+					throw new IllegalStateException("Not sent to " + errorDestination);
+				}
+			});
+			// (4) sensor readings are parsed in place, into one reading reused for the whole batch
+			SensorReadingJsonParser parser = new SensorReadingJsonParser();
+			CompactSensorReading reading = new CompactSensorReading();
+			int readings = 0;
+			double maxCelsius = Double.NEGATIVE_INFINITY;
+
+			log.info("Batch Size: {}", data.size());
+			for (int i = 0; i < data.size(); i++) {
+				try {
+					ByteBuffer payload = PayloadViews.view(data.get(i));
+					// (2) only decode the payload for the messages that are actually logged
+					if (hotLog.shouldLog()) {
+						log.info("Batch Headers: {}", dataHeaders != null ? dataHeaders.get(i) : null);
+						log.info("Batch Payload: {}", StandardCharsets.UTF_8.decode(payload.duplicate()));
+					}
+					// An empty or malformed message cannot be processed, reject it alone rather than the whole batch
+					if (!payload.hasRemaining()) {
+						log.warn("Rejecting empty message {} of the batch", i);
+						acks.reject(i);
+						continue;
+					}
+					boolean json = SensorReadingJsonParser.isJsonObject(payload);
+					if (!json && payload.get(payload.position()) != SensorReadingCodec.VERSION) {
+						continue; // plain text, nothing to parse
+					}
+					try {
+						if (json) {
+							parser.parse(payload, reading);
+						} else {
+							SensorReadingCodec.decode(payload, reading);
+						}
+					} catch (IllegalArgumentException | BufferUnderflowException e) {
+						log.warn("Rejecting malformed sensor reading {} of the batch: {}", i, e.getMessage());
+						acks.reject(i);
+						continue;
+					}
+					readings++;
+					double celsius = reading.toCelsius().getTemperature();
+					if (celsius > maxCelsius) { // false for a reading without temperature (NaN)
+						maxCelsius = celsius;
+					}
+				} catch (RuntimeException e) {
+					// Any other failure is the message's own, the rest of the batch still gets processed
+					log.error("Rejecting message {} of the batch", i, e);
+					if (!acks.isSettled(i)) {
+						acks.reject(i);
+					}
+				}
+			}
+			if (readings > 0) {
+				log.info("Sensor readings: {}, highest temperature: {} C", readings, maxCelsius);
+			}
+			acks.settleRemaining(Status.ACCEPT);
+			// (5) feed the processing time to the batch size controller
+			if (batchTuner != null) {
+				batchTuner.record(data.size(), System.nanoTime() - start);
 			}
 		};
 	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = "samples.batch.adaptive", name = "enabled", havingValue = "true")
+	AdaptiveBatchController adaptiveBatchController(AdaptiveBatchProperties properties) {
+		return new AdaptiveBatchController(properties, System.nanoTime());
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = "samples.batch.adaptive", name = "enabled", havingValue = "true")
+	AdaptiveBatchTuner adaptiveBatchTuner(AdaptiveBatchProperties properties, AdaptiveBatchController controller,
+			BinderFactory binderFactory, BindingServiceProperties bindingServiceProperties,
+			MeterRegistry meterRegistry) {
+		return new AdaptiveBatchTuner(properties, controller, binderFactory, bindingServiceProperties, meterRegistry);
+	}
 }
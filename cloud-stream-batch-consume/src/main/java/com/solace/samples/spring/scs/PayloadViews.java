@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Read-only {@link ByteBuffer} views over the elements of a natively decoded
+ * batch, so they can be parsed in place rather than copied into Strings.
+ */
+final class PayloadViews {
+
+	private PayloadViews() {
+	}
+
+	/**
+	 * A read-only view of the element, sharing its bytes. Changing the view's
+	 * position or limit does not affect the element.
+	 */
+	static ByteBuffer view(Object element) {
+		if (element instanceof byte[] bytes) {
+			return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+		}
+		if (element instanceof ByteBuffer buffer) {
+			return buffer.asReadOnlyBuffer();
+		}
+		throw new IllegalArgumentException("Unsupported batch element " + element.getClass().getName()
+				+ ", enable useNativeDecoding on the binding");
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.support.MessageBuilder;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Simulated arrivals through the test binder: each simulated second, the
+ * messages that arrived are sent as batches of the current batchMaxSize, and
+ * the controller is adjusted with the simulated time. The interval is long
+ * enough for the scheduled tuning never to run during the test.
+ */
+@SpringBootTest(classes = BatchConsumer.class,
+		properties = { "samples.batch.adaptive.enabled=true", "samples.batch.adaptive.interval=1h",
+		"samples.logging.mode=off" })
+@Import(TestChannelBinderConfiguration.class)
+public class AdaptiveBatchConsumerTest {
+	private static final long SECOND = 1_000_000_000L;
+
+	@Autowired
+	private InputDestination input;
+
+	@Autowired
+	private AdaptiveBatchController controller;
+
+	@Autowired
+	private AdaptiveBatchTuner tuner;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	private void sendBatch(int size) {
+		List<byte[]> payloads = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			payloads.add("{\"sensorID\":\"sensor-1\",\"temperature\":72.5,\"baseUnit\":\"FAHRENHEIT\"}".getBytes());
+		}
+		input.send(MessageBuilder.withPayload(payloads).build(), "batch/consume/topic");
+	}
+
+	private void simulate(long start, int seconds, int perSecond) {
+		for (int second = 1; second <= seconds; second++) {
+			int remaining = perSecond;
+			while (remaining > 0) {
+				int size = Math.min(remaining, controller.getBatchMaxSize());
+				sendBatch(size);
+				remaining -= size;
+			}
+			controller.adjust(start + second * SECOND);
+		}
+	}
+
+	private double gauge(String name) {
+		return registry.get(name).tag("binding", "batchConsume-in-0").gauge().value();
+	}
+
+	@Test
+	void testAdaptsToTheSimulatedArrivalRate() {
+		long start = System.nanoTime();
+		controller.adjust(start);
+
+		simulate(start, 20, 20);
+		// 500 ms at 20 msg/s
+		assertTrue(controller.getBatchMaxSize() >= 8 && controller.getBatchMaxSize() <= 10,
+				"Size " + controller.getBatchMaxSize());
+		assertEquals(controller.getBatchMaxSize(), gauge("samples.batch.adaptive.max-size"));
+		assertEquals(controller.getBatchTimeoutMillis(), gauge("samples.batch.adaptive.timeout"));
+		assertEquals(20, gauge("samples.batch.adaptive.arrival-rate"), 1);
+		assertTrue(gauge("samples.batch.adaptive.processing-time") > 0);
+
+		simulate(start + 20 * SECOND, 20, 400);
+		assertEquals(200, controller.getBatchMaxSize(), 10);
+	}
+
+	@Test
+	void testTunesWithoutTheSolaceBinder() {
+		sendBatch(5);
+		// The test binder has no SolaceConsumerProperties to update, the decision is only reported
+		tuner.tune();
+		assertEquals(controller.getBatchMaxSize(), gauge("samples.batch.adaptive.max-size"));
+		assertTrue(gauge("samples.batch.adaptive.arrival-rate") > 0);
+	}
+}
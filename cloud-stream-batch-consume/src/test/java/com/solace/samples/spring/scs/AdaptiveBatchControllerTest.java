@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.function.LongUnaryOperator;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * Drives the controller with a simulated clock and a model of the binder's
+ * batch collector: a batch is handed over once it holds batchMaxSize messages
+ * or batchTimeout after its first message, and the consumer processes one
+ * batch at a time.
+ */
+public class AdaptiveBatchControllerTest {
+	private static final long SECOND = 1_000_000_000L;
+
+	private final AdaptiveBatchProperties properties = new AdaptiveBatchProperties();
+
+	/* Result of a simulation run, over its last quarter */
+	private record Run(long maxLatencyNanos, int batchMaxSize, long batchTimeoutMillis) {
+	}
+
+	/**
+	 * @param interArrival gap before the next message, from the current time
+	 * @param cost         processing time of one message
+	 */
+	private Run simulate(AdaptiveBatchController controller, boolean adapt, long duration,
+			LongUnaryOperator interArrival, long cost) {
+		long interval = properties.getInterval().toNanos();
+		long nextAdjust = interval;
+		long nextArrival = 0;
+		long consumerFree = 0;
+		long maxLatency = 0;
+		ArrayDeque<Long> batch = new ArrayDeque<>();
+		long now = 0;
+		while (now < duration) {
+			long deadline = batch.isEmpty() ? Long.MAX_VALUE
+					: batch.peekFirst() + controller.getBatchTimeoutMillis() * 1_000_000L;
+			now = Math.min(Math.min(nextArrival, deadline), nextAdjust);
+			if (now == nextAdjust) {
+				if (adapt) {
+					controller.adjust(now);
+				}
+				nextAdjust += interval;
+				continue;
+			}
+			if (now == nextArrival) {
+				batch.addLast(now);
+				nextArrival = now + interArrival.applyAsLong(now);
+			}
+			if (batch.size() >= controller.getBatchMaxSize() || now >= deadline) {
+				// The consumer may still be busy with the previous batch
+				long start = Math.max(now, consumerFree);
+				long processing = batch.size() * cost;
+				consumerFree = start + processing;
+				if (now > duration * 3 / 4) {
+					maxLatency = Math.max(maxLatency, consumerFree - batch.peekFirst());
+				}
+				controller.record(batch.size(), processing);
+				batch.clear();
+			}
+		}
+		return new Run(maxLatency, controller.getBatchMaxSize(), controller.getBatchTimeoutMillis());
+	}
+
+	private static LongUnaryOperator rate(long perSecond) {
+		return now -> SECOND / perSecond;
+	}
+
+	@Test
+	void testLightTrafficShrinksBatchesToMeetTheBudget() {
+		long budget = properties.getLatencyBudget().toNanos();
+
+		// The binder defaults (255 messages or 5 s) hold a message for seconds at 20 msg/s
+		Run fixed = simulate(new AdaptiveBatchController(properties, 0), false, 60 * SECOND, rate(20), 100_000);
+		assertTrue(fixed.maxLatencyNanos() > 4 * SECOND, "Fixed settings latency " + fixed);
+
+		Run adaptive = simulate(new AdaptiveBatchController(properties, 0), true, 60 * SECOND, rate(20), 100_000);
+		assertTrue(adaptive.maxLatencyNanos() <= budget, "Adaptive latency " + adaptive);
+		assertTrue(adaptive.batchMaxSize() >= 8 && adaptive.batchMaxSize() <= 10, "Size " + adaptive);
+	}
+
+	@Test
+	void testHeavyTrafficGrowsBatches() {
+		AdaptiveBatchController controller = new AdaptiveBatchController(properties, 0);
+		properties.setMaxSize(1000);
+		// 0.5 s / (0.5 ms + 0.1 ms) = 833 messages per batch, give or take the batches
+		// straddling an interval
+		Run run = simulate(controller, true, 30 * SECOND, rate(2000), 100_000);
+		assertTrue(Math.abs(run.batchMaxSize() - 833) < 42, "Size " + run);
+		assertTrue(run.maxLatencyNanos() <= properties.getLatencyBudget().toNanos(), "Latency " + run);
+	}
+
+	@Test
+	void testOverloadUsesTheLargestBatches() {
+		AdaptiveBatchController controller = new AdaptiveBatchController(properties, 0);
+		// 5000 msg/s at 0.25 ms each cannot be kept up with
+		simulate(controller, true, 20 * SECOND, rate(5000), 250_000);
+		assertEquals(properties.getMaxSize(), controller.getBatchMaxSize());
+	}
+
+	@Test
+	void testFollowsARateDrop() {
+		AdaptiveBatchController controller = new AdaptiveBatchController(properties, 0);
+		properties.setMaxSize(1000);
+		// 2000 msg/s for 20 s, then 50 msg/s
+		Run run = simulate(controller, true, 60 * SECOND, now -> now < 20 * SECOND ? SECOND / 2000 : SECOND / 50,
+				100_000);
+		assertTrue(run.batchMaxSize() >= 20 && run.batchMaxSize() <= 26, "Size " + run);
+		assertTrue(run.maxLatencyNanos() <= properties.getLatencyBudget().toNanos(), "Latency " + run);
+	}
+
+	@Test
+	void testTimeoutLeavesRoomForProcessing() {
+		properties.setLatencyBudget(Duration.ofMillis(200));
+		AdaptiveBatchController controller = new AdaptiveBatchController(properties, 0);
+		// 10 ms per message: 200 ms / (100 ms + 10 ms) = 1 message, leaving 190 ms of timeout
+		simulate(controller, true, 60 * SECOND, rate(10), 10_000_000);
+		assertEquals(1, controller.getBatchMaxSize());
+		assertEquals(190, controller.getBatchTimeoutMillis());
+	}
+}
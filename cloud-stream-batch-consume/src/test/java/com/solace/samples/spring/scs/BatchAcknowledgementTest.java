@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.integration.acks.AcknowledgmentCallback.Status;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.solace.spring.cloud.stream.binder.messaging.SolaceBinderHeaders;
+
+public class BatchAcknowledgementTest {
+
+	static class RecordingCallback implements AcknowledgmentCallback {
+		volatile Status status;
+		volatile boolean autoAck = true;
+
+		@Override
+		public void acknowledge(Status status) {
+			assertNull(this.status, "Settled twice");
+			this.status = status;
+		}
+
+		@Override
+		public boolean isAcknowledged() {
+			return status != null;
+		}
+
+		@Override
+		public void noAutoAck() {
+			autoAck = false;
+		}
+
+		@Override
+		public boolean isAutoAck() {
+			return autoAck;
+		}
+	}
+
+	static Message<List<byte[]>> batch(List<byte[]> payloads, AcknowledgmentCallback batchCallback,
+			List<? extends AcknowledgmentCallback> callbacks) {
+		List<Map<String, Object>> headers = new ArrayList<>();
+		for (int i = 0; i < payloads.size(); i++) {
+			headers.add(callbacks != null
+					? Map.of(IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK, callbacks.get(i))
+					: Map.of());
+		}
+		return MessageBuilder.withPayload(payloads)
+				.setHeader(SolaceBinderHeaders.BATCHED_HEADERS, headers)
+				.setHeader(IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK, batchCallback)
+				.build();
+	}
+
+	private static List<byte[]> payloads(int size) {
+		List<byte[]> payloads = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			payloads.add(("message " + i).getBytes());
+		}
+		return payloads;
+	}
+
+	private static List<RecordingCallback> callbacks(int size) {
+		List<RecordingCallback> callbacks = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			callbacks.add(new RecordingCallback());
+		}
+		return callbacks;
+	}
+
+	@Test
+	void testSettlesElementsIndividually() {
+		RecordingCallback batchCallback = new RecordingCallback();
+		List<RecordingCallback> callbacks = callbacks(4);
+		BatchAcknowledgement acks = BatchAcknowledgement.of(batch(payloads(4), batchCallback, callbacks),
+				deadLetter -> fail("Dead lettered"));
+		assertTrue(acks.isPerMessage());
+		assertFalse(batchCallback.autoAck);
+		assertFalse(callbacks.get(0).autoAck);
+
+		acks.reject(1);
+		assertEquals(Status.REJECT, callbacks.get(1).status);
+		assertNull(callbacks.get(0).status);
+
+		acks.settleRemaining(Status.ACCEPT);
+		assertEquals(Status.ACCEPT, callbacks.get(0).status);
+		assertEquals(Status.REJECT, callbacks.get(1).status);
+		assertEquals(Status.ACCEPT, callbacks.get(2).status);
+		assertEquals(Status.ACCEPT, callbacks.get(3).status);
+		assertNull(batchCallback.status);
+	}
+
+	@Test
+	void testSettlesRanges() {
+		List<RecordingCallback> callbacks = callbacks(6);
+		BatchAcknowledgement acks = BatchAcknowledgement.of(batch(payloads(6), new RecordingCallback(), callbacks),
+				deadLetter -> fail("Dead lettered"));
+		acks.settle(0, 3, Status.ACCEPT);
+		acks.settle(3, 6, Status.REQUEUE);
+		for (int i = 0; i < 6; i++) {
+			assertTrue(acks.isSettled(i));
+			assertEquals(i < 3 ? Status.ACCEPT : Status.REQUEUE, callbacks.get(i).status);
+		}
+		assertThrows(IllegalStateException.class, () -> acks.accept(4));
+	}
+
+	@Test
+	void testSettlesTheWholeBatchWithoutElementCallbacks() {
+		RecordingCallback accepted = new RecordingCallback();
+		BatchAcknowledgement all = BatchAcknowledgement.of(batch(payloads(3), accepted, null),
+				deadLetter -> fail("Dead lettered"));
+		assertFalse(all.isPerMessage());
+		all.accept(0);
+		assertNull(accepted.status);
+		all.settleRemaining(Status.ACCEPT);
+		assertEquals(Status.ACCEPT, accepted.status);
+
+		// One element requeued: the batch goes back to the queue, nothing is lost
+		RecordingCallback requeued = new RecordingCallback();
+		BatchAcknowledgement retry = BatchAcknowledgement.of(batch(payloads(3), requeued, null),
+				deadLetter -> fail("Dead lettered"));
+		retry.requeue(2);
+		retry.settleRemaining(Status.ACCEPT);
+		assertEquals(Status.REQUEUE, requeued.status);
+	}
+
+	@Test
+	void testDeadLettersRejectedElementsWithoutElementCallbacks() {
+		List<Message<?>> deadLetters = new ArrayList<>();
+		RecordingCallback batchCallback = new RecordingCallback();
+		Message<List<byte[]>> batch = MessageBuilder.withPayload(payloads(3))
+				.setHeader(SolaceBinderHeaders.BATCHED_HEADERS, List.of(Map.of(),
+						Map.of("app", "sensors", "solace_redelivered", true), Map.of()))
+				.setHeader(IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK, batchCallback)
+				.build();
+		BatchAcknowledgement acks = BatchAcknowledgement.of(batch, deadLetters::add);
+		acks.reject(1);
+		acks.settleRemaining(Status.ACCEPT);
+
+		// The rest of the batch is accepted, the poison message goes to the dead letter publisher
+		assertEquals(Status.ACCEPT, batchCallback.status);
+		assertEquals(1, deadLetters.size());
+		assertArrayEquals("message 1".getBytes(), (byte[]) deadLetters.get(0).getPayload());
+		assertEquals("sensors", deadLetters.get(0).getHeaders().get("app"));
+		assertFalse(deadLetters.get(0).getHeaders().containsKey("solace_redelivered"));
+	}
+
+	@Test
+	void testRequeuesTheBatchWhenDeadLetteringFails() {
+		RecordingCallback batchCallback = new RecordingCallback();
+		BatchAcknowledgement acks = BatchAcknowledgement.of(batch(payloads(3), batchCallback, null),
+				deadLetter -> {
+					throw new IllegalStateException("Error topic unavailable");
+				});
+		acks.reject(0);
+		assertTrue(acks.isSettled(0));
+		acks.settleRemaining(Status.ACCEPT);
+		assertEquals(Status.REQUEUE, batchCallback.status);
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.acks.AcknowledgmentCallback.Status;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.solace.samples.spring.common.SensorReading;
+import com.solace.samples.spring.common.SensorReading.BaseUnit;
+import com.solace.samples.spring.common.SensorReadingCodec;
+import com.solace.samples.spring.scs.BatchAcknowledgementTest.RecordingCallback;
+import com.solace.spring.cloud.stream.binder.messaging.SolaceBinderHeaders;
+
+@SpringBootTest(classes = BatchConsumer.class,
+		properties = "samples.logging.mode=off")
+@Import(TestChannelBinderConfiguration.class)
+public class BatchConsumerAckTest {
+
+	@Autowired
+	private InputDestination input;
+
+	@Autowired
+	private OutputDestination output;
+
+	@Test
+	void testEmptyMessageIsRejectedAlone() {
+		RecordingCallback batchCallback = new RecordingCallback();
+		List<RecordingCallback> callbacks = List.of(new RecordingCallback(), new RecordingCallback(),
+				new RecordingCallback());
+		input.send(BatchAcknowledgementTest.batch(
+				List.of("Hello".getBytes(), new byte[0], "World".getBytes()), batchCallback, callbacks),
+				"batch/consume/topic");
+
+		assertEquals(Status.ACCEPT, callbacks.get(0).status);
+		assertEquals(Status.REJECT, callbacks.get(1).status);
+		assertEquals(Status.ACCEPT, callbacks.get(2).status);
+		assertNull(batchCallback.status);
+	}
+
+	@Test
+	void testMalformedSensorReadingIsRejectedAlone() {
+		SensorReading reading = new SensorReading("sensor-1", 72.5, BaseUnit.FAHRENHEIT);
+		List<RecordingCallback> callbacks = List.of(new RecordingCallback(), new RecordingCallback(),
+				new RecordingCallback(), new RecordingCallback());
+		input.send(BatchAcknowledgementTest.batch(List.of(
+				"{\"sensorID\":\"sensor-1\",\"temperature\":72.5,\"baseUnit\":\"FAHRENHEIT\"}".getBytes(),
+				"{\"sensorID\":\"sensor-1\",\"temperature\":".getBytes(),
+				SensorReadingCodec.encode(reading),
+				"Hello World".getBytes()), new RecordingCallback(), callbacks),
+				"batch/consume/topic");
+
+		assertEquals(Status.ACCEPT, callbacks.get(0).status);
+		assertEquals(Status.REJECT, callbacks.get(1).status);
+		assertEquals(Status.ACCEPT, callbacks.get(2).status);
+		assertEquals(Status.ACCEPT, callbacks.get(3).status);
+	}
+
+	@Test
+	void testPoisonMessageIsPublishedToTheErrorTopicWithoutElementCallbacks() {
+		RecordingCallback batchCallback = new RecordingCallback();
+		input.send(BatchAcknowledgementTest.batch(List.of("Hello".getBytes(), new byte[0],
+				"{\"sensorID\":\"sensor-1\",\"temperature\":".getBytes(), "World".getBytes()), batchCallback, null),
+				"batch/consume/topic");
+
+		// The good messages are accepted with the batch, the poison ones are not lost
+		assertEquals(Status.ACCEPT, batchCallback.status);
+		assertArrayEquals(new byte[0], output.receive(1000, "batch/consume/error").getPayload());
+		assertArrayEquals("{\"sensorID\":\"sensor-1\",\"temperature\":".getBytes(),
+				output.receive(1000, "batch/consume/error").getPayload());
+		assertNull(output.receive(100, "batch/consume/error"));
+	}
+
+	@Test
+	void testUnexpectedFailureRejectsOnlyThatMessage() {
+		List<RecordingCallback> callbacks = List.of(new RecordingCallback(), new RecordingCallback(),
+				new RecordingCallback());
+		List<Map<String, Object>> headers = callbacks.stream()
+				.map(callback -> Map.<String, Object>of(IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK,
+						callback))
+				.toList();
+		// An element that is neither a byte[] nor a ByteBuffer cannot be read
+		input.send(MessageBuilder.withPayload(List.of("Hello".getBytes(), 42, "World".getBytes()))
+				.setHeader(SolaceBinderHeaders.BATCHED_HEADERS, headers)
+				.setHeader(IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK, new RecordingCallback())
+				.build(), "batch/consume/topic");
+
+		assertEquals(Status.ACCEPT, callbacks.get(0).status);
+		assertEquals(Status.REJECT, callbacks.get(1).status);
+		assertEquals(Status.ACCEPT, callbacks.get(2).status);
+	}
+}
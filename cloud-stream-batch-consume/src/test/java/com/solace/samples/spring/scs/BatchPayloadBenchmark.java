@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.solace.samples.spring.common.CompactSensorReading;
+import com.solace.samples.spring.common.SensorReading;
+import com.solace.samples.spring.common.SensorReading.BaseUnit;
+import com.solace.samples.spring.common.SensorReadingJsonParser;
+
+/*
+ * Cost of reading one batch of JSON sensor readings, per batch. copyToString
+ * is what batchConsume used to do with every element, copyAndBind adds the
+ * Jackson binding downstream code would need to get at the fields, and
+ * viewAndParse reads the fields through a read-only view without copying.
+ * Run with -prof gc for the bytes allocated per batch (gc.alloc.rate.norm).
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="BatchPayloadBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BatchPayloadBenchmark {
+	private static final int SENSORS = 16;
+
+	@Param({ "256" })
+	public int batchSize;
+
+	private final ObjectMapper mapper = new ObjectMapper()
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+	private final SensorReadingJsonParser parser = new SensorReadingJsonParser();
+	private final CompactSensorReading reading = new CompactSensorReading();
+	private List<Object> batch;
+
+	@Setup
+	public void setup() throws Exception {
+		String[] sensors = new String[SENSORS];
+		for (int i = 0; i < SENSORS; i++) {
+			sensors[i] = UUID.randomUUID().toString();
+		}
+		batch = new ArrayList<>(batchSize);
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < batchSize; i++) {
+			SensorReading value = new SensorReading(sensors[i % SENSORS], 60 + (i % 400) / 10.0, BaseUnit.FAHRENHEIT);
+			value.setTimestamp(new Timestamp(now + i));
+			batch.add(mapper.writeValueAsBytes(value));
+		}
+	}
+
+	@Benchmark
+	public void copyToString(Blackhole blackhole) {
+		for (Object element : batch) {
+			blackhole.consume(new String((byte[]) element, StandardCharsets.UTF_8));
+		}
+	}
+
+	@Benchmark
+	public void copyAndBind(Blackhole blackhole) throws Exception {
+		for (Object element : batch) {
+			String json = new String((byte[]) element, StandardCharsets.UTF_8);
+			SensorReading value = mapper.readValue(json, SensorReading.class);
+			blackhole.consume(value.getTemperature());
+		}
+	}
+
+	@Benchmark
+	public void viewAndParse(Blackhole blackhole) {
+		for (Object element : batch) {
+			ByteBuffer payload = PayloadViews.view(element);
+			blackhole.consume(parser.parse(payload, reading).getTemperature());
+		}
+	}
+}
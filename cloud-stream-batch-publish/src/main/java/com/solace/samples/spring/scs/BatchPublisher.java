@@ -2,34 +2,68 @@ package com.solace.samples.spring.scs;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Map;
 import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
-import org.springframework.integration.support.MessageBuilder;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.MimeTypeUtils;
+
+import com.solace.samples.spring.common.messages.HeaderTemplate;
+import com.solace.samples.spring.common.messages.OutboundMessages;
 
 @SpringBootApplication
 public class BatchPublisher {
+	private static final Logger log = LoggerFactory.getLogger(BatchPublisher.class);
+
+	// Computed once for every message the functions build, see samples.messages in application.yaml
+	private static final Map<String, Object> TEXT_PLAIN = Map.of(MessageHeaders.CONTENT_TYPE,
+			MimeTypeUtils.TEXT_PLAIN_VALUE);
+
 	public static void main(String[] args) {
 		SpringApplication.run(BatchPublisher.class, args);
 	}
 	
 	@Bean
-	public Function<String, Collection<Message<String>>> batchPublish() {
+	public Function<String, Collection<Message<String>>> batchPublish(OutboundMessages messages) {
+	    HeaderTemplate text = messages.template(TEXT_PLAIN);
 	    return v -> {
 	        System.out.println("Received trigger to publish Batch of Messages");
 	        
 	        ArrayList<Message<String>> msgList = new ArrayList<Message<String>>();
-	        msgList.add(MessageBuilder.withPayload("Payload 1").build());
-	        msgList.add(MessageBuilder.withPayload("Payload 2").build());
-	        msgList.add(MessageBuilder.withPayload("Payload 3").build());
-	        msgList.add(MessageBuilder.withPayload("Payload 4").build());
-	        msgList.add(MessageBuilder.withPayload("Payload 5").build());
+	        msgList.add(text.build("Payload 1"));
+	        msgList.add(text.build("Payload 2"));
+	        msgList.add(text.build("Payload 3"));
+	        msgList.add(text.build("Payload 4"));
+	        msgList.add(text.build("Payload 5"));
 	        
 	        System.out.println("Publish Batch of 5 Messages");
 	        return msgList;
 	    };
 	}
+
+	/*
+	 * Fans a trigger out to as many messages as its payload says. The Stream is
+	 * produced lazily: samples.batching reads it one batch at a time, so a
+	 * million messages take no more memory than a single batch. It is a
+	 * java.util.stream.Stream rather than a Flux on purpose: Spring Cloud
+	 * Function would bind a function returning a Flux as a reactive one, and
+	 * expects it to return the output instead of publishing it.
+	 */
+	@Bean
+	public Function<String, Stream<Message<String>>> bulkPublish(OutboundMessages messages) {
+	    HeaderTemplate text = messages.template(TEXT_PLAIN);
+	    return v -> {
+	        int count = Integer.parseInt(v.trim());
+	        log.info("Received trigger to publish {} Messages", count);
+	        return IntStream.rangeClosed(1, count).mapToObj(i -> text.build("Payload " + i));
+	    };
+	}
 }
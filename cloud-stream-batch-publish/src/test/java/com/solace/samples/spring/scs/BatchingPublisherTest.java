@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.solace.samples.spring.common.batching.BatchingPostProcessor;
+
+/*
+ * Every trigger makes batchPublish return 5 messages; with batches of 10 and
+ * a linger longer than the test, only full batches are published. The
+ * functions return without waiting for their batch, as the test binder
+ * delivers the triggers one at a time on the test thread.
+ */
+@SpringBootTest(classes = BatchPublisher.class,
+		properties = { "samples.batching.max-messages=10", "samples.batching.linger=1h",
+			"samples.batching.acknowledge-after-publish=false" })
+@Import(TestChannelBinderConfiguration.class)
+public class BatchingPublisherTest {
+
+	@Autowired
+	private InputDestination input;
+
+	@Autowired
+	private OutputDestination output;
+
+	@Test
+	void testPublishesTheOutputOfTwoTriggersAsOneBatch() {
+		input.send(MessageBuilder.withPayload("trigger").build(), "batch/publish/trigger");
+		assertNull(output.receive(200, "batch/consume/topic"));
+
+		input.send(MessageBuilder.withPayload("trigger").build(), "batch/publish/trigger");
+		Message<?> batch = output.receive(5000, "batch/consume/topic");
+
+		assertEquals(List.of("Payload 1", "Payload 2", "Payload 3", "Payload 4", "Payload 5",
+				"Payload 1", "Payload 2", "Payload 3", "Payload 4", "Payload 5"), batch.getPayload());
+		List<?> headers = (List<?>) batch.getHeaders().get(BatchingPostProcessor.BATCHED_HEADERS);
+		assertEquals(10, headers.size());
+		assertInstanceOf(Map.class, headers.get(0));
+		// samples.messages.reuse-headers: the messages share one set of headers, without an id
+		assertSame(headers.get(0), headers.get(9));
+		assertEquals(Map.of(MessageHeaders.CONTENT_TYPE, "text/plain"), headers.get(0));
+		assertNull(output.receive(200, "batch/consume/topic"));
+	}
+
+	@Test
+	void testStreamsABulkTriggerInBatches() {
+		input.send(MessageBuilder.withPayload("25").build(), "batch/publish/bulk/trigger");
+
+		assertEquals(List.of("Payload 1", "Payload 2", "Payload 3", "Payload 4", "Payload 5", "Payload 6",
+				"Payload 7", "Payload 8", "Payload 9", "Payload 10"),
+				output.receive(5000, "batch/consume/topic").getPayload());
+		Message<?> second = output.receive(5000, "batch/consume/topic");
+		assertEquals(10, ((List<?>) second.getPayload()).size());
+		// The last 5 wait for their batch to fill up
+		assertNull(output.receive(200, "batch/consume/topic"));
+	}
+
+	@Test
+	void testKeepsStreamingAfterTheFirstBulkTrigger() {
+		input.send(MessageBuilder.withPayload("15").build(), "batch/publish/bulk/trigger");
+		input.send(MessageBuilder.withPayload("15").build(), "batch/publish/bulk/trigger");
+
+		// 30 messages, as the function stays subscribed after the first trigger
+		for (int i = 0; i < 3; i++) {
+			Message<?> batch = output.receive(5000, "batch/consume/topic");
+			assertEquals(10, ((List<?>) batch.getPayload()).size());
+		}
+		assertNull(output.receive(200, "batch/consume/topic"));
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+
+import com.solace.samples.spring.common.batching.BatchingPostProcessor;
+import com.solace.samples.spring.common.batching.BatchingProperties;
+import com.solace.samples.spring.common.messages.OutboundMessages;
+import com.solace.samples.spring.common.messages.OutboundMessagesProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * bulkPublish fans out a million messages through the real batching wrapper;
+ * the StreamBridge only counts and drops the batches. Materialized, the
+ * output would take ~100 MB with shared headers, ~350 MB without.
+ */
+public class BulkPublishHeapTest {
+	private static final int MESSAGES = 1_000_000;
+	private static final long HEAP_BOUND = 32L * 1024 * 1024;
+
+	private long messages;
+	private long batches;
+	private long baseline;
+	private long maxGrowth;
+
+	private static long usedHeap() {
+		System.gc();
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static OutboundMessages outboundMessages() {
+		OutboundMessagesProperties properties = new OutboundMessagesProperties();
+		properties.setReuseHeaders(true);
+		return new OutboundMessages(properties);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testOneMillionMessagesInBoundedHeap() {
+		// Stub only: a regular mock would keep every batch it was called with
+		StreamBridge streamBridge = mock(StreamBridge.class, withSettings().stubOnly());
+		doAnswer(invocation -> {
+			List<?> batch = (List<?>) invocation.getArgument(1, Message.class).getPayload();
+			messages += batch.size();
+			if (++batches % 500 == 0) {
+				maxGrowth = Math.max(maxGrowth, usedHeap() - baseline);
+			}
+			return true;
+		}).when(streamBridge).send(anyString(), any(Object.class));
+
+		BatchingProperties properties = new BatchingProperties();
+		properties.setFunctions(List.of("bulkPublish"));
+		DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+		beans.registerSingleton("streamBridge", streamBridge);
+		BatchingPostProcessor batching = new BatchingPostProcessor(properties,
+				beans.getBeanProvider(StreamBridge.class), beans.getBeanProvider(BindingServiceProperties.class),
+				beans.getBeanProvider(MeterRegistry.class));
+		Function<String, Object> bulkPublish = (Function<String, Object>) batching
+				.postProcessAfterInitialization(new BatchPublisher().bulkPublish(outboundMessages()), "bulkPublish");
+
+		baseline = usedHeap();
+		assertNull(bulkPublish.apply(Integer.toString(MESSAGES)));
+		batching.stop();
+		batching.destroy();
+
+		assertEquals(MESSAGES, messages);
+		assertEquals((MESSAGES + 254) / 255, batches);
+		assertTrue(maxGrowth < HEAP_BOUND, "Heap grew by " + maxGrowth + " bytes");
+	}
+}
@@ -9,6 +9,9 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.messaging.Message;
 
+import com.solace.samples.spring.common.logging.HotPathLogger;
+import com.solace.samples.spring.common.logging.HotPathLogging;
+
 @SpringBootApplication
 public class CustomQueueNames {
 	private static final Logger log = LoggerFactory.getLogger(CustomQueueNames.class);
@@ -18,16 +21,18 @@ public class CustomQueueNames {
 	}
 	
 	@Bean
-	public Consumer<Message<String>> uppercase() {
-		return message -> {		
-			log.info("Received message: " + message.getPayload());
+	public Consumer<Message<String>> uppercase(HotPathLogging logging) {
+		HotPathLogger hotLog = logging.forFunction("uppercase", log);
+		return message -> {
+			hotLog.info("Received message: {}", message.getPayload());
 		};
 	}
 	
 	@Bean
-	public Consumer<Message<String>> lowercase() {
-		return message -> {		
-			log.info("Received message: " + message.getPayload());
+	public Consumer<Message<String>> lowercase(HotPathLogging logging) {
+		HotPathLogger hotLog = logging.forFunction("lowercase", log);
+		return message -> {
+			hotLog.info("Received message: {}", message.getPayload());
 		};
 	}
 }
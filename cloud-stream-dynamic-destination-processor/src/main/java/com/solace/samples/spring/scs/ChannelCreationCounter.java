@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.samples.spring.scs;
+
+import org.springframework.cloud.stream.binder.ProducerProperties;
+import org.springframework.cloud.stream.binding.NewDestinationBindingCallback;
+import org.springframework.messaging.MessageChannel;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Called by StreamBridge whenever it binds a producer for a destination it
+ * has no cached channel for, and counts these into
+ * {@code samples.destinations.channels.created}. Growing past the number of
+ * distinct destinations in use means channels are being torn down and created
+ * again.
+ */
+public class ChannelCreationCounter implements NewDestinationBindingCallback<Object> {
+	private final Counter created;
+
+	public ChannelCreationCounter(MeterRegistry registry) {
+		this.created = Counter.builder("samples.destinations.channels.created")
+				.description("Producer channels bound by StreamBridge for dynamic destinations").register(registry);
+	}
+
+	@Override
+	public void configure(String channelName, MessageChannel channel, ProducerProperties producerProperties,
+			Object extendedProducerProperties) {
+		created.increment();
+	}
+
+	public long getCount() {
+		return (long) created.count();
+	}
+}
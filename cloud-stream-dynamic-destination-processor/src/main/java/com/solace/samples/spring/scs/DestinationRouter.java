@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.samples.spring.scs;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.cloud.stream.binder.BinderHeaders;
+import org.springframework.cloud.stream.function.StreamBridge;
+
+import com.solace.samples.spring.common.messages.HeaderTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends to dynamic destinations through StreamBridge without letting its
+ * channel cache thrash.
+ *
+ * StreamBridge binds a producer for every destination it has not seen and
+ * keeps the last {@code spring.cloud.stream.dynamic-destination-cache-size}
+ * of them, released in the order they were created. With more destinations
+ * in use than that, nearly every send creates a channel and tears another
+ * one down. Here only frequently used destinations get a channel of their
+ * own, held in an LRU cache smaller than the StreamBridge one; all the others
+ * are sent through a single shared output binding, with the destination in
+ * the {@link BinderHeaders#TARGET_DESTINATION} header.
+ *
+ * A destination is admitted once it has been seen {@code admit-after} times
+ * among the recent ones, and only evicts the least recently used channel if
+ * it has been seen more often than that channel was used. Frequencies are
+ * halved every {@code history-size} messages, so destinations that go quiet
+ * make room again.
+ *
+ * StreamBridge cannot be asked to release a channel: an evicted destination
+ * stays bound until StreamBridge drops it, and it drops the oldest channel
+ * even when the router still uses it. A destination that stays hot while
+ * others are admitted is bound again about once every
+ * {@code dynamic-destination-cache-size} admissions, without losing messages.
+ *
+ * Metrics: {@code samples.destinations.lookups} tagged {@code result=hit|miss},
+ * {@code samples.destinations.evictions} and the
+ * {@code samples.destinations.channels} gauge.
+ */
+public class DestinationRouter {
+	private final StreamBridge streamBridge;
+	private final HeaderTemplate routed;
+	private final String sharedBinding;
+	private final int cacheSize;
+	private final int admitAfter;
+	private final int historySize;
+	private final Counter hits;
+	private final Counter misses;
+	private final Counter evictions;
+
+	/* Both in access order, least recently used first */
+	private final LinkedHashMap<String, Frequency> channels = new LinkedHashMap<>(16, 0.75f, true);
+	private final LinkedHashMap<String, Frequency> history;
+	private int messages;
+
+	public DestinationRouter(StreamBridge streamBridge, HeaderTemplate routed, DestinationRoutingProperties properties,
+			int bridgeCacheSize, MeterRegistry registry) {
+		if (properties.getCacheSize() >= bridgeCacheSize) {
+			throw new IllegalArgumentException("samples.destinations.cache-size (" + properties.getCacheSize()
+					+ ") must be below spring.cloud.stream.dynamic-destination-cache-size (" + bridgeCacheSize + ")");
+		}
+		this.streamBridge = streamBridge;
+		this.routed = routed;
+		this.sharedBinding = properties.getSharedBinding();
+		this.cacheSize = properties.getCacheSize();
+		this.admitAfter = Math.max(1, properties.getAdmitAfter());
+		this.historySize = Math.max(1, properties.getHistorySize());
+		this.history = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Frequency> eldest) {
+				return size() > historySize;
+			}
+		};
+		this.hits = Counter.builder("samples.destinations.lookups").tag("result", "hit")
+				.description("Messages sent through a dedicated channel").register(registry);
+		this.misses = Counter.builder("samples.destinations.lookups").tag("result", "miss")
+				.description("Messages sent through the shared binding").register(registry);
+		this.evictions = Counter.builder("samples.destinations.evictions")
+				.description("Dedicated channels given up for a more frequent destination").register(registry);
+		Gauge.builder("samples.destinations.channels", this, DestinationRouter::getChannelCount)
+				.description("Destinations with a dedicated channel").register(registry);
+	}
+
+	public boolean send(String destination, Object payload) {
+		if (hasChannel(destination)) {
+			return streamBridge.send(destination, payload);
+		}
+		return streamBridge.send(sharedBinding, routed.build(payload, BinderHeaders.TARGET_DESTINATION, destination));
+	}
+
+	synchronized boolean hasChannel(String destination) {
+		if (cacheSize == 0) {
+			misses.increment();
+			return false;
+		}
+		if (++messages == historySize) {
+			messages = 0;
+			age();
+		}
+		Frequency frequency = channels.get(destination);
+		if (frequency != null) {
+			frequency.count++;
+			hits.increment();
+			return true;
+		}
+		frequency = history.computeIfAbsent(destination, d -> new Frequency());
+		if (++frequency.count >= admitAfter && admit(destination, frequency)) {
+			hits.increment();
+			return true;
+		}
+		misses.increment();
+		return false;
+	}
+
+	private boolean admit(String destination, Frequency frequency) {
+		if (channels.size() == cacheSize) {
+			Map.Entry<String, Frequency> victim = channels.entrySet().iterator().next();
+			if (victim.getValue().count >= frequency.count) {
+				return false;
+			}
+			channels.remove(victim.getKey());
+			evictions.increment();
+		}
+		history.remove(destination);
+		channels.put(destination, frequency);
+		return true;
+	}
+
+	private void age() {
+		channels.values().forEach(frequency -> frequency.count >>= 1);
+		for (Iterator<Frequency> i = history.values().iterator(); i.hasNext();) {
+			Frequency frequency = i.next();
+			if ((frequency.count >>= 1) == 0) {
+				i.remove();
+			}
+		}
+	}
+
+	public synchronized int getChannelCount() {
+		return channels.size();
+	}
+
+	public String getSharedBinding() {
+		return sharedBinding;
+	}
+
+	private static final class Frequency {
+		private int count;
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.samples.spring.scs;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("samples.destinations")
+public class DestinationRoutingProperties {
+	/** Output binding carrying the messages of destinations without a channel of their own. */
+	private String sharedBinding = "dynamicDestinations";
+
+	/**
+	 * Destinations given a dedicated StreamBridge channel, below
+	 * spring.cloud.stream.dynamic-destination-cache-size; 0 sends everything
+	 * through the shared binding.
+	 */
+	private int cacheSize = 8;
+
+	/** Times a destination must be seen within the history before it gets a channel. */
+	private int admitAfter = 4;
+
+	/** Recent destinations whose frequency is tracked; all frequencies are halved every as many messages. */
+	private int historySize = 1024;
+
+	public String getSharedBinding() {
+		return sharedBinding;
+	}
+
+	public void setSharedBinding(String sharedBinding) {
+		this.sharedBinding = sharedBinding;
+	}
+
+	public int getCacheSize() {
+		return cacheSize;
+	}
+
+	public void setCacheSize(int cacheSize) {
+		this.cacheSize = cacheSize;
+	}
+
+	public int getAdmitAfter() {
+		return admitAfter;
+	}
+
+	public void setAdmitAfter(int admitAfter) {
+		this.admitAfter = admitAfter;
+	}
+
+	public int getHistorySize() {
+		return historySize;
+	}
+
+	public void setHistorySize(int historySize) {
+		this.historySize = historySize;
+	}
+}
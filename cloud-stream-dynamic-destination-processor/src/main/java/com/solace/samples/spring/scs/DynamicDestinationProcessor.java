@@ -19,7 +19,6 @@
 
 package com.solace.samples.spring.scs;
 
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -28,17 +27,25 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.stream.binder.BinderHeaders;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
 import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.context.annotation.Bean;
 import org.springframework.messaging.Message;
-import org.springframework.messaging.support.MessageBuilder;
+
+import com.solace.samples.spring.common.logging.HotPathLogger;
+import com.solace.samples.spring.common.logging.HotPathLogging;
+import com.solace.samples.spring.common.messages.HeaderTemplate;
+import com.solace.samples.spring.common.messages.OutboundMessages;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @SpringBootApplication
+@EnableConfigurationProperties({ TopicProperties.class, DestinationRoutingProperties.class })
 public class DynamicDestinationProcessor {
 
 	private static final Logger log = LoggerFactory.getLogger(DynamicDestinationProcessor.class);
-	private static AtomicInteger counter = new AtomicInteger(0);
 
 	public static void main(String[] args) {
 		SpringApplication.run(DynamicDestinationProcessor.class);
@@ -53,14 +60,20 @@ public class DynamicDestinationProcessor {
 	 * header is NOT set then the message would be sent to the default destination.
 	 */
 	@Bean
-	public Function<Message<String>, Message<String>> functionUsingTargetDestHeader() {
+	public Function<Message<String>, Message<String>> functionUsingTargetDestHeader(HotPathLogging logging,
+			OutboundMessages messages, TopicTemplate topics) {
+		HotPathLogger hotLog = logging.forFunction("functionUsingTargetDestHeader", log);
+		// Builds the output without a MessageBuilder when samples.messages.reuse-headers is set
+		HeaderTemplate routed = messages.template();
 		return input -> {
-			String topic = getMyTopicUsingLogic(input.getPayload());
-			log.info("Processing message: " + input.getPayload());
+			String topic = topics.resolve(input.getPayload(), input.getHeaders());
 			String payload = input.getPayload().concat(" Processed by functionUsingTargetDestHeader");
-      log.info("Setting dynamic target destination to (functionUsingTargetDestHeader): " + topic);
+			if (hotLog.shouldLog()) {
+				log.info("Processing message: {}", input.getPayload());
+				log.info("Setting dynamic target destination to (functionUsingTargetDestHeader): {}", topic);
+			}
 
-			return MessageBuilder.withPayload(payload).setHeader(BinderHeaders.TARGET_DESTINATION, topic).build();
+			return routed.build(payload, BinderHeaders.TARGET_DESTINATION, topic);
 		};
 	}
 
@@ -70,22 +83,50 @@ public class DynamicDestinationProcessor {
 	 * StreamBridge caches a channel within Spring for each destination.
 	 * 
 	 * The number of channels cached is configurable via
-	 * `spring.cloud.stream.dynamic-destination-cache-size`
+	 * `spring.cloud.stream.dynamic-destination-cache-size`; the DestinationRouter
+	 * keeps channels for the most used destinations only and sends the others
+	 * through one shared binding, see samples.destinations.
 	 */
 	@Bean
-	public Consumer<String> functionUsingStreamBridge(StreamBridge streamBridge) {
+	public Consumer<Message<String>> functionUsingStreamBridge(DestinationRouter router, HotPathLogging logging,
+			TopicTemplate topics) {
+		HotPathLogger hotLog = logging.forFunction("functionUsingStreamBridge", log);
 		return input -> {
-			String topic = getMyTopicUsingLogic(input);
-			log.info("Processing message (functionUsingStreamBridge): " + input);
-			String payload = input.concat(" Processed by functionUsingStreamBridge");
-      log.info("Setting dynamic target destination to (functionUsingStreamBridge): " + topic);
-			streamBridge.send(topic, payload);
+			String topic = topics.resolve(input.getPayload(), input.getHeaders());
+			String payload = input.getPayload().concat(" Processed by functionUsingStreamBridge");
+			if (hotLog.shouldLog()) {
+				log.info("Processing message (functionUsingStreamBridge): {}", input.getPayload());
+				log.info("Setting dynamic target destination to (functionUsingStreamBridge): {}", topic);
+			}
+			router.send(topic, payload);
 		};
 	}
 
-	private String getMyTopicUsingLogic(String input) {
-		// TODO Use whatever logic you'd like!
-		return "pub/sub/plus/".concat(String.valueOf(counter.incrementAndGet()));
+	/*
+	 * Compiled once from samples.topics.template, e.g.
+	 * sensor/{header.region}/{payload.sensorID}; the default,
+	 * pub/sub/plus/{counter}, numbers the messages of both functions.
+	 */
+	@Bean
+	public TopicTemplate topicTemplate(TopicProperties properties) {
+		return TopicTemplate.compile(properties.getTemplate(), properties.getMissing());
+	}
+
+	@Bean
+	public DestinationRouter destinationRouter(StreamBridge streamBridge, OutboundMessages messages,
+			DestinationRoutingProperties properties, BindingServiceProperties bindingProperties,
+			MeterRegistry meterRegistry) {
+		return new DestinationRouter(streamBridge, messages.template(), properties,
+				bindingProperties.getDynamicDestinationCacheSize(), meterRegistry);
+	}
+
+	/*
+	 * StreamBridge reports every channel it binds for a dynamic destination;
+	 * samples.destinations.channels.created tracks the channel churn.
+	 */
+	@Bean
+	public ChannelCreationCounter channelCreationCounter(MeterRegistry meterRegistry) {
+		return new ChannelCreationCounter(meterRegistry);
 	}
 
 	// FUNCTIONS BELOW ARE PURELY FOR TESTING
@@ -100,7 +141,8 @@ public class DynamicDestinationProcessor {
 	}
 
 	@Bean
-	public Consumer<String> receiveAll() {
-		return (s) -> log.info("receiveAll received "+s);
+	public Consumer<String> receiveAll(HotPathLogging logging) {
+		HotPathLogger hotLog = logging.forFunction("receiveAll", log);
+		return (s) -> hotLog.info("receiveAll received {}", s);
 	}
 }
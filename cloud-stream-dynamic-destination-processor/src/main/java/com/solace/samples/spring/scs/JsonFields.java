@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.samples.spring.scs;
+
+/*
+ * Finds a top-level field of a JSON object by scanning its text, without
+ * parsing the document. Only string, number and boolean values are copied;
+ * objects, arrays and null count as missing. Malformed input simply yields no
+ * value.
+ */
+final class JsonFields {
+
+	private JsonFields() {
+	}
+
+	static boolean appendField(CharSequence json, String name, StringBuilder out) {
+		int length = json.length();
+		int depth = 0;
+		int i = 0;
+		while (i < length) {
+			char c = json.charAt(i);
+			if (c == '"') {
+				int end = skipString(json, i);
+				if (depth == 1 && matches(json, i + 1, end - 1, name)) {
+					int colon = skipWhitespace(json, end);
+					if (colon < length && json.charAt(colon) == ':') {
+						return appendValue(json, skipWhitespace(json, colon + 1), out);
+					}
+				}
+				i = end;
+				continue;
+			}
+			if (c == '{' || c == '[') {
+				depth++;
+			} else if (c == '}' || c == ']') {
+				depth--;
+			}
+			i++;
+		}
+		return false;
+	}
+
+	/* Index after the closing quote of the string starting at start */
+	private static int skipString(CharSequence json, int start) {
+		int i = start + 1;
+		while (i < json.length()) {
+			char c = json.charAt(i);
+			if (c == '\\') {
+				i += 2;
+			} else if (c == '"') {
+				return i + 1;
+			} else {
+				i++;
+			}
+		}
+		return json.length();
+	}
+
+	private static int skipWhitespace(CharSequence json, int i) {
+		while (i < json.length() && Character.isWhitespace(json.charAt(i))) {
+			i++;
+		}
+		return i;
+	}
+
+	private static boolean matches(CharSequence json, int start, int end, String name) {
+		if (end - start != name.length()) {
+			return false;
+		}
+		for (int i = 0; i < name.length(); i++) {
+			if (json.charAt(start + i) != name.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean appendValue(CharSequence json, int i, StringBuilder out) {
+		int length = json.length();
+		if (i >= length) {
+			return false;
+		}
+		char first = json.charAt(i);
+		if (first == '"') {
+			return appendString(json, i + 1, out);
+		}
+		if (first == '{' || first == '[' || first == 'n') {
+			return false;
+		}
+		int start = out.length();
+		while (i < length) {
+			char c = json.charAt(i);
+			if (c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) {
+				break;
+			}
+			out.append(c);
+			i++;
+		}
+		return out.length() > start;
+	}
+
+	private static boolean appendString(CharSequence json, int i, StringBuilder out) {
+		int start = out.length();
+		while (i < json.length()) {
+			char c = json.charAt(i++);
+			if (c == '"') {
+				return true;
+			}
+			if (c == '\\') {
+				if (i >= json.length()) {
+					break;
+				}
+				char escaped = json.charAt(i++);
+				switch (escaped) {
+				case 'u':
+					if (i + 4 > json.length()) {
+						out.setLength(start);
+						return false;
+					}
+					c = (char) Integer.parseInt(json, i, i + 4, 16);
+					i += 4;
+					break;
+				case 'n':
+					c = '\n';
+					break;
+				case 't':
+					c = '\t';
+					break;
+				case 'r':
+					c = '\r';
+					break;
+				case 'b':
+					c = '\b';
+					break;
+				case 'f':
+					c = '\f';
+					break;
+				default:
+					c = escaped;
+				}
+			}
+			out.append(c == '/' ? '_' : c);
+		}
+		// Unterminated string
+		out.setLength(start);
+		return false;
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.samples.spring.scs;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A topic such as {@code sensor/{header.region}/{payload.sensorID}}, compiled
+ * once into literal and variable parts.
+ *
+ * <ul>
+ * <li>{@code {header.name}}: the value of a message header</li>
+ * <li>{@code {payload.name}}: a top-level field of a JSON payload</li>
+ * <li>{@code {name}}: the header if present, the payload field otherwise</li>
+ * <li>{@code {counter}}: a number incremented for every resolved topic</li>
+ * </ul>
+ *
+ * Resolving appends the parts to a reused per-thread buffer: JSON fields are
+ * copied straight from the payload and numbers are appended without being
+ * turned into strings, so the topic itself is the only allocation for a
+ * {@code String} payload; a {@code byte[]} payload is decoded once. A {@code /} within a value becomes {@code _}, so
+ * that every variable stays one topic level, and a missing value is replaced
+ * by the configured placeholder.
+ */
+public final class TopicTemplate {
+	private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+	private final String template;
+	private final Part[] parts;
+	private final String missing;
+	private final boolean readsPayload;
+
+	private TopicTemplate(String template, Part[] parts, String missing) {
+		this.template = template;
+		this.parts = parts;
+		this.missing = missing;
+		this.readsPayload = Arrays.stream(parts)
+				.anyMatch(part -> part instanceof PayloadField || part instanceof HeaderOrPayload);
+	}
+
+	public static TopicTemplate compile(String template, String missing) {
+		List<Part> parts = new ArrayList<>();
+		int i = 0;
+		while (i < template.length()) {
+			int open = template.indexOf('{', i);
+			if (open < 0) {
+				parts.add(new Literal(template.substring(i)));
+				break;
+			}
+			if (open > i) {
+				parts.add(new Literal(template.substring(i, open)));
+			}
+			int close = template.indexOf('}', open);
+			if (close < 0) {
+				throw new IllegalArgumentException("Unclosed variable at " + open + " in topic template " + template);
+			}
+			parts.add(variable(template.substring(open + 1, close).trim(), template));
+			i = close + 1;
+		}
+		return new TopicTemplate(template, parts.toArray(new Part[0]), missing);
+	}
+
+	private static Part variable(String name, String template) {
+		if (name.isEmpty() || name.equals("header.") || name.equals("payload.") || name.indexOf('{') >= 0) {
+			throw new IllegalArgumentException("Invalid variable {" + name + "} in topic template " + template);
+		}
+		if (name.equals("counter")) {
+			return new Counter();
+		}
+		if (name.startsWith("header.")) {
+			return new Header(name.substring("header.".length()));
+		}
+		if (name.startsWith("payload.")) {
+			return new PayloadField(name.substring("payload.".length()));
+		}
+		return new HeaderOrPayload(new Header(name), new PayloadField(name));
+	}
+
+	public String resolve(Object payload, Map<String, ?> headers) {
+		StringBuilder topic = BUFFER.get();
+		topic.setLength(0);
+		CharSequence json = null;
+		if (readsPayload) {
+			json = payload instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8)
+					: payload instanceof CharSequence text ? text : null;
+		}
+		for (Part part : parts) {
+			int start = topic.length();
+			if (!part.append(topic, json, headers) || topic.length() == start) {
+				topic.setLength(start);
+				topic.append(missing);
+			}
+		}
+		return topic.toString();
+	}
+
+	@Override
+	public String toString() {
+		return template;
+	}
+
+	/* Appends the part and returns true, or returns false when it has no value */
+	private interface Part {
+		boolean append(StringBuilder topic, CharSequence json, Map<String, ?> headers);
+	}
+
+	private record Literal(String text) implements Part {
+		@Override
+		public boolean append(StringBuilder topic, CharSequence json, Map<String, ?> headers) {
+			topic.append(text);
+			return true;
+		}
+	}
+
+	private record Header(String name) implements Part {
+		@Override
+		public boolean append(StringBuilder topic, CharSequence json, Map<String, ?> headers) {
+			Object value = headers != null ? headers.get(name) : null;
+			if (value == null) {
+				return false;
+			}
+			if (value instanceof Integer || value instanceof Long) {
+				topic.append(((Number) value).longValue());
+			} else {
+				appendLevel(topic, value instanceof CharSequence text ? text : value.toString());
+			}
+			return true;
+		}
+	}
+
+	private record PayloadField(String name) implements Part {
+		@Override
+		public boolean append(StringBuilder topic, CharSequence json, Map<String, ?> headers) {
+			return json != null && JsonFields.appendField(json, name, topic);
+		}
+	}
+
+	private record HeaderOrPayload(Header header, PayloadField field) implements Part {
+		@Override
+		public boolean append(StringBuilder topic, CharSequence json, Map<String, ?> headers) {
+			return header.append(topic, json, headers) || field.append(topic, json, headers);
+		}
+	}
+
+	private static final class Counter implements Part {
+		private final AtomicLong counter = new AtomicLong();
+
+		@Override
+		public boolean append(StringBuilder topic, CharSequence json, Map<String, ?> headers) {
+			topic.append(counter.incrementAndGet());
+			return true;
+		}
+	}
+
+	static void appendLevel(StringBuilder topic, CharSequence value) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			topic.append(c == '/' ? '_' : c);
+		}
+	}
+}
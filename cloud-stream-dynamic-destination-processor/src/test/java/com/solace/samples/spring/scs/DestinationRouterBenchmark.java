@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.samples.spring.scs;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/*
+ * Sending to 10, 1k and 1M distinct topics in turn, through the test binder,
+ * with StreamBridge and its default cache of 10 channels against the
+ * DestinationRouter in front of it. Each iteration prints the producer
+ * channels StreamBridge created meanwhile.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="DestinationRouterBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DestinationRouterBenchmark {
+	@Param({ "10", "1000", "1000000" })
+	private int topics;
+
+	@Param({ "streamBridge", "router" })
+	private String sender;
+
+	private ConfigurableApplicationContext context;
+	private StreamBridge streamBridge;
+	private DestinationRouter router;
+	private ChannelCreationCounter channels;
+	private OutputDestination output;
+	private String[] destinations;
+	private int next;
+	private long sent;
+	private long createdBefore;
+
+	@Setup
+	public void setup() {
+		context = new SpringApplicationBuilder(DynamicDestinationProcessor.class, TestChannelBinderConfiguration.class)
+				.web(WebApplicationType.NONE)
+				.properties("spring.cloud.function.definition=receiveAll",
+						"spring.cloud.stream.function.definition=receiveAll", "logging.level.root=WARN")
+				.run();
+		streamBridge = context.getBean(StreamBridge.class);
+		router = context.getBean(DestinationRouter.class);
+		channels = context.getBean(ChannelCreationCounter.class);
+		output = context.getBean(OutputDestination.class);
+		destinations = new String[topics];
+		for (int i = 0; i < topics; i++) {
+			destinations[i] = "sensor/sensor-" + i;
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void startIteration() {
+		sent = 0;
+		createdBefore = channels.getCount();
+	}
+
+	@TearDown(Level.Iteration)
+	public void endIteration() {
+		System.out.print("[" + (channels.getCount() - createdBefore) + " channels created for " + sent + " messages] ");
+		// The test binder queues every message it is sent
+		output.clear();
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public boolean send() {
+		String destination = destinations[next];
+		next = next + 1 == topics ? 0 : next + 1;
+		sent++;
+		return "router".equals(sender) ? router.send(destination, "payload") : streamBridge.send(destination, "payload");
+	}
+}
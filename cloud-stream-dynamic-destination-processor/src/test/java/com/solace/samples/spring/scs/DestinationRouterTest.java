@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.stream.binder.BinderHeaders;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+
+import com.solace.samples.spring.common.messages.OutboundMessages;
+import com.solace.samples.spring.common.messages.OutboundMessagesProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class DestinationRouterTest {
+	private final StreamBridge streamBridge = mock(StreamBridge.class);
+	private final MeterRegistry registry = new SimpleMeterRegistry();
+
+	private DestinationRouter router(int cacheSize, int admitAfter, int historySize) {
+		DestinationRoutingProperties properties = new DestinationRoutingProperties();
+		properties.setCacheSize(cacheSize);
+		properties.setAdmitAfter(admitAfter);
+		properties.setHistorySize(historySize);
+		return new DestinationRouter(streamBridge, new OutboundMessages(new OutboundMessagesProperties()).template(),
+				properties, 10, registry);
+	}
+
+	private double lookups(String result) {
+		return registry.get("samples.destinations.lookups").tag("result", result).counter().count();
+	}
+
+	@Test
+	void testAdmitsFrequentDestinations() {
+		DestinationRouter router = router(2, 2, 100);
+
+		assertFalse(router.hasChannel("a"));
+		assertTrue(router.hasChannel("a"));
+		assertTrue(router.hasChannel("a"));
+		assertFalse(router.hasChannel("b"));
+
+		assertEquals(2, lookups("hit"));
+		assertEquals(2, lookups("miss"));
+		assertEquals(1, router.getChannelCount());
+	}
+
+	@Test
+	void testEvictsTheLeastRecentlyUsedChannelForAMoreFrequentDestination() {
+		DestinationRouter router = router(2, 2, 100);
+		for (String destination : new String[] { "a", "a", "a", "b", "b" }) {
+			router.hasChannel(destination);
+		}
+
+		// "a", the least recently used channel, was used 3 times
+		assertFalse(router.hasChannel("c"));
+		assertFalse(router.hasChannel("c"));
+		assertFalse(router.hasChannel("c"));
+		assertTrue(router.hasChannel("c"));
+
+		assertEquals(1, registry.get("samples.destinations.evictions").counter().count());
+		assertTrue(router.hasChannel("b"));
+		assertFalse(router.hasChannel("a"));
+		assertEquals(2, router.getChannelCount());
+	}
+
+	@Test
+	void testForgetsDestinationsThatGoQuiet() {
+		DestinationRouter router = router(2, 2, 4);
+
+		router.hasChannel("x");
+		router.hasChannel("y");
+		router.hasChannel("z");
+		// The 4th message halves the frequencies, dropping the destinations seen once
+		router.hasChannel("w");
+
+		assertFalse(router.hasChannel("x"));
+		assertTrue(router.hasChannel("x"));
+	}
+
+	@Test
+	void testSendsThroughTheSharedBindingWithoutACache() {
+		DestinationRouter router = router(0, 1, 100);
+
+		router.send("sensor/a", "payload");
+		router.send("sensor/a", "payload");
+
+		assertEquals(2, lookups("miss"));
+		assertEquals(0, router.getChannelCount());
+		verify(streamBridge, times(2)).send(eq("dynamicDestinations"),
+				argThat((Object message) -> message instanceof Message<?> m && "payload".equals(m.getPayload())
+						&& "sensor/a".equals(m.getHeaders().get(BinderHeaders.TARGET_DESTINATION))));
+	}
+
+	@Test
+	void testSendsCachedDestinationsDirectly() {
+		DestinationRouter router = router(1, 1, 100);
+
+		router.send("sensor/a", "payload");
+
+		verify(streamBridge).send("sensor/a", "payload");
+	}
+
+	@Test
+	void testCacheMustFitInTheStreamBridgeCache() {
+		assertThrows(IllegalArgumentException.class, () -> router(10, 2, 100));
+	}
+}
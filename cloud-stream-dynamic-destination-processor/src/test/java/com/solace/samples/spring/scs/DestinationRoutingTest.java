@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.BinderHeaders;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+/*
+ * functionUsingStreamBridge alone, publishing to sensor/{payload.sensorID};
+ * a sensor gets its own channel from its second message on.
+ */
+@SpringBootTest(classes = DynamicDestinationProcessor.class, properties = {
+		"spring.cloud.function.definition=functionUsingStreamBridge",
+		"spring.cloud.stream.function.definition=functionUsingStreamBridge",
+		"samples.topics.template=sensor/{payload.sensorID}",
+		"samples.destinations.cache-size=2",
+		"samples.destinations.admit-after=2" })
+@Import(TestChannelBinderConfiguration.class)
+public class DestinationRoutingTest {
+
+	@Autowired
+	private InputDestination input;
+
+	@Autowired
+	private OutputDestination output;
+
+	@Autowired
+	private ChannelCreationCounter channelsCreated;
+
+	@Autowired
+	private DestinationRouter router;
+
+	@Autowired
+	private BindingServiceProperties bindingProperties;
+
+	private void send(String sensorID) {
+		input.send(MessageBuilder.withPayload("{\"sensorID\":\"" + sensorID + "\"}").build(), "topic/in/streambridge");
+	}
+
+	@Test
+	void testRoutesThroughTheSharedBindingUntilTheDestinationIsFrequent() {
+		long created = channelsCreated.getCount();
+
+		send("sensor-1");
+		Message<byte[]> routed = output.receive(5000, "default");
+		assertNotNull(routed);
+		assertEquals("sensor/sensor-1", routed.getHeaders().get(BinderHeaders.TARGET_DESTINATION));
+		assertEquals(created, channelsCreated.getCount());
+
+		send("sensor-1");
+		send("sensor-1");
+		assertNotNull(output.receive(5000, "sensor/sensor-1"));
+		assertNotNull(output.receive(5000, "sensor/sensor-1"));
+		assertNull(output.receive(100, "default"));
+		assertEquals(created + 1, channelsCreated.getCount());
+	}
+
+	@Test
+	void testDoesNotCreateChannelsForDistinctDestinations() {
+		long created = channelsCreated.getCount();
+
+		for (int i = 0; i < 100; i++) {
+			send("distinct-" + i);
+		}
+		for (int i = 0; i < 100; i++) {
+			assertNotNull(output.receive(5000, "default"));
+		}
+		assertEquals(created, channelsCreated.getCount());
+	}
+
+	/*
+	 * StreamBridge releases its channels in creation order, whatever the
+	 * router still uses: every dynamic-destination-cache-size admissions, the
+	 * channel of a destination that stays hot is unbound and bound again on its
+	 * next message. Its messages keep their destination throughout.
+	 */
+	@Test
+	void testHotDestinationOutlivesTheStreamBridgeCache() {
+		for (int i = 0; i < 5; i++) {
+			send("hot");
+		}
+		while (output.receive(100, "default") != null || output.receive(100, "sensor/hot") != null) {
+		}
+		int bridgeCacheSize = bindingProperties.getDynamicDestinationCacheSize();
+		int admissions = 3 * bridgeCacheSize;
+		long created = channelsCreated.getCount();
+
+		for (int i = 0; i < admissions; i++) {
+			String cold = "cold-" + i;
+			for (int n = 0; n < 3; n++) {
+				send("hot");
+				assertNotNull(output.receive(5000, "sensor/hot"));
+			}
+			// Shared until seen more often than the least recently used channel, then admitted
+			Message<byte[]> routed;
+			do {
+				send(cold);
+				// The test binder delivers before send returns
+				routed = output.receive(100, "default");
+			} while (routed != null);
+			assertNotNull(output.receive(5000, "sensor/" + cold));
+		}
+		assertNull(output.receive(100, "default"));
+		assertTrue(router.getChannelCount() <= 2);
+
+		long rebinds = channelsCreated.getCount() - created - admissions;
+		assertTrue(rebinds <= admissions / bridgeCacheSize, "Hot channel bound again " + rebinds + " times");
+	}
+}
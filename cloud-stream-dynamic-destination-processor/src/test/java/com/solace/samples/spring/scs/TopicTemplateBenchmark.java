@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.samples.spring.scs;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.expression.Expression;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Resolving sensor/{region}/{sensorID} for a million readings of distinct
+ * sensors, cycled through so that every invocation sees another key:
+ * - naiveConcatenation: Jackson tree of the payload, then string concatenation
+ * - spelExpression: a parsed SpEL template over the headers and the payload read as a Map
+ * - compiledTemplate: TopicTemplate
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="TopicTemplateBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TopicTemplateBenchmark {
+	private static final int KEYS = 1_000_000;
+	private static final String[] REGIONS = { "amer", "apac", "emea", "latam" };
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final TopicTemplate template = TopicTemplate.compile("sensor/{header.region}/{payload.sensorID}", "_");
+	private final Expression spel = new SpelExpressionParser()
+			.parseExpression("sensor/#{headers['region']}/#{payload['sensorID']}", new TemplateParserContext());
+
+	private String[] payloads;
+	private Map<String, Object>[] headers;
+	private int next;
+
+	public record Root(Map<String, ?> headers, Map<?, ?> payload) {
+	}
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setup() {
+		payloads = new String[KEYS];
+		headers = new Map[REGIONS.length];
+		for (int i = 0; i < REGIONS.length; i++) {
+			headers[i] = Map.of("region", REGIONS[i], "contentType", "application/json");
+		}
+		for (int i = 0; i < KEYS; i++) {
+			payloads[i] = "{\"timestamp\":1700000000000,\"sensorID\":\"sensor-" + i
+					+ "\",\"temperature\":72.5,\"baseUnit\":\"FAHRENHEIT\"}";
+		}
+	}
+
+	private int nextKey() {
+		int key = next;
+		next = key + 1 == KEYS ? 0 : key + 1;
+		return key;
+	}
+
+	@Benchmark
+	public String naiveConcatenation() throws JsonProcessingException {
+		int key = nextKey();
+		JsonNode reading = mapper.readTree(payloads[key]);
+		return "sensor/" + headers[key & 3].get("region") + "/" + reading.get("sensorID").asText();
+	}
+
+	@Benchmark
+	public String spelExpression() throws JsonProcessingException {
+		int key = nextKey();
+		Map<?, ?> reading = mapper.readValue(payloads[key], Map.class);
+		return spel.getValue(new Root(headers[key & 3], reading), String.class);
+	}
+
+	@Benchmark
+	public String compiledTemplate() {
+		int key = nextKey();
+		return template.resolve(payloads[key], headers[key & 3]);
+	}
+}
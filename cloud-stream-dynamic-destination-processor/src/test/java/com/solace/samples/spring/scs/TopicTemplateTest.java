@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class TopicTemplateTest {
+	private static final String READING = "{\"timestamp\":1700000000000,\"sensorID\":\"sensor-1\","
+			+ "\"location\":{\"sensorID\":\"nested\"},\"temperature\":72.5,\"baseUnit\":\"FAHRENHEIT\"}";
+
+	@Test
+	void testResolvesHeadersAndPayloadFields() {
+		TopicTemplate template = TopicTemplate.compile("sensor/{header.region}/{payload.sensorID}/{baseUnit}", "_");
+
+		assertEquals("sensor/emea/sensor-1/FAHRENHEIT", template.resolve(READING, Map.of("region", "emea")));
+		assertEquals("sensor/emea/sensor-1/FAHRENHEIT",
+				template.resolve(READING.getBytes(StandardCharsets.UTF_8), Map.of("region", "emea")));
+		// {name} prefers the header
+		assertEquals("sensor/emea/sensor-1/CELSIUS",
+				template.resolve(READING, Map.of("region", "emea", "baseUnit", "CELSIUS")));
+	}
+
+	@Test
+	void testNumbersAndTopLevelFieldsOnly() {
+		TopicTemplate template = TopicTemplate.compile("{header.partition}/{payload.temperature}/{payload.location}",
+				"none");
+
+		assertEquals("7/72.5/none", template.resolve(READING, Map.of("partition", 7)));
+		assertEquals("none/none/none", template.resolve("{\"location\":{\"temperature\":1}}", Map.of()));
+	}
+
+	@Test
+	void testMissingAndUnsafeValues() {
+		TopicTemplate template = TopicTemplate.compile("sensor/{header.region}/{payload.sensorID}", "_");
+
+		assertEquals("sensor/_/_", template.resolve("hello world", null));
+		assertEquals("sensor/a_b/c_d\"e", template.resolve("{\"sensorID\": \"c\\/d\\u0022e\"}",
+				Map.of("region", "a/b")));
+		assertEquals("sensor/_/_", template.resolve("{\"sensorID\":null}", Map.of("region", "")));
+		assertEquals("sensor/_/_", template.resolve("{\"sensorID\":\"unterminated", Map.of()));
+	}
+
+	@Test
+	void testCounter() {
+		TopicTemplate template = TopicTemplate.compile("pub/sub/plus/{counter}", "_");
+
+		assertEquals("pub/sub/plus/1", template.resolve("hello world", Map.of()));
+		assertEquals("pub/sub/plus/2", template.resolve("hello world", Map.of()));
+	}
+
+	@Test
+	void testInvalidTemplates() {
+		assertThrows(IllegalArgumentException.class, () -> TopicTemplate.compile("sensor/{region", "_"));
+		assertThrows(IllegalArgumentException.class, () -> TopicTemplate.compile("sensor/{}", "_"));
+		assertThrows(IllegalArgumentException.class, () -> TopicTemplate.compile("sensor/{header.}", "_"));
+	}
+}
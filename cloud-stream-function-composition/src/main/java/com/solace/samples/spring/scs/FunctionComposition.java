@@ -29,6 +29,8 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.messaging.Message;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.solace.samples.spring.common.logging.HotPathLogger;
+import com.solace.samples.spring.common.logging.HotPathLogging;
 
 @SpringBootApplication
 public class FunctionComposition {
@@ -53,9 +55,13 @@ public class FunctionComposition {
 	 * preprocess outputs a String and process takes in a JsonNode)
 	 * 
 	 * 4. Although not shown here you can combine imperative and reactive functions
+	 *
+	 * 5. Each function gets its own logging policy (samples.logging.functions in
+	 * application.yml), so a chatty step can be sampled without hiding the others
 	 */
 	@Bean
-	public Function<Message<Object>, String> preProcess() {
+	public Function<Message<Object>, String> preProcess(HotPathLogging logging) {
+		HotPathLogger hotLog = logging.forFunction("preProcess", log);
 		return input -> {
 			/*
 			 * Apply your business logic, maybe something like:
@@ -65,24 +71,26 @@ public class FunctionComposition {
 			 * 2. Convert from external to internal data model
 			 *
 			 */
-			log.info("preProcess: " + input);
+			hotLog.info("preProcess: {}", input);
 			return "{\"preProcess\":\"says hello\"}";
 		};
 	}
 
 	@Bean
-	public Function<JsonNode, Object> process() {
+	public Function<JsonNode, Object> process(HotPathLogging logging) {
+		HotPathLogger hotLog = logging.forFunction("process", log);
 		return input -> {
 			/*
 			 * Apply your business logic
 			 */
-			log.info("process: " + input);
+			hotLog.info("process: {}", input);
 			return "Hello World from process";
 		};
 	}
 
 	@Bean
-	public Function<Object, String> postProcess() {
+	public Function<Object, String> postProcess(HotPathLogging logging) {
+		HotPathLogger hotLog = logging.forFunction("postProcess", log);
 		return input -> {
 			/*
 			 * Apply your post processing business logic, maybe something like:
@@ -91,7 +99,7 @@ public class FunctionComposition {
 			 * 
 			 * 2. Convert from internal to external data model
 			 */
-			log.info("postProcess: " + input);
+			hotLog.info("postProcess: {}", input);
 			return "postProcess is complete!";
 		};
 	}
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.integration.acks.AckUtils;
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.integration.acks.AcknowledgmentCallback.Status;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Settles messages whose processing completes asynchronously.
+ *
+ * A consumer thread {@link #track tracks} the acknowledgment callback of a
+ * message together with the future outcome of its processing, and returns.
+ * Outcomes are collected as the futures complete, in whatever order that is,
+ * and a single settler thread applies them in batches: as soon as
+ * {@code batchSize} outcomes are waiting, and at least every
+ * {@code flushInterval}. Solace acknowledges each message on its own, so
+ * settling out of order does not hold anything back.
+ *
+ * At most {@code maxInFlight} messages are tracked and not yet settled;
+ * {@link #track} blocks beyond that, which stops the consumer threads from
+ * taking more messages off the queue.
+ *
+ * The settler thread is started by the first message tracked, so a
+ * coordinator whose function is not bound costs no thread.
+ */
+public class AckCoordinator implements AutoCloseable {
+	private static final Logger log = LoggerFactory.getLogger(AckCoordinator.class);
+
+	private static final class Settlement {
+		final AcknowledgmentCallback ackCallback;
+		final Status status;
+
+		Settlement(AcknowledgmentCallback ackCallback, Status status) {
+			this.ackCallback = ackCallback;
+			this.status = status;
+		}
+	}
+
+	private final int maxInFlight;
+	private final int batchSize;
+	private final long flushIntervalNanos;
+	private final Semaphore permits;
+	private final Queue<Settlement> completed = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger completedCount = new AtomicInteger();
+	private final Thread settler;
+	private final AtomicBoolean started = new AtomicBoolean();
+
+	private final DistributionSummary batches;
+	private final Counter accepted;
+	private final Counter requeued;
+	private final Counter rejected;
+
+	private volatile boolean closed;
+
+	public AckCoordinator(AckPipelineProperties properties, MeterRegistry registry) {
+		this.maxInFlight = properties.getMaxInFlight();
+		this.batchSize = properties.getBatchSize();
+		this.flushIntervalNanos = properties.getFlushInterval().toNanos();
+		this.permits = new Semaphore(maxInFlight);
+		Gauge.builder("samples.ack.in-flight", this, AckCoordinator::getInFlight)
+				.description("Messages tracked and not settled yet")
+				.register(registry);
+		this.batches = DistributionSummary.builder("samples.ack.batch")
+				.description("Messages settled per batch")
+				.register(registry);
+		this.accepted = settled(registry, Status.ACCEPT);
+		this.requeued = settled(registry, Status.REQUEUE);
+		this.rejected = settled(registry, Status.REJECT);
+		this.settler = new Thread(this::settleLoop, "ack-settler");
+		settler.setDaemon(true);
+	}
+
+	private static Counter settled(MeterRegistry registry, Status status) {
+		return Counter.builder("samples.ack.settled").tag("status", status.name()).register(registry);
+	}
+
+	/**
+	 * Starts the processing of a message once fewer than {@code maxInFlight}
+	 * messages are waiting to be settled, blocking until then, and settles the
+	 * message with its outcome. A failed outcome rejects the message.
+	 */
+	public void track(AcknowledgmentCallback ackCallback, Supplier<? extends CompletionStage<Status>> processing) {
+		if (closed) {
+			throw new IllegalStateException("The ack coordinator is closed");
+		}
+		if (!started.get() && started.compareAndSet(false, true)) {
+			settler.start();
+		}
+		ackCallback.noAutoAck();
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			// Not tracked, leave it to the broker to redeliver
+			AckUtils.requeue(ackCallback);
+			return;
+		}
+		CompletionStage<Status> outcome;
+		try {
+			outcome = processing.get();
+		} catch (RuntimeException e) {
+			outcome = CompletableFuture.failedFuture(e);
+		}
+		outcome.whenComplete((status, error) -> {
+			if (error != null) {
+				log.warn("Processing failed, rejecting the message", error);
+			}
+			completed.offer(new Settlement(ackCallback, error == null ? status : Status.REJECT));
+			if (completedCount.incrementAndGet() >= batchSize) {
+				LockSupport.unpark(settler);
+			}
+		});
+	}
+
+	public int getInFlight() {
+		return maxInFlight - permits.availablePermits();
+	}
+
+	boolean isStarted() {
+		return started.get();
+	}
+
+	private void settleLoop() {
+		while (!closed || getInFlight() > 0) {
+			if (completedCount.get() < batchSize) {
+				LockSupport.parkNanos(this, flushIntervalNanos);
+			}
+			settleCompleted();
+		}
+	}
+
+	private void settleCompleted() {
+		int settled = 0;
+		Settlement settlement;
+		while ((settlement = completed.poll()) != null) {
+			completedCount.decrementAndGet();
+			settle(settlement);
+			permits.release();
+			settled++;
+		}
+		if (settled > 0) {
+			batches.record(settled);
+		}
+	}
+
+	private void settle(Settlement settlement) {
+		try {
+			switch (settlement.status) {
+			case ACCEPT -> {
+				AckUtils.accept(settlement.ackCallback);
+				accepted.increment();
+			}
+			case REQUEUE -> {
+				AckUtils.requeue(settlement.ackCallback);
+				requeued.increment();
+			}
+			case REJECT -> {
+				AckUtils.reject(settlement.ackCallback);
+				rejected.increment();
+			}
+			}
+		} catch (RuntimeException e) {
+			// The flow is gone, the broker redelivers the message to another consumer
+			log.warn("Failed to {} a message", settlement.status, e);
+		}
+	}
+
+	/** Waits up to 30 seconds for the tracked messages to be settled. */
+	@Override
+	public void close() throws InterruptedException {
+		closed = true;
+		if (!started.get()) {
+			return;
+		}
+		LockSupport.unpark(settler);
+		settler.join(TimeUnit.SECONDS.toMillis(30));
+		if (getInFlight() > 0) {
+			log.warn("{} messages left unsettled, the broker will redeliver them", getInFlight());
+		}
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.messaging.Message;
+
+/**
+ * Action taken by manualAckFunction for the messages routed to it by the
+ * {@link AckRouter}. Auto-acknowledgement is disabled already: the handler
+ * settles the message itself, now or later.
+ *
+ * Declare an {@code AckHandler} bean to add a custom action, and route
+ * correlation IDs to it by its bean name under {@code samples.routing.routes}.
+ */
+@FunctionalInterface
+public interface AckHandler {
+
+	/**
+	 * Returns the payload published on manualAckFunction-out-0, or {@code null}
+	 * to publish nothing.
+	 */
+	String handle(Message<String> message, AcknowledgmentCallback ackCallback);
+
+	AckHandler ACCEPT = new Settle(AcknowledgmentCallback.Status.ACCEPT, "Accepted the Message");
+	AckHandler REQUEUE = new Settle(AcknowledgmentCallback.Status.REQUEUE, "Requeuing the Message");
+	AckHandler REJECT = new Settle(AcknowledgmentCallback.Status.REJECT, "Rejecting the Message");
+
+	/** The handlers available without declaring any bean, by name. */
+	static Map<String, AckHandler> builtIns() {
+		return Map.of("accept", ACCEPT, "requeue", REQUEUE, "reject", REJECT);
+	}
+
+	/** Settles every message with the same status. */
+	final class Settle implements AckHandler {
+		private static final Logger log = LoggerFactory.getLogger(AckHandler.class);
+
+		private final AcknowledgmentCallback.Status status;
+		private final String result;
+
+		public Settle(AcknowledgmentCallback.Status status, String result) {
+			this.status = status;
+			this.result = result;
+		}
+
+		@Override
+		public String handle(Message<String> message, AcknowledgmentCallback ackCallback) {
+			log.debug(result);
+			ackCallback.acknowledge(status);
+			return result;
+		}
+
+		@Override
+		public String toString() {
+			return status.name();
+		}
+	}
+}
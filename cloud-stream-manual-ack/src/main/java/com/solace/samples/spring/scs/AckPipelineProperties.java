@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the {@code asyncManualAckFunction} pipeline.
+ */
+@ConfigurationProperties("samples.ack")
+public class AckPipelineProperties {
+	/** Messages processed but not settled yet; the consumer threads wait beyond that. */
+	private int maxInFlight = 1000;
+
+	/** Settle as soon as this many outcomes are waiting. */
+	private int batchSize = 64;
+
+	/** Longest time a completed outcome waits to be settled. */
+	private Duration flushInterval = Duration.ofMillis(5);
+
+	/** Simulated latency of the downstream call, each call takes up to twice as long. */
+	private Duration downstreamLatency = Duration.ofMillis(200);
+
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	public void setMaxInFlight(int maxInFlight) {
+		this.maxInFlight = maxInFlight;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public Duration getFlushInterval() {
+		return flushInterval;
+	}
+
+	public void setFlushInterval(Duration flushInterval) {
+		this.flushInterval = flushInterval;
+	}
+
+	public Duration getDownstreamLatency() {
+		return downstreamLatency;
+	}
+
+	public void setDownstreamLatency(Duration downstreamLatency) {
+		this.downstreamLatency = downstreamLatency;
+	}
+}
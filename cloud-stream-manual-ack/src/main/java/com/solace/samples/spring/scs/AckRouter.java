@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Correlation ID to {@link AckHandler} dispatch table, resolved once from the
+ * {@link AckRoutingProperties}.
+ *
+ * Routes are resolved to handler instances up front and kept in an immutable
+ * hash map, so a lookup costs one hash of the correlation ID whatever the
+ * number of routes, and allocates nothing. A route naming an unknown handler
+ * fails at startup rather than on the first message that uses it.
+ */
+public class AckRouter {
+	private final Map<String, AckHandler> routes;
+	private final AckHandler missing;
+	private final AckHandler fallback;
+
+	public AckRouter(AckRoutingProperties properties, Map<String, ? extends AckHandler> handlers) {
+		Map<String, AckHandler> resolved = new HashMap<>();
+		TreeSet<String> unknown = new TreeSet<>();
+		properties.getRoutes().forEach((correlationId, name) -> {
+			AckHandler handler = handlers.get(name);
+			if (handler == null) {
+				unknown.add(name);
+			} else {
+				resolved.put(correlationId, handler);
+			}
+		});
+		this.missing = handlers.get(properties.getMissing());
+		if (missing == null) {
+			unknown.add(properties.getMissing());
+		}
+		this.fallback = handlers.get(properties.getFallback());
+		if (fallback == null) {
+			unknown.add(properties.getFallback());
+		}
+		if (!unknown.isEmpty()) {
+			throw new IllegalStateException(
+					"Unknown ack handler(s) " + unknown + " in samples.routing, available: " + new TreeSet<>(handlers.keySet()));
+		}
+		this.routes = Map.copyOf(resolved);
+	}
+
+	/** Handler of the correlation ID, which may be {@code null}. */
+	public AckHandler route(String correlationId) {
+		if (correlationId == null) {
+			return missing;
+		}
+		AckHandler handler = routes.get(correlationId);
+		return handler != null ? handler : fallback;
+	}
+
+	public int size() {
+		return routes.size();
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Routes of the {@link AckRouter}: which {@link AckHandler}, by name, handles
+ * the messages of each correlation ID.
+ */
+@ConfigurationProperties("samples.routing")
+public class AckRoutingProperties {
+	/** Handler of each correlation ID. */
+	private Map<String, String> routes = new LinkedHashMap<>(Map.of("accept", "accept", "requeue", "requeue"));
+
+	/** Handler of the messages without a correlation ID. */
+	private String missing = "accept";
+
+	/** Handler of the correlation IDs without a route. */
+	private String fallback = "redeliver";
+
+	public Map<String, String> getRoutes() {
+		return routes;
+	}
+
+	public void setRoutes(Map<String, String> routes) {
+		this.routes = routes;
+	}
+
+	public String getMissing() {
+		return missing;
+	}
+
+	public void setMissing(String missing) {
+		this.missing = missing;
+	}
+
+	public String getFallback() {
+		return fallback;
+	}
+
+	public void setFallback(String fallback) {
+		this.fallback = fallback;
+	}
+}
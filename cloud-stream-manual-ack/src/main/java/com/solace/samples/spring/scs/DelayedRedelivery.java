@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.integration.acks.AckUtils;
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.messaging.Message;
+
+import com.solace.spring.cloud.stream.binder.messaging.SolaceHeaders;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Redelivers messages that could not be processed after an exponential
+ * backoff, without holding on to the consumer thread.
+ *
+ * The message is parked unsettled on a single scheduler thread and requeued
+ * on the broker when its delay expires. Once a message has been redelivered
+ * {@code maxRedeliveries} times it is rejected straight away, which moves it
+ * to the error queue when {@code autoBindErrorQueue} is set.
+ *
+ * The redeliveries so far come from the broker's delivery count when the
+ * queue has it enabled. Otherwise they are counted here, per replication
+ * group message ID, for the last {@code trackedMessages} messages. A message
+ * the broker flags as redelivered but whose count cannot be established
+ * either way is rejected rather than retried without a bound.
+ *
+ * Parked messages count towards the flow's "Maximum Delivered Unacknowledged
+ * Messages per Flow" until they are requeued.
+ */
+public class DelayedRedelivery implements AutoCloseable {
+	private static final Logger log = LoggerFactory.getLogger(DelayedRedelivery.class);
+
+	private final RedeliveryProperties properties;
+	// Its thread is only started with the first task, by the first redelivery scheduled
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+		Thread thread = new Thread(task, "delayed-redelivery");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private final Set<AcknowledgmentCallback> parked = ConcurrentHashMap.newKeySet();
+	/* Redeliveries scheduled per replication group message ID, when the delivery count is not available */
+	private final Map<String, Integer> attempts;
+	private final Counter requeued;
+	private final Counter exhausted;
+
+	public DelayedRedelivery(RedeliveryProperties properties, MeterRegistry registry) {
+		this.properties = properties;
+		int trackedMessages = properties.getTrackedMessages();
+		this.attempts = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+				return size() > trackedMessages;
+			}
+		};
+		Gauge.builder("samples.redelivery.parked", parked, Set::size)
+				.description("Messages waiting for their redelivery delay")
+				.register(registry);
+		this.requeued = Counter.builder("samples.redelivery.requeued").register(registry);
+		this.exhausted = Counter.builder("samples.redelivery.exhausted")
+				.description("Messages rejected to the error queue after their last redelivery")
+				.register(registry);
+	}
+
+	/**
+	 * Requeues the message after its backoff, or rejects it when it has been
+	 * redelivered {@code maxRedeliveries} times already. Returns the delay, or
+	 * {@code null} when the message was rejected.
+	 */
+	public Duration retryLater(Message<?> message, AcknowledgmentCallback ackCallback) {
+		ackCallback.noAutoAck();
+		String messageId = messageId(message);
+		int redeliveries = redeliveries(message, messageId);
+		if (redeliveries < 0 || redeliveries >= properties.getMaxRedeliveries()) {
+			if (redeliveries < 0) {
+				log.info("Message redelivered an unknown number of times, rejecting it");
+			} else {
+				log.info("Message redelivered {} times, rejecting it", redeliveries);
+			}
+			forget(messageId);
+			exhausted.increment();
+			AckUtils.reject(ackCallback);
+			return null;
+		}
+		if (messageId != null) {
+			synchronized (attempts) {
+				attempts.put(messageId, redeliveries + 1);
+			}
+		}
+		Duration delay = backoff(redeliveries);
+		log.debug("Redelivering the Message in {}", delay);
+		parked.add(ackCallback);
+		scheduler.schedule(() -> requeue(ackCallback), delay.toNanos(), TimeUnit.NANOSECONDS);
+		return delay;
+	}
+
+	/*
+	 * The delivery count is only set when it is enabled on the queue. Without
+	 * it, the retries scheduled for the same message ID are counted; -1 when
+	 * a redelivered message was not seen before, or has no ID.
+	 */
+	private int redeliveries(Message<?> message, String messageId) {
+		Integer deliveryCount = message.getHeaders().get(SolaceHeaders.DELIVERY_COUNT, Integer.class);
+		if (deliveryCount != null && deliveryCount > 0) {
+			return deliveryCount - 1;
+		}
+		Integer scheduled = null;
+		if (messageId != null) {
+			synchronized (attempts) {
+				scheduled = attempts.get(messageId);
+			}
+		}
+		if (scheduled != null) {
+			return scheduled;
+		}
+		return Boolean.TRUE.equals(message.getHeaders().get(SolaceHeaders.REDELIVERED, Boolean.class)) ? -1 : 0;
+	}
+
+	private static String messageId(Message<?> message) {
+		Object id = message.getHeaders().get(SolaceHeaders.REPLICATION_GROUP_MESSAGE_ID);
+		return id != null ? id.toString() : null;
+	}
+
+	private void forget(String messageId) {
+		if (messageId != null) {
+			synchronized (attempts) {
+				attempts.remove(messageId);
+			}
+		}
+	}
+
+	Duration backoff(int redeliveries) {
+		double nanos = properties.getInitialBackoff().toNanos() * Math.pow(properties.getMultiplier(), redeliveries);
+		return Duration.ofNanos((long) Math.min(nanos, properties.getMaxBackoff().toNanos()));
+	}
+
+	private void requeue(AcknowledgmentCallback ackCallback) {
+		if (!parked.remove(ackCallback)) {
+			return;
+		}
+		try {
+			AckUtils.requeue(ackCallback);
+			requeued.increment();
+		} catch (RuntimeException e) {
+			// The flow is gone, the broker redelivers the message anyway
+			log.warn("Failed to requeue a parked message", e);
+		}
+	}
+
+	public int getParked() {
+		return parked.size();
+	}
+
+	/** Requeues the parked messages right away. */
+	@Override
+	public void close() {
+		scheduler.shutdownNow();
+		parked.forEach(this::requeue);
+	}
+}
@@ -1,64 +1,114 @@
 package com.solace.samples.spring.scs;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.integration.StaticMessageHeaderAccessor;
-import org.springframework.integration.acks.AckUtils;
 import org.springframework.integration.acks.AcknowledgmentCallback;
 import org.springframework.messaging.Message;
 
 import com.solace.spring.cloud.stream.binder.messaging.SolaceHeaders;
 import com.solace.spring.cloud.stream.binder.util.SolaceAcknowledgmentException;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @SpringBootApplication
+@EnableConfigurationProperties({ AckPipelineProperties.class, RedeliveryProperties.class, AckRoutingProperties.class })
 public class ManualAcknowledgement {
+	private static final Logger log = LoggerFactory.getLogger(ManualAcknowledgement.class);
+
 	public static void main(String[] args) {
 		SpringApplication.run(ManualAcknowledgement.class, args);
 	}
 	
 	@Bean
-	public Function<Message<String>, String> manualAckFunction() {
+	public Function<Message<String>, String> manualAckFunction(AckRouter router) {
         return message -> {
-        	System.out.println("Received message on TOPIC: " + message.getHeaders().get(SolaceHeaders.DESTINATION));
-
             // Disable Auto-Acknowledgement
             AcknowledgmentCallback ackCallback = StaticMessageHeaderAccessor.getAcknowledgmentCallback(message);
             ackCallback.noAutoAck();
 
-            // Use CorrelationID for easy business logic...
-            String cid = (String) message.getHeaders().get(SolaceHeaders.CORRELATION_ID);
-            if (cid == null)
-				cid = "accept";
-            
-        	System.out.println("Message Correlation Id: " + cid);
-            // Invoke appropriate Acknowledge action based on the correlation-id
+            // Use CorrelationID for easy business logic: samples.routing in application.yaml
+            // maps it to the acknowledgement action
+            String cid = message.getHeaders().get(SolaceHeaders.CORRELATION_ID, String.class);
+            AckHandler handler = router.route(cid);
+            if (log.isDebugEnabled()) {
+            	log.debug("Received message on TOPIC: {} with Correlation Id: {}, handled by {}",
+            			message.getHeaders().get(SolaceHeaders.DESTINATION), cid, handler);
+            }
             try {
-                if (cid.equals("accept")) {
-                    System.out.println("Accepting the Message");
-                    AckUtils.accept(ackCallback);
-                    return "Accepted the Message";
-                } else if (cid.equals("requeue")) {
-                	System.out.println("Requeuing the Message");
-                    AckUtils.requeue(ackCallback);
-                    return "Requeuing the Message";
-                } else {
-                	// if not accept or requeue, default to reject acknowledgement mode
-                	System.out.println("Rejecting the Message");
-                    AckUtils.reject(ackCallback);
-                    Thread.sleep(10000);
-                    return "Rejecting the Message";
-                }
+                return handler.handle(message, ackCallback);
             } catch (SolaceAcknowledgmentException e) {
-            	System.out.println("Warning, exception occurred but message will be re-queued on broker and re-delivered" + e);
+            	log.warn("Warning, exception occurred but message will be re-queued on broker and re-delivered", e);
                 return null; //Don't send an output message
-            } catch (InterruptedException e) {
-				e.printStackTrace();
-				return null;
+            }
+        };
+	}
+
+	/*
+	 * Requeues the message after a backoff, see samples.redelivery in
+	 * application.yaml; the default route of unknown correlation IDs.
+	 */
+	@Bean
+	public AckHandler redeliver(DelayedRedelivery redelivery) {
+		return new AckHandler() {
+			@Override
+			public String handle(Message<String> message, AcknowledgmentCallback ackCallback) {
+				return redelivery.retryLater(message, ackCallback) != null
+						? "Redelivering the Message"
+						: "Rejecting the Message";
 			}
 
-        };
+			@Override
+			public String toString() {
+				return "redeliver";
+			}
+		};
+	}
+
+	@Bean
+	public AckRouter ackRouter(AckRoutingProperties properties, Map<String, AckHandler> handlerBeans) {
+		Map<String, AckHandler> handlers = new HashMap<>(AckHandler.builtIns());
+		handlers.putAll(handlerBeans);
+		return new AckRouter(properties, handlers);
+	}
+
+	/*
+	 * Asynchronous alternative to manualAckFunction: the consumer thread only
+	 * starts the (simulated) slow downstream call and returns. The
+	 * AckCoordinator settles each message once its call completes, in batches
+	 * and in completion order. Check out samples.ack in application.yaml.
+	 */
+	@Bean
+	public Consumer<Message<String>> asyncManualAckFunction(AckCoordinator ackCoordinator,
+			SimulatedDownstream downstream) {
+		return message -> {
+			AcknowledgmentCallback ackCallback = StaticMessageHeaderAccessor.getAcknowledgmentCallback(message);
+			String cid = (String) message.getHeaders().get(SolaceHeaders.CORRELATION_ID);
+			ackCoordinator.track(ackCallback, () -> downstream.call(message.getPayload(), cid));
+		};
+	}
+
+	@Bean
+	public DelayedRedelivery delayedRedelivery(RedeliveryProperties properties, MeterRegistry meterRegistry) {
+		return new DelayedRedelivery(properties, meterRegistry);
+	}
+
+	@Bean
+	public AckCoordinator ackCoordinator(AckPipelineProperties properties, MeterRegistry meterRegistry) {
+		return new AckCoordinator(properties, meterRegistry);
+	}
+
+	@Bean
+	public SimulatedDownstream simulatedDownstream(AckPipelineProperties properties) {
+		return new SimulatedDownstream(properties);
 	}
 }
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the {@link DelayedRedelivery} of rejected messages.
+ */
+@ConfigurationProperties("samples.redelivery")
+public class RedeliveryProperties {
+	/** Delay before the first redelivery. */
+	private Duration initialBackoff = Duration.ofSeconds(1);
+
+	/** Factor applied to the delay for every further redelivery. */
+	private double multiplier = 2;
+
+	/** Longest delay between two redeliveries. */
+	private Duration maxBackoff = Duration.ofSeconds(30);
+
+	/**
+	 * Redeliveries before a message goes to the error queue; keep it at or
+	 * below the queue's queueMaxMsgRedelivery, beyond which the broker
+	 * discards the message itself.
+	 */
+	private int maxRedeliveries = 2;
+
+	/**
+	 * Messages whose redeliveries are counted by ID when the queue does not
+	 * provide a delivery count.
+	 */
+	private int trackedMessages = 10_000;
+
+	public Duration getInitialBackoff() {
+		return initialBackoff;
+	}
+
+	public void setInitialBackoff(Duration initialBackoff) {
+		this.initialBackoff = initialBackoff;
+	}
+
+	public double getMultiplier() {
+		return multiplier;
+	}
+
+	public void setMultiplier(double multiplier) {
+		this.multiplier = multiplier;
+	}
+
+	public Duration getMaxBackoff() {
+		return maxBackoff;
+	}
+
+	public void setMaxBackoff(Duration maxBackoff) {
+		this.maxBackoff = maxBackoff;
+	}
+
+	public int getMaxRedeliveries() {
+		return maxRedeliveries;
+	}
+
+	public void setMaxRedeliveries(int maxRedeliveries) {
+		this.maxRedeliveries = maxRedeliveries;
+	}
+
+	public int getTrackedMessages() {
+		return trackedMessages;
+	}
+
+	public void setTrackedMessages(int trackedMessages) {
+		this.trackedMessages = trackedMessages;
+	}
+}
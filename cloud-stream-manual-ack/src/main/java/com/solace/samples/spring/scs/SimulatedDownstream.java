@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.integration.acks.AcknowledgmentCallback.Status;
+
+/**
+ * Stands in for a slow downstream service: each call completes after a random
+ * delay of one to two times the configured latency, so calls complete out of
+ * order. The correlation ID decides the outcome, as in manualAckFunction.
+ */
+public class SimulatedDownstream {
+	private final long latencyNanos;
+
+	public SimulatedDownstream(AckPipelineProperties properties) {
+		this.latencyNanos = properties.getDownstreamLatency().toNanos();
+	}
+
+	public CompletableFuture<Status> call(String payload, String correlationId) {
+		long delay = latencyNanos + ThreadLocalRandom.current().nextLong(latencyNanos + 1);
+		Executor later = CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS);
+		return CompletableFuture.supplyAsync(() -> outcome(correlationId), later);
+	}
+
+	private static Status outcome(String correlationId) {
+		if (correlationId == null || correlationId.equals("accept")) {
+			return Status.ACCEPT;
+		}
+		return correlationId.equals("requeue") ? Status.REQUEUE : Status.REJECT;
+	}
+}
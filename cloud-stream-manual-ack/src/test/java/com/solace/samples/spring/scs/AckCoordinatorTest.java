@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.integration.acks.AcknowledgmentCallback.Status;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class AckCoordinatorTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private AckCoordinator coordinator;
+
+	private static class RecordingCallback implements AcknowledgmentCallback {
+		final CountDownLatch settled = new CountDownLatch(1);
+		volatile Status status;
+
+		@Override
+		public void acknowledge(Status status) {
+			this.status = status;
+			settled.countDown();
+		}
+
+		@Override
+		public boolean isAcknowledged() {
+			return status != null;
+		}
+
+		@Override
+		public void noAutoAck() {
+		}
+
+		void await() throws InterruptedException {
+			assertTrue(settled.await(10, TimeUnit.SECONDS));
+		}
+	}
+
+	private AckCoordinator coordinator(int maxInFlight, int batchSize) {
+		AckPipelineProperties properties = new AckPipelineProperties();
+		properties.setMaxInFlight(maxInFlight);
+		properties.setBatchSize(batchSize);
+		properties.setFlushInterval(Duration.ofMillis(5));
+		coordinator = new AckCoordinator(properties, registry);
+		return coordinator;
+	}
+
+	@AfterEach
+	void close() throws Exception {
+		coordinator.close();
+	}
+
+	@Test
+	void testSettlerStartsWithTheFirstMessage() throws Exception {
+		coordinator(10, 64);
+		// Not started while the function is not bound, or has not had a message yet
+		assertFalse(coordinator.isStarted());
+
+		RecordingCallback callback = new RecordingCallback();
+		coordinator.track(callback, () -> CompletableFuture.completedFuture(Status.ACCEPT));
+		assertTrue(coordinator.isStarted());
+		callback.await();
+		assertEquals(Status.ACCEPT, callback.status);
+	}
+
+	@Test
+	void testSettlesInCompletionOrder() throws Exception {
+		coordinator(100, 64);
+		List<RecordingCallback> callbacks = new ArrayList<>();
+		List<CompletableFuture<Status>> outcomes = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			RecordingCallback callback = new RecordingCallback();
+			CompletableFuture<Status> outcome = new CompletableFuture<>();
+			coordinator.track(callback, () -> outcome);
+			callbacks.add(callback);
+			outcomes.add(outcome);
+		}
+
+		// The last message completes first and does not wait for the others
+		outcomes.get(2).complete(Status.REQUEUE);
+		callbacks.get(2).await();
+		assertNull(callbacks.get(0).status);
+		assertNull(callbacks.get(1).status);
+
+		outcomes.get(1).completeExceptionally(new IllegalStateException("Downstream failed"));
+		outcomes.get(0).complete(Status.ACCEPT);
+		callbacks.get(0).await();
+		callbacks.get(1).await();
+		assertEquals(Status.ACCEPT, callbacks.get(0).status);
+		assertEquals(Status.REJECT, callbacks.get(1).status);
+		assertEquals(Status.REQUEUE, callbacks.get(2).status);
+		assertEquals(1, registry.get("samples.ack.settled").tag("status", "REJECT").counter().count());
+	}
+
+	@Test
+	void testSettlesFullBatchesWithoutWaitingForTheInterval() throws Exception {
+		AckPipelineProperties properties = new AckPipelineProperties();
+		properties.setBatchSize(10);
+		properties.setFlushInterval(Duration.ofHours(1));
+		coordinator = new AckCoordinator(properties, registry);
+
+		List<RecordingCallback> callbacks = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			RecordingCallback callback = new RecordingCallback();
+			coordinator.track(callback, () -> CompletableFuture.completedFuture(Status.ACCEPT));
+			callbacks.add(callback);
+		}
+		for (RecordingCallback callback : callbacks) {
+			callback.await();
+		}
+		assertEquals(10, registry.get("samples.ack.batch").summary().totalAmount());
+	}
+
+	@Test
+	void testBlocksBeyondMaxInFlight() throws Exception {
+		coordinator(2, 64);
+		CompletableFuture<Status> first = new CompletableFuture<>();
+		coordinator.track(new RecordingCallback(), () -> first);
+		coordinator.track(new RecordingCallback(), CompletableFuture::new);
+		assertEquals(2, coordinator.getInFlight());
+
+		CountDownLatch started = new CountDownLatch(1);
+		CompletableFuture<Void> third = CompletableFuture.runAsync(() -> coordinator.track(new RecordingCallback(),
+				() -> {
+					started.countDown();
+					return CompletableFuture.completedFuture(Status.ACCEPT);
+				}));
+		// Not even started while two messages are unsettled
+		assertFalse(started.await(100, TimeUnit.MILLISECONDS));
+
+		first.complete(Status.ACCEPT);
+		third.get(10, TimeUnit.SECONDS);
+		assertTrue(started.await(0, TimeUnit.MILLISECONDS));
+	}
+}
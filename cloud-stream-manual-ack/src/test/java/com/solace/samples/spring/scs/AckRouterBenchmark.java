@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/*
+ * Cost of resolving a correlation ID with the AckRouter against a chain of
+ * String.equals comparisons, as manualAckFunction used to do, for a growing
+ * number of routes. The router's time per lookup stays flat while the chain
+ * grows with the routes; -prof gc shows the router does not allocate.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="AckRouterBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AckRouterBenchmark {
+	private static final int LOOKUPS = 1024;
+
+	@Param({ "3", "100", "500" })
+	public int routes;
+
+	private AckRouter router;
+	private String[] chain;
+	private AckHandler[] chainHandlers;
+	private String[] correlationIds;
+
+	@Setup
+	public void setup() {
+		AckRoutingProperties properties = new AckRoutingProperties();
+		properties.getRoutes().clear();
+		Map<String, AckHandler> handlers = new HashMap<>(AckHandler.builtIns());
+		handlers.put("redeliver", AckHandler.REJECT);
+		String[] names = { "accept", "requeue", "reject" };
+		chain = new String[routes];
+		chainHandlers = new AckHandler[routes];
+		for (int i = 0; i < routes; i++) {
+			chain[i] = "order-" + i;
+			chainHandlers[i] = handlers.get(names[i % names.length]);
+			properties.getRoutes().put(chain[i], names[i % names.length]);
+		}
+		router = new AckRouter(properties, handlers);
+
+		// Mostly routed IDs spread over the whole table, some unknown ones; copies,
+		// as every message carries its own header value
+		correlationIds = new String[LOOKUPS];
+		for (int i = 0; i < LOOKUPS; i++) {
+			String id = i % 8 == 0 ? "unknown-" + i : chain[(i * 31) % routes];
+			correlationIds[i] = new String(id);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOOKUPS)
+	public void router(Blackhole blackhole) {
+		for (String correlationId : correlationIds) {
+			blackhole.consume(router.route(correlationId));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOOKUPS)
+	public void equalsChain(Blackhole blackhole) {
+		for (String correlationId : correlationIds) {
+			blackhole.consume(lookup(correlationId));
+		}
+	}
+
+	private AckHandler lookup(String correlationId) {
+		for (int i = 0; i < chain.length; i++) {
+			if (chain[i].equals(correlationId)) {
+				return chainHandlers[i];
+			}
+		}
+		return AckHandler.REJECT;
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class AckRouterTest {
+
+	private final AckHandler redeliver = (message, ackCallback) -> "Redelivering the Message";
+	private final AckHandler custom = (message, ackCallback) -> null;
+
+	private Map<String, AckHandler> handlers() {
+		Map<String, AckHandler> handlers = new HashMap<>(AckHandler.builtIns());
+		handlers.put("redeliver", redeliver);
+		handlers.put("custom", custom);
+		return handlers;
+	}
+
+	@Test
+	void testRoutesByCorrelationId() {
+		AckRoutingProperties properties = new AckRoutingProperties();
+		properties.getRoutes().put("order/42", "custom");
+		properties.getRoutes().put("poison", "reject");
+		AckRouter router = new AckRouter(properties, handlers());
+
+		assertSame(AckHandler.ACCEPT, router.route("accept"));
+		assertSame(AckHandler.REQUEUE, router.route("requeue"));
+		assertSame(AckHandler.REJECT, router.route("poison"));
+		assertSame(custom, router.route(new String("order/42")));
+		assertSame(redeliver, router.route("anything else"));
+		assertSame(AckHandler.ACCEPT, router.route(null));
+	}
+
+	@Test
+	void testMissingAndFallbackAreConfigurable() {
+		AckRoutingProperties properties = new AckRoutingProperties();
+		properties.setMissing("reject");
+		properties.setFallback("custom");
+		AckRouter router = new AckRouter(properties, handlers());
+
+		assertSame(AckHandler.REJECT, router.route(null));
+		assertSame(custom, router.route("unknown"));
+	}
+
+	@Test
+	void testUnknownHandlerFailsUpFront() {
+		AckRoutingProperties properties = new AckRoutingProperties();
+		properties.getRoutes().put("order/42", "audit");
+		properties.setFallback("discard");
+		IllegalStateException e = assertThrows(IllegalStateException.class,
+				() -> new AckRouter(properties, handlers()));
+		assertTrue(e.getMessage().contains("[audit, discard]"), e.getMessage());
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.integration.acks.AcknowledgmentCallback.Status;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.solace.spring.cloud.stream.binder.messaging.SolaceHeaders;
+
+@SpringBootTest(classes = ManualAcknowledgement.class,
+		properties = { "spring.cloud.function.definition=asyncManualAckFunction",
+		"samples.ack.downstream-latency=50ms" })
+@Import(TestChannelBinderConfiguration.class)
+public class AsyncManualAckTest {
+	private static final int MESSAGES = 200;
+
+	@Autowired
+	private InputDestination input;
+
+	@Test
+	void testConsumerThreadDoesNotWaitForTheDownstreamCall() throws Exception {
+		CountDownLatch settled = new CountDownLatch(MESSAGES);
+		ConcurrentLinkedQueue<String> outcomes = new ConcurrentLinkedQueue<>();
+		List<String> expected = new ArrayList<>();
+
+		long start = System.nanoTime();
+		for (int i = 0; i < MESSAGES; i++) {
+			String cid = i % 10 == 0 ? "requeue" : "accept";
+			String payload = "message-" + i;
+			expected.add(payload + " " + (cid.equals("accept") ? Status.ACCEPT : Status.REQUEUE));
+			AcknowledgmentCallback ackCallback = new AcknowledgmentCallback() {
+				@Override
+				public void acknowledge(Status status) {
+					outcomes.add(payload + " " + status);
+					settled.countDown();
+				}
+
+				@Override
+				public void noAutoAck() {
+				}
+			};
+			input.send(MessageBuilder.withPayload(payload)
+					.setHeader(SolaceHeaders.CORRELATION_ID, cid)
+					.setHeader(IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK, ackCallback)
+					.build(), "manual/ack/test");
+		}
+		// Serially, 200 calls of 50 to 100 ms each would take over 10 seconds
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2_000);
+		assertTrue(settled.await(10, TimeUnit.SECONDS));
+
+		List<String> actual = new ArrayList<>(outcomes);
+		assertEquals(MESSAGES, actual.size());
+		assertEquals(expected.stream().sorted().toList(), actual.stream().sorted().toList());
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.solace.spring.cloud.stream.binder.messaging.SolaceHeaders;
+
+@SpringBootTest(classes = ManualAcknowledgement.class,
+		properties = "samples.redelivery.initial-backoff=300ms")
+@Import(TestChannelBinderConfiguration.class)
+public class DelayedRedeliveryManualAckTest {
+
+	@Autowired
+	private InputDestination input;
+
+	@Autowired
+	private OutputDestination output;
+
+	private static class RecordingCallback implements AcknowledgmentCallback {
+		final CountDownLatch settled = new CountDownLatch(1);
+		volatile Status status;
+
+		@Override
+		public void acknowledge(Status status) {
+			this.status = status;
+			settled.countDown();
+		}
+
+		@Override
+		public boolean isAcknowledged() {
+			return status != null;
+		}
+
+		@Override
+		public void noAutoAck() {
+		}
+	}
+
+	private RecordingCallback reject(int deliveryCount) {
+		RecordingCallback callback = new RecordingCallback();
+		input.send(MessageBuilder.withPayload("Hello World")
+				.setHeader(SolaceHeaders.CORRELATION_ID, "reject")
+				.setHeader(SolaceHeaders.DELIVERY_COUNT, deliveryCount)
+				.setHeader(IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK, callback)
+				.build(), "manual/ack/test");
+		return callback;
+	}
+
+	@Test
+	void testRejectedMessageIsRequeuedLater() throws Exception {
+		long start = System.nanoTime();
+		RecordingCallback callback = reject(1);
+		// The test binder delivers on the calling thread, so the function has returned already
+		assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(300), "The consumer thread was held");
+		assertNull(callback.status);
+		Message<byte[]> result = output.receive(10_000, "manual/ack/result");
+		assertNotNull(result);
+		assertEquals("Redelivering the Message", new String(result.getPayload()));
+
+		assertTrue(callback.settled.await(10, TimeUnit.SECONDS));
+		assertEquals(AcknowledgmentCallback.Status.REQUEUE, callback.status);
+	}
+
+	@Test
+	void testLastRedeliveryIsRejected() {
+		RecordingCallback callback = reject(3);
+		assertEquals(AcknowledgmentCallback.Status.REJECT, callback.status);
+		Message<byte[]> result = output.receive(10_000, "manual/ack/result");
+		assertNotNull(result);
+		assertEquals("Rejecting the Message", new String(result.getPayload()));
+	}
+}
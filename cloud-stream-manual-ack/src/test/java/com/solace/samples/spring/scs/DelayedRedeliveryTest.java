@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.integration.acks.AcknowledgmentCallback.Status;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.solace.spring.cloud.stream.binder.messaging.SolaceHeaders;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class DelayedRedeliveryTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final RedeliveryProperties properties = new RedeliveryProperties();
+	private DelayedRedelivery redelivery;
+
+	private static class RecordingCallback implements AcknowledgmentCallback {
+		final CountDownLatch settled = new CountDownLatch(1);
+		volatile Status status;
+
+		@Override
+		public void acknowledge(Status status) {
+			this.status = status;
+			settled.countDown();
+		}
+
+		@Override
+		public boolean isAcknowledged() {
+			return status != null;
+		}
+
+		@Override
+		public void noAutoAck() {
+		}
+	}
+
+	@AfterEach
+	void close() {
+		if (redelivery != null) {
+			redelivery.close();
+		}
+	}
+
+	private static Message<String> delivery(int deliveryCount) {
+		return MessageBuilder.withPayload("Hello World").setHeader(SolaceHeaders.DELIVERY_COUNT, deliveryCount).build();
+	}
+
+	@Test
+	void testBackoffGrowsUpToTheMaximum() {
+		properties.setInitialBackoff(Duration.ofMillis(100));
+		properties.setMultiplier(3);
+		properties.setMaxBackoff(Duration.ofSeconds(1));
+		redelivery = new DelayedRedelivery(properties, registry);
+
+		assertEquals(Duration.ofMillis(100), redelivery.backoff(0));
+		assertEquals(Duration.ofMillis(300), redelivery.backoff(1));
+		assertEquals(Duration.ofMillis(900), redelivery.backoff(2));
+		assertEquals(Duration.ofSeconds(1), redelivery.backoff(3));
+	}
+
+	@Test
+	void testRequeuesAfterTheBackoffWithoutBlocking() throws Exception {
+		properties.setInitialBackoff(Duration.ofMillis(200));
+		redelivery = new DelayedRedelivery(properties, registry);
+		RecordingCallback callback = new RecordingCallback();
+
+		long start = System.nanoTime();
+		assertEquals(Duration.ofMillis(400), redelivery.retryLater(delivery(2), callback));
+		assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(200), "retryLater blocked");
+		assertNull(callback.status);
+		assertEquals(1, redelivery.getParked());
+
+		assertTrue(callback.settled.await(5, TimeUnit.SECONDS));
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(400), "Requeued too early");
+		assertEquals(Status.REQUEUE, callback.status);
+		assertEquals(0, redelivery.getParked());
+		// Counted once the callback returned
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (registry.counter("samples.redelivery.requeued").count() == 0 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(1, registry.counter("samples.redelivery.requeued").count());
+	}
+
+	@Test
+	void testRejectsOnceTheRedeliveriesAreUsedUp() {
+		properties.setMaxRedeliveries(2);
+		redelivery = new DelayedRedelivery(properties, registry);
+		RecordingCallback callback = new RecordingCallback();
+
+		assertNull(redelivery.retryLater(delivery(3), callback));
+		assertEquals(Status.REJECT, callback.status);
+		assertEquals(0, redelivery.getParked());
+		assertEquals(1, registry.counter("samples.redelivery.exhausted").count());
+	}
+
+	@Test
+	void testCountsRedeliveriesByMessageIdWithoutADeliveryCount() {
+		properties.setInitialBackoff(Duration.ofMinutes(1));
+		properties.setMaxBackoff(Duration.ofMinutes(10));
+		properties.setMaxRedeliveries(2);
+		redelivery = new DelayedRedelivery(properties, registry);
+		RecordingCallback[] callbacks = { new RecordingCallback(), new RecordingCallback(), new RecordingCallback() };
+
+		assertEquals(Duration.ofMinutes(1), redelivery.retryLater(withoutDeliveryCount("rmid1", false), callbacks[0]));
+		assertEquals(Duration.ofMinutes(2), redelivery.retryLater(withoutDeliveryCount("rmid1", true), callbacks[1]));
+		assertNull(redelivery.retryLater(withoutDeliveryCount("rmid1", true), callbacks[2]));
+
+		assertEquals(Status.REJECT, callbacks[2].status);
+		assertEquals(1, registry.counter("samples.redelivery.exhausted").count());
+	}
+
+	@Test
+	void testRejectsARedeliveryThatCannotBeCounted() {
+		redelivery = new DelayedRedelivery(properties, registry);
+		RecordingCallback unknownId = new RecordingCallback();
+		RecordingCallback withoutId = new RecordingCallback();
+
+		assertNull(redelivery.retryLater(withoutDeliveryCount("rmid2", true), unknownId));
+		assertNull(redelivery.retryLater(withoutDeliveryCount(null, true), withoutId));
+
+		assertEquals(Status.REJECT, unknownId.status);
+		assertEquals(Status.REJECT, withoutId.status);
+		assertEquals(2, registry.counter("samples.redelivery.exhausted").count());
+	}
+
+	private static Message<String> withoutDeliveryCount(String messageId, boolean redelivered) {
+		return MessageBuilder.withPayload("Hello World")
+				.setHeader(SolaceHeaders.REPLICATION_GROUP_MESSAGE_ID, messageId)
+				.setHeader(SolaceHeaders.REDELIVERED, redelivered)
+				.build();
+	}
+
+	@Test
+	void testCloseRequeuesParkedMessages() {
+		properties.setInitialBackoff(Duration.ofMinutes(1));
+		redelivery = new DelayedRedelivery(properties, registry);
+		RecordingCallback first = new RecordingCallback();
+		RecordingCallback second = new RecordingCallback();
+		redelivery.retryLater(MessageBuilder.withPayload("no delivery count").build(), first);
+		redelivery.retryLater(delivery(1), second);
+		assertFalse(first.isAcknowledged());
+
+		redelivery.close();
+		assertEquals(Status.REQUEUE, first.status);
+		assertEquals(Status.REQUEUE, second.status);
+		assertEquals(0, redelivery.getParked());
+	}
+}
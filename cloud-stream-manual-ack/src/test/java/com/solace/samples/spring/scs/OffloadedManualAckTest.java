@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.annotation.Import;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.solace.samples.spring.common.offload.OffloadProperties;
+import com.solace.samples.spring.common.offload.OffloadingPostProcessor;
+import com.solace.spring.cloud.stream.binder.messaging.SolaceHeaders;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(classes = ManualAcknowledgement.class,
+		properties = { "samples.offload.enabled=true", "samples.offload.functions=manualAckFunction" })
+@Import(TestChannelBinderConfiguration.class)
+public class OffloadedManualAckTest {
+
+	@Autowired
+	private InputDestination input;
+
+	@Autowired
+	private OutputDestination output;
+
+	/*
+	 * Records the outcome the way the binder's callback would, refusing to
+	 * settle a message twice
+	 */
+	private static class RecordingCallback implements AcknowledgmentCallback {
+		final CountDownLatch settled = new CountDownLatch(1);
+		volatile Status status;
+		volatile boolean autoAck = true;
+
+		@Override
+		public synchronized void acknowledge(Status status) {
+			assertEquals(null, this.status, "Settled twice");
+			this.status = status;
+			settled.countDown();
+		}
+
+		@Override
+		public boolean isAcknowledged() {
+			return status != null;
+		}
+
+		@Override
+		public void noAutoAck() {
+			autoAck = false;
+		}
+
+		@Override
+		public boolean isAutoAck() {
+			return autoAck;
+		}
+	}
+
+	private RecordingCallback send(String correlationId) {
+		RecordingCallback callback = new RecordingCallback();
+		input.send(MessageBuilder.withPayload("Hello World")
+				.setHeader(SolaceHeaders.CORRELATION_ID, correlationId)
+				.setHeader(IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK, callback)
+				.build(), "manual/ack/test");
+		return callback;
+	}
+
+	@Test
+	void testSettlesAndPublishesFromOffloadedInvocations() throws Exception {
+		List<RecordingCallback> callbacks = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			callbacks.add(send("accept"));
+		}
+		for (RecordingCallback callback : callbacks) {
+			assertTrue(callback.settled.await(10, TimeUnit.SECONDS));
+			assertEquals(AcknowledgmentCallback.Status.ACCEPT, callback.status);
+			assertEquals(false, callback.autoAck);
+		}
+		for (int i = 0; i < 20; i++) {
+			Message<byte[]> result = output.receive(10_000, "manual/ack/result");
+			assertNotNull(result, "Missing result " + i);
+			assertEquals("Accepted the Message", new String(result.getPayload()));
+		}
+	}
+
+	@Test
+	void testRequeueSettledByTheFunctionIsKept() throws Exception {
+		RecordingCallback callback = send("requeue");
+		assertTrue(callback.settled.await(10, TimeUnit.SECONDS));
+		// Give the offloaded task the time to (not) settle it again
+		assertNotNull(output.receive(10_000, "manual/ack/result"));
+		assertEquals(AcknowledgmentCallback.Status.REQUEUE, callback.status);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testOffloadedFailureIsRejectedWithoutRetry() throws Exception {
+		OffloadProperties properties = new OffloadProperties();
+		properties.setEnabled(true);
+		DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+		OffloadingPostProcessor offloading = new OffloadingPostProcessor(properties,
+				beans.getBeanProvider(StreamBridge.class), beans.getBeanProvider(MeterRegistry.class));
+		AtomicInteger invocations = new AtomicInteger();
+		Consumer<Message<String>> failing = (Consumer<Message<String>>) offloading.postProcessAfterInitialization(
+				(Consumer<Message<String>>) message -> {
+					invocations.incrementAndGet();
+					throw new IllegalStateException(message.getPayload());
+				}, "failing");
+
+		RecordingCallback callback = new RecordingCallback();
+		// Returns to the binder before the function runs, so the binder has nothing to retry
+		failing.accept(MessageBuilder.withPayload("Message input")
+				.setHeader(IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK, callback)
+				.build());
+
+		assertTrue(callback.settled.await(10, TimeUnit.SECONDS));
+		assertEquals(AcknowledgmentCallback.Status.REJECT, callback.status);
+		assertEquals(1, invocations.get());
+		offloading.destroy();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testFailureWithoutAnAcknowledgmentCallbackReachesTheBinder() throws Exception {
+		OffloadProperties properties = new OffloadProperties();
+		properties.setEnabled(true);
+		DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+		OffloadingPostProcessor offloading = new OffloadingPostProcessor(properties,
+				beans.getBeanProvider(StreamBridge.class), beans.getBeanProvider(MeterRegistry.class));
+		Consumer<String> failing = (Consumer<String>) offloading.postProcessAfterInitialization(
+				(Consumer<String>) payload -> {
+					throw new IllegalStateException(payload);
+				}, "failing");
+
+		// Runs on the caller's thread, so that the binder can retry or reject the message
+		assertThrows(IllegalStateException.class, () -> failing.accept("POJO input"));
+		offloading.destroy();
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.solace.spring.cloud.stream.binder.messaging.SolaceHeaders;
+
+@SpringBootTest(classes = ManualAcknowledgement.class,
+		properties = { "samples.routing.routes[order/42]=audit", "samples.routing.routes.poison=reject" })
+@Import({ TestChannelBinderConfiguration.class, RoutedManualAckTest.Handlers.class })
+public class RoutedManualAckTest {
+
+	@Autowired
+	private InputDestination input;
+
+	@Autowired
+	private OutputDestination output;
+
+	@TestConfiguration
+	static class Handlers {
+
+		@Bean
+		public AckHandler audit() {
+			return (message, ackCallback) -> {
+				ackCallback.acknowledge(AcknowledgmentCallback.Status.ACCEPT);
+				return "Audited " + message.getPayload();
+			};
+		}
+	}
+
+	private static class RecordingCallback implements AcknowledgmentCallback {
+		volatile Status status;
+
+		@Override
+		public void acknowledge(Status status) {
+			this.status = status;
+		}
+
+		@Override
+		public boolean isAcknowledged() {
+			return status != null;
+		}
+
+		@Override
+		public void noAutoAck() {
+		}
+	}
+
+	private String send(String correlationId, RecordingCallback callback) {
+		MessageBuilder<String> message = MessageBuilder.withPayload("Hello World")
+				.setHeader(IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK, callback);
+		if (correlationId != null) {
+			message.setHeader(SolaceHeaders.CORRELATION_ID, correlationId);
+		}
+		input.send(message.build(), "manual/ack/test");
+		Message<byte[]> result = output.receive(10_000, "manual/ack/result");
+		assertNotNull(result);
+		return new String(result.getPayload());
+	}
+
+	@Test
+	void testBuiltInRoutes() {
+		RecordingCallback accepted = new RecordingCallback();
+		assertEquals("Accepted the Message", send("accept", accepted));
+		assertEquals(AcknowledgmentCallback.Status.ACCEPT, accepted.status);
+
+		RecordingCallback missing = new RecordingCallback();
+		assertEquals("Accepted the Message", send(null, missing));
+		assertEquals(AcknowledgmentCallback.Status.ACCEPT, missing.status);
+
+		RecordingCallback requeued = new RecordingCallback();
+		assertEquals("Requeuing the Message", send("requeue", requeued));
+		assertEquals(AcknowledgmentCallback.Status.REQUEUE, requeued.status);
+
+		RecordingCallback rejected = new RecordingCallback();
+		assertEquals("Rejecting the Message", send("poison", rejected));
+		assertEquals(AcknowledgmentCallback.Status.REJECT, rejected.status);
+	}
+
+	@Test
+	void testCustomHandlerRoute() {
+		RecordingCallback callback = new RecordingCallback();
+		assertEquals("Audited Hello World", send("order/42", callback));
+		assertEquals(AcknowledgmentCallback.Status.ACCEPT, callback.status);
+	}
+}
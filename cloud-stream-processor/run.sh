@@ -46,6 +46,7 @@ done
 export OTEL_DEBUG=true
 
 java -javaagent:${LIB_DIR}/opentelemetry-javaagent.jar \
+  --add-modules jdk.incubator.vector \
   -Dotel.javaagent.extensions=${LIB_DIR}/solace-opentelemetry-jcsmp-integration.jar,${LIB_DIR}/spring-cloud-stream-binder-solace-instrumentation.jar \
   -Dotel.instrumentation.common.default-enabled=false \
   -Dotel.javaagent.debug=${OTEL_DEBUG} \
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Windows of the {@code aggregateSensorReadings} function. Leave the slide
+ * unset, or equal to the window, for tumbling windows.
+ */
+@ConfigurationProperties("samples.aggregation")
+public class AggregationProperties {
+	/** Length of a window. */
+	private Duration window = Duration.ofSeconds(60);
+
+	/** How often a window is emitted; must divide the window. */
+	private Duration slide;
+
+	/** How far behind the latest event time a reading may arrive before it is dropped. */
+	private Duration allowedLateness = Duration.ofSeconds(5);
+
+	/** Most distinct sensors aggregated, readings of any further sensor are dropped and counted. */
+	private int maxSensors = 1 << 20;
+
+	public Duration getWindow() {
+		return window;
+	}
+
+	public void setWindow(Duration window) {
+		this.window = window;
+	}
+
+	public Duration getSlide() {
+		return slide != null ? slide : window;
+	}
+
+	public void setSlide(Duration slide) {
+		this.slide = slide;
+	}
+
+	public Duration getAllowedLateness() {
+		return allowedLateness;
+	}
+
+	public void setAllowedLateness(Duration allowedLateness) {
+		this.allowedLateness = allowedLateness;
+	}
+
+	public int getMaxSensors() {
+		return maxSensors;
+	}
+
+	public void setMaxSensors(int maxSensors) {
+		this.maxSensors = maxSensors;
+	}
+}
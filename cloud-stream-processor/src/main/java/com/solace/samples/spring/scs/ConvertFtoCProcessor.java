@@ -19,17 +19,39 @@
 
 package com.solace.samples.spring.scs;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.context.annotation.Bean;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.support.MessageBuilder;
 
+import com.solace.samples.spring.common.CompactSensorReading;
+import com.solace.samples.spring.common.SensorAggregate;
+import com.solace.samples.spring.common.SensorIdRegistry;
 import com.solace.samples.spring.common.SensorReading;
+import com.solace.samples.spring.common.SensorReadingMessageConverter;
+import com.solace.samples.spring.common.logging.HotPathLogger;
+import com.solace.samples.spring.common.logging.HotPathLogging;
+import com.solace.spring.cloud.stream.binder.messaging.SolaceBinderHeaders;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @SpringBootApplication
+@EnableConfigurationProperties(AggregationProperties.class)
 public class ConvertFtoCProcessor {
 
 	private static final Logger log = LoggerFactory.getLogger(ConvertFtoCProcessor.class);
@@ -38,18 +60,151 @@ public class ConvertFtoCProcessor {
 		SpringApplication.run(ConvertFtoCProcessor.class, args);
 	}
 
+	/*
+	 * Per-message logging follows the samples.logging policy in application.yml,
+	 * both lines are written for the same sampled message.
+	 */
 	@Bean
-	public Function<SensorReading, SensorReading> convertFtoC() {
+	public Function<SensorReading, SensorReading> convertFtoC(HotPathLogging logging) {
+		HotPathLogger hotLog = logging.forFunction("convertFtoC", log);
 		return reading -> {
-			log.info("Received: " + reading);
+			boolean logged = hotLog.shouldLog();
+			if (logged) {
+				log.info("Received: {}", reading);
+			}
 
-			double temperatureCelsius = (reading.getTemperature().doubleValue() - 32) * 5 / 9;
-			reading.setTemperature(temperatureCelsius);
-			reading.setBaseUnit(SensorReading.BaseUnit.CELSIUS);
+			toCelsius(reading);
 
-			log.info("Sending: " + reading);
+			if (logged) {
+				log.info("Sending: {}", reading);
+			}
 
 			return reading;
 		};
 	}
+
+	/*
+	 * Batch variant of convertFtoC, activate it by setting
+	 * spring.cloud.function.definition to convertFtoCBatch (see application.yml).
+	 *
+	 * The binder delivers up to batchMaxSize readings in one invocation, with the
+	 * headers of each individual message in SolaceBinderHeaders.BATCHED_HEADERS.
+	 * The temperatures are copied into a primitive column and converted in one
+	 * pass by a TemperatureKernel (SIMD when the Vector API is available), then
+	 * returned as a collection of messages which are published in order, each
+	 * carrying its original headers.
+	 */
+	@Bean
+	@SuppressWarnings("unchecked")
+	public Function<Message<List<SensorReading>>, Collection<Message<SensorReading>>> convertFtoCBatch(
+			HotPathLogging logging) {
+		HotPathLogger hotLog = logging.forFunction("convertFtoCBatch", log);
+		TemperatureKernel kernel = TemperatureKernels.best();
+		return batch -> {
+			List<SensorReading> readings = batch.getPayload();
+			List<?> batchedHeaders = (List<?>) batch.getHeaders().get(SolaceBinderHeaders.BATCHED_HEADERS);
+			int size = readings.size();
+
+			if (hotLog.shouldLog()) {
+				log.info("Received batch of {} readings", size);
+			}
+
+			double[] temperatures = new double[size];
+			for (int i = 0; i < size; i++) {
+				temperatures[i] = readings.get(i).getTemperature().doubleValue();
+			}
+			kernel.fahrenheitToCelsius(temperatures, size);
+
+			List<Message<SensorReading>> converted = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				SensorReading reading = readings.get(i);
+				reading.setTemperature(temperatures[i]);
+				reading.setBaseUnit(SensorReading.BaseUnit.CELSIUS);
+
+				MessageBuilder<SensorReading> builder = MessageBuilder.withPayload(reading);
+				if (batchedHeaders != null) {
+					builder.copyHeaders((Map<String, ?>) batchedHeaders.get(i));
+					// The payload is re-encoded with the content-type of the output binding
+					builder.removeHeader(MessageHeaders.CONTENT_TYPE);
+				}
+				converted.add(builder.build());
+			}
+			return converted;
+		};
+	}
+
+	/*
+	 * Stateful alternative to convertFtoC: rather than every reading, publishes
+	 * one SensorAggregate per sensor and window, see samples.aggregation in
+	 * application.yml. Windows follow the reading timestamps, not the time of
+	 * arrival, and their state is shared by all consumer threads of the binding.
+	 * Windows still open on shutdown are published by the sensorWindowFlusher.
+	 */
+	@Bean
+	public Function<SensorReading, Collection<Message<SensorAggregate>>> aggregateSensorReadings(
+			SensorWindowAggregator aggregator) {
+		SensorIdRegistry sensorIds = aggregator.getSensorIds();
+		return reading -> {
+			if (reading.getSensorID() == null || reading.getTemperature() == null) {
+				return List.of();
+			}
+			if (reading.getBaseUnit() != SensorReading.BaseUnit.CELSIUS) {
+				toCelsius(reading);
+			}
+
+			List<SensorAggregate> closed = new ArrayList<>(0);
+			aggregator.add(sensorIds.keyOf(reading.getSensorID()),
+					CompactSensorReading.toEpochNanos(reading.getTimestamp()), reading.getTemperature(), closed);
+
+			// Most readings close no window, and an empty collection publishes nothing
+			List<Message<SensorAggregate>> aggregates = new ArrayList<>(closed.size());
+			for (SensorAggregate aggregate : closed) {
+				aggregates.add(MessageBuilder.withPayload(aggregate).build());
+			}
+			return aggregates;
+		};
+	}
+
+	/*
+	 * Sensors get keys from a registry of their own, sized by
+	 * samples.aggregation.max-sensors rather than shared with the codecs
+	 */
+	@Bean
+	public SensorWindowAggregator sensorWindowAggregator(AggregationProperties properties,
+			ObjectProvider<MeterRegistry> meterRegistry) {
+		SensorWindowAggregator aggregator = new SensorWindowAggregator(
+				new SensorIdRegistry(properties.getMaxSensors()), SensorReading.BaseUnit.CELSIUS,
+				properties.getWindow(), properties.getSlide(), properties.getAllowedLateness());
+		meterRegistry.ifAvailable(registry -> {
+			FunctionCounter.builder("samples.aggregation.late", aggregator, SensorWindowAggregator::getLateReadings)
+					.description("Readings dropped for arriving after their window closed").register(registry);
+			FunctionCounter.builder("samples.aggregation.dropped", aggregator,
+					SensorWindowAggregator::getDroppedReadings)
+					.description("Readings dropped without a timestamp, a temperature or room for their sensor")
+					.register(registry);
+		});
+		return aggregator;
+	}
+
+	/* Publishes the windows still open on shutdown through the output binding */
+	@Bean
+	public SensorWindowFlusher sensorWindowFlusher(SensorWindowAggregator aggregator, StreamBridge streamBridge) {
+		return new SensorWindowFlusher(aggregator, streamBridge, "aggregateSensorReadings-out-0");
+	}
+
+	private static void toCelsius(SensorReading reading) {
+		double temperatureCelsius = (reading.getTemperature().doubleValue() - 32) * 5 / 9;
+		reading.setTemperature(temperatureCelsius);
+		reading.setBaseUnit(SensorReading.BaseUnit.CELSIUS);
+	}
+
+	/*
+	 * Registers the binary SensorReading codec from the data model. JSON stays the
+	 * default; set `content-type: application/x-sensor-reading` on a binding in
+	 * application.yml to switch that binding to the compact binary format.
+	 */
+	@Bean
+	public MessageConverter sensorReadingMessageConverter() {
+		return new SensorReadingMessageConverter();
+	}
 }
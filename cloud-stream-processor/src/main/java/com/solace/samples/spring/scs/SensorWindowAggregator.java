@@ -0,0 +1,386 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.solace.samples.spring.common.CompactSensorReading;
+import com.solace.samples.spring.common.SensorAggregate;
+import com.solace.samples.spring.common.SensorIdRegistry;
+import com.solace.samples.spring.common.SensorReading.BaseUnit;
+
+/**
+ * Event-time window statistics (count, min, max, mean and variance) for every
+ * sensor, using tumbling windows when the slide equals the window and sliding
+ * windows otherwise.
+ *
+ * A window is split in panes of one slide each. Every sensor keeps a ring of
+ * panes in primitive arrays indexed by its {@link SensorIdRegistry} key, so
+ * there is no object per sensor or per reading; a window is the merge of its
+ * panes (Welford / Chan et al.), emitted once at the end of each slide.
+ *
+ * Windows close when a sensor moves to a later pane or when the watermark,
+ * the latest event time seen minus the allowed lateness, passes their end.
+ * Readings for a pane a sensor has already left, or behind the watermark, are
+ * dropped and counted in {@link #getLateReadings()}. Readings that cannot be
+ * aggregated at all, without a timestamp or temperature, or of a sensor the
+ * registry had no room for, are counted in {@link #getDroppedReadings()}.
+ *
+ * Sensors are spread over stripes by key, each with its own lock, so threads
+ * adding readings of different sensors rarely wait for each other. A stripe
+ * keeps its open sensors in a heap ordered by pane, so a watermark step only
+ * visits the sensors it closes windows of.
+ */
+public class SensorWindowAggregator {
+	private static final Logger log = LoggerFactory.getLogger(SensorWindowAggregator.class);
+
+	private static final long IDLE = Long.MIN_VALUE;
+	private static final int INITIAL_SENSORS = 64;
+
+	private final SensorIdRegistry sensorIds;
+	private final BaseUnit baseUnit;
+	private final long slideNanos;
+	private final int panes;
+	private final long latenessNanos;
+
+	private final Stripe[] stripes;
+	private final int stripeMask;
+	private final int stripeShift;
+
+	private final AtomicLong maxEventNanos = new AtomicLong(Long.MIN_VALUE);
+	private final AtomicLong watermarkPane = new AtomicLong(Long.MIN_VALUE);
+	private final LongAdder lateReadings = new LongAdder();
+	private final LongAdder droppedReadings = new LongAdder();
+	private final AtomicBoolean registryFullLogged = new AtomicBoolean();
+
+	public SensorWindowAggregator(SensorIdRegistry sensorIds, BaseUnit baseUnit, Duration window, Duration slide,
+			Duration allowedLateness) {
+		this(sensorIds, baseUnit, window, slide, allowedLateness, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param concurrency expected number of threads adding readings, rounded up
+	 *                    to a power of two stripes
+	 */
+	public SensorWindowAggregator(SensorIdRegistry sensorIds, BaseUnit baseUnit, Duration window, Duration slide,
+			Duration allowedLateness, int concurrency) {
+		if (slide.isZero() || slide.isNegative() || window.compareTo(slide) < 0
+				|| window.toNanos() % slide.toNanos() != 0) {
+			throw new IllegalArgumentException(
+					"The window (" + window + ") must be a positive multiple of the slide (" + slide + ")");
+		}
+		if (concurrency < 1) {
+			throw new IllegalArgumentException("concurrency must be at least 1");
+		}
+		this.sensorIds = sensorIds;
+		this.baseUnit = baseUnit;
+		this.slideNanos = slide.toNanos();
+		this.panes = (int) (window.toNanos() / slideNanos);
+		this.latenessNanos = allowedLateness.toNanos();
+
+		int stripeCount = concurrency == 1 ? 1 : Integer.highestOneBit(concurrency - 1) << 1;
+		this.stripes = new Stripe[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			stripes[i] = new Stripe(i);
+		}
+		this.stripeMask = stripeCount - 1;
+		this.stripeShift = Integer.numberOfTrailingZeros(stripeCount);
+	}
+
+	/**
+	 * Adds a reading and appends the windows it closes, of this sensor or of
+	 * any other when the watermark moves, to {@code closed}. Safe to call from
+	 * several threads, each with its own list.
+	 */
+	public void add(int sensorKey, long eventNanos, double value, List<SensorAggregate> closed) {
+		if (sensorKey < 0 || eventNanos == CompactSensorReading.NO_TIMESTAMP || Double.isNaN(value)) {
+			droppedReadings.increment();
+			if (sensorKey == SensorIdRegistry.UNREGISTERED && registryFullLogged.compareAndSet(false, true)) {
+				log.warn("The registry holds {} sensors, readings of any other sensor are dropped",
+						sensorIds.capacity());
+			}
+			return;
+		}
+		stripes[sensorKey & stripeMask].add(sensorKey >>> stripeShift, Math.floorDiv(eventNanos, slideNanos), value,
+				closed);
+
+		if (eventNanos > maxEventNanos.get()) {
+			long maxEvent = maxEventNanos.accumulateAndGet(eventNanos, Math::max);
+			long watermark = Math.floorDiv(maxEvent - latenessNanos, slideNanos);
+			if (watermark > watermarkPane.getAndAccumulate(watermark, Math::max)) {
+				// One stripe at a time, a stripe never waits for another
+				for (Stripe stripe : stripes) {
+					stripe.advanceTo(watermark, closed);
+				}
+			}
+		}
+	}
+
+	/** Closes every window that has readings, for example on shutdown. */
+	public void flush(List<SensorAggregate> closed) {
+		for (Stripe stripe : stripes) {
+			stripe.flush(closed);
+		}
+	}
+
+	/** The registry issuing the keys of {@link #add}. */
+	public SensorIdRegistry getSensorIds() {
+		return sensorIds;
+	}
+
+	public long getLateReadings() {
+		return lateReadings.sum();
+	}
+
+	public long getDroppedReadings() {
+		return droppedReadings.sum();
+	}
+
+	/*
+	 * The sensors whose key modulo the number of stripes is the stripe index;
+	 * they are stored under their key divided by the number of stripes. Every
+	 * open sensor, one whose current pane is not IDLE, has exactly one entry in
+	 * the heap. The entry keeps the pane the sensor was at when queued and is
+	 * brought up to date when the watermark reaches it.
+	 */
+	private final class Stripe {
+		private final int index;
+
+		// Per sensor: the latest pane, IDLE once all its panes are empty
+		private long[] currentPane = new long[0];
+		// Per sensor * panes, the pane index modulo panes selects the slot
+		private long[] paneCount = new long[0];
+		private double[] paneMin = new double[0];
+		private double[] paneMax = new double[0];
+		private double[] paneMean = new double[0];
+		private double[] paneM2 = new double[0];
+
+		// Min-heap of open sensors by pane
+		private long[] heapPane = new long[0];
+		private int[] heapSensor = new int[0];
+		private int heapSize;
+
+		private int highestSensor = -1;
+		private long watermarkPane = Long.MIN_VALUE;
+
+		Stripe(int index) {
+			this.index = index;
+		}
+
+		synchronized void add(int sensor, long pane, double value, List<SensorAggregate> closed) {
+			if (pane < watermarkPane) {
+				lateReadings.increment();
+				return;
+			}
+			ensureCapacity(sensor);
+			long current = currentPane[sensor];
+			boolean open = current != IDLE;
+			if (open && pane < current) {
+				lateReadings.increment();
+				return;
+			}
+			if (open && pane > current) {
+				advance(sensor, pane, closed);
+			}
+			if (currentPane[sensor] == IDLE) {
+				for (int i = 0; i < panes; i++) {
+					clear(sensor * panes + i);
+				}
+				currentPane[sensor] = pane;
+				if (!open) {
+					push(pane, sensor);
+				}
+			}
+			accumulate(slot(sensor, pane), value);
+		}
+
+		synchronized void advanceTo(long toPane, List<SensorAggregate> closed) {
+			if (toPane <= watermarkPane) {
+				return;
+			}
+			watermarkPane = toPane;
+			while (heapSize > 0 && heapPane[0] < toPane) {
+				int sensor = heapSensor[0];
+				pop();
+				if (currentPane[sensor] < toPane) {
+					advance(sensor, toPane, closed);
+				}
+				if (currentPane[sensor] != IDLE) {
+					push(currentPane[sensor], sensor);
+				}
+			}
+		}
+
+		synchronized void flush(List<SensorAggregate> closed) {
+			for (int sensor = 0; sensor <= highestSensor; sensor++) {
+				if (currentPane[sensor] != IDLE) {
+					advance(sensor, currentPane[sensor] + panes, closed);
+				}
+			}
+			heapSize = 0;
+		}
+
+		/*
+		 * Emits the windows ending at each slide boundary up to toPane, then clears
+		 * the slots of the panes the sensor moves into. Only the panes in
+		 * (current - panes, current] hold data, so after a full window of boundaries
+		 * there is nothing left to emit and the sensor goes idle.
+		 */
+		private void advance(int sensor, long toPane, List<SensorAggregate> closed) {
+			long current = currentPane[sensor];
+			long lastBoundary = Math.min(toPane, current + panes);
+			for (long boundary = current + 1; boundary <= lastBoundary; boundary++) {
+				emit(sensor, boundary, current, closed);
+			}
+			if (toPane - current >= panes) {
+				currentPane[sensor] = IDLE;
+				return;
+			}
+			for (long pane = current + 1; pane <= toPane; pane++) {
+				clear(slot(sensor, pane));
+			}
+			currentPane[sensor] = toPane;
+		}
+
+		private void emit(int sensor, long boundary, long current, List<SensorAggregate> closed) {
+			long count = 0;
+			double mean = 0;
+			double m2 = 0;
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			for (long pane = boundary - panes; pane <= current; pane++) {
+				int slot = slot(sensor, pane);
+				long paneN = paneCount[slot];
+				if (paneN == 0) {
+					continue;
+				}
+				long n = count + paneN;
+				double delta = paneMean[slot] - mean;
+				mean += delta * paneN / n;
+				m2 += paneM2[slot] + delta * delta * count * paneN / n;
+				count = n;
+				min = Math.min(min, paneMin[slot]);
+				max = Math.max(max, paneMax[slot]);
+			}
+			if (count == 0) {
+				return;
+			}
+			SensorAggregate aggregate = new SensorAggregate();
+			aggregate.setSensorID(sensorIds.idOf(sensor << stripeShift | index));
+			aggregate.setWindowStart(CompactSensorReading.toTimestamp((boundary - panes) * slideNanos));
+			aggregate.setWindowEnd(CompactSensorReading.toTimestamp(boundary * slideNanos));
+			aggregate.setCount(count);
+			aggregate.setMin(min);
+			aggregate.setMax(max);
+			aggregate.setMean(mean);
+			aggregate.setVariance(count > 1 ? m2 / (count - 1) : 0);
+			aggregate.setBaseUnit(baseUnit);
+			closed.add(aggregate);
+		}
+
+		private void accumulate(int slot, double value) {
+			long n = ++paneCount[slot];
+			double delta = value - paneMean[slot];
+			paneMean[slot] += delta / n;
+			paneM2[slot] += delta * (value - paneMean[slot]);
+			paneMin[slot] = Math.min(paneMin[slot], value);
+			paneMax[slot] = Math.max(paneMax[slot], value);
+		}
+
+		private void clear(int slot) {
+			paneCount[slot] = 0;
+			paneMean[slot] = 0;
+			paneM2[slot] = 0;
+			paneMin[slot] = Double.POSITIVE_INFINITY;
+			paneMax[slot] = Double.NEGATIVE_INFINITY;
+		}
+
+		private int slot(int sensor, long pane) {
+			return sensor * panes + (int) Math.floorMod(pane, (long) panes);
+		}
+
+		private void push(long pane, int sensor) {
+			if (heapSize == heapPane.length) {
+				int grown = Math.max(INITIAL_SENSORS, heapSize * 2);
+				heapPane = Arrays.copyOf(heapPane, grown);
+				heapSensor = Arrays.copyOf(heapSensor, grown);
+			}
+			int i = heapSize++;
+			while (i > 0) {
+				int parent = (i - 1) >>> 1;
+				if (heapPane[parent] <= pane) {
+					break;
+				}
+				heapPane[i] = heapPane[parent];
+				heapSensor[i] = heapSensor[parent];
+				i = parent;
+			}
+			heapPane[i] = pane;
+			heapSensor[i] = sensor;
+		}
+
+		private void pop() {
+			int last = --heapSize;
+			long pane = heapPane[last];
+			int sensor = heapSensor[last];
+			int i = 0;
+			int child;
+			while ((child = 2 * i + 1) < heapSize) {
+				if (child + 1 < heapSize && heapPane[child + 1] < heapPane[child]) {
+					child++;
+				}
+				if (pane <= heapPane[child]) {
+					break;
+				}
+				heapPane[i] = heapPane[child];
+				heapSensor[i] = heapSensor[child];
+				i = child;
+			}
+			heapPane[i] = pane;
+			heapSensor[i] = sensor;
+		}
+
+		private void ensureCapacity(int sensor) {
+			highestSensor = Math.max(highestSensor, sensor);
+			int sensors = currentPane.length;
+			if (sensor < sensors) {
+				return;
+			}
+			int grown = Math.max(sensor + 1, Math.max(INITIAL_SENSORS, sensors * 2));
+			currentPane = Arrays.copyOf(currentPane, grown);
+			Arrays.fill(currentPane, sensors, grown, IDLE);
+			paneCount = Arrays.copyOf(paneCount, grown * panes);
+			paneMin = Arrays.copyOf(paneMin, grown * panes);
+			paneMax = Arrays.copyOf(paneMax, grown * panes);
+			paneMean = Arrays.copyOf(paneMean, grown * panes);
+			paneM2 = Arrays.copyOf(paneM2, grown * panes);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.SmartLifecycle;
+
+import com.solace.samples.spring.common.SensorAggregate;
+
+/**
+ * Publishes the windows of a {@link SensorWindowAggregator} that are still
+ * open when the application stops, which would otherwise be lost. It stops
+ * after the input bindings, so no reading arrives any more, and before the
+ * output bindings, which the aggregates are sent through.
+ */
+public class SensorWindowFlusher implements SmartLifecycle {
+	private static final Logger log = LoggerFactory.getLogger(SensorWindowFlusher.class);
+
+	private final SensorWindowAggregator aggregator;
+	private final StreamBridge streamBridge;
+	private final String binding;
+	private volatile boolean running;
+
+	public SensorWindowFlusher(SensorWindowAggregator aggregator, StreamBridge streamBridge, String binding) {
+		this.aggregator = aggregator;
+		this.streamBridge = streamBridge;
+		this.binding = binding;
+	}
+
+	@Override
+	public void start() {
+		running = true;
+	}
+
+	@Override
+	public void stop() {
+		running = false;
+		List<SensorAggregate> closed = new ArrayList<>();
+		aggregator.flush(closed);
+		if (closed.isEmpty()) {
+			return;
+		}
+		log.info("Publishing {} open windows to {}", closed.size(), binding);
+		for (SensorAggregate aggregate : closed) {
+			if (!streamBridge.send(binding, aggregate)) {
+				log.error("Failed to publish {}", aggregate);
+			}
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	/* Between the input bindings, stopped first, and the output bindings, stopped last */
+	@Override
+	public int getPhase() {
+		return 0;
+	}
+}
@@ -0,0 +1,33 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.solace.samples.spring.scs;
+
+/**
+ * Converts a column of Fahrenheit temperatures to Celsius in place.
+ *
+ * {@link TemperatureKernels#best()} returns a SIMD implementation based on the
+ * incubating {@code jdk.incubator.vector} module when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}, and a plain loop otherwise. Both
+ * apply {@code (F - 32) * 5 / 9} in the same order and produce identical results.
+ */
+public interface TemperatureKernel {
+
+	void fahrenheitToCelsius(double[] temperatures, int length);
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public final class TemperatureKernels {
+	private static final Logger log = LoggerFactory.getLogger(TemperatureKernels.class);
+	private static final TemperatureKernel BEST = select();
+
+	private TemperatureKernels() {
+	}
+
+	public static TemperatureKernel scalar() {
+		return ScalarTemperatureKernel.INSTANCE;
+	}
+
+	public static TemperatureKernel best() {
+		return BEST;
+	}
+
+	private static TemperatureKernel select() {
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+			try {
+				// Loaded reflectively so this class links even without the incubator module
+				TemperatureKernel kernel = (TemperatureKernel) Class
+						.forName("com.solace.samples.spring.scs.VectorTemperatureKernel").getDeclaredConstructor()
+						.newInstance();
+				log.info("Using the {} temperature kernel", kernel);
+				return kernel;
+			} catch (ReflectiveOperationException | LinkageError e) {
+				log.warn("Vector API unavailable, using the scalar temperature kernel", e);
+			}
+		} else {
+			log.info("Start the JVM with --add-modules jdk.incubator.vector to use the vectorized temperature kernel");
+		}
+		return scalar();
+	}
+}
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/*
+ * Only referenced through TemperatureKernels.best(), which checks that the
+ * jdk.incubator.vector module is present before loading this class.
+ */
+final class VectorTemperatureKernel implements TemperatureKernel {
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	@Override
+	public void fahrenheitToCelsius(double[] temperatures, int length) {
+		int i = 0;
+		for (int upperBound = SPECIES.loopBound(length); i < upperBound; i += SPECIES.length()) {
+			DoubleVector.fromArray(SPECIES, temperatures, i).sub(32).mul(5).div(9).intoArray(temperatures, i);
+		}
+		// Tail that does not fill a whole vector
+		for (; i < length; i++) {
+			temperatures[i] = (temperatures[i] - 32) * 5 / 9;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "vector(" + SPECIES.length() + " lanes)";
+	}
+}
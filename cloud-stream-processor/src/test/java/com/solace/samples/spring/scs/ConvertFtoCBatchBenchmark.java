@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.function.context.FunctionCatalog;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry.FunctionInvocationWrapper;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.solace.spring.cloud.stream.binder.messaging.SolaceBinderHeaders;
+
+/*
+ * Throughput of convertFtoC against convertFtoCBatch, in readings per second.
+ * Both functions are invoked through the FunctionCatalog so the numbers include
+ * the framework's per-invocation dispatch and JSON conversion, but not the broker.
+ * Logging is raised to WARN so that it does not dominate the per-message path.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="ConvertFtoCBatchBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ConvertFtoCBatchBenchmark {
+	private static final int READINGS = 256;
+
+	private ConfigurableApplicationContext context;
+	private FunctionInvocationWrapper convertFtoC;
+	private FunctionInvocationWrapper convertFtoCBatch;
+	private List<Message<byte[]>> messages;
+	private Message<List<byte[]>> batch;
+
+	@Setup
+	public void setup() {
+		context = new SpringApplicationBuilder(
+				TestChannelBinderConfiguration.getCompleteConfiguration(ConvertFtoCProcessor.class))
+				.web(WebApplicationType.NONE)
+				.run("--logging.level.com.solace.samples.spring.scs=WARN", "--spring.jmx.enabled=false");
+		FunctionCatalog catalog = context.getBean(FunctionCatalog.class);
+		convertFtoC = catalog.lookup("convertFtoC", "application/json");
+		convertFtoCBatch = catalog.lookup("convertFtoCBatch", "application/json");
+
+		messages = new ArrayList<>(READINGS);
+		List<byte[]> payloads = new ArrayList<>(READINGS);
+		List<Map<String, Object>> headers = new ArrayList<>(READINGS);
+		for (int i = 0; i < READINGS; i++) {
+			byte[] json = ("{\"sensorID\":\"sensor-" + i + "\",\"temperature\":" + (32 + i)
+					+ ",\"baseUnit\":\"FAHRENHEIT\"}").getBytes(StandardCharsets.UTF_8);
+			messages.add(MessageBuilder.withPayload(json).setHeader(MessageHeaders.CONTENT_TYPE, "application/json")
+					.build());
+			payloads.add(json);
+			headers.add(Map.of(MessageHeaders.CONTENT_TYPE, "application/json"));
+		}
+		batch = MessageBuilder.withPayload(payloads).setHeader(SolaceBinderHeaders.BATCHED_HEADERS, headers)
+				.setHeader(MessageHeaders.CONTENT_TYPE, "application/json").build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(READINGS)
+	public void perMessage(Blackhole blackhole) {
+		for (int i = 0; i < READINGS; i++) {
+			blackhole.consume(convertFtoC.apply(messages.get(i)));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(READINGS)
+	public void batch(Blackhole blackhole) {
+		blackhole.consume(convertFtoCBatch.apply(batch));
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.solace.samples.spring.common.metrics.FunctionMeters;
+import com.solace.spring.cloud.stream.binder.messaging.SolaceBinderHeaders;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = "spring.cloud.function.definition=convertFtoCBatch")
+public class ConvertFtoCBatchProcessorTest {
+
+	private static final String INPUT = "TEMPS.Q";
+	private static final String OUTPUT = "sensor/temperature/celsius";
+
+	@Autowired
+	private InputDestination input;
+
+	@Autowired
+	private OutputDestination output;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@SpringBootApplication
+	@Import(TestChannelBinderConfiguration.class)
+	public static class TestConfiguration {
+
+	}
+
+	@Test
+	public void testBatchPreservesOrderAndHeaders() {
+		double[] fahrenheit = { 32.0d, 50.0d, 70.0d, 212.0d };
+		String[] celsius = { "0.0", "10.0", "21.1", "100.0" };
+
+		// Simulates what the Solace binder delivers in batch-mode: one payload per
+		// message and the matching per-message headers in BATCHED_HEADERS
+		List<byte[]> payloads = new ArrayList<>();
+		List<Map<String, Object>> headers = new ArrayList<>();
+		for (int i = 0; i < fahrenheit.length; i++) {
+			String json = "{\"sensorID\":\"sensor-" + i + "\",\"temperature\":" + fahrenheit[i]
+					+ ",\"baseUnit\":\"FAHRENHEIT\"}";
+			payloads.add(json.getBytes(StandardCharsets.UTF_8));
+			headers.add(Map.of("sequence", i, MessageHeaders.CONTENT_TYPE, "application/json"));
+		}
+		input.send(MessageBuilder.withPayload(payloads).setHeader(SolaceBinderHeaders.BATCHED_HEADERS, headers)
+				.build(), INPUT);
+
+		for (int i = 0; i < fahrenheit.length; i++) {
+			Message<byte[]> msg = output.receive(1000, OUTPUT);
+			assertNotNull(msg, "Missing output message " + i);
+
+			String payload = new String(msg.getPayload(), StandardCharsets.UTF_8);
+			assertThat(payload, containsString("\"sensorID\":\"sensor-" + i + "\""));
+			assertThat(payload, containsString("\"temperature\":" + celsius[i]));
+			assertThat(payload, containsString("CELSIUS"));
+			assertThat(payload, not(containsString("FAHRENHEIT")));
+			assertEquals(i, msg.getHeaders().get("sequence"));
+		}
+		assertNull(output.receive(100, OUTPUT));
+
+		DistributionSummary batchSize = meterRegistry.get(FunctionMeters.BATCH_SIZE)
+				.tag("function", "convertFtoCBatch").summary();
+		assertEquals(1, batchSize.count());
+		assertEquals(fahrenheit.length, batchSize.max());
+	}
+}
@@ -22,9 +22,18 @@ package com.solace.samples.spring.scs;
 import static org.hamcrest.CoreMatchers.allOf;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 import com.solace.samples.spring.common.SensorReading;
 import com.solace.samples.spring.common.SensorReading.BaseUnit;
+import com.solace.samples.spring.common.SensorReadingCodec;
+import com.solace.samples.spring.common.metrics.FunctionMeters;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,6 +44,7 @@ import org.springframework.cloud.stream.binder.test.OutputDestination;
 import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
 import org.springframework.context.annotation.Import;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -48,6 +58,9 @@ public class ConvertFtoCProcessorTest {
 	@Autowired
 	private OutputDestination output;
 
+	@Autowired
+	private MeterRegistry meterRegistry;
+
 	@SpringBootApplication
 	@Import(TestChannelBinderConfiguration.class)
 	public static class TestConfiguration {
@@ -72,4 +85,49 @@ public class ConvertFtoCProcessorTest {
 				allOf(containsString("sensorID"), containsString("temperature"), containsString("baseUnit"),
 						containsString("timestamp"), containsString("CELSIUS"), containsString("21.1")));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testBinarySensorReadingInput() {
+		SensorReading reading = new SensorReading("test", 70.0d, BaseUnit.FAHRENHEIT);
+		Message<byte[]> msgInput = MessageBuilder.withPayload(SensorReadingCodec.encode(reading))
+				.setHeader(MessageHeaders.CONTENT_TYPE, SensorReadingCodec.MIME_TYPE).build();
+
+		input.send(msgInput);
+
+		final Message<byte[]> msg = output.receive();
+		final String payload = (msg != null) ? new String(msg.getPayload()) : null;
+
+		assertNotNull(payload);
+		assertThat(payload, allOf(containsString("\"sensorID\":\"test\""), containsString("CELSIUS"),
+				containsString("21.1")));
+	}
+
+	@Test
+	public void testFunctionMetrics() {
+		input.send(MessageBuilder.withPayload(new SensorReading("test", 70.0d, BaseUnit.FAHRENHEIT)).build());
+		assertNotNull(output.receive());
+
+		Timer duration = meterRegistry.get(FunctionMeters.DURATION).tag("function", "convertFtoC").timer();
+		double messages = meterRegistry.get(FunctionMeters.MESSAGES).tag("function", "convertFtoC").counter()
+				.count();
+		// Other tests share the application context, so only check the counts line up
+		assertEquals((double) duration.count(), messages);
+		// The shared context times every test's invocations, bound the percentiles by them
+		HistogramSnapshot snapshot = duration.takeSnapshot();
+		double p50 = percentile(snapshot, 0.5);
+		double p99 = percentile(snapshot, 0.99);
+		assertTrue(p50 > 0, "p50 " + p50 + " ms");
+		assertTrue(p99 >= p50, "p99 " + p99 + " ms, p50 " + p50 + " ms");
+		// Percentiles are approximated by histogram buckets, allow for their width
+		assertTrue(p99 <= snapshot.max(TimeUnit.MILLISECONDS) * 1.25,
+				"p99 " + p99 + " ms, max " + snapshot.max(TimeUnit.MILLISECONDS) + " ms");
+	}
+
+	private static double percentile(HistogramSnapshot snapshot, double percentile) {
+		return Arrays.stream(snapshot.percentileValues())
+				.filter(value -> value.percentile() == percentile)
+				.mapToDouble(value -> value.value(TimeUnit.MILLISECONDS))
+				.findFirst()
+				.orElseThrow();
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+
+
+package com.solace.samples.spring.scs;
+
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.solace.samples.spring.common.SensorReading;
+import com.solace.samples.spring.common.SensorReading.BaseUnit;
+import com.solace.samples.spring.common.latency.LatencyHeaders;
+import com.solace.samples.spring.common.latency.LatencyRecordingInterceptor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = { "samples.latency.stamp=true", "samples.latency.record=true" })
+public class LatencyTrackingTest {
+
+	@Autowired
+	private InputDestination input;
+
+	@Autowired
+	private OutputDestination output;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@SpringBootApplication
+	@Import(TestChannelBinderConfiguration.class)
+	public static class TestConfiguration {
+
+	}
+
+	@Test
+	public void testHopIsStampedAndLatencyRecorded() {
+		long emitted = LatencyHeaders.epochNanos() - TimeUnit.MILLISECONDS.toNanos(5);
+		input.send(MessageBuilder.withPayload(new SensorReading("test", 70.0d, BaseUnit.FAHRENHEIT))
+				.setHeader(LatencyHeaders.EMIT_TIME, emitted)
+				.setHeader(LatencyHeaders.HOPS, LatencyHeaders.appendHop(null, "emitSensorReading", emitted))
+				.build());
+
+		Message<byte[]> msg = output.receive();
+		assertNotNull(msg);
+		assertEquals(emitted, msg.getHeaders().get(LatencyHeaders.EMIT_TIME));
+		assertThat(msg.getHeaders().get(LatencyHeaders.HOPS, String.class),
+				startsWith("emitSensorReading=" + emitted + ",convertFtoC="));
+
+		Timer endToEnd = meterRegistry.get(LatencyRecordingInterceptor.END_TO_END).tag("receiver", "convertFtoC")
+				.timer();
+		assertEquals(1, endToEnd.count());
+		assertEquals(1, meterRegistry.get(LatencyRecordingInterceptor.HOP).tag("from", "emitSensorReading")
+				.tag("to", "convertFtoC").timer().count());
+	}
+}
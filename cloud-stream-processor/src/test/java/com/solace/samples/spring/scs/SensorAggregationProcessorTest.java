@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import static org.hamcrest.CoreMatchers.allOf;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.solace.samples.spring.common.SensorReading;
+import com.solace.samples.spring.common.SensorReading.BaseUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = { "spring.cloud.function.definition=aggregateSensorReadings",
+		"samples.aggregation.window=10s", "samples.aggregation.allowed-lateness=5s" })
+public class SensorAggregationProcessorTest {
+
+	private static final String INPUT = "TEMPS.Q";
+	private static final String OUTPUT = "sensor/aggregate/celsius";
+	// A multiple of the 10s window
+	private static final long START_MILLIS = 1_700_000_000_000L;
+
+	@Autowired
+	private InputDestination input;
+
+	@Autowired
+	private OutputDestination output;
+
+	@Autowired
+	private ConfigurableApplicationContext context;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@SpringBootApplication
+	@Import(TestChannelBinderConfiguration.class)
+	public static class TestConfiguration {
+
+	}
+
+	private void send(String sensorID, long offsetMillis, double fahrenheit) {
+		SensorReading reading = new SensorReading(sensorID, fahrenheit, BaseUnit.FAHRENHEIT);
+		reading.setTimestamp(new Timestamp(START_MILLIS + offsetMillis));
+		input.send(MessageBuilder.withPayload(reading).build(), INPUT);
+	}
+
+	@Test
+	public void testEmitsOneAggregatePerWindow() {
+		send("aggregated", 1_000, 32);
+		send("aggregated", 2_000, 50);
+		send("aggregated", 3_000, 68);
+		assertNull(output.receive(100, OUTPUT));
+
+		send("aggregated", 20_000, 212);
+
+		Message<byte[]> msg = output.receive(1000, OUTPUT);
+		assertNotNull(msg);
+		String payload = new String(msg.getPayload(), StandardCharsets.UTF_8);
+		assertThat(payload, allOf(containsString("\"sensorID\":\"aggregated\""), containsString("\"count\":3"),
+				containsString("\"min\":0.0"), containsString("\"max\":20.0"), containsString("\"mean\":10.0"),
+				containsString("\"variance\":100.0"), containsString("CELSIUS")));
+		assertNull(output.receive(100, OUTPUT));
+	}
+
+	@Test
+	public void testCountsDroppedReadings() {
+		double dropped = meterRegistry.get("samples.aggregation.dropped").functionCounter().count();
+		// Without a timestamp a reading belongs to no window
+		SensorReading untimed = new SensorReading("untimed", 50, BaseUnit.FAHRENHEIT);
+		untimed.setTimestamp(null);
+		input.send(MessageBuilder.withPayload(untimed).build(), INPUT);
+
+		assertEquals(dropped + 1, meterRegistry.get("samples.aggregation.dropped").functionCounter().count());
+		assertNotNull(meterRegistry.find("samples.aggregation.late").functionCounter());
+	}
+
+	@Test
+	@DirtiesContext
+	public void testPublishesOpenWindowsOnShutdown() {
+		// Far enough ahead to close anything an earlier test left open
+		send("flushed", 100_000, 50);
+		while (output.receive(100, OUTPUT) != null) {
+		}
+
+		context.stop();
+
+		// The windows of earlier tests are flushed too
+		String payload = "";
+		for (Message<byte[]> msg; !payload.contains("\"flushed\"") && (msg = output.receive(1000, OUTPUT)) != null;) {
+			payload = new String(msg.getPayload(), StandardCharsets.UTF_8);
+		}
+		assertThat(payload, allOf(containsString("\"sensorID\":\"flushed\""), containsString("\"count\":1"),
+				containsString("\"mean\":10.0")));
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.solace.samples.spring.common.SensorAggregate;
+import com.solace.samples.spring.common.SensorIdRegistry;
+import com.solace.samples.spring.common.SensorReading.BaseUnit;
+
+/*
+ * Cost of adding one reading to the window aggregator for growing sensor
+ * populations; every sensor reports 10 times a second into 1 minute tumbling
+ * windows. Run with -prof gc to see that only closed windows allocate.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="SensorWindowAggregatorBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class SensorWindowAggregatorBenchmark {
+	private static final long READING_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	@Param({ "1000", "1000000" })
+	private int sensors;
+
+	private SensorWindowAggregator aggregator;
+	private double[] values;
+	private final List<SensorAggregate> closed = new ArrayList<>();
+	private long readings;
+
+	@Setup
+	public void setup() {
+		SensorIdRegistry sensorIds = new SensorIdRegistry(sensors);
+		for (int i = 0; i < sensors; i++) {
+			sensorIds.keyOf("sensor-" + i);
+		}
+		aggregator = new SensorWindowAggregator(sensorIds, BaseUnit.CELSIUS, Duration.ofMinutes(1),
+				Duration.ofMinutes(1), Duration.ofSeconds(5));
+		values = new SplittableRandom(42).doubles(1024, 0, 40).toArray();
+	}
+
+	@Benchmark
+	public int add() {
+		long reading = readings++;
+		int sensor = (int) (reading % sensors);
+		long eventNanos = (reading / sensors) * READING_INTERVAL_NANOS;
+		aggregator.add(sensor, eventNanos, values[(int) (reading & 1023)], closed);
+		int size = closed.size();
+		closed.clear();
+		return size;
+	}
+}
@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.solace.samples.spring.common.CompactSensorReading;
+import com.solace.samples.spring.common.SensorAggregate;
+import com.solace.samples.spring.common.SensorIdRegistry;
+import com.solace.samples.spring.common.SensorReading.BaseUnit;
+
+public class SensorWindowAggregatorTest {
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final SensorIdRegistry sensorIds = new SensorIdRegistry();
+	private final int a = sensorIds.keyOf("a");
+	private final int b = sensorIds.keyOf("b");
+
+	private SensorWindowAggregator aggregator(int windowSeconds, int slideSeconds, int latenessSeconds) {
+		return new SensorWindowAggregator(sensorIds, BaseUnit.CELSIUS, Duration.ofSeconds(windowSeconds),
+				Duration.ofSeconds(slideSeconds), Duration.ofSeconds(latenessSeconds));
+	}
+
+	@Test
+	void testTumblingWindowStatistics() {
+		SensorWindowAggregator aggregator = aggregator(10, 10, 0);
+		List<SensorAggregate> closed = new ArrayList<>();
+
+		for (double value : new double[] { 2, 4, 4, 4, 5, 5, 7, 9 }) {
+			aggregator.add(a, 3 * SECOND, value, closed);
+		}
+		assertTrue(closed.isEmpty());
+
+		aggregator.add(a, 12 * SECOND, 1, closed);
+		assertEquals(1, closed.size());
+		SensorAggregate aggregate = closed.get(0);
+		assertEquals("a", aggregate.getSensorID());
+		assertEquals(8, aggregate.getCount());
+		assertEquals(2, aggregate.getMin());
+		assertEquals(9, aggregate.getMax());
+		assertEquals(5, aggregate.getMean(), 1e-12);
+		assertEquals(32d / 7, aggregate.getVariance(), 1e-12);
+		assertEquals(0, CompactSensorReading.toEpochNanos(aggregate.getWindowStart()));
+		assertEquals(10 * SECOND, CompactSensorReading.toEpochNanos(aggregate.getWindowEnd()));
+		assertEquals(BaseUnit.CELSIUS, aggregate.getBaseUnit());
+	}
+
+	@Test
+	void testSlidingWindowsMergePanes() {
+		SensorWindowAggregator aggregator = aggregator(30, 10, 0);
+		List<SensorAggregate> closed = new ArrayList<>();
+
+		aggregator.add(a, 5 * SECOND, 1, closed);
+		aggregator.add(a, 15 * SECOND, 2, closed);
+		aggregator.add(a, 25 * SECOND, 3, closed);
+		aggregator.add(a, 35 * SECOND, 4, closed);
+
+		// Windows ending at 10s, 20s, 30s and 40s would follow; the last is still open
+		assertEquals(3, closed.size());
+		assertEquals(1, closed.get(0).getCount());
+		assertEquals(2, closed.get(1).getCount());
+		assertEquals(1.5, closed.get(1).getMean(), 1e-12);
+		assertEquals(3, closed.get(2).getCount());
+		assertEquals(2, closed.get(2).getMean(), 1e-12);
+		assertEquals(1, closed.get(2).getVariance(), 1e-12);
+		assertEquals(0, CompactSensorReading.toEpochNanos(closed.get(2).getWindowStart()));
+
+		closed.clear();
+		aggregator.flush(closed);
+		// [10s,40s), [20s,50s) and [30s,60s) still hold readings
+		assertEquals(3, closed.size());
+		assertEquals(4, closed.get(2).getMean(), 1e-12);
+	}
+
+	@Test
+	void testWatermarkClosesIdleSensors() {
+		SensorWindowAggregator aggregator = aggregator(10, 10, 5);
+		List<SensorAggregate> closed = new ArrayList<>();
+
+		aggregator.add(a, 1 * SECOND, 20, closed);
+		aggregator.add(b, 14 * SECOND, 30, closed);
+		assertTrue(closed.isEmpty());
+
+		// The watermark passes 10s once b reaches 15s
+		aggregator.add(b, 15 * SECOND, 30, closed);
+		assertEquals(1, closed.size());
+		assertEquals("a", closed.get(0).getSensorID());
+	}
+
+	@Test
+	void testLateReadingsAreDropped() {
+		SensorWindowAggregator aggregator = aggregator(10, 10, 5);
+		List<SensorAggregate> closed = new ArrayList<>();
+
+		aggregator.add(a, 12 * SECOND, 1, closed);
+		aggregator.add(a, 9 * SECOND, 1, closed);
+		aggregator.add(b, 30 * SECOND, 1, closed);
+		aggregator.add(b, 19 * SECOND, 1, closed);
+
+		assertEquals(2, aggregator.getLateReadings());
+		assertEquals(1, closed.size());
+		assertEquals(1, closed.get(0).getCount());
+	}
+
+	@Test
+	void testReadingsOfSensorsBeyondTheRegistryAreCounted() {
+		SensorIdRegistry bounded = new SensorIdRegistry(1);
+		SensorWindowAggregator aggregator = new SensorWindowAggregator(bounded, BaseUnit.CELSIUS,
+				Duration.ofSeconds(10), Duration.ofSeconds(10), Duration.ZERO);
+		List<SensorAggregate> closed = new ArrayList<>();
+
+		aggregator.add(bounded.keyOf("a"), SECOND, 1, closed);
+		aggregator.add(bounded.keyOf("b"), SECOND, 1, closed);
+		aggregator.add(bounded.keyOf("c"), SECOND, 1, closed);
+		aggregator.add(bounded.keyOf("a"), CompactSensorReading.NO_TIMESTAMP, 1, closed);
+		aggregator.flush(closed);
+
+		assertEquals(3, aggregator.getDroppedReadings());
+		assertEquals(0, aggregator.getLateReadings());
+		assertEquals(1, closed.size());
+		assertEquals("a", closed.get(0).getSensorID());
+	}
+
+	@Test
+	void testGapLongerThanWindowStartsAfresh() {
+		SensorWindowAggregator aggregator = aggregator(20, 10, 0);
+		List<SensorAggregate> closed = new ArrayList<>();
+
+		aggregator.add(a, 5 * SECOND, 100, closed);
+		aggregator.add(a, 95 * SECOND, 1, closed);
+		closed.clear();
+		aggregator.flush(closed);
+
+		closed.forEach(aggregate -> assertEquals(1, aggregate.getMax()));
+		assertEquals(2, closed.size());
+	}
+
+	@Test
+	void testStripesEmitTheSameWindows() {
+		SensorIdRegistry registry = new SensorIdRegistry();
+		for (int i = 0; i < 100; i++) {
+			registry.keyOf("sensor-" + i);
+		}
+		SensorWindowAggregator single = new SensorWindowAggregator(registry, BaseUnit.CELSIUS, Duration.ofSeconds(30),
+				Duration.ofSeconds(10), Duration.ofSeconds(5), 1);
+		SensorWindowAggregator striped = new SensorWindowAggregator(registry, BaseUnit.CELSIUS, Duration.ofSeconds(30),
+				Duration.ofSeconds(10), Duration.ofSeconds(5), 8);
+		List<SensorAggregate> expected = new ArrayList<>();
+		List<SensorAggregate> actual = new ArrayList<>();
+
+		// Sensors report at random, some go quiet for whole windows, some readings are late
+		SplittableRandom random = new SplittableRandom(7);
+		long eventNanos = 0;
+		for (int i = 0; i < 20_000; i++) {
+			eventNanos += random.nextLong(20 * TimeUnit.MILLISECONDS.toNanos(1));
+			int sensor = random.nextInt(random.nextInt(10) == 0 ? 100 : 10);
+			long jitter = random.nextLong(8 * SECOND);
+			double value = random.nextDouble(-20, 40);
+			single.add(sensor, eventNanos - jitter, value, expected);
+			striped.add(sensor, eventNanos - jitter, value, actual);
+		}
+		single.flush(expected);
+		striped.flush(actual);
+
+		assertEquals(single.getLateReadings(), striped.getLateReadings());
+		assertEquals(describe(expected), describe(actual));
+	}
+
+	@Test
+	void testConcurrentAddsLoseNoReadings() throws Exception {
+		SensorIdRegistry registry = new SensorIdRegistry();
+		int threads = 4;
+		int sensorsPerThread = 50;
+		int readingsPerSensor = 1_000;
+		for (int i = 0; i < threads * sensorsPerThread; i++) {
+			registry.keyOf("sensor-" + i);
+		}
+		// No lateness is tolerated, but every thread stays within the same pane
+		SensorWindowAggregator aggregator = new SensorWindowAggregator(registry, BaseUnit.CELSIUS,
+				Duration.ofHours(1), Duration.ofHours(1), Duration.ZERO, threads);
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<List<SensorAggregate>>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				int first = t * sensorsPerThread;
+				results.add(executor.submit(() -> {
+					List<SensorAggregate> closed = new ArrayList<>();
+					start.await();
+					for (int r = 0; r < readingsPerSensor; r++) {
+						for (int sensor = first; sensor < first + sensorsPerThread; sensor++) {
+							aggregator.add(sensor, r * TimeUnit.MILLISECONDS.toNanos(1), r, closed);
+						}
+					}
+					return closed;
+				}));
+			}
+			start.countDown();
+			for (Future<List<SensorAggregate>> result : results) {
+				assertTrue(result.get(30, TimeUnit.SECONDS).isEmpty());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		List<SensorAggregate> closed = new ArrayList<>();
+		aggregator.flush(closed);
+		assertEquals(threads * sensorsPerThread, closed.size());
+		closed.forEach(aggregate -> assertEquals(readingsPerSensor, aggregate.getCount()));
+		assertEquals(0, aggregator.getLateReadings());
+	}
+
+	private static List<String> describe(List<SensorAggregate> aggregates) {
+		return aggregates.stream()
+				.sorted(Comparator.comparing(SensorAggregate::getWindowEnd).thenComparing(SensorAggregate::getSensorID))
+				.map(aggregate -> aggregate.getSensorID() + " " + aggregate.getWindowEnd() + " " + aggregate.getCount()
+						+ " " + aggregate.getMin() + " " + aggregate.getMax() + " " + aggregate.getMean())
+				.toList();
+	}
+
+	@Test
+	void testWindowMustBeMultipleOfSlide() {
+		assertThrows(IllegalArgumentException.class, () -> aggregator(25, 10, 0));
+	}
+}
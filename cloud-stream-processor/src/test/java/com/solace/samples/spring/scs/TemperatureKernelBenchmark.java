@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/*
+ * Scalar against vectorized Fahrenheit to Celsius conversion across batch sizes,
+ * to find the size where the Vector API starts to pay off.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="TemperatureKernelBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class TemperatureKernelBenchmark {
+
+	@Param({ "16", "64", "256", "1024", "4096" })
+	private int batchSize;
+
+	// Converted in place on every invocation; the values converge towards -40
+	// which keeps the arithmetic cost constant
+	private double[] temperatures;
+	private TemperatureKernel scalar;
+	private TemperatureKernel vector;
+
+	@Setup
+	public void setup() {
+		temperatures = new SplittableRandom(42).doubles(batchSize, 0, 100).toArray();
+		scalar = TemperatureKernels.scalar();
+		vector = TemperatureKernels.best();
+		if (vector == scalar) {
+			throw new IllegalStateException("jdk.incubator.vector is not available");
+		}
+	}
+
+	@Benchmark
+	public double[] scalar() {
+		scalar.fahrenheitToCelsius(temperatures, batchSize);
+		return temperatures;
+	}
+
+	@Benchmark
+	public double[] vector() {
+		vector.fahrenheitToCelsius(temperatures, batchSize);
+		return temperatures;
+	}
+}
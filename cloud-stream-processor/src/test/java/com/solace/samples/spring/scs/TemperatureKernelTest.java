@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+public class TemperatureKernelTest {
+
+	@Test
+	public void testVectorKernelIsSelected() {
+		// surefire starts the JVM with --add-modules jdk.incubator.vector, see pom.xml
+		assertThat(TemperatureKernels.best().toString(), startsWith("vector"));
+	}
+
+	@Test
+	public void testVectorMatchesScalar() {
+		SplittableRandom random = new SplittableRandom(42);
+		// Lengths below, at and past the vector width exercise the scalar tail
+		for (int length : new int[] { 0, 1, 3, 4, 7, 8, 9, 16, 31, 255, 4096 }) {
+			double[] expected = random.doubles(length, -100, 250).toArray();
+			double[] actual = expected.clone();
+
+			TemperatureKernels.scalar().fahrenheitToCelsius(expected, length);
+			TemperatureKernels.best().fahrenheitToCelsius(actual, length);
+
+			assertArrayEquals(expected, actual, "length " + length);
+		}
+	}
+}
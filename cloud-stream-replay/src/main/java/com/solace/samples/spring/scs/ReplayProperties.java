@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the {@link SegmentReplayer}, used by the
+ * {@code replaySensorReadings} function.
+ */
+@ConfigurationProperties("samples.replay")
+public class ReplayProperties {
+	/** Directory of the segments captured by the fileSink of cloud-stream-sink. */
+	private Path directory = Path.of("../cloud-stream-sink/segments");
+
+	/** Speed relative to the capture: 1x, Nx or max. */
+	private ReplaySpeed speed = ReplaySpeed.ORIGINAL;
+
+	/** Only replay readings timestamped at or after this instant. */
+	private Instant from;
+
+	/** Only replay readings timestamped at or before this instant. */
+	private Instant to;
+
+	/** How often the replayer wakes up to publish the readings that are due. */
+	private Duration tick = Duration.ofMillis(1);
+
+	/**
+	 * Most readings published per tick; when more are due the replay falls
+	 * behind rather than reading the backlog into memory.
+	 */
+	private int maxPerTick = 1024;
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	public void setDirectory(Path directory) {
+		this.directory = directory;
+	}
+
+	public ReplaySpeed getSpeed() {
+		return speed;
+	}
+
+	public void setSpeed(ReplaySpeed speed) {
+		this.speed = speed;
+	}
+
+	public Instant getFrom() {
+		return from;
+	}
+
+	public void setFrom(Instant from) {
+		this.from = from;
+	}
+
+	public Instant getTo() {
+		return to;
+	}
+
+	public void setTo(Instant to) {
+		this.to = to;
+	}
+
+	public Duration getTick() {
+		return tick;
+	}
+
+	public void setTick(Duration tick) {
+		this.tick = tick;
+	}
+
+	public int getMaxPerTick() {
+		return maxPerTick;
+	}
+
+	public void setMaxPerTick(int maxPerTick) {
+		this.maxPerTick = maxPerTick;
+	}
+}
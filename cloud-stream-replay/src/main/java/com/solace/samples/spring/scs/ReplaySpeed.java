@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+/**
+ * Speed of a replay relative to the capture: {@code 1} or {@code 1x} keeps
+ * the original inter-arrival times, {@code 10x} divides them by ten and
+ * {@code max} publishes as fast as the binder accepts readings.
+ */
+public final class ReplaySpeed {
+	public static final ReplaySpeed ORIGINAL = new ReplaySpeed(1);
+	public static final ReplaySpeed MAX = new ReplaySpeed(Double.POSITIVE_INFINITY);
+
+	private final double factor;
+
+	private ReplaySpeed(double factor) {
+		this.factor = factor;
+	}
+
+	public static ReplaySpeed times(double factor) {
+		if (!(factor > 0)) {
+			throw new IllegalArgumentException("Replay speed must be positive: " + factor);
+		}
+		return new ReplaySpeed(factor);
+	}
+
+	/* Used by Spring to bind samples.replay.speed */
+	public static ReplaySpeed valueOf(String speed) {
+		String value = speed.trim().toLowerCase();
+		if (value.equals("max")) {
+			return MAX;
+		}
+		if (value.endsWith("x")) {
+			value = value.substring(0, value.length() - 1);
+		}
+		return times(Double.parseDouble(value));
+	}
+
+	public boolean isMax() {
+		return factor == Double.POSITIVE_INFINITY;
+	}
+
+	public double getFactor() {
+		return factor;
+	}
+
+	@Override
+	public String toString() {
+		return isMax() ? "max" : factor + "x";
+	}
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.solace.samples.spring.common.CompactSensorReading;
+import com.solace.samples.spring.common.SensorReading;
+import com.solace.samples.spring.common.segment.SegmentReader;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+
+/**
+ * Replays the readings captured in segment files by the fileSink of
+ * cloud-stream-sink, in the order they were captured.
+ *
+ * The segments are streamed through a {@link SegmentReader}, never loaded
+ * whole. Unless the speed is {@code max}, each reading is published when its
+ * offset from the first captured timestamp, divided by the speed, has elapsed
+ * since the start; like the load generator, every tick publishes the
+ * readings that are due, so late ticks are caught up. A tick publishes at most
+ * {@code maxPerTick} readings: when the binder cannot keep up the replay falls
+ * behind, and the backlog stays in the segments rather than in memory.
+ * Readings captured out of timestamp order, or without a timestamp, are
+ * published as soon as they are read.
+ */
+public class SegmentReplayer {
+	private static final Logger log = LoggerFactory.getLogger(SegmentReplayer.class);
+
+	private final ReplayProperties properties;
+	private final Counter replayed;
+
+	public SegmentReplayer(ReplayProperties properties, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.replayed = meterRegistry != null ? Counter.builder("samples.replay.readings")
+				.description("Readings replayed from the captured segments")
+				.register(meterRegistry) : null;
+	}
+
+	public Flux<SensorReading> readings() {
+		return Flux.defer(() -> {
+			try {
+				return replay(open());
+			} catch (IOException e) {
+				return Flux.error(e);
+			}
+		}).doOnNext(reading -> {
+			if (replayed != null) {
+				replayed.increment();
+			}
+		});
+	}
+
+	private SegmentReader open() throws IOException {
+		log.info("Replaying {} at {} speed", properties.getDirectory(), properties.getSpeed());
+		if (properties.getFrom() == null && properties.getTo() == null) {
+			return SegmentReader.open(properties.getDirectory());
+		}
+		return SegmentReader.open(properties.getDirectory(), epochNanos(properties.getFrom(), Long.MIN_VALUE),
+				epochNanos(properties.getTo(), Long.MAX_VALUE));
+	}
+
+	private static long epochNanos(Instant instant, long unbounded) {
+		return instant != null ? TimeUnit.SECONDS.toNanos(instant.getEpochSecond()) + instant.getNano() : unbounded;
+	}
+
+	private Flux<SensorReading> replay(SegmentReader reader) {
+		long startNanos = System.nanoTime();
+		Flux<SensorReading> readings;
+		if (properties.getSpeed().isMax()) {
+			readings = Flux.generate(sink -> {
+				SensorReading reading = next(reader);
+				if (reading != null) {
+					sink.next(reading);
+				} else {
+					sink.complete();
+				}
+			});
+		} else {
+			Pacer pacer = new Pacer(reader, properties.getSpeed().getFactor(), startNanos,
+					properties.getMaxPerTick());
+			// Ticks the binder is not ready for are skipped, the next tick catches up
+			readings = Flux.interval(properties.getTick())
+					.onBackpressureDrop()
+					.map(tick -> pacer.due(System.nanoTime()))
+					.takeUntil(due -> pacer.isFinished())
+					.concatMapIterable(due -> due, 1);
+		}
+		return readings.doOnComplete(() -> {
+			long elapsed = System.nanoTime() - startNanos;
+			log.info("Replay of {} finished after {} ms", properties.getDirectory(),
+					TimeUnit.NANOSECONDS.toMillis(elapsed));
+		});
+	}
+
+	private static SensorReading next(SegmentReader reader) {
+		try {
+			return reader.next();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Releases the captured readings as their time comes. Only ever called from
+	 * the tick thread.
+	 */
+	static final class Pacer {
+		private final SegmentReader reader;
+		private final double speed;
+		private final long startNanos;
+		private final int maxPerTick;
+
+		private long firstTimestamp = CompactSensorReading.NO_TIMESTAMP;
+		private SensorReading pending;
+		private boolean finished;
+
+		Pacer(SegmentReader reader, double speed, long startNanos, int maxPerTick) {
+			this.reader = reader;
+			this.speed = speed;
+			this.startNanos = startNanos;
+			this.maxPerTick = maxPerTick;
+		}
+
+		/* Up to maxPerTick of the readings due, the others are left for the next call */
+		List<SensorReading> due(long nowNanos) {
+			List<SensorReading> due = Collections.emptyList();
+			while (!finished && due.size() < maxPerTick) {
+				if (pending == null) {
+					pending = next(reader);
+					if (pending == null) {
+						finished = true;
+						break;
+					}
+				}
+				long timestamp = CompactSensorReading.toEpochNanos(pending.getTimestamp());
+				if (timestamp != CompactSensorReading.NO_TIMESTAMP) {
+					if (firstTimestamp == CompactSensorReading.NO_TIMESTAMP) {
+						firstTimestamp = timestamp;
+					}
+					if (startNanos + (long) ((timestamp - firstTimestamp) / speed) > nowNanos) {
+						break;
+					}
+				}
+				if (due.isEmpty()) {
+					due = new ArrayList<>();
+				}
+				due.add(pending);
+				pending = null;
+			}
+			return due;
+		}
+
+		boolean isFinished() {
+			return finished;
+		}
+	}
+}
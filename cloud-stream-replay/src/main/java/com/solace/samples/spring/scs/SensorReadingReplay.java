@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.messaging.converter.MessageConverter;
+
+import com.solace.samples.spring.common.SensorReading;
+import com.solace.samples.spring.common.SensorReadingMessageConverter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+
+@SpringBootApplication
+@EnableConfigurationProperties(ReplayProperties.class)
+public class SensorReadingReplay {
+
+	public static void main(String[] args) {
+		SpringApplication.run(SensorReadingReplay.class, args);
+	}
+
+	/*
+	 * Republishes the readings captured by the fileSink of cloud-stream-sink.
+	 * The binder subscribes once; the Flux completes when every captured
+	 * reading has been replayed. Check out application.yml for the speed and
+	 * the time range.
+	 */
+	@Bean
+	public Supplier<Flux<SensorReading>> replaySensorReadings(ReplayProperties properties,
+			ObjectProvider<MeterRegistry> meterRegistry) {
+		SegmentReplayer replayer = new SegmentReplayer(properties, meterRegistry.getIfAvailable());
+		return replayer::readings;
+	}
+
+	/*
+	 * Binary encoding for replayed readings, used when the output binding's
+	 * content-type is application/x-sensor-reading (see application.yml)
+	 */
+	@Bean
+	public MessageConverter sensorReadingMessageConverter() {
+		return new SensorReadingMessageConverter();
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.solace.samples.spring.common.SensorReading;
+import com.solace.samples.spring.common.SensorReading.BaseUnit;
+import com.solace.samples.spring.common.segment.SegmentReader;
+import com.solace.samples.spring.common.segment.SegmentWriter;
+
+public class SegmentReplayerTest {
+	private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@TempDir
+	Path directory;
+
+	/*
+	 * Captured 0, 100, 200 and 300 ms after the first reading, plus one
+	 * without a timestamp and one out of order at the end
+	 */
+	@BeforeEach
+	void capture() throws Exception {
+		try (SegmentWriter writer = new SegmentWriter(directory, 64 * 1024, 16)) {
+			writer.append(reading("a", 0));
+			writer.append(reading("b", 100));
+			writer.append(reading("c", 200));
+			SensorReading untimed = reading("d", 0);
+			untimed.setTimestamp(null);
+			writer.append(untimed);
+			writer.append(reading("e", 300));
+			writer.append(reading("f", 50));
+		}
+	}
+
+	private static SensorReading reading(String sensorID, long offsetMillis) {
+		SensorReading reading = new SensorReading(sensorID, 70, BaseUnit.FAHRENHEIT);
+		reading.setTimestamp(new Timestamp(1_700_000_000_000L + offsetMillis));
+		return reading;
+	}
+
+	private static List<String> sensorIDs(List<SensorReading> readings) {
+		return readings.stream().map(SensorReading::getSensorID).collect(Collectors.toList());
+	}
+
+	@Test
+	void testKeepsOriginalInterArrivalTimes() throws Exception {
+		SegmentReplayer.Pacer pacer = new SegmentReplayer.Pacer(SegmentReader.open(directory), 1, 0, 1024);
+
+		assertEquals(List.of("a"), sensorIDs(pacer.due(0)));
+		assertEquals(List.of(), sensorIDs(pacer.due(99 * MILLIS)));
+		assertEquals(List.of("b"), sensorIDs(pacer.due(100 * MILLIS)));
+		// A late tick catches up, readings without a timestamp go with the one before them
+		assertEquals(List.of("c", "d"), sensorIDs(pacer.due(250 * MILLIS)));
+		assertFalse(pacer.isFinished());
+		// Out of order readings are already due
+		assertEquals(List.of("e", "f"), sensorIDs(pacer.due(300 * MILLIS)));
+		assertTrue(pacer.isFinished());
+	}
+
+	@Test
+	void testSpeedDividesInterArrivalTimes() throws Exception {
+		SegmentReplayer.Pacer pacer = new SegmentReplayer.Pacer(SegmentReader.open(directory), 10, 0, 1024);
+
+		assertEquals(List.of("a"), sensorIDs(pacer.due(9 * MILLIS)));
+		assertEquals(List.of("b", "c", "d"), sensorIDs(pacer.due(20 * MILLIS)));
+		assertEquals(List.of("e", "f"), sensorIDs(pacer.due(30 * MILLIS)));
+		assertTrue(pacer.isFinished());
+	}
+
+	@Test
+	void testCapsTheReadingsOfATick() throws Exception {
+		SegmentReplayer.Pacer pacer = new SegmentReplayer.Pacer(SegmentReader.open(directory), 1, 0, 2);
+
+		// Everything is due, the rest waits for the following ticks
+		assertEquals(List.of("a", "b"), sensorIDs(pacer.due(1_000 * MILLIS)));
+		assertEquals(List.of("c", "d"), sensorIDs(pacer.due(1_000 * MILLIS)));
+		assertFalse(pacer.isFinished());
+		assertEquals(List.of("e", "f"), sensorIDs(pacer.due(1_000 * MILLIS)));
+		assertEquals(List.of(), sensorIDs(pacer.due(1_000 * MILLIS)));
+		assertTrue(pacer.isFinished());
+	}
+
+	@Test
+	void testParsesSpeed() {
+		assertEquals(1, ReplaySpeed.valueOf("1x").getFactor());
+		assertEquals(2.5, ReplaySpeed.valueOf("2.5").getFactor());
+		assertTrue(ReplaySpeed.valueOf("MAX").isMax());
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.Message;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.solace.samples.spring.common.SensorReading;
+import com.solace.samples.spring.common.SensorReading.BaseUnit;
+import com.solace.samples.spring.common.segment.SegmentWriter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Replays a capture at max speed against the test binder, no broker needed
+ */
+@SpringBootTest(properties = "samples.replay.speed=max")
+public class SensorReadingReplayTest {
+	private static final String DESTINATION = "sensor/temperature/fahrenheit";
+	private static final int READINGS = 5_000;
+
+	@TempDir
+	static Path directory;
+
+	@Autowired
+	private OutputDestination output;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@SpringBootApplication
+	@Import(TestChannelBinderConfiguration.class)
+	public static class TestConfiguration {
+
+	}
+
+	@BeforeAll
+	static void capture() throws Exception {
+		// Small segments, so the replay spans several of them
+		try (SegmentWriter writer = new SegmentWriter(directory, 16 * 1024, 64)) {
+			for (int i = 0; i < READINGS; i++) {
+				writer.append(new SensorReading("sensor-" + i, i, BaseUnit.FAHRENHEIT));
+			}
+		}
+	}
+
+	@DynamicPropertySource
+	static void replayDirectory(DynamicPropertyRegistry registry) {
+		registry.add("samples.replay.directory", directory::toString);
+	}
+
+	@Test
+	void testReplaysEveryReadingInOrder() {
+		for (int i = 0; i < READINGS; i++) {
+			Message<byte[]> message = output.receive(10_000, DESTINATION);
+			assertNotNull(message, "Missing reading " + i);
+			assertThat(new String(message.getPayload()), containsString("\"sensor-" + i + "\""));
+		}
+		assertNull(output.receive(100, DESTINATION));
+		assertEquals(READINGS, meterRegistry.get("samples.replay.readings").counter().count());
+	}
+}
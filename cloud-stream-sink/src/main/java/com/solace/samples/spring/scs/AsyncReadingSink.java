@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.integration.StaticMessageHeaderAccessor;
+import org.springframework.integration.acks.AckUtils;
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.messaging.Message;
+
+import com.solace.samples.spring.common.SensorReading;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hands readings from the binder's consumer threads to a single writer thread
+ * through a {@link BoundedRingBuffer}, so slow console or disk I/O no longer
+ * holds up consumption. The writer drains up to {@code batchSize} readings at a
+ * time into one direct buffer and writes it with a single channel write.
+ *
+ * When the queue is full the {@link BackPressure} decides whether the consumer
+ * thread waits, the oldest queued reading is dropped, or the message is
+ * requeued on the broker. Readings accepted into the queue are acknowledged
+ * before they are written; see the file sink for durable writes.
+ */
+public class AsyncReadingSink implements AutoCloseable {
+	private static final Logger log = LoggerFactory.getLogger(AsyncReadingSink.class);
+
+	/* The writer is unparked as readings are queued, this only bounds a missed wakeup */
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+	private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+	private static final int BUFFER_BYTES = 64 * 1024;
+	private static final byte NEWLINE = '\n';
+
+	private final AsyncSinkProperties properties;
+	private final Supplier<WritableByteChannel> output;
+	private final BoundedRingBuffer<SensorReading> queue;
+
+	private final Counter written;
+	private final Counter dropped;
+	private final Counter requeued;
+	private final Counter blocked;
+
+	// Writer thread only
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+	private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+	private WritableByteChannel channel;
+
+	private final AtomicInteger accepting = new AtomicInteger();
+	private volatile Thread writer;
+	private volatile boolean idle;
+	private volatile boolean closed;
+
+	public AsyncReadingSink(AsyncSinkProperties properties, MeterRegistry registry) {
+		this(properties, registry, () -> openOutput(properties));
+	}
+
+	AsyncReadingSink(AsyncSinkProperties properties, MeterRegistry registry, Supplier<WritableByteChannel> output) {
+		this.properties = properties;
+		this.output = output;
+		this.queue = new BoundedRingBuffer<>(properties.getCapacity());
+		Gauge.builder("samples.sink.queue.depth", queue, BoundedRingBuffer::size)
+				.description("Readings waiting for the sink writer")
+				.register(registry);
+		Gauge.builder("samples.sink.queue.capacity", queue, BoundedRingBuffer::capacity).register(registry);
+		this.written = Counter.builder("samples.sink.written").register(registry);
+		this.dropped = Counter.builder("samples.sink.dropped")
+				.description("Queued readings dropped to make room for newer ones")
+				.register(registry);
+		this.requeued = Counter.builder("samples.sink.requeued")
+				.description("Messages left on the broker because the queue was full")
+				.register(registry);
+		this.blocked = Counter.builder("samples.sink.blocked")
+				.description("Consumer threads that had to wait for room in the queue")
+				.register(registry);
+	}
+
+	/**
+	 * Queues the reading for the writer.
+	 *
+	 * @throws IllegalStateException once the sink is closed, so the binder's
+	 *                               error handling decides what becomes of it
+	 */
+	public void accept(Message<SensorReading> message) {
+		// Counted before looking at closed, so the writer cannot stop under a reading being queued
+		accepting.incrementAndGet();
+		try {
+			if (closed) {
+				throw new IllegalStateException("The sink is closed");
+			}
+			ensureStarted();
+			enqueue(message);
+			if (idle) {
+				LockSupport.unpark(writer);
+			}
+		} finally {
+			accepting.decrementAndGet();
+		}
+	}
+
+	private void enqueue(Message<SensorReading> message) {
+		SensorReading reading = message.getPayload();
+		if (queue.offer(reading)) {
+			return;
+		}
+		switch (properties.getBackPressure()) {
+		case BLOCK -> {
+			blocked.increment();
+			while (!queue.offer(reading)) {
+				if (closed) {
+					throw new IllegalStateException("The sink is closed");
+				}
+				LockSupport.parkNanos(BLOCKED_PARK_NANOS);
+			}
+		}
+		case DROP_OLDEST -> {
+			do {
+				if (queue.poll() != null) {
+					dropped.increment();
+				}
+			} while (!queue.offer(reading));
+		}
+		case NACK -> {
+			AcknowledgmentCallback ackCallback = StaticMessageHeaderAccessor.getAcknowledgmentCallback(message);
+			if (ackCallback == null) {
+				// No broker to return it to, let the binder's error handling decide
+				throw new IllegalStateException("The sink queue is full");
+			}
+			ackCallback.noAutoAck();
+			AckUtils.requeue(ackCallback);
+			requeued.increment();
+		}
+		}
+	}
+
+	public int getQueueDepth() {
+		return queue.size();
+	}
+
+	/*
+	 * Started on the first reading, so the output is only opened once there is
+	 * something to write.
+	 */
+	private void ensureStarted() {
+		if (writer == null) {
+			synchronized (this) {
+				if (closed) {
+					throw new IllegalStateException("The sink is closed");
+				}
+				if (writer == null) {
+					channel = output.get();
+					Thread thread = new Thread(this::writeLoop, "sink-writer");
+					thread.setDaemon(true);
+					thread.start();
+					writer = thread;
+				}
+			}
+		}
+	}
+
+	private static WritableByteChannel openOutput(AsyncSinkProperties properties) {
+		if (properties.getOutput() == null) {
+			return Channels.newChannel(new FileOutputStream(FileDescriptor.out));
+		}
+		try {
+			return FileChannel.open(properties.getOutput(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.APPEND);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot open " + properties.getOutput(), e);
+		}
+	}
+
+	private void writeLoop() {
+		// Once closed, readings still being accepted are written too
+		while (!closed || accepting.get() > 0 || queue.size() > 0) {
+			int drained = queue.drain(this::encode, properties.getBatchSize());
+			if (drained > 0) {
+				flush();
+				written.increment(drained);
+			} else if (!closed) {
+				awaitReadings();
+			}
+		}
+	}
+
+	private void awaitReadings() {
+		idle = true;
+		// Checked again once idle is set, so a reading queued in between is not missed
+		if (queue.size() == 0 && !closed) {
+			LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+		}
+		idle = false;
+	}
+
+	private void encode(SensorReading reading) {
+		CharBuffer chars = CharBuffer.wrap(reading.toString());
+		encoder.reset();
+		while (encoder.encode(chars, buffer, true) == CoderResult.OVERFLOW) {
+			flush();
+		}
+		if (!buffer.hasRemaining()) {
+			flush();
+		}
+		buffer.put(NEWLINE);
+	}
+
+	private void flush() {
+		buffer.flip();
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		} catch (IOException e) {
+			log.error("Failed to write readings, {} bytes lost", buffer.remaining(), e);
+		}
+		buffer.clear();
+	}
+
+	/** Writes whatever is still queued, then stops the writer; later readings are refused. */
+	@Override
+	public void close() throws InterruptedException, IOException {
+		Thread thread;
+		synchronized (this) {
+			closed = true;
+			thread = writer;
+		}
+		if (thread == null) {
+			return;
+		}
+		LockSupport.unpark(thread);
+		thread.join(TimeUnit.SECONDS.toMillis(10));
+		// Closing the channel over standard output would close the process' stdout
+		if (properties.getOutput() != null) {
+			channel.close();
+		}
+	}
+}
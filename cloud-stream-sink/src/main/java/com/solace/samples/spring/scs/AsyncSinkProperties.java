@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.nio.file.Path;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the {@code asyncSink} function.
+ */
+@ConfigurationProperties("samples.sink.async")
+public class AsyncSinkProperties {
+	/** Readings that can wait for the writer; rounded up to a power of two. */
+	private int capacity = 8192;
+
+	/** Behaviour when the queue is full. */
+	private BackPressure backPressure = BackPressure.BLOCK;
+
+	/** Most readings written with a single channel write. */
+	private int batchSize = 1024;
+
+	/** File the readings are appended to, standard output when not set. */
+	private Path output;
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	public BackPressure getBackPressure() {
+		return backPressure;
+	}
+
+	public void setBackPressure(BackPressure backPressure) {
+		this.backPressure = backPressure;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public Path getOutput() {
+		return output;
+	}
+
+	public void setOutput(Path output) {
+		this.output = output;
+	}
+}
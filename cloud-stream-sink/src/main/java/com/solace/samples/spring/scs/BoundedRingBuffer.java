@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free multi-producer / multi-consumer queue (Dmitry Vyukov's
+ * array queue). Every slot carries a sequence number telling producers and
+ * consumers whose turn it is, so a full or empty queue is detected without
+ * locks and {@link #offer(Object)} never blocks.
+ */
+public class BoundedRingBuffer<E> {
+	private final Object[] elements;
+	private final AtomicLongArray sequences;
+	private final int mask;
+	private final AtomicLong tail = new AtomicLong();
+	private final AtomicLong head = new AtomicLong();
+
+	/** @param capacity rounded up to a power of two */
+	public BoundedRingBuffer(int capacity) {
+		if (capacity < 2 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("Capacity must be between 2 and 2^30: " + capacity);
+		}
+		int size = Integer.highestOneBit(capacity - 1) << 1;
+		this.elements = new Object[size];
+		this.sequences = new AtomicLongArray(size);
+		this.mask = size - 1;
+		for (int i = 0; i < size; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	/** @return {@code false} when the queue is full */
+	public boolean offer(E element) {
+		long position = tail.get();
+		while (true) {
+			int index = (int) (position & mask);
+			long difference = sequences.get(index) - position;
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					elements[index] = element;
+					sequences.lazySet(index, position + 1);
+					return true;
+				}
+				position = tail.get();
+			} else if (difference < 0) {
+				return false;
+			} else {
+				position = tail.get();
+			}
+		}
+	}
+
+	/** @return the oldest element, or {@code null} when the queue is empty */
+	@SuppressWarnings("unchecked")
+	public E poll() {
+		long position = head.get();
+		while (true) {
+			int index = (int) (position & mask);
+			long difference = sequences.get(index) - (position + 1);
+			if (difference == 0) {
+				if (head.compareAndSet(position, position + 1)) {
+					E element = (E) elements[index];
+					elements[index] = null;
+					sequences.lazySet(index, position + mask + 1);
+					return element;
+				}
+				position = head.get();
+			} else if (difference < 0) {
+				return null;
+			} else {
+				position = head.get();
+			}
+		}
+	}
+
+	/** Polls up to {@code max} elements into {@code sink}, oldest first. */
+	public int drain(Consumer<? super E> sink, int max) {
+		int drained = 0;
+		E element;
+		while (drained < max && (element = poll()) != null) {
+			sink.accept(element);
+			drained++;
+		}
+		return drained;
+	}
+
+	/** Approximate while producers or consumers are active. */
+	public int size() {
+		long size = tail.get() - head.get();
+		return (int) Math.max(0, Math.min(size, capacity()));
+	}
+
+	public int capacity() {
+		return mask + 1;
+	}
+}
@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.integration.StaticMessageHeaderAccessor;
+import org.springframework.integration.acks.AckUtils;
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.messaging.Message;
+
+import com.solace.samples.spring.common.SensorReading;
+import com.solace.samples.spring.common.segment.SegmentWriter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Durably records readings in memory-mapped segment files through a
+ * {@link SegmentWriter}. The consumer threads take over acknowledgment of
+ * each message, as in the manual-ack sample, and queue the reading for a
+ * single writer thread; a message is only accepted once its reading has been
+ * appended and, depending on the {@link FsyncPolicy}, forced to disk.
+ *
+ * A reading whose append fails is retried up to {@code maxAttempts} times,
+ * then rejected, so the broker moves it to the queue's dead message queue
+ * instead of redelivering it forever. Readings whose force fails are
+ * requeued; since a batch may fail after some of its readings were appended,
+ * delivery into the segments is at-least-once.
+ */
+public class FileReadingSink implements AutoCloseable {
+	private static final Logger log = LoggerFactory.getLogger(FileReadingSink.class);
+
+	/* The writer is unparked as readings are queued, this only bounds a missed wakeup */
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+	private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+	private static final class Pending {
+		final SensorReading reading;
+		final AcknowledgmentCallback ackCallback;
+
+		Pending(SensorReading reading, AcknowledgmentCallback ackCallback) {
+			this.reading = reading;
+			this.ackCallback = ackCallback;
+		}
+	}
+
+	private final FileSinkProperties properties;
+	private final int segmentBytes;
+	private final long fsyncIntervalNanos;
+	private final BoundedRingBuffer<Pending> queue;
+
+	private final int maxAttempts;
+
+	private final Counter written;
+	private final Counter failed;
+	private final Counter rejected;
+	private final Timer fsyncs;
+
+	// Writer thread only
+	private SegmentWriter segments;
+	private final List<AcknowledgmentCallback> unflushed = new ArrayList<>();
+	private long lastForceNanos;
+
+	private final AtomicInteger accepting = new AtomicInteger();
+	private volatile Thread writer;
+	private volatile boolean idle;
+	private volatile boolean closed;
+
+	public FileReadingSink(FileSinkProperties properties, MeterRegistry registry) {
+		long segmentBytes = properties.getSegmentSize().toBytes();
+		if (segmentBytes > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("samples.sink.file.segment-size must be under 2GB: " + segmentBytes);
+		}
+		this.properties = properties;
+		this.segmentBytes = (int) segmentBytes;
+		this.fsyncIntervalNanos = properties.getFsyncInterval().toNanos();
+		this.maxAttempts = Math.max(1, properties.getMaxAttempts());
+		this.queue = new BoundedRingBuffer<>(properties.getCapacity());
+		Gauge.builder("samples.sink.file.queue.depth", queue, BoundedRingBuffer::size)
+				.description("Readings waiting to be appended to a segment")
+				.register(registry);
+		this.written = Counter.builder("samples.sink.file.written").register(registry);
+		this.failed = Counter.builder("samples.sink.file.failed")
+				.description("Readings that could not be forced to disk and were requeued")
+				.register(registry);
+		this.rejected = Counter.builder("samples.sink.file.rejected")
+				.description("Readings that could not be appended and were rejected")
+				.register(registry);
+		this.fsyncs = Timer.builder("samples.sink.file.fsync").register(registry);
+	}
+
+	/**
+	 * Queues the reading for the writer, which settles the message.
+	 *
+	 * @throws IllegalStateException once the sink is closed, leaving the
+	 *                               message to the binder's error handling
+	 */
+	public void accept(Message<SensorReading> message) {
+		// Counted before looking at closed, so the writer cannot stop under a reading being queued
+		accepting.incrementAndGet();
+		try {
+			if (closed) {
+				throw new IllegalStateException("The sink is closed");
+			}
+			ensureStarted();
+			AcknowledgmentCallback ackCallback = StaticMessageHeaderAccessor.getAcknowledgmentCallback(message);
+			Pending pending = new Pending(message.getPayload(), ackCallback);
+			if (!queue.offer(pending)) {
+				do {
+					if (closed) {
+						throw new IllegalStateException("The sink is closed");
+					}
+					LockSupport.parkNanos(BLOCKED_PARK_NANOS);
+				} while (!queue.offer(pending));
+			}
+			if (idle) {
+				LockSupport.unpark(writer);
+			}
+			// Only once queued, a refused message is still settled by the binder
+			if (ackCallback != null) {
+				ackCallback.noAutoAck();
+			}
+		} finally {
+			accepting.decrementAndGet();
+		}
+	}
+
+	private void ensureStarted() {
+		if (writer == null) {
+			synchronized (this) {
+				if (closed) {
+					throw new IllegalStateException("The sink is closed");
+				}
+				if (writer == null) {
+					try {
+						segments = new SegmentWriter(properties.getDirectory(), segmentBytes,
+								properties.getIndexInterval());
+					} catch (IOException e) {
+						throw new IllegalStateException("Cannot open segments in " + properties.getDirectory(), e);
+					}
+					lastForceNanos = System.nanoTime();
+					Thread thread = new Thread(this::writeLoop, "file-sink-writer");
+					thread.setDaemon(true);
+					thread.start();
+					writer = thread;
+				}
+			}
+		}
+	}
+
+	private void writeLoop() {
+		// Once closed, readings still being accepted are written too
+		while (!closed || accepting.get() > 0 || queue.size() > 0) {
+			int drained = queue.drain(this::append, properties.getBatchSize());
+			if (drained > 0 || !unflushed.isEmpty()) {
+				applyFsyncPolicy();
+			}
+			if (drained == 0 && !closed) {
+				awaitReadings();
+			}
+		}
+		flush();
+		try {
+			segments.close();
+		} catch (IOException e) {
+			log.error("Failed to seal segment {}", segments.getSegmentFile(), e);
+		}
+	}
+
+	private void awaitReadings() {
+		long parkNanos = IDLE_PARK_NANOS;
+		if (properties.getFsync() == FsyncPolicy.PERIODIC && !unflushed.isEmpty()) {
+			// Wake up in time to force the readings waiting for the next fsync
+			parkNanos = Math.min(parkNanos, fsyncIntervalNanos - (System.nanoTime() - lastForceNanos));
+		}
+		idle = true;
+		// Checked again once idle is set, so a reading queued in between is not missed
+		if (parkNanos > 0 && queue.size() == 0 && !closed) {
+			LockSupport.parkNanos(this, parkNanos);
+		}
+		idle = false;
+	}
+
+	private void append(Pending pending) {
+		for (int attempt = 1;; attempt++) {
+			try {
+				segments.append(pending.reading);
+				written.increment();
+				if (pending.ackCallback != null) {
+					unflushed.add(pending.ackCallback);
+				}
+				return;
+			} catch (IOException | RuntimeException e) {
+				if (attempt < maxAttempts) {
+					log.warn("Failed to append {}, attempt {} of {}", pending.reading, attempt, maxAttempts, e);
+					continue;
+				}
+				log.error("Failed to append {} after {} attempts, rejecting it", pending.reading, attempt, e);
+				rejected.increment();
+				if (pending.ackCallback != null) {
+					AckUtils.reject(pending.ackCallback);
+				}
+				return;
+			}
+		}
+	}
+
+	private void applyFsyncPolicy() {
+		switch (properties.getFsync()) {
+		case BATCH -> flush();
+		case PERIODIC -> {
+			if (System.nanoTime() - lastForceNanos >= fsyncIntervalNanos) {
+				flush();
+			}
+		}
+		case NONE -> acknowledge();
+		}
+	}
+
+	private void flush() {
+		try {
+			fsyncs.record(segments::force);
+			lastForceNanos = System.nanoTime();
+			acknowledge();
+		} catch (RuntimeException e) {
+			log.error("Failed to force {}, requeuing {} readings", segments.getSegmentFile(), unflushed.size(), e);
+			failed.increment(unflushed.size());
+			unflushed.forEach(AckUtils::requeue);
+			unflushed.clear();
+		}
+	}
+
+	private void acknowledge() {
+		for (AcknowledgmentCallback ackCallback : unflushed) {
+			try {
+				AckUtils.accept(ackCallback);
+			} catch (RuntimeException e) {
+				// The broker redelivers it, the reading will be appended twice
+				log.warn("Failed to acknowledge a written reading", e);
+			}
+		}
+		unflushed.clear();
+	}
+
+	/** Writes and forces whatever is still queued, then stops the writer; later readings are refused. */
+	@Override
+	public void close() throws InterruptedException {
+		Thread thread;
+		synchronized (this) {
+			closed = true;
+			thread = writer;
+		}
+		if (thread != null) {
+			LockSupport.unpark(thread);
+			thread.join(TimeUnit.SECONDS.toMillis(10));
+		}
+	}
+}
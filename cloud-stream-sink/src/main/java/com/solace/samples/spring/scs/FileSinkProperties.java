@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings of the {@code fileSink} function.
+ */
+@ConfigurationProperties("samples.sink.file")
+public class FileSinkProperties {
+	/** Directory holding the segment files. */
+	private Path directory = Path.of("segments");
+
+	/** Size of each segment file, at most 2GB as a segment is mapped at once. */
+	private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+	/** When readings are forced to disk and acknowledged. */
+	private FsyncPolicy fsync = FsyncPolicy.BATCH;
+
+	/** Longest time between two forces with the PERIODIC policy. */
+	private Duration fsyncInterval = Duration.ofSeconds(1);
+
+	/** Readings per entry of the time index. */
+	private int indexInterval = 1024;
+
+	/** Readings that can wait for the writer; rounded up to a power of two. */
+	private int capacity = 8192;
+
+	/** Most readings appended between two fsync policy decisions. */
+	private int batchSize = 1024;
+
+	/** Appends tried for a reading before its message is rejected. */
+	private int maxAttempts = 3;
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	public void setDirectory(Path directory) {
+		this.directory = directory;
+	}
+
+	public DataSize getSegmentSize() {
+		return segmentSize;
+	}
+
+	public void setSegmentSize(DataSize segmentSize) {
+		this.segmentSize = segmentSize;
+	}
+
+	public FsyncPolicy getFsync() {
+		return fsync;
+	}
+
+	public void setFsync(FsyncPolicy fsync) {
+		this.fsync = fsync;
+	}
+
+	public Duration getFsyncInterval() {
+		return fsyncInterval;
+	}
+
+	public void setFsyncInterval(Duration fsyncInterval) {
+		this.fsyncInterval = fsyncInterval;
+	}
+
+	public int getIndexInterval() {
+		return indexInterval;
+	}
+
+	public void setIndexInterval(int indexInterval) {
+		this.indexInterval = indexInterval;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	public void setMaxAttempts(int maxAttempts) {
+		this.maxAttempts = maxAttempts;
+	}
+}
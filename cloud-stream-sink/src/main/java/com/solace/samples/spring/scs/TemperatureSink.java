@@ -23,11 +23,18 @@ import java.util.function.Consumer;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MessageConverter;
 
 import com.solace.samples.spring.common.SensorReading;
+import com.solace.samples.spring.common.SensorReadingMessageConverter;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @SpringBootApplication
+@EnableConfigurationProperties({ AsyncSinkProperties.class, FileSinkProperties.class })
 public class TemperatureSink {
 
 	public static void main(String[] args) {
@@ -38,9 +45,57 @@ public class TemperatureSink {
 	 *  Check out application.yml to see how to
 	 *  1. Use `concurrency` for multi-threaded consumption
 	 *  2. Use wildcard subscriptions
+	 *  3. Offload the printing to virtual threads, which takes the Message
+	 *     and its acknowledgment callback rather than the bare reading
+	 */
+	@Bean
+	public Consumer<Message<SensorReading>> sink(){
+		return message -> System.out.println(message.getPayload());
+	}
+
+	/*
+	 * Non-blocking alternative to sink: the consumer threads only enqueue the
+	 * reading and a dedicated writer thread prints them in batches. Queue size,
+	 * output and what happens when the queue is full are set under
+	 * samples.sink.async in application.yml. Only created when asyncSink is in
+	 * spring.cloud.function.definition.
+	 */
+	@Bean
+	@ConditionalOnFunction("asyncSink")
+	public Consumer<Message<SensorReading>> asyncSink(AsyncReadingSink asyncReadingSink) {
+		return asyncReadingSink::accept;
+	}
+
+	@Bean
+	@ConditionalOnFunction("asyncSink")
+	public AsyncReadingSink asyncReadingSink(AsyncSinkProperties properties, MeterRegistry meterRegistry) {
+		return new AsyncReadingSink(properties, meterRegistry);
+	}
+
+	/*
+	 * Durable alternative to sink: readings are appended to memory-mapped
+	 * segment files under samples.sink.file.directory and each message is only
+	 * acknowledged once its reading is on disk, as set by samples.sink.file.fsync.
+	 * Only created when fileSink is in spring.cloud.function.definition.
+	 */
+	@Bean
+	@ConditionalOnFunction("fileSink")
+	public Consumer<Message<SensorReading>> fileSink(FileReadingSink fileReadingSink) {
+		return fileReadingSink::accept;
+	}
+
+	@Bean
+	@ConditionalOnFunction("fileSink")
+	public FileReadingSink fileReadingSink(FileSinkProperties properties, MeterRegistry meterRegistry) {
+		return new FileReadingSink(properties, meterRegistry);
+	}
+
+	/*
+	 * Lets the sink decode readings published as application/x-sensor-reading;
+	 * the contentType header of each message selects the converter.
 	 */
 	@Bean
-	public Consumer<SensorReading> sink(){
-		return System.out::println;
+	public MessageConverter sensorReadingMessageConverter() {
+		return new SensorReadingMessageConverter();
 	}
 }
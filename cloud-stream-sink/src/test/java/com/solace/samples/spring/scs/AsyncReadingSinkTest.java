@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.integration.acks.AcknowledgmentCallback.Status;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.solace.samples.spring.common.SensorReading;
+import com.solace.samples.spring.common.SensorReading.BaseUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class AsyncReadingSinkTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final HeldChannel channel = new HeldChannel();
+	private AsyncReadingSink sink;
+
+	/*
+	 * Holds the writer in its first write until released, so the queue can be
+	 * filled deterministically.
+	 */
+	private static class HeldChannel implements WritableByteChannel {
+		final CountDownLatch writing = new CountDownLatch(1);
+		final CountDownLatch released = new CountDownLatch(1);
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		@Override
+		public synchronized int write(ByteBuffer src) {
+			writing.countDown();
+			try {
+				released.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			int written = src.remaining();
+			byte[] chunk = new byte[written];
+			src.get(chunk);
+			bytes.write(chunk, 0, written);
+			return written;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+
+		String text() {
+			return bytes.toString(StandardCharsets.UTF_8);
+		}
+	}
+
+	private AsyncReadingSink sink(BackPressure backPressure, int capacity) {
+		AsyncSinkProperties properties = new AsyncSinkProperties();
+		properties.setBackPressure(backPressure);
+		properties.setCapacity(capacity);
+		sink = new AsyncReadingSink(properties, registry, () -> channel);
+		return sink;
+	}
+
+	private static Message<SensorReading> reading(String sensorID) {
+		return MessageBuilder.withPayload(new SensorReading(sensorID, 50, BaseUnit.FAHRENHEIT)).build();
+	}
+
+	/*
+	 * Leaves the writer blocked on "first" with an empty queue of the given capacity
+	 */
+	private void holdWriter() throws InterruptedException {
+		sink.accept(reading("first"));
+		assertTrue(channel.writing.await(10, TimeUnit.SECONDS));
+	}
+
+	@AfterEach
+	void closeSink() throws Exception {
+		channel.released.countDown();
+		if (sink != null) {
+			sink.close();
+		}
+	}
+
+	@Test
+	void testWritesEveryReadingInOrder() throws Exception {
+		sink(BackPressure.BLOCK, 16);
+		channel.released.countDown();
+		for (int i = 0; i < 100; i++) {
+			sink.accept(reading("sensor-" + i));
+		}
+		sink.close();
+
+		String[] lines = channel.text().split("\n");
+		assertEquals(100, lines.length);
+		for (int i = 0; i < 100; i++) {
+			assertThat(lines[i], containsString(" sensor-" + i + " "));
+		}
+		assertEquals(100, registry.get("samples.sink.written").counter().count());
+	}
+
+	@Test
+	void testDropOldestMakesRoom() throws Exception {
+		sink(BackPressure.DROP_OLDEST, 2);
+		holdWriter();
+
+		sink.accept(reading("oldest"));
+		sink.accept(reading("older"));
+		sink.accept(reading("newest"));
+		assertEquals(2, sink.getQueueDepth());
+
+		channel.released.countDown();
+		sink.close();
+		assertThat(channel.text(), not(containsString("oldest")));
+		assertThat(channel.text(), containsString("newest"));
+		assertEquals(1, registry.get("samples.sink.dropped").counter().count());
+	}
+
+	@Test
+	void testNackRequeuesWhenFull() throws Exception {
+		sink(BackPressure.NACK, 2);
+		holdWriter();
+		sink.accept(reading("queued-1"));
+		sink.accept(reading("queued-2"));
+
+		List<Status> acknowledgements = new ArrayList<>();
+		AcknowledgmentCallback ackCallback = new AcknowledgmentCallback() {
+			@Override
+			public void acknowledge(Status status) {
+				acknowledgements.add(status);
+			}
+
+			@Override
+			public void noAutoAck() {
+			}
+		};
+		sink.accept(MessageBuilder.withPayload(new SensorReading("requeued", 50, BaseUnit.FAHRENHEIT))
+				.setHeader(IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK, ackCallback).build());
+
+		assertEquals(List.of(Status.REQUEUE), acknowledgements);
+		assertEquals(1, registry.get("samples.sink.requeued").counter().count());
+		channel.released.countDown();
+		sink.close();
+		assertThat(channel.text(), not(containsString("requeued")));
+	}
+
+	@Test
+	void testBlockWaitsForRoom() throws Exception {
+		sink(BackPressure.BLOCK, 2);
+		holdWriter();
+		sink.accept(reading("queued-1"));
+		sink.accept(reading("queued-2"));
+
+		CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> sink.accept(reading("blocked")));
+		Thread.sleep(100);
+		assertFalse(blocked.isDone());
+
+		channel.released.countDown();
+		blocked.get(10, TimeUnit.SECONDS);
+		sink.close();
+		assertThat(channel.text(), containsString("blocked"));
+		assertEquals(1, registry.get("samples.sink.blocked").counter().count());
+	}
+
+	@Test
+	void testRefusesReadingsOnceClosed() throws Exception {
+		sink(BackPressure.BLOCK, 16);
+		channel.released.countDown();
+		sink.accept(reading("before"));
+		sink.close();
+
+		assertThrows(IllegalStateException.class, () -> sink.accept(reading("after")));
+		assertThat(channel.text(), containsString("before"));
+		assertThat(channel.text(), not(containsString("after")));
+
+		// Closed before the writer ever started
+		AsyncReadingSink unused = sink(BackPressure.BLOCK, 16);
+		unused.close();
+		assertThrows(IllegalStateException.class, () -> unused.accept(reading("after")));
+	}
+
+	@Test
+	void testWritesEveryReadingAcceptedWhileClosing() throws Exception {
+		channel.released.countDown();
+		// The race between a reading being accepted and the writer stopping is narrow, try it often
+		for (int round = 0; round < 50; round++) {
+			SimpleMeterRegistry roundRegistry = new SimpleMeterRegistry();
+			AsyncSinkProperties properties = new AsyncSinkProperties();
+			properties.setCapacity(64);
+			AsyncReadingSink closing = new AsyncReadingSink(properties, roundRegistry, () -> channel);
+			AtomicLong accepted = new AtomicLong();
+			CountDownLatch started = new CountDownLatch(8);
+			List<CompletableFuture<Void>> producers = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				producers.add(CompletableFuture.runAsync(() -> {
+					started.countDown();
+					try {
+						while (true) {
+							closing.accept(reading("racing"));
+							accepted.incrementAndGet();
+						}
+					} catch (IllegalStateException closed) {
+						// Refused, so not counted
+					}
+				}));
+			}
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+			closing.close();
+			CompletableFuture.allOf(producers.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+			assertEquals(accepted.get(), roundRegistry.get("samples.sink.written").counter().count(), "round " + round);
+		}
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class BoundedRingBufferTest {
+
+	@Test
+	void testFifoUpToCapacity() {
+		BoundedRingBuffer<Integer> queue = new BoundedRingBuffer<>(3);
+		assertEquals(4, queue.capacity());
+
+		for (int i = 0; i < 4; i++) {
+			assertTrue(queue.offer(i));
+		}
+		assertFalse(queue.offer(4));
+		assertEquals(4, queue.size());
+
+		List<Integer> drained = new ArrayList<>();
+		assertEquals(3, queue.drain(drained::add, 3));
+		assertEquals(List.of(0, 1, 2), drained);
+		assertTrue(queue.offer(4));
+		assertEquals(3, queue.poll());
+		assertEquals(4, queue.poll());
+		assertNull(queue.poll());
+	}
+
+	@Test
+	void testConcurrentProducersLoseNothing() throws Exception {
+		int producers = 4;
+		int perProducer = 100_000;
+		BoundedRingBuffer<Integer> queue = new BoundedRingBuffer<>(1024);
+		ExecutorService executor = Executors.newFixedThreadPool(producers);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int p = 0; p < producers; p++) {
+				int first = p * perProducer;
+				futures.add(executor.submit(() -> {
+					for (int i = first; i < first + perProducer; i++) {
+						while (!queue.offer(i)) {
+							Thread.onSpinWait();
+						}
+					}
+				}));
+			}
+
+			BitSet seen = new BitSet(producers * perProducer);
+			int received = 0;
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+			while (received < producers * perProducer && System.nanoTime() < deadline) {
+				Integer value = queue.poll();
+				if (value != null) {
+					assertFalse(seen.get(value), "Received twice: " + value);
+					seen.set(value);
+					received++;
+				}
+			}
+			for (Future<?> future : futures) {
+				future.get(1, TimeUnit.SECONDS);
+			}
+			assertEquals(producers * perProducer, received);
+			assertEquals(0, queue.size());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.integration.acks.AcknowledgmentCallback.Status;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.unit.DataSize;
+
+import com.solace.samples.spring.common.SensorReading;
+import com.solace.samples.spring.common.SensorReading.BaseUnit;
+import com.solace.samples.spring.common.segment.SegmentFormat;
+import com.solace.samples.spring.common.segment.SegmentReader;
+import com.solace.samples.spring.common.segment.SegmentWriter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class FileReadingSinkTest {
+
+	@TempDir
+	Path directory;
+
+	private final List<Status> acknowledgements = new CopyOnWriteArrayList<>();
+
+	private final AcknowledgmentCallback ackCallback = new AcknowledgmentCallback() {
+		@Override
+		public void acknowledge(Status status) {
+			acknowledgements.add(status);
+		}
+
+		@Override
+		public void noAutoAck() {
+		}
+	};
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private FileReadingSink sink(FsyncPolicy fsync, DataSize segmentSize) {
+		return sink(fsync, segmentSize, Duration.ofHours(1));
+	}
+
+	private FileReadingSink sink(FsyncPolicy fsync, DataSize segmentSize, Duration fsyncInterval) {
+		FileSinkProperties properties = new FileSinkProperties();
+		properties.setDirectory(directory);
+		properties.setFsync(fsync);
+		properties.setFsyncInterval(fsyncInterval);
+		properties.setSegmentSize(segmentSize);
+		properties.setIndexInterval(4);
+		return new FileReadingSink(properties, registry);
+	}
+
+	private static SensorReading reading(int i, long epochSecond) {
+		SensorReading reading = new SensorReading("sensor-" + i, i, BaseUnit.CELSIUS);
+		reading.setTimestamp(new Timestamp(TimeUnit.SECONDS.toMillis(epochSecond)));
+		return reading;
+	}
+
+	private Message<SensorReading> message(SensorReading reading) {
+		return MessageBuilder.withPayload(reading)
+				.setHeader(IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK, ackCallback)
+				.build();
+	}
+
+	private static List<String> sensorIDs(SegmentReader reader) throws IOException {
+		List<String> sensorIDs = new ArrayList<>();
+		for (SensorReading reading = reader.next(); reading != null; reading = reader.next()) {
+			sensorIDs.add(reading.getSensorID());
+		}
+		return sensorIDs;
+	}
+
+	private void awaitAcknowledgements(int count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (acknowledgements.size() < count && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(count, acknowledgements.size());
+	}
+
+	@Test
+	void testReadingsRollOverSegmentsInOrder() throws Exception {
+		List<String> expected = new ArrayList<>();
+		try (FileReadingSink sink = sink(FsyncPolicy.BATCH, DataSize.ofKilobytes(1))) {
+			for (int i = 0; i < 200; i++) {
+				sink.accept(message(reading(i, 1_000 + i)));
+				expected.add("sensor-" + i);
+			}
+			awaitAcknowledgements(200);
+		}
+
+		List<Path> segments = SegmentFormat.segments(directory);
+		assertTrue(segments.size() > 1, "Expected several segments: " + segments);
+		for (Path segment : segments) {
+			assertTrue(Files.exists(SegmentFormat.indexFile(segment)), "Not sealed: " + segment);
+		}
+		assertEquals(expected, sensorIDs(SegmentReader.open(directory)));
+		assertTrue(acknowledgements.stream().allMatch(Status.ACCEPT::equals));
+	}
+
+	@Test
+	void testPeriodicFsyncAcknowledgesOnlyOnceForced() throws Exception {
+		FileReadingSink sink = sink(FsyncPolicy.PERIODIC, DataSize.ofMegabytes(1));
+		for (int i = 0; i < 10; i++) {
+			sink.accept(message(reading(i, 1_000)));
+		}
+		// Written well before the next fsync, which is an hour away
+		Thread.sleep(200);
+		assertEquals(List.of(), acknowledgements);
+
+		sink.close();
+		awaitAcknowledgements(10);
+		assertEquals(10, sensorIDs(SegmentReader.open(directory)).size());
+	}
+
+	@Test
+	void testPeriodicFsyncForcesOnceTheWriterIsIdle() throws Exception {
+		try (FileReadingSink sink = sink(FsyncPolicy.PERIODIC, DataSize.ofMegabytes(1), Duration.ofMillis(50))) {
+			for (int i = 0; i < 10; i++) {
+				sink.accept(message(reading(i, 1_000)));
+			}
+			// No reading follows, the writer wakes up for the fsync on its own
+			awaitAcknowledgements(10);
+		}
+	}
+
+	@Test
+	void testTimeRangeLookup() throws Exception {
+		try (FileReadingSink sink = sink(FsyncPolicy.NONE, DataSize.ofKilobytes(1))) {
+			// Out of order timestamps, spread over several index blocks and segments
+			for (int i = 0; i < 100; i++) {
+				sink.accept(message(reading(i, 1_000 + (i * 37) % 100)));
+			}
+		}
+
+		long from = TimeUnit.SECONDS.toNanos(1_010);
+		long to = TimeUnit.SECONDS.toNanos(1_019);
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			int second = 1_000 + (i * 37) % 100;
+			if (second >= 1_010 && second <= 1_019) {
+				expected.add("sensor-" + i);
+			}
+		}
+		assertEquals(10, expected.size());
+		assertEquals(expected, sensorIDs(SegmentReader.open(directory, from, to)));
+	}
+
+	@Test
+	void testRejectsReadingsThatCannotBeAppended() throws Exception {
+		try (FileReadingSink sink = sink(FsyncPolicy.BATCH, DataSize.ofMegabytes(1))) {
+			sink.accept(message(reading(1, 1_000)));
+			awaitAcknowledgements(1);
+			// Too long for the codec, every attempt fails the same way
+			sink.accept(message(new SensorReading("x".repeat(70_000), 1, BaseUnit.CELSIUS)));
+			awaitAcknowledgements(2);
+			sink.accept(message(reading(2, 1_000)));
+			awaitAcknowledgements(3);
+		}
+
+		assertEquals(List.of(Status.ACCEPT, Status.REJECT, Status.ACCEPT), acknowledgements);
+		assertEquals(1, registry.get("samples.sink.file.rejected").counter().count());
+		assertEquals(List.of("sensor-1", "sensor-2"), sensorIDs(SegmentReader.open(directory)));
+	}
+
+	@Test
+	void testRefusesReadingsOnceClosed() throws Exception {
+		FileReadingSink sink = sink(FsyncPolicy.BATCH, DataSize.ofMegabytes(1));
+		sink.accept(message(reading(1, 1_000)));
+		sink.close();
+		awaitAcknowledgements(1);
+
+		assertThrows(IllegalStateException.class, () -> sink.accept(message(reading(2, 1_000))));
+		Thread.sleep(100);
+		assertEquals(List.of(Status.ACCEPT), acknowledgements);
+		assertEquals(List.of("sensor-1"), sensorIDs(SegmentReader.open(directory)));
+	}
+
+	@Test
+	void testWriterResumesAfterTornRecord() throws Exception {
+		Path segment;
+		try (SegmentWriter writer = new SegmentWriter(directory, 4096, 4)) {
+			for (int i = 0; i < 5; i++) {
+				writer.append(reading(i, 1_000));
+			}
+			segment = writer.getSegmentFile();
+		}
+		Files.delete(SegmentFormat.indexFile(segment));
+		int end = endOfRecords(segment);
+		// A crash halfway through a record leaves a length whose payload does not match its CRC
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.allocate(16).putInt(40).putInt(12345).putLong(-1L).flip(), end);
+			channel.write(ByteBuffer.allocate(8).putLong(-1L).flip(), end + 200);
+		}
+
+		try (SegmentWriter writer = new SegmentWriter(directory, 4096, 4)) {
+			assertEquals(5, writer.getNextSequence());
+			writer.append(reading(5, 1_000));
+		}
+		SegmentReader reader = SegmentReader.open(directory);
+		assertEquals(List.of("sensor-0", "sensor-1", "sensor-2", "sensor-3", "sensor-4", "sensor-5"),
+				sensorIDs(reader));
+		assertNull(reader.next());
+	}
+
+	private static int endOfRecords(Path segment) throws IOException {
+		ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(segment));
+		int position = 0;
+		while (bytes.getInt(position) != 0) {
+			position += SegmentFormat.RECORD_HEADER_BYTES + bytes.getInt(position);
+		}
+		return position;
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+public class OnFunctionConditionTest {
+
+	private final ApplicationContextRunner runner = new ApplicationContextRunner()
+			.withUserConfiguration(Functions.class);
+
+	@Configuration(proxyBeanMethods = false)
+	static class Functions {
+
+		@Bean
+		@ConditionalOnFunction("asyncSink")
+		String asyncSinkResource() {
+			return "resource";
+		}
+	}
+
+	@Test
+	void testMatchesOnlyFunctionsOfTheDefinition() {
+		runner.run(context -> assertFalse(context.containsBean("asyncSinkResource")));
+		runner.withPropertyValues("spring.cloud.function.definition=sink")
+				.run(context -> assertFalse(context.containsBean("asyncSinkResource")));
+		runner.withPropertyValues("spring.cloud.function.definition=asyncSinkV2")
+				.run(context -> assertFalse(context.containsBean("asyncSinkResource")));
+		runner.withPropertyValues("spring.cloud.function.definition=asyncSink")
+				.run(context -> assertTrue(context.containsBean("asyncSinkResource")));
+		runner.withPropertyValues("spring.cloud.function.definition=sink; asyncSink")
+				.run(context -> assertTrue(context.containsBean("asyncSinkResource")));
+		runner.withPropertyValues("spring.cloud.function.definition=decode|asyncSink")
+				.run(context -> assertTrue(context.containsBean("asyncSinkResource")));
+	}
+}
@@ -19,25 +19,32 @@
 
 package com.solace.samples.spring.scs;
 
-import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.messaging.converter.MessageConverter;
 
 import com.solace.samples.spring.common.SensorReading;
 import com.solace.samples.spring.common.SensorReading.BaseUnit;
+import com.solace.samples.spring.common.SensorReadingMessageConverter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
 
 @SpringBootApplication
+@EnableConfigurationProperties(LoadGeneratorProperties.class)
 public class FahrenheitTempSource {
 	private static final Logger log = LoggerFactory.getLogger(FahrenheitTempSource.class);
 
 	private static final UUID sensorIdentifier = UUID.randomUUID();
-	private static final Random random = new Random(System.currentTimeMillis());
 	private static final int RANDOM_MULTIPLIER = 100;
 
 	public static void main(String[] args) {
@@ -51,7 +58,7 @@ public class FahrenheitTempSource {
 	@Bean
 	public Supplier<SensorReading> emitSensorReading() {
 		return () -> {
-			double temperature = random.nextDouble() * RANDOM_MULTIPLIER;
+			double temperature = ThreadLocalRandom.current().nextDouble() * RANDOM_MULTIPLIER;
 
 			SensorReading reading = new SensorReading();
 			reading.setSensorID(sensorIdentifier.toString());
@@ -64,4 +71,26 @@ public class FahrenheitTempSource {
 		};
 	}
 
+	/*
+	 * Load generator mode, enabled by the "load" profile (application-load.yml).
+	 * A Supplier of a Flux is not polled: the binder subscribes once and
+	 * publishes readings as fast as the generator paces them, spread over
+	 * samples.load.sensors simulated sensors.
+	 */
+	@Bean
+	public Supplier<Flux<SensorReading>> emitSensorReadingLoad(LoadGeneratorProperties properties,
+			ObjectProvider<MeterRegistry> meterRegistry) {
+		SensorLoadGenerator generator = new SensorLoadGenerator(properties, meterRegistry.getIfAvailable());
+		return generator::readings;
+	}
+
+	/*
+	 * Binary encoding for emitted readings, used when the output binding's
+	 * content-type is application/x-sensor-reading (see application.yml)
+	 */
+	@Bean
+	public MessageConverter sensorReadingMessageConverter() {
+		return new SensorReadingMessageConverter();
+	}
+
 }
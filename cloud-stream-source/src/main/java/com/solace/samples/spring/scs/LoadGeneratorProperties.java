@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the {@link SensorLoadGenerator}, used by the
+ * {@code emitSensorReadingLoad} function (see application-load.yml).
+ */
+@ConfigurationProperties("samples.load")
+public class LoadGeneratorProperties {
+	/** Target number of readings per second, across all sensors. */
+	private long rate = 1000;
+
+	/** Number of simulated sensors, each with its own sensor ID. */
+	private int sensors = 100;
+
+	/**
+	 * Number of producers generating readings in parallel; each one owns an
+	 * equal share of the sensors and of the rate.
+	 */
+	private int producers = 1;
+
+	/**
+	 * Seed of the simulated temperatures. The same seed replays the same
+	 * readings for every sensor, whatever the number of producers; a random
+	 * seed is picked and logged when not set.
+	 */
+	private Long seed;
+
+	/** How often the generator wakes up to publish the readings that are due. */
+	private Duration tick = Duration.ofMillis(1);
+
+	/** How often the target and achieved rates are logged. */
+	private Duration reportInterval = Duration.ofSeconds(5);
+
+	public long getRate() {
+		return rate;
+	}
+
+	public void setRate(long rate) {
+		this.rate = rate;
+	}
+
+	public int getSensors() {
+		return sensors;
+	}
+
+	public void setSensors(int sensors) {
+		this.sensors = sensors;
+	}
+
+	public int getProducers() {
+		return producers;
+	}
+
+	public void setProducers(int producers) {
+		this.producers = producers;
+	}
+
+	public Long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(Long seed) {
+		this.seed = seed;
+	}
+
+	public Duration getTick() {
+		return tick;
+	}
+
+	public void setTick(Duration tick) {
+		this.tick = tick;
+	}
+
+	public Duration getReportInterval() {
+		return reportInterval;
+	}
+
+	public void setReportInterval(Duration reportInterval) {
+		this.reportInterval = reportInterval;
+	}
+}
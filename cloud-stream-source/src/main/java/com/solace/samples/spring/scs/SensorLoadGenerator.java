@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.solace.samples.spring.common.SensorReading;
+import com.solace.samples.spring.common.SensorReading.BaseUnit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+
+/**
+ * Publishes readings for a population of simulated sensors at a target rate.
+ *
+ * The sensors and the rate are split over {@code samples.load.producers}
+ * producers, each paced by its own tick on its own thread. Every tick a
+ * producer emits the readings that are due since the start, so a late or
+ * dropped tick is caught up by the next one instead of lowering the rate. When
+ * the binder cannot keep up for more than a second the backlog is abandoned and
+ * reported, the achieved rate then shows where the pipeline saturates.
+ *
+ * Temperatures come from one {@link SplittableRandom} per sensor, seeded from
+ * {@code samples.load.seed} and the sensor index mixed together, so sensors
+ * get independent streams: nothing is shared between producers, and a run can
+ * be replayed reading for reading with the same seed.
+ *
+ * Both rates are also published as the {@code samples.load.rate.target} and
+ * {@code samples.load.rate.achieved} gauges once the generator is started.
+ */
+public class SensorLoadGenerator {
+	private static final Logger log = LoggerFactory.getLogger(SensorLoadGenerator.class);
+
+	private static final double NANOS_PER_SECOND = 1_000_000_000d;
+	private static final int RANDOM_MULTIPLIER = 100;
+
+	private final LoadGeneratorProperties properties;
+	private final MeterRegistry meterRegistry;
+	private final String[] sensorIds;
+	private final long seed;
+
+	private final LongAdder emitted = new LongAdder();
+	private final LongAdder abandoned = new LongAdder();
+	private volatile double achievedRate;
+
+	// Only touched from the report tick
+	private long reportNanos;
+	private long reportEmitted;
+
+	public SensorLoadGenerator(LoadGeneratorProperties properties, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.meterRegistry = meterRegistry;
+		this.sensorIds = new String[properties.getSensors()];
+		for (int i = 0; i < sensorIds.length; i++) {
+			sensorIds[i] = sensorId(i);
+		}
+		this.seed = properties.getSeed() != null ? properties.getSeed() : new SplittableRandom().nextLong();
+	}
+
+	/*
+	 * Stable across runs, so dashboards and queues see the same sensors every time
+	 */
+	static String sensorId(int index) {
+		return UUID.nameUUIDFromBytes(("sensor-" + index).getBytes(StandardCharsets.UTF_8)).toString();
+	}
+
+	/*
+	 * Seeds that differ by a multiple of SplittableRandom's own increment give
+	 * the same stream shifted, so the index is mixed in rather than added
+	 */
+	static long sensorSeed(long seed, int index) {
+		long z = seed ^ index;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	public Flux<SensorReading> readings() {
+		return Flux.defer(() -> {
+			List<Producer> producers = producers(System.nanoTime());
+			log.info("Generating {} readings/s for {} sensors with {} producers, seed {}", properties.getRate(),
+					sensorIds.length, producers.size(), seed);
+			if (meterRegistry != null) {
+				Gauge.builder("samples.load.rate.target", this, SensorLoadGenerator::getTargetRate)
+						.register(meterRegistry);
+				Gauge.builder("samples.load.rate.achieved", this, SensorLoadGenerator::getAchievedRate)
+						.register(meterRegistry);
+			}
+
+			List<Flux<SensorReading>> streams = new ArrayList<>(producers.size() + 1);
+			for (Producer producer : producers) {
+				// Each interval runs on its own worker of the parallel scheduler
+				streams.add(Flux.interval(properties.getTick())
+						.onBackpressureDrop()
+						.concatMapIterable(tick -> producer.due(System.nanoTime())));
+			}
+			streams.add(Flux.interval(properties.getReportInterval())
+					.<SensorReading>handle((tick, sink) -> report(System.nanoTime())));
+			return Flux.merge(streams);
+		});
+	}
+
+	List<Producer> producers(long startNanos) {
+		int count = Math.max(1, Math.min(properties.getProducers(), sensorIds.length));
+		List<Producer> producers = new ArrayList<>(count);
+		for (int p = 0; p < count; p++) {
+			long rate = properties.getRate() / count + (p < properties.getRate() % count ? 1 : 0);
+			producers.add(new Producer(p, count, rate, startNanos));
+		}
+		reportNanos = startNanos;
+		reportEmitted = 0;
+		return producers;
+	}
+
+	private void report(long nowNanos) {
+		long elapsed = nowNanos - reportNanos;
+		long total = emitted.sum();
+		achievedRate = (total - reportEmitted) * NANOS_PER_SECOND / elapsed;
+		log.info("Target {} readings/s, achieved {} readings/s, {} readings abandoned so far", properties.getRate(),
+				Math.round(achievedRate), abandoned.sum());
+		reportNanos = nowNanos;
+		reportEmitted = total;
+	}
+
+	public long getTargetRate() {
+		return properties.getRate();
+	}
+
+	/** Rate over the last report interval. */
+	public double getAchievedRate() {
+		return achievedRate;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public String[] getSensorIds() {
+		return sensorIds.clone();
+	}
+
+	/**
+	 * Generates the readings of every {@code stride}-th sensor, starting at
+	 * {@code first}. Only ever called from its own tick thread.
+	 */
+	final class Producer {
+		private final int[] sensors;
+		private final SplittableRandom[] randoms;
+		private final long rate;
+		private final long startNanos;
+
+		private long emittedByProducer;
+		private long abandonedByProducer;
+		private int next;
+
+		private Producer(int first, int stride, long rate, long startNanos) {
+			int count = (sensorIds.length - first + stride - 1) / stride;
+			this.sensors = new int[count];
+			this.randoms = new SplittableRandom[count];
+			for (int i = 0; i < count; i++) {
+				sensors[i] = first + i * stride;
+				randoms[i] = new SplittableRandom(sensorSeed(seed, sensors[i]));
+			}
+			this.rate = rate;
+			this.startNanos = startNanos;
+		}
+
+		List<SensorReading> due(long nowNanos) {
+			long target = (long) ((nowNanos - startNanos) * (rate / NANOS_PER_SECOND)) - abandonedByProducer;
+			long owed = target - emittedByProducer;
+			if (owed > rate) {
+				abandonedByProducer += owed - rate;
+				abandoned.add(owed - rate);
+				owed = rate;
+			}
+			if (owed <= 0) {
+				return Collections.emptyList();
+			}
+			List<SensorReading> readings = new ArrayList<>((int) owed);
+			for (long i = 0; i < owed; i++) {
+				readings.add(nextReading());
+			}
+			emittedByProducer += owed;
+			emitted.add(owed);
+			return readings;
+		}
+
+		private SensorReading nextReading() {
+			SensorReading reading = new SensorReading();
+			reading.setSensorID(sensorIds[sensors[next]]);
+			reading.setTemperature(randoms[next].nextDouble() * RANDOM_MULTIPLIER);
+			reading.setBaseUnit(BaseUnit.FAHRENHEIT);
+			next = next + 1 == sensors.length ? 0 : next + 1;
+			return reading;
+		}
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.scs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.solace.samples.spring.common.SensorReading;
+
+public class SensorLoadGeneratorTest {
+
+	private static LoadGeneratorProperties properties(long rate, int sensors, int producers) {
+		LoadGeneratorProperties properties = new LoadGeneratorProperties();
+		properties.setRate(rate);
+		properties.setSensors(sensors);
+		properties.setProducers(producers);
+		properties.setSeed(42L);
+		return properties;
+	}
+
+	private static SensorLoadGenerator.Producer singleProducer(long rate, int sensors) {
+		return new SensorLoadGenerator(properties(rate, sensors, 1), null).producers(0).get(0);
+	}
+
+	@Test
+	void testEmitsWhatIsDueSinceStart() {
+		SensorLoadGenerator.Producer producer = singleProducer(10_000, 10);
+
+		assertEquals(10, producer.due(TimeUnit.MILLISECONDS.toNanos(1)).size());
+		assertEquals(0, producer.due(TimeUnit.MILLISECONDS.toNanos(1)).size());
+		// A late tick catches up on everything that is due
+		assertEquals(40, producer.due(TimeUnit.MILLISECONDS.toNanos(5)).size());
+	}
+
+	@Test
+	void testAbandonsBacklogOverOneSecond() {
+		SensorLoadGenerator.Producer producer = singleProducer(1_000, 10);
+
+		assertEquals(1_000, producer.due(TimeUnit.SECONDS.toNanos(3)).size());
+		// The 2000 readings over the cap are not owed any more
+		assertEquals(1, producer.due(TimeUnit.SECONDS.toNanos(3) + TimeUnit.MILLISECONDS.toNanos(1)).size());
+	}
+
+	@Test
+	void testSpreadsReadingsOverSensors() {
+		List<SensorReading> readings = singleProducer(100_000, 7).due(TimeUnit.MILLISECONDS.toNanos(7));
+		Map<String, Long> perSensor = readings.stream()
+				.collect(Collectors.groupingBy(SensorReading::getSensorID, Collectors.counting()));
+
+		assertEquals(700, readings.size());
+		assertEquals(7, perSensor.size());
+		perSensor.values().forEach(count -> assertEquals(100L, count));
+		assertEquals(SensorLoadGenerator.sensorId(0), readings.get(0).getSensorID());
+	}
+
+	@Test
+	void testProducersSplitSensorsAndRate() {
+		List<SensorLoadGenerator.Producer> producers = new SensorLoadGenerator(properties(10_000, 10, 3), null)
+				.producers(0);
+
+		assertEquals(3, producers.size());
+		Set<String> seen = new HashSet<>();
+		int total = 0;
+		for (SensorLoadGenerator.Producer producer : producers) {
+			Set<String> own = producer.due(TimeUnit.SECONDS.toNanos(1)).stream().map(SensorReading::getSensorID)
+					.collect(Collectors.toSet());
+			own.forEach(id -> assertTrue(seen.add(id), "Sensor " + id + " has two producers"));
+			total += producer.due(TimeUnit.SECONDS.toNanos(2)).size();
+		}
+		assertEquals(10, seen.size());
+		assertEquals(10_000, total);
+	}
+
+	@Test
+	void testSameSeedReplaysSameTemperaturesPerSensor() {
+		Map<String, List<Double>> single = temperaturesPerSensor(properties(12_000, 12, 1));
+		Map<String, List<Double>> parallel = temperaturesPerSensor(properties(12_000, 12, 4));
+
+		assertEquals(single, parallel);
+
+		LoadGeneratorProperties otherSeed = properties(12_000, 12, 1);
+		otherSeed.setSeed(43L);
+		assertNotEquals(single, temperaturesPerSensor(otherSeed));
+	}
+
+	@Test
+	void testSensorsDoNotShareTemperatures() {
+		Map<String, List<Double>> temperatures = temperaturesPerSensor(properties(12_000, 12, 1));
+		Set<Double> seen = new HashSet<>();
+		int total = 0;
+		for (List<Double> sensor : temperatures.values()) {
+			seen.addAll(sensor);
+			total += sensor.size();
+		}
+		// Sensors replaying one stream shifted by a step would repeat each other's values
+		assertEquals(total, seen.size());
+
+		List<Double> first = temperatures.get(SensorLoadGenerator.sensorId(0));
+		List<Double> second = temperatures.get(SensorLoadGenerator.sensorId(1));
+		assertNotEquals(first.subList(1, first.size()), second.subList(0, second.size() - 1));
+	}
+
+	private static Map<String, List<Double>> temperaturesPerSensor(LoadGeneratorProperties properties) {
+		Map<String, List<Double>> temperatures = new HashMap<>();
+		for (SensorLoadGenerator.Producer producer : new SensorLoadGenerator(properties, null).producers(0)) {
+			for (SensorReading reading : producer.due(TimeUnit.MILLISECONDS.toNanos(100))) {
+				temperatures.computeIfAbsent(reading.getSensorID(), id -> new ArrayList<>())
+						.add(reading.getTemperature());
+			}
+		}
+		return temperatures;
+	}
+
+	@Test
+	void testReadingsArePaced() {
+		SensorLoadGenerator generator = new SensorLoadGenerator(properties(2_000, 10, 2), null);
+
+		long start = System.nanoTime();
+		long count = generator.readings().take(200).count().block(Duration.ofSeconds(10));
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		assertEquals(200, count);
+		// 200 readings at 2000/s take 100ms
+		assertTrue(elapsedMillis >= 90, "Readings were not paced: " + elapsedMillis + "ms");
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+
+import com.solace.samples.spring.common.SensorReading.BaseUnit;
+
+/**
+ * Mutable, primitive-only companion of {@link SensorReading}.
+ *
+ * A single instance is meant to be reused for every message handled by a
+ * thread: the temperature is a {@code double}, the timestamp is held as epoch
+ * nanoseconds, the sensor is a key issued by a {@link SensorIdRegistry} and the
+ * base unit is a single byte. Converting to and from the POJO is lossless,
+ * with one exception: a {@code null} temperature is carried as {@code NaN}.
+ * A sensor the registry has no room for is kept as its ID, with the key
+ * {@link SensorIdRegistry#UNREGISTERED}.
+ */
+public final class CompactSensorReading {
+	public static final byte NO_UNIT = -1;
+	public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+	/** Size of a record written by {@link #writeTo(ByteBuffer)}. */
+	public static final int BYTES = Long.BYTES + Integer.BYTES + Double.BYTES + Byte.BYTES;
+
+	private static final BaseUnit[] UNITS = BaseUnit.values();
+	private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+	private final SensorIdRegistry sensorIds;
+
+	private long timestampNanos = NO_TIMESTAMP;
+	private int sensorKey = SensorIdRegistry.NO_SENSOR;
+	private String unregisteredID;
+	private double temperature = Double.NaN;
+	private byte baseUnit = NO_UNIT;
+
+	public CompactSensorReading() {
+		this(SensorIdRegistry.shared());
+	}
+
+	public CompactSensorReading(SensorIdRegistry sensorIds) {
+		this.sensorIds = sensorIds;
+	}
+
+	public CompactSensorReading set(int sensorKey, long timestampNanos, double temperature, byte baseUnit) {
+		if (sensorKey == SensorIdRegistry.UNREGISTERED) {
+			throw new IllegalArgumentException("An unregistered sensor is set by its ID");
+		}
+		return set(sensorKey, null, timestampNanos, temperature, baseUnit);
+	}
+
+	public CompactSensorReading set(String sensorID, long timestampNanos, double temperature, byte baseUnit) {
+		int key = sensorIds.keyOf(sensorID);
+		return set(key, key == SensorIdRegistry.UNREGISTERED ? sensorID : null, timestampNanos, temperature,
+				baseUnit);
+	}
+
+	CompactSensorReading set(int sensorKey, String unregisteredID, long timestampNanos, double temperature,
+			byte baseUnit) {
+		this.sensorKey = sensorKey;
+		this.unregisteredID = unregisteredID;
+		this.timestampNanos = timestampNanos;
+		this.temperature = temperature;
+		this.baseUnit = baseUnit;
+		return this;
+	}
+
+	public CompactSensorReading from(SensorReading reading) {
+		Double boxed = reading.getTemperature();
+		return set(reading.getSensorID(), toEpochNanos(reading.getTimestamp()),
+				boxed != null ? boxed : Double.NaN, encode(reading.getBaseUnit()));
+	}
+
+	public SensorReading toSensorReading() {
+		return copyTo(new SensorReading());
+	}
+
+	public SensorReading copyTo(SensorReading target) {
+		target.setTimestamp(toTimestamp(timestampNanos));
+		target.setSensorID(getSensorID());
+		target.setTemperature(Double.isNaN(temperature) ? null : temperature);
+		target.setBaseUnit(decode(baseUnit));
+		return target;
+	}
+
+	/*
+	 * In-place equivalent of the ConvertFtoCProcessor arithmetic; a reading
+	 * already in CELSIUS is left untouched.
+	 */
+	public CompactSensorReading toCelsius() {
+		if (baseUnit == BaseUnit.FAHRENHEIT.ordinal()) {
+			temperature = (temperature - 32) * 5 / 9;
+			baseUnit = (byte) BaseUnit.CELSIUS.ordinal();
+		}
+		return this;
+	}
+
+	/*
+	 * Fixed-size, process-local record: the sensor is written as its registry
+	 * key, so the bytes can only be read back by the same registry, and a
+	 * reading of an unregistered sensor cannot be written.
+	 */
+	public void writeTo(ByteBuffer buffer) {
+		if (sensorKey == SensorIdRegistry.UNREGISTERED) {
+			throw new IllegalStateException("Sensor " + unregisteredID + " has no key to write");
+		}
+		buffer.putLong(timestampNanos).putInt(sensorKey).putDouble(temperature).put(baseUnit);
+	}
+
+	public CompactSensorReading readFrom(ByteBuffer buffer) {
+		long timestamp = buffer.getLong();
+		int key = buffer.getInt();
+		return set(key, timestamp, buffer.getDouble(), buffer.get());
+	}
+
+	public long getTimestampNanos() {
+		return timestampNanos;
+	}
+
+	public int getSensorKey() {
+		return sensorKey;
+	}
+
+	public String getSensorID() {
+		return sensorKey == SensorIdRegistry.UNREGISTERED ? unregisteredID : sensorIds.idOf(sensorKey);
+	}
+
+	public double getTemperature() {
+		return temperature;
+	}
+
+	public byte getBaseUnitCode() {
+		return baseUnit;
+	}
+
+	public BaseUnit getBaseUnit() {
+		return decode(baseUnit);
+	}
+
+	public SensorIdRegistry getSensorIds() {
+		return sensorIds;
+	}
+
+	public static byte encode(BaseUnit unit) {
+		return unit != null ? (byte) unit.ordinal() : NO_UNIT;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the code is not the one of a base unit
+	 */
+	public static BaseUnit decode(byte code) {
+		if (code == NO_UNIT) {
+			return null;
+		}
+		if (code < 0 || code >= UNITS.length) {
+			throw new IllegalArgumentException("Unknown base unit code: " + code);
+		}
+		return UNITS[code];
+	}
+
+	public static long toEpochNanos(Timestamp timestamp) {
+		if (timestamp == null) {
+			return NO_TIMESTAMP;
+		}
+		// getTime() already contains the millisecond part of getNanos(), so use whole seconds only
+		return Math.floorDiv(timestamp.getTime(), 1000L) * NANOS_PER_SECOND + timestamp.getNanos();
+	}
+
+	public static Timestamp toTimestamp(long epochNanos) {
+		if (epochNanos == NO_TIMESTAMP) {
+			return null;
+		}
+		Timestamp timestamp = new Timestamp(Math.floorDiv(epochNanos, NANOS_PER_SECOND) * 1000L);
+		timestamp.setNanos((int) Math.floorMod(epochNanos, NANOS_PER_SECOND));
+		return timestamp;
+	}
+
+	@Override
+	public String toString() {
+		return "CompactSensorReading [ " + timestampNanos + " " + getSensorID() + " " + temperature + " "
+				+ getBaseUnit() + " ]";
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common;
+
+import java.sql.Timestamp;
+
+import com.solace.samples.spring.common.SensorReading.BaseUnit;
+
+/**
+ * Summary of the readings of one sensor over a time window
+ * {@code [windowStart, windowEnd)}.
+ */
+public class SensorAggregate {
+	private String sensorID;
+	private Timestamp windowStart;
+	private Timestamp windowEnd;
+	private long count;
+	private double min;
+	private double max;
+	private double mean;
+	private double variance;
+	private BaseUnit baseUnit;
+
+	public String getSensorID() {
+		return sensorID;
+	}
+
+	public void setSensorID(String sensorID) {
+		this.sensorID = sensorID;
+	}
+
+	public Timestamp getWindowStart() {
+		return windowStart;
+	}
+
+	public void setWindowStart(Timestamp windowStart) {
+		this.windowStart = windowStart;
+	}
+
+	public Timestamp getWindowEnd() {
+		return windowEnd;
+	}
+
+	public void setWindowEnd(Timestamp windowEnd) {
+		this.windowEnd = windowEnd;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public void setCount(long count) {
+		this.count = count;
+	}
+
+	public double getMin() {
+		return min;
+	}
+
+	public void setMin(double min) {
+		this.min = min;
+	}
+
+	public double getMax() {
+		return max;
+	}
+
+	public void setMax(double max) {
+		this.max = max;
+	}
+
+	public double getMean() {
+		return mean;
+	}
+
+	public void setMean(double mean) {
+		this.mean = mean;
+	}
+
+	/** Sample variance of the readings, 0 for a single reading. */
+	public double getVariance() {
+		return variance;
+	}
+
+	public void setVariance(double variance) {
+		this.variance = variance;
+	}
+
+	public BaseUnit getBaseUnit() {
+		return baseUnit;
+	}
+
+	public void setBaseUnit(BaseUnit baseUnit) {
+		this.baseUnit = baseUnit;
+	}
+
+	@Override
+	public String toString() {
+		return "SensorAggregate [ " + windowStart + " - " + windowEnd + " " + sensorID + " n=" + count + " min="
+				+ String.format("%.1f", min) + " max=" + String.format("%.1f", max) + " mean="
+				+ String.format("%.1f", mean) + " var=" + String.format("%.2f", variance) + " " + baseUnit + " ]";
+	}
+}
@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns sensor IDs into dense, process-local numeric keys so that a
+ * {@link CompactSensorReading} can refer to its sensor with a primitive
+ * {@code int} instead of holding a {@code String}.
+ *
+ * Keys are only meaningful inside the registry that issued them; they must
+ * never be published on the wire.
+ *
+ * A registry holds at most {@code capacity} sensors, so that a stream of
+ * distinct IDs cannot grow it without bound. Once it is full, unknown IDs get
+ * {@link #UNREGISTERED} instead of a key: a {@link CompactSensorReading} then
+ * carries the ID itself, and code indexing by key, such as per-sensor state,
+ * has to skip them.
+ */
+public final class SensorIdRegistry {
+	public static final int NO_SENSOR = -1;
+	/** Returned for an unknown sensor once the registry is full. */
+	public static final int UNREGISTERED = -2;
+	public static final int DEFAULT_CAPACITY = 65_536;
+
+	private static final SensorIdRegistry SHARED = new SensorIdRegistry();
+
+	private final int capacity;
+
+	private final ConcurrentHashMap<String, Integer> keys = new ConcurrentHashMap<>();
+	private volatile String[] ids = new String[64];
+	private volatile byte[][] encodedIds = new byte[64][];
+	// Open-addressing table of key + 1 (0 marks an empty slot), hashed on the UTF-8 bytes
+	private volatile int[] slots = new int[128];
+	private int size;
+	private volatile boolean full;
+
+	public SensorIdRegistry() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public SensorIdRegistry(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be at least 1");
+		}
+		this.capacity = capacity;
+	}
+
+	/** The registry of {@link CompactSensorReading}s created without one, {@value #DEFAULT_CAPACITY} sensors at most. */
+	public static SensorIdRegistry shared() {
+		return SHARED;
+	}
+
+	/*
+	 * Returns the key for the given sensor ID, registering it on first use,
+	 * or UNREGISTERED if it is unknown and the registry is full. Once a
+	 * sensor is known the lookup does not allocate.
+	 */
+	public int keyOf(String sensorID) {
+		if (sensorID == null) {
+			return NO_SENSOR;
+		}
+		Integer key = keys.get(sensorID);
+		if (key != null) {
+			return key;
+		}
+		return full ? UNREGISTERED : register(sensorID);
+	}
+
+	/*
+	 * Same as keyOf(String) but for a UTF-8 encoded ID read straight off a
+	 * buffer; a String is only created the first time a sensor is seen.
+	 */
+	public int keyOf(ByteBuffer buffer, int offset, int length) {
+		int[] table = slots;
+		byte[][] encoded = encodedIds;
+		int mask = table.length - 1;
+		for (int slot = hash(buffer, offset, length) & mask;; slot = (slot + 1) & mask) {
+			int key = table[slot] - 1;
+			if (key == NO_SENSOR) {
+				break;
+			}
+			byte[] candidate = key < encoded.length ? encoded[key] : null;
+			if (candidate == null) {
+				// Entry is still being published by another thread, take the slow path
+				break;
+			}
+			if (matches(candidate, buffer, offset, length)) {
+				return key;
+			}
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(offset, bytes);
+		return keyOf(new String(bytes, StandardCharsets.UTF_8));
+	}
+
+	public String idOf(int key) {
+		if (key == NO_SENSOR) {
+			return null;
+		}
+		if (key == UNREGISTERED) {
+			throw new IllegalArgumentException("The sensor has no key, the registry was full");
+		}
+		String[] snapshot = ids;
+		if (key < 0 || key >= snapshot.length || snapshot[key] == null) {
+			throw new IllegalArgumentException("Unknown sensor key: " + key);
+		}
+		return snapshot[key];
+	}
+
+	/*
+	 * UTF-8 form of the sensor ID, cached so encoders can copy it without
+	 * going through String.getBytes(). Callers must not modify the array.
+	 */
+	public byte[] encodedIdOf(int key) {
+		idOf(key);
+		return encodedIds[key];
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	private synchronized int register(String sensorID) {
+		Integer existing = keys.get(sensorID);
+		if (existing != null) {
+			return existing;
+		}
+		if (size == capacity) {
+			full = true;
+			return UNREGISTERED;
+		}
+		int key = size;
+		String[] currentIds = ids;
+		byte[][] currentEncoded = encodedIds;
+		if (key == currentIds.length) {
+			currentIds = Arrays.copyOf(currentIds, currentIds.length * 2);
+			currentEncoded = Arrays.copyOf(currentEncoded, currentEncoded.length * 2);
+		}
+		byte[] bytes = sensorID.getBytes(StandardCharsets.UTF_8);
+		// Publish the names before the key so lookups never observe a key without its name
+		currentIds[key] = sensorID;
+		currentEncoded[key] = bytes;
+		ids = currentIds;
+		encodedIds = currentEncoded;
+		size = key + 1;
+		index(key, bytes);
+		keys.put(sensorID, key);
+		return key;
+	}
+
+	private void index(int key, byte[] bytes) {
+		int[] table = slots;
+		// Keep the load factor at or below one half
+		if ((size << 1) > table.length) {
+			table = new int[table.length << 1];
+			for (int existing = 0; existing < key; existing++) {
+				insert(table, existing, encodedIds[existing]);
+			}
+		}
+		insert(table, key, bytes);
+		slots = table;
+	}
+
+	private static void insert(int[] table, int key, byte[] bytes) {
+		int mask = table.length - 1;
+		int slot = hash(ByteBuffer.wrap(bytes), 0, bytes.length) & mask;
+		while (table[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = key + 1;
+	}
+
+	private static int hash(ByteBuffer buffer, int offset, int length) {
+		int h = 1;
+		for (int i = 0; i < length; i++) {
+			h = 31 * h + buffer.get(offset + i);
+		}
+		// Spread the bits so that the low bits used for the slot index are well mixed
+		return h ^ (h >>> 16);
+	}
+
+	private static boolean matches(byte[] candidate, ByteBuffer buffer, int offset, int length) {
+		if (candidate.length != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (candidate[i] != buffer.get(offset + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
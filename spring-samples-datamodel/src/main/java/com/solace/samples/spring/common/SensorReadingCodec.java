@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed-layout binary encoding of a sensor reading, used on the wire with the
+ * {@value #MIME_TYPE} content type. All numbers are big-endian:
+ *
+ * <pre>
+ * offset  size  field
+ *      0     1  format version ({@value #VERSION})
+ *      1     1  base unit ordinal, -1 when absent
+ *      2     8  timestamp as epoch nanoseconds, Long.MIN_VALUE when absent
+ *     10     8  temperature as an IEEE 754 double, NaN when absent
+ *     18     2  length of the sensor ID in bytes, 0xFFFF when absent
+ *     20     n  sensor ID, UTF-8
+ * </pre>
+ *
+ * A reading with a 36 character UUID sensor ID encodes to 56 bytes. Decoding
+ * a truncated payload throws a {@link BufferUnderflowException}, and an
+ * unknown version or base unit an {@link IllegalArgumentException}.
+ */
+public final class SensorReadingCodec {
+	public static final String MIME_TYPE = "application/x-sensor-reading";
+	public static final byte VERSION = 1;
+	public static final int HEADER_BYTES = 20;
+	/** Offset of the timestamp, for readers that only need to look at the time. */
+	public static final int TIMESTAMP_OFFSET = 2;
+
+	private static final int NO_ID = 0xFFFF;
+
+	private SensorReadingCodec() {
+	}
+
+	public static int encodedLength(SensorReading reading) {
+		String sensorID = reading.getSensorID();
+		return HEADER_BYTES + (sensorID != null ? utf8Length(sensorID) : 0);
+	}
+
+	public static int encodedLength(CompactSensorReading reading) {
+		int key = reading.getSensorKey();
+		if (key == SensorIdRegistry.UNREGISTERED) {
+			return HEADER_BYTES + utf8Length(reading.getSensorID());
+		}
+		return HEADER_BYTES + (key != SensorIdRegistry.NO_SENSOR ? reading.getSensorIds().encodedIdOf(key).length : 0);
+	}
+
+	public static byte[] encode(SensorReading reading) {
+		byte[] bytes = new byte[encodedLength(reading)];
+		encode(reading, ByteBuffer.wrap(bytes));
+		return bytes;
+	}
+
+	public static byte[] encode(CompactSensorReading reading) {
+		byte[] bytes = new byte[encodedLength(reading)];
+		encode(reading, ByteBuffer.wrap(bytes));
+		return bytes;
+	}
+
+	public static void encode(SensorReading reading, ByteBuffer buffer) {
+		Double temperature = reading.getTemperature();
+		putHeader(buffer, CompactSensorReading.encode(reading.getBaseUnit()),
+				CompactSensorReading.toEpochNanos(reading.getTimestamp()),
+				temperature != null ? temperature : Double.NaN);
+		putSensorID(buffer, reading.getSensorID());
+	}
+
+	public static void encode(CompactSensorReading reading, ByteBuffer buffer) {
+		putHeader(buffer, reading.getBaseUnitCode(), reading.getTimestampNanos(), reading.getTemperature());
+		int key = reading.getSensorKey();
+		if (key == SensorIdRegistry.NO_SENSOR) {
+			buffer.putShort((short) NO_ID);
+		} else if (key == SensorIdRegistry.UNREGISTERED) {
+			putSensorID(buffer, reading.getSensorID());
+		} else {
+			byte[] id = reading.getSensorIds().encodedIdOf(key);
+			buffer.putShort((short) checkLength(id.length)).put(id);
+		}
+	}
+
+	public static SensorReading decode(byte[] bytes) {
+		return decode(ByteBuffer.wrap(bytes));
+	}
+
+	public static SensorReading decode(ByteBuffer buffer) {
+		checkVersion(buffer);
+		byte unit = buffer.get();
+		long timestamp = buffer.getLong();
+		double temperature = buffer.getDouble();
+		int length = idLength(buffer);
+
+		SensorReading reading = new SensorReading();
+		reading.setBaseUnit(CompactSensorReading.decode(unit));
+		reading.setTimestamp(CompactSensorReading.toTimestamp(timestamp));
+		reading.setTemperature(Double.isNaN(temperature) ? null : temperature);
+		if (length != NO_ID) {
+			reading.setSensorID(StandardCharsets.UTF_8.decode(buffer.slice(buffer.position(), length)).toString());
+			buffer.position(buffer.position() + length);
+		}
+		return reading;
+	}
+
+	/*
+	 * Decodes into an existing CompactSensorReading; once the sensor is known
+	 * to the target's registry this does not allocate.
+	 */
+	public static CompactSensorReading decode(ByteBuffer buffer, CompactSensorReading target) {
+		checkVersion(buffer);
+		byte unit = buffer.get();
+		CompactSensorReading.decode(unit); // fails now rather than when the reading is read
+		long timestamp = buffer.getLong();
+		double temperature = buffer.getDouble();
+		int length = idLength(buffer);
+
+		int key = SensorIdRegistry.NO_SENSOR;
+		String unregisteredID = null;
+		if (length != NO_ID) {
+			key = target.getSensorIds().keyOf(buffer, buffer.position(), length);
+			if (key == SensorIdRegistry.UNREGISTERED) {
+				unregisteredID = StandardCharsets.UTF_8.decode(buffer.slice(buffer.position(), length)).toString();
+			}
+			buffer.position(buffer.position() + length);
+		}
+		return target.set(key, unregisteredID, timestamp, temperature, unit);
+	}
+
+	private static void putHeader(ByteBuffer buffer, byte unit, long timestamp, double temperature) {
+		buffer.put(VERSION).put(unit).putLong(timestamp).putDouble(temperature);
+	}
+
+	private static void putSensorID(ByteBuffer buffer, String sensorID) {
+		if (sensorID == null) {
+			buffer.putShort((short) NO_ID);
+			return;
+		}
+		int lengthPosition = buffer.position();
+		buffer.putShort((short) 0);
+		int start = buffer.position();
+		for (int i = 0; i < sensorID.length(); i++) {
+			char c = sensorID.charAt(i);
+			if (c >= 0x80) {
+				// Not ASCII, fall back to the JDK encoder for the whole ID
+				buffer.position(start);
+				buffer.put(sensorID.getBytes(StandardCharsets.UTF_8));
+				break;
+			}
+			buffer.put((byte) c);
+		}
+		buffer.putShort(lengthPosition, (short) checkLength(buffer.position() - start));
+	}
+
+	private static int utf8Length(String sensorID) {
+		for (int i = 0; i < sensorID.length(); i++) {
+			if (sensorID.charAt(i) >= 0x80) {
+				return checkLength(sensorID.getBytes(StandardCharsets.UTF_8).length);
+			}
+		}
+		return checkLength(sensorID.length());
+	}
+
+	private static int checkLength(int length) {
+		if (length >= NO_ID) {
+			throw new IllegalArgumentException("Sensor ID is too long to encode: " + length + " bytes");
+		}
+		return length;
+	}
+
+	/* Truncated payloads fail like a truncated header, whatever part is missing */
+	private static int idLength(ByteBuffer buffer) {
+		int length = Short.toUnsignedInt(buffer.getShort());
+		if (length != NO_ID && length > buffer.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		return length;
+	}
+
+	private static void checkVersion(ByteBuffer buffer) {
+		byte version = buffer.get();
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Unsupported sensor reading format version: " + version);
+		}
+	}
+}
@@ -0,0 +1,510 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.solace.samples.spring.common.SensorReading.BaseUnit;
+
+/**
+ * Streaming parser of the JSON form of a {@link SensorReading}, reading
+ * straight from a {@link ByteBuffer} into a {@link CompactSensorReading}
+ * without decoding the payload to a {@code String} first.
+ *
+ * Fields may come in any order and unknown fields are skipped. The timestamp
+ * is accepted both as epoch milliseconds and as an ISO-8601 string with an
+ * optional fraction and offset ({@code 2022-07-12T12:34:56.789+00:00}), the
+ * two forms Jackson writes a {@link java.sql.Timestamp} in. Once the sensor is
+ * known to the target's registry, a reading without escaped characters is
+ * parsed without allocating; escapes and numbers beyond the double fast path
+ * are handled with a String. Nothing but whitespace may follow the object.
+ *
+ * A parser keeps per-call state: reuse one instance per thread.
+ */
+public final class SensorReadingJsonParser {
+	private static final byte[] TIMESTAMP = ascii("timestamp");
+	private static final byte[] SENSOR_ID = ascii("sensorID");
+	private static final byte[] TEMPERATURE = ascii("temperature");
+	private static final byte[] BASE_UNIT = ascii("baseUnit");
+	private static final byte[] NULL = ascii("null");
+	private static final byte[][] UNITS;
+	static {
+		BaseUnit[] units = BaseUnit.values();
+		UNITS = new byte[units.length][];
+		for (int i = 0; i < units.length; i++) {
+			UNITS[i] = ascii(units[i].name());
+		}
+	}
+
+	/* Powers of ten exactly representable as a double */
+	private static final double[] POWERS_OF_TEN = new double[23];
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+	private static final long NANOS_PER_MILLI = 1_000_000L;
+	private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+	private ByteBuffer buffer;
+	private int position;
+	private int limit;
+	private String unregisteredID;
+
+	/**
+	 * Whether the payload between the buffer's position and limit starts, after
+	 * any whitespace, like a JSON object, and is worth handing to
+	 * {@link #parse}. The buffer is left unchanged.
+	 */
+	public static boolean isJsonObject(ByteBuffer buffer) {
+		for (int i = buffer.position(); i < buffer.limit(); i++) {
+			byte c = buffer.get(i);
+			if (!isWhitespace(c)) {
+				return c == '{';
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Parses the reading between the buffer's position and limit into the
+	 * target, and moves the position past it.
+	 *
+	 * @throws IllegalArgumentException if the payload is not a JSON object
+	 *                                  with well-formed reading fields
+	 */
+	public CompactSensorReading parse(ByteBuffer buffer, CompactSensorReading target) {
+		this.buffer = buffer;
+		this.position = buffer.position();
+		this.limit = buffer.limit();
+		this.unregisteredID = null;
+		try {
+			long timestamp = CompactSensorReading.NO_TIMESTAMP;
+			int sensorKey = SensorIdRegistry.NO_SENSOR;
+			double temperature = Double.NaN;
+			byte unit = CompactSensorReading.NO_UNIT;
+
+			expect('{');
+			if (peek() == '}') {
+				position++;
+			} else {
+				while (true) {
+					expect('"');
+					int nameStart = position;
+					int nameEnd = endOfString();
+					expect(':');
+					if (matches(TIMESTAMP, nameStart, nameEnd)) {
+						timestamp = parseTimestamp();
+					} else if (matches(SENSOR_ID, nameStart, nameEnd)) {
+						sensorKey = parseSensor(target.getSensorIds());
+					} else if (matches(TEMPERATURE, nameStart, nameEnd)) {
+						temperature = skipNull() ? Double.NaN : parseDouble();
+					} else if (matches(BASE_UNIT, nameStart, nameEnd)) {
+						unit = parseUnit();
+					} else {
+						skipValue();
+					}
+					byte next = next();
+					if (next == '}') {
+						break;
+					}
+					if (next != ',') {
+						throw malformed("',' or '}' expected");
+					}
+				}
+			}
+			while (position < limit && isWhitespace(buffer.get(position))) {
+				position++;
+			}
+			if (position < limit) {
+				throw malformed("unexpected content after the reading");
+			}
+			buffer.position(position);
+			return target.set(sensorKey, unregisteredID, timestamp, temperature, unit);
+		} catch (IndexOutOfBoundsException e) {
+			throw malformed("unexpected end of payload");
+		} catch (ArithmeticException e) {
+			throw malformed("number out of range");
+		} finally {
+			this.buffer = null;
+		}
+	}
+
+	private long parseTimestamp() {
+		if (skipNull()) {
+			return CompactSensorReading.NO_TIMESTAMP;
+		}
+		if (peek() != '"') {
+			return Math.multiplyExact(parseLong(), NANOS_PER_MILLI);
+		}
+		position++;
+		// yyyy-MM-ddTHH:mm:ss[.fraction][Z|+HH:mm|+HHmm]
+		int year = digits(4);
+		expectRaw('-');
+		int month = digits(2);
+		expectRaw('-');
+		int day = digits(2);
+		byte separator = raw();
+		if (separator != 'T' && separator != ' ') {
+			throw malformed("'T' expected");
+		}
+		int hour = digits(2);
+		expectRaw(':');
+		int minute = digits(2);
+		expectRaw(':');
+		int second = digits(2);
+		if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+			throw malformed("invalid date");
+		}
+		if (hour > 23 || minute > 59 || second > 59) {
+			throw malformed("invalid time");
+		}
+		long nanos = 0;
+		if (position < limit && buffer.get(position) == '.') {
+			position++;
+			long scale = NANOS_PER_SECOND;
+			while (position < limit && isDigit(buffer.get(position))) {
+				scale /= 10;
+				nanos += (buffer.get(position++) - '0') * scale;
+			}
+		}
+		int offsetSeconds = 0;
+		byte zone = raw();
+		if (zone == '+' || zone == '-') {
+			int offsetHours = digits(2);
+			if (position < limit && buffer.get(position) == ':') {
+				position++;
+			}
+			int offsetMinutes = digits(2);
+			if (offsetHours > 18 || offsetMinutes > 59) {
+				throw malformed("invalid offset");
+			}
+			offsetSeconds = (offsetHours * 3600 + offsetMinutes * 60) * (zone == '-' ? -1 : 1);
+			zone = raw();
+		} else if (zone == 'Z') {
+			zone = raw();
+		}
+		if (zone != '"') {
+			throw malformed("end of timestamp expected");
+		}
+		long epochSeconds = epochDay(year, month, day) * 86_400L + hour * 3600L + minute * 60L + second
+				- offsetSeconds;
+		return epochSeconds * NANOS_PER_SECOND + nanos;
+	}
+
+	private static int lengthOfMonth(int year, int month) {
+		if (month == 2) {
+			boolean leap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+			return leap ? 29 : 28;
+		}
+		return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+	}
+
+	/* Days since 1970-01-01 in the proleptic Gregorian calendar */
+	private static long epochDay(int year, int month, int day) {
+		long y = month <= 2 ? year - 1 : year;
+		long era = Math.floorDiv(y, 400);
+		long yearOfEra = y - era * 400;
+		long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+		long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146_097 + dayOfEra - 719_468;
+	}
+
+	private int parseSensor(SensorIdRegistry sensorIds) {
+		unregisteredID = null;
+		if (skipNull()) {
+			return SensorIdRegistry.NO_SENSOR;
+		}
+		expect('"');
+		int start = position;
+		int end = endOfString();
+		for (int i = start; i < end; i++) {
+			if (buffer.get(i) == '\\') {
+				return unregisteredIfFull(sensorIds, unescape(start, end));
+			}
+		}
+		int key = sensorIds.keyOf(buffer, start, end - start);
+		if (key == SensorIdRegistry.UNREGISTERED) {
+			byte[] bytes = new byte[end - start];
+			buffer.get(start, bytes);
+			unregisteredID = new String(bytes, StandardCharsets.UTF_8);
+		}
+		return key;
+	}
+
+	/* A registry with no room left keeps nothing, the reading carries the ID */
+	private int unregisteredIfFull(SensorIdRegistry sensorIds, String sensorID) {
+		int key = sensorIds.keyOf(sensorID);
+		if (key == SensorIdRegistry.UNREGISTERED) {
+			unregisteredID = sensorID;
+		}
+		return key;
+	}
+
+	private byte parseUnit() {
+		if (skipNull()) {
+			return CompactSensorReading.NO_UNIT;
+		}
+		expect('"');
+		int start = position;
+		int end = endOfString();
+		for (int i = 0; i < UNITS.length; i++) {
+			if (matches(UNITS[i], start, end)) {
+				return (byte) i;
+			}
+		}
+		throw malformed("unknown base unit");
+	}
+
+	private long parseLong() {
+		boolean negative = buffer.get(position) == '-';
+		if (negative) {
+			position++;
+		}
+		int start = position;
+		long value = 0;
+		while (position < limit && isDigit(buffer.get(position))) {
+			value = Math.addExact(Math.multiplyExact(value, 10), buffer.get(position++) - '0');
+		}
+		if (position == start) {
+			throw malformed("number expected");
+		}
+		return negative ? -value : value;
+	}
+
+	/*
+	 * Exact for up to 15 significant digits and a small exponent, as produced
+	 * for ordinary readings; anything else goes through Double.parseDouble.
+	 */
+	private double parseDouble() {
+		int start = position;
+		boolean negative = buffer.get(position) == '-';
+		if (negative) {
+			position++;
+		}
+		long mantissa = 0;
+		int exponent = 0;
+		int digits = 0;
+		boolean exact = true;
+		while (position < limit && isDigit(buffer.get(position))) {
+			mantissa = mantissa * 10 + (buffer.get(position++) - '0');
+			exact &= ++digits <= 15;
+		}
+		if (position < limit && buffer.get(position) == '.') {
+			position++;
+			while (position < limit && isDigit(buffer.get(position))) {
+				mantissa = mantissa * 10 + (buffer.get(position++) - '0');
+				exponent--;
+				exact &= ++digits <= 15;
+			}
+		}
+		if (digits == 0) {
+			throw malformed("number expected");
+		}
+		if (position < limit && (buffer.get(position) == 'e' || buffer.get(position) == 'E')) {
+			position++;
+			boolean negativeExponent = buffer.get(position) == '-';
+			if (negativeExponent || buffer.get(position) == '+') {
+				position++;
+			}
+			int value = 0;
+			int exponentStart = position;
+			while (position < limit && isDigit(buffer.get(position))) {
+				value = Math.min(value * 10 + (buffer.get(position++) - '0'), 10_000);
+			}
+			if (position == exponentStart) {
+				throw malformed("exponent expected");
+			}
+			exponent += negativeExponent ? -value : value;
+		}
+		if (!exact || mantissa > MAX_EXACT_MANTISSA || Math.abs(exponent) >= POWERS_OF_TEN.length) {
+			return Double.parseDouble(StandardCharsets.US_ASCII.decode(buffer.slice(start, position - start)).toString());
+		}
+		double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+		return negative ? -value : value;
+	}
+
+	private void skipValue() {
+		byte first = peek();
+		if (first == '"') {
+			position++;
+			endOfString();
+		} else if (first == '{' || first == '[') {
+			int depth = 0;
+			do {
+				byte c = raw();
+				if (c == '"') {
+					endOfString();
+				} else if (c == '{' || c == '[') {
+					depth++;
+				} else if (c == '}' || c == ']') {
+					depth--;
+				}
+			} while (depth > 0);
+		} else {
+			int start = position;
+			while (position < limit) {
+				byte c = buffer.get(position);
+				if (c == ',' || c == '}' || c == ']' || isWhitespace(c)) {
+					break;
+				}
+				position++;
+			}
+			if (position == start) {
+				throw malformed("value expected");
+			}
+		}
+	}
+
+	/* Position is just after an opening quote; returns the index of the closing one and moves past it */
+	private int endOfString() {
+		while (position < limit) {
+			byte c = buffer.get(position++);
+			if (c == '"') {
+				return position - 1;
+			}
+			if (c == '\\') {
+				position++;
+			}
+		}
+		throw malformed("unterminated string");
+	}
+
+	private String unescape(int start, int end) {
+		byte[] bytes = new byte[end - start];
+		buffer.get(start, bytes);
+		String raw = new String(bytes, StandardCharsets.UTF_8);
+		StringBuilder out = new StringBuilder(raw.length());
+		for (int i = 0; i < raw.length(); i++) {
+			char c = raw.charAt(i);
+			if (c != '\\') {
+				out.append(c);
+				continue;
+			}
+			char escaped = raw.charAt(++i);
+			switch (escaped) {
+			case 'b' -> out.append('\b');
+			case 'f' -> out.append('\f');
+			case 'n' -> out.append('\n');
+			case 'r' -> out.append('\r');
+			case 't' -> out.append('\t');
+			case 'u' -> {
+				out.append((char) Integer.parseInt(raw, i + 1, i + 5, 16));
+				i += 4;
+			}
+			default -> out.append(escaped);
+			}
+		}
+		return out.toString();
+	}
+
+	private boolean skipNull() {
+		if (peek() == 'n') {
+			if (!matches(NULL, position, Math.min(position + NULL.length, limit))) {
+				throw malformed("null expected");
+			}
+			position += NULL.length;
+			return true;
+		}
+		return false;
+	}
+
+	private int digits(int count) {
+		int value = 0;
+		for (int i = 0; i < count; i++) {
+			byte c = raw();
+			if (!isDigit(c)) {
+				throw malformed("digit expected");
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
+
+	private boolean matches(byte[] expected, int start, int end) {
+		if (end - start != expected.length) {
+			return false;
+		}
+		for (int i = 0; i < expected.length; i++) {
+			if (buffer.get(start + i) != expected[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/* Next byte after any whitespace, left in place */
+	private byte peek() {
+		while (position < limit && isWhitespace(buffer.get(position))) {
+			position++;
+		}
+		if (position == limit) {
+			throw malformed("unexpected end of payload");
+		}
+		return buffer.get(position);
+	}
+
+	private byte next() {
+		byte c = peek();
+		position++;
+		return c;
+	}
+
+	private void expect(char expected) {
+		if (next() != expected) {
+			throw malformed("'" + expected + "' expected");
+		}
+	}
+
+	/* Next byte, whitespace included */
+	private byte raw() {
+		if (position == limit) {
+			throw malformed("unexpected end of payload");
+		}
+		return buffer.get(position++);
+	}
+
+	private void expectRaw(char expected) {
+		if (raw() != expected) {
+			throw malformed("'" + expected + "' expected");
+		}
+	}
+
+	private IllegalArgumentException malformed(String reason) {
+		return new IllegalArgumentException("Malformed sensor reading at offset " + position + ": " + reason);
+	}
+
+	private static boolean isDigit(byte c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isWhitespace(byte c) {
+		return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+	}
+
+	private static byte[] ascii(String value) {
+		return value.getBytes(StandardCharsets.US_ASCII);
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.util.MimeType;
+
+/**
+ * Converts between {@link SensorReading} (or {@link CompactSensorReading})
+ * payloads and the binary layout of {@link SensorReadingCodec}, skipping
+ * Jackson entirely.
+ *
+ * Register it as a {@code MessageConverter} bean and select it per binding:
+ *
+ * <pre>
+ * spring.cloud.stream.bindings.convertFtoC-out-0.content-type: application/x-sensor-reading
+ * </pre>
+ *
+ * Inbound messages are matched on their {@code contentType} header, falling
+ * back to the binding's content-type when the header is missing.
+ */
+public class SensorReadingMessageConverter extends AbstractMessageConverter {
+	public static final MimeType SENSOR_READING = MimeType.valueOf(SensorReadingCodec.MIME_TYPE);
+
+	public SensorReadingMessageConverter() {
+		super(SENSOR_READING);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return SensorReading.class.equals(clazz) || CompactSensorReading.class.equals(clazz);
+	}
+
+	@Override
+	protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+		Object payload = message.getPayload();
+		ByteBuffer buffer;
+		if (payload instanceof byte[] bytes) {
+			buffer = ByteBuffer.wrap(bytes);
+		} else if (payload instanceof ByteBuffer byteBuffer) {
+			buffer = byteBuffer.duplicate();
+		} else {
+			return null;
+		}
+		try {
+			if (CompactSensorReading.class.equals(targetClass)) {
+				return SensorReadingCodec.decode(buffer, new CompactSensorReading());
+			}
+			return SensorReadingCodec.decode(buffer);
+		} catch (IllegalArgumentException | BufferUnderflowException e) {
+			throw new MessageConversionException(message, "Invalid " + SensorReadingCodec.MIME_TYPE + " payload", e);
+		}
+	}
+
+	@Override
+	protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+		if (payload instanceof CompactSensorReading compact) {
+			return SensorReadingCodec.encode(compact);
+		}
+		return SensorReadingCodec.encode((SensorReading) payload);
+	}
+}
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.batching;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Collects the messages bound for one destination and hands them to the sink
+ * as a single list, bounded by count, payload bytes and linger time.
+ *
+ * The sink runs while the accumulator is locked, so batches are published one
+ * at a time and in order; a producer adding a message meanwhile waits for the
+ * publish to complete. {@link #add} returns a future of the batch the message
+ * went into, completed once that batch is published. If the sink throws, the
+ * batch is dropped, its future fails and the error is thrown to the producer
+ * whose message completed it. When the linger timer or {@link #close} flushed
+ * it, there is no such producer: the batch and the error are handed to the
+ * failure handler instead.
+ */
+public class BatchAccumulator implements AutoCloseable {
+	private static final Logger log = LoggerFactory.getLogger(BatchAccumulator.class);
+
+	/** Why a batch was published, the {@code reason} tag of the flush counter. */
+	public enum FlushReason {
+		MESSAGES, BYTES, LINGER, CLOSE
+	}
+
+	private final String destination;
+	private final int maxMessages;
+	private final long maxBytes;
+	private final long lingerNanos;
+	private final Consumer<List<Message<?>>> sink;
+	private final BiConsumer<List<Message<?>>, RuntimeException> failureHandler;
+	private final ScheduledExecutorService scheduler;
+	private final DistributionSummary batchMessages;
+	private final DistributionSummary batchBytes;
+	private final Counter[] flushes = new Counter[FlushReason.values().length];
+	private final Counter failures;
+
+	private List<Message<?>> batch;
+	private long bytes;
+	private CompletableFuture<Void> published = new CompletableFuture<>();
+	/* Identifies the batch a linger timer was started for */
+	private long batchNumber;
+	private ScheduledFuture<?> lingerTimer;
+	private boolean closed;
+
+	public BatchAccumulator(String destination, BatchingProperties properties, Consumer<List<Message<?>>> sink,
+			BiConsumer<List<Message<?>>, RuntimeException> failureHandler, ScheduledExecutorService scheduler,
+			MeterRegistry registry) {
+		this.destination = destination;
+		this.maxMessages = properties.getMaxMessages();
+		this.maxBytes = properties.getMaxBytes().toBytes();
+		this.lingerNanos = properties.getLinger().toNanos();
+		this.sink = sink;
+		this.failureHandler = failureHandler;
+		this.scheduler = scheduler;
+		this.batch = new ArrayList<>(maxMessages);
+		this.batchMessages = DistributionSummary.builder("samples.batching.batch.size")
+				.tag("destination", destination)
+				.description("Messages per published batch")
+				.register(registry);
+		this.batchBytes = DistributionSummary.builder("samples.batching.batch.bytes")
+				.tag("destination", destination)
+				.baseUnit("bytes")
+				.description("Payload bytes per published batch")
+				.register(registry);
+		for (FlushReason reason : FlushReason.values()) {
+			flushes[reason.ordinal()] = Counter.builder("samples.batching.flushes")
+					.tag("destination", destination)
+					.tag("reason", reason.name().toLowerCase())
+					.description("Published batches, by what completed them")
+					.register(registry);
+		}
+		this.failures = Counter.builder("samples.batching.failures")
+				.tag("destination", destination)
+				.description("Batches the sink failed to publish")
+				.register(registry);
+	}
+
+	/** Adds the message, returning the future of its batch. */
+	public CompletableFuture<Void> add(Message<?> message) {
+		long size = payloadBytes(message.getPayload());
+		synchronized (this) {
+			if (closed) {
+				throw new IllegalStateException("Batches to " + destination + " are no longer published");
+			}
+			if (!batch.isEmpty() && bytes + size > maxBytes) {
+				flush(FlushReason.BYTES);
+			}
+			batch.add(message);
+			bytes += size;
+			CompletableFuture<Void> future = published;
+			if (batch.size() >= maxMessages) {
+				flush(FlushReason.MESSAGES);
+			} else if (bytes >= maxBytes) {
+				flush(FlushReason.BYTES);
+			} else if (batch.size() == 1) {
+				long number = batchNumber;
+				lingerTimer = scheduler.schedule(() -> lingerExpired(number), lingerNanos, TimeUnit.NANOSECONDS);
+			}
+			return future;
+		}
+	}
+
+	private synchronized void lingerExpired(long number) {
+		if (number != batchNumber || batch.isEmpty()) {
+			return;
+		}
+		try {
+			flush(FlushReason.LINGER);
+		} catch (RuntimeException e) {
+			log.error("Failed to publish a batch to {}", destination, e);
+		}
+	}
+
+	private void flush(FlushReason reason) {
+		List<Message<?>> full = batch;
+		long fullBytes = bytes;
+		CompletableFuture<Void> fullPublished = published;
+		batch = new ArrayList<>(maxMessages);
+		bytes = 0;
+		published = new CompletableFuture<>();
+		batchNumber++;
+		if (lingerTimer != null) {
+			lingerTimer.cancel(false);
+			lingerTimer = null;
+		}
+		try {
+			sink.accept(full);
+		} catch (RuntimeException e) {
+			failures.increment();
+			try {
+				if (reason == FlushReason.LINGER || reason == FlushReason.CLOSE) {
+					failureHandler.accept(full, e);
+				}
+			} finally {
+				fullPublished.completeExceptionally(e);
+			}
+			throw e;
+		}
+		batchMessages.record(full.size());
+		batchBytes.record(fullBytes);
+		flushes[reason.ordinal()].increment();
+		fullPublished.complete(null);
+	}
+
+	/* Messages currently waiting for their batch to complete */
+	public synchronized int getPending() {
+		return batch.size();
+	}
+
+	static long payloadBytes(Object payload) {
+		if (payload instanceof byte[] bytes) {
+			return bytes.length;
+		}
+		if (payload instanceof ByteBuffer buffer) {
+			return buffer.remaining();
+		}
+		if (payload instanceof CharSequence text) {
+			return text.length();
+		}
+		return 0;
+	}
+
+	/* Publishes what is left; later messages are refused */
+	@Override
+	public synchronized void close() {
+		if (!closed) {
+			closed = true;
+			if (!batch.isEmpty()) {
+				flush(FlushReason.CLOSE);
+			}
+		}
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.batching;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import com.solace.samples.spring.common.metrics.FunctionMetricsAutoConfiguration;
+import com.solace.samples.spring.common.offload.OffloadAutoConfiguration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Ordered before offloading (see BatchingPostProcessor.ORDER): the offloaded
+ * wrapper publishes whatever the function it wraps returns, so it has to go
+ * around the batching one, which returns nothing.
+ */
+@AutoConfiguration(after = FunctionMetricsAutoConfiguration.class, before = OffloadAutoConfiguration.class)
+@ConditionalOnClass(StreamBridge.class)
+@ConditionalOnProperty(prefix = "samples.batching", name = "enabled", havingValue = "true")
+public class BatchingAutoConfiguration {
+
+	@Bean
+	public static BatchingPostProcessor batchingPostProcessor(ObjectProvider<StreamBridge> streamBridge,
+			ObjectProvider<BindingServiceProperties> bindingServiceProperties,
+			ObjectProvider<MeterRegistry> registryProvider, Environment environment) {
+		BatchingProperties properties = Binder.get(environment)
+				.bind("samples.batching", BatchingProperties.class)
+				.orElseGet(BatchingProperties::new);
+		return new BatchingPostProcessor(properties, streamBridge, bindingServiceProperties, registryProvider);
+	}
+}
@@ -0,0 +1,346 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.batching;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.Ordered;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.context.IntegrationContextUtils;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.ErrorMessage;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.solace.samples.spring.common.metrics.FunctionMetricsPostProcessor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Batches the output of the selected {@link Function} beans: instead of
+ * returning its result to the binder, a wrapped function adds it to the
+ * {@link BatchAccumulator} of its {@code <function>-out-0} binding, and each
+ * completed batch is sent with a single {@link StreamBridge} call.
+ *
+ * A function may return a payload, a {@code Message}, or an
+ * {@code Iterable}, {@code Stream} or {@code Publisher} of either. Streams and
+ * publishers are read as the batches go out, a batch worth of elements at a
+ * time, so a function can fan out any number of messages in constant memory.
+ * The wrapped function returns {@code null}, so it must not be declared with
+ * a reactive return type such as {@code Flux}: Spring Cloud Function would
+ * bind it as a reactive function and fail on the {@code null} output. Return a
+ * {@code Stream}, or declare the function as returning {@code Object}.
+ * A batch is sent as one {@code Message<List<?>>} of the payloads,
+ * with their headers in the {@value #BATCHED_HEADERS} header, which the Solace
+ * binder publishes as a batch of individual messages. The payloads must
+ * already be in their wire format: the output binding has to set
+ * {@code producer.use-native-encoding}, otherwise the list is converted as a
+ * whole.
+ *
+ * With {@code acknowledgeAfterPublish}, the default, a wrapped function
+ * returns once every batch holding its output is published, and throws if one
+ * of them failed, so the binder acknowledges its input only after the output
+ * is sent: at least once. Batches then only span the invocations running at
+ * the same time, on concurrent consumers or offloaded. Without it the function
+ * returns as soon as its output is added, and the input is acknowledged before
+ * its batch is sent: at most once. A batch that fails to publish once nobody
+ * waits for it, from the linger timer or on shutdown, is counted in
+ * {@code samples.batching.failures} and sent to the {@code errorChannel}.
+ *
+ * Pending batches are published when the application stops, after the input
+ * bindings and before the output bindings.
+ */
+public class BatchingPostProcessor
+		implements BeanPostProcessor, Ordered, SmartLifecycle, BeanFactoryAware, DisposableBean {
+	private static final Logger log = LoggerFactory.getLogger(BatchingPostProcessor.class);
+
+	/* Around the instrumented functions, inside the offloaded ones */
+	public static final int ORDER = FunctionMetricsPostProcessor.ORDER + 10;
+
+	/** SolaceBinderHeaders.BATCHED_HEADERS, the common module does not depend on the binder. */
+	public static final String BATCHED_HEADERS = "solace_scst_batchedHeaders";
+
+	private final BatchingProperties properties;
+	private final ObjectProvider<StreamBridge> streamBridge;
+	private final ObjectProvider<BindingServiceProperties> bindingServiceProperties;
+	private final ObjectProvider<MeterRegistry> registryProvider;
+	private final Map<String, BatchAccumulator> accumulators = new ConcurrentHashMap<>();
+	private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, task -> {
+		Thread thread = new Thread(task, "batching-linger");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private volatile boolean running;
+	private BeanFactory beanFactory;
+
+	public BatchingPostProcessor(BatchingProperties properties, ObjectProvider<StreamBridge> streamBridge,
+			ObjectProvider<BindingServiceProperties> bindingServiceProperties,
+			ObjectProvider<MeterRegistry> registryProvider) {
+		this.properties = properties;
+		this.streamBridge = streamBridge;
+		this.bindingServiceProperties = bindingServiceProperties;
+		this.registryProvider = registryProvider;
+		scheduler.setRemoveOnCancelPolicy(true);
+	}
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) {
+		this.beanFactory = beanFactory;
+	}
+
+	@Override
+	public int getOrder() {
+		return ORDER;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (bean.getClass().getName().startsWith("org.springframework.")
+				|| !properties.getFunctions().contains(beanName)) {
+			return bean;
+		}
+		if (bean instanceof Function<?, ?> function) {
+			log.info("Batching the output of {}: up to {} messages, {} or {}", beanName,
+					properties.getMaxMessages(), properties.getMaxBytes(), properties.getLinger());
+			return new BatchingFunction<>(beanName + "-out-0", (Function<Object, Object>) function);
+		}
+		return bean;
+	}
+
+	BatchAccumulator accumulator(String binding) {
+		return accumulators.computeIfAbsent(binding, this::createAccumulator);
+	}
+
+	/* Created with the first output, once the registry and the bindings exist */
+	private BatchAccumulator createAccumulator(String binding) {
+		BindingServiceProperties bindings = bindingServiceProperties.getIfAvailable();
+		if (bindings != null && !bindings.getProducerProperties(binding).isUseNativeEncoding()) {
+			log.warn("{} does not use native encoding, each batch will be converted as a single payload", binding);
+		}
+		return new BatchAccumulator(binding, properties, batch -> streamBridge.getObject().send(binding,
+				toBatchedMessage(batch)), (batch, e) -> reportFailure(binding, batch, e), scheduler,
+				registryProvider.getIfAvailable(SimpleMeterRegistry::new));
+	}
+
+	/* A batch flushed by the linger timer or on shutdown has no caller to throw to */
+	private void reportFailure(String binding, List<Message<?>> batch, RuntimeException error) {
+		if (beanFactory == null || !beanFactory.containsBean(IntegrationContextUtils.ERROR_CHANNEL_BEAN_NAME)) {
+			return;
+		}
+		try {
+			beanFactory.getBean(IntegrationContextUtils.ERROR_CHANNEL_BEAN_NAME, MessageChannel.class)
+					.send(new ErrorMessage(new MessagingException(toBatchedMessage(batch),
+							"Failed to publish a batch of " + batch.size() + " messages to " + binding, error)));
+		} catch (RuntimeException e) {
+			log.error("Failed to report the failed batch of {} to the error channel", binding, e);
+		}
+	}
+
+	static Message<List<Object>> toBatchedMessage(List<Message<?>> batch) {
+		List<Object> payloads = new ArrayList<>(batch.size());
+		List<Map<String, Object>> headers = new ArrayList<>(batch.size());
+		for (Message<?> message : batch) {
+			payloads.add(message.getPayload());
+			headers.add(message.getHeaders());
+		}
+		return MessageBuilder.withPayload(payloads).setHeader(BATCHED_HEADERS, headers).build();
+	}
+
+	private void add(String binding, Object input, Object result) {
+		if (result == null) {
+			return;
+		}
+		BatchAccumulator accumulator = accumulator(binding);
+		// The batches holding the output, in order; consecutive messages mostly share one
+		List<CompletableFuture<Void>> batches = new ArrayList<>();
+		Consumer<Object> add = element -> {
+			CompletableFuture<Void> batch = accumulator.add(toMessage(input, element));
+			if (properties.isAcknowledgeAfterPublish()
+					&& (batches.isEmpty() || batches.get(batches.size() - 1) != batch)) {
+				batches.add(batch);
+			}
+		};
+		if (result instanceof Iterable<?> results) {
+			results.forEach(add);
+		} else if (result instanceof Stream<?> results) {
+			try (results) {
+				results.forEach(add);
+			}
+		} else if (result instanceof Publisher<?> results) {
+			drain(add, results);
+		} else {
+			add.accept(result);
+		}
+		if (!batches.isEmpty()) {
+			join(CompletableFuture.allOf(batches.toArray(CompletableFuture<?>[]::new)));
+		}
+	}
+
+	private static void join(CompletableFuture<?> future) {
+		try {
+			future.join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException cause ? cause
+					: new IllegalStateException("Failed to produce the output to batch", e.getCause());
+		}
+	}
+
+	/*
+	 * Requests one batch worth of elements at a time and waits for completion,
+	 * so a lazily produced publisher never has more than a batch in flight: the
+	 * accumulator holds the emitting thread while it publishes.
+	 */
+	private void drain(Consumer<Object> add, Publisher<?> publisher) {
+		int chunk = properties.getMaxMessages();
+		CompletableFuture<Void> done = new CompletableFuture<>();
+		publisher.subscribe(new Subscriber<Object>() {
+			private Subscription subscription;
+			private int received;
+
+			@Override
+			public void onSubscribe(Subscription subscription) {
+				this.subscription = subscription;
+				subscription.request(chunk);
+			}
+
+			@Override
+			public void onNext(Object element) {
+				try {
+					add.accept(element);
+				} catch (RuntimeException e) {
+					subscription.cancel();
+					done.completeExceptionally(e);
+					return;
+				}
+				if (++received == chunk) {
+					received = 0;
+					subscription.request(chunk);
+				}
+			}
+
+			@Override
+			public void onError(Throwable error) {
+				done.completeExceptionally(error);
+			}
+
+			@Override
+			public void onComplete() {
+				done.complete(null);
+			}
+		});
+		join(done);
+	}
+
+	/* Same headers the binder would have given a plain result */
+	private static Message<?> toMessage(Object input, Object result) {
+		if (result instanceof Message<?> message) {
+			return message;
+		}
+		MessageBuilder<Object> builder = MessageBuilder.withPayload(result);
+		if (input instanceof Message<?> message) {
+			builder.copyHeaders(message.getHeaders())
+					.removeHeaders(MessageHeaders.CONTENT_TYPE, IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK);
+		}
+		return builder.build();
+	}
+
+	@Override
+	public void start() {
+		running = true;
+	}
+
+	@Override
+	public void stop() {
+		running = false;
+		accumulators.forEach((binding, accumulator) -> {
+			try {
+				accumulator.close();
+			} catch (RuntimeException e) {
+				log.error("Failed to publish the last batch of {}", binding, e);
+			}
+		});
+		accumulators.clear();
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	/* Between the input bindings, stopped first, and the output bindings, stopped last */
+	@Override
+	public int getPhase() {
+		return 0;
+	}
+
+	@Override
+	public void destroy() {
+		stop();
+		scheduler.shutdownNow();
+	}
+
+	final class BatchingFunction<T, R> implements Function<T, R> {
+		private final String binding;
+		private final Function<T, R> target;
+
+		BatchingFunction(String binding, Function<T, R> target) {
+			this.binding = binding;
+			this.target = target;
+		}
+
+		/* Returns null, the result is published with its batch */
+		@Override
+		public R apply(T input) {
+			if (input instanceof Publisher<?>) {
+				return target.apply(input);
+			}
+			add(binding, input, target.apply(input));
+			return null;
+		}
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.batching;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings of the {@link BatchingPostProcessor}: a batch is published as soon
+ * as it reaches {@code maxMessages} or {@code maxBytes}, or {@code linger}
+ * after its first message, whichever comes first.
+ */
+@ConfigurationProperties("samples.batching")
+public class BatchingProperties {
+	private boolean enabled = false;
+
+	/** Functions whose output is batched; required, unlike samples.offload.functions. */
+	private List<String> functions = new ArrayList<>();
+
+	private int maxMessages = 255;
+
+	/**
+	 * Payload bytes of a batch, counting byte[], ByteBuffer and String payloads
+	 * (one byte per char). A message larger than this is published on its own.
+	 */
+	private DataSize maxBytes = DataSize.ofMegabytes(1);
+
+	/** Longest time the first message of a batch waits for the others. */
+	private Duration linger = Duration.ofMillis(50);
+
+	/**
+	 * Whether a wrapped function returns only once its output is published, so
+	 * that its input is acknowledged after its output is sent rather than
+	 * before. Holds the calling thread for up to {@code linger}.
+	 */
+	private boolean acknowledgeAfterPublish = true;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public List<String> getFunctions() {
+		return functions;
+	}
+
+	public void setFunctions(List<String> functions) {
+		this.functions = functions;
+	}
+
+	public int getMaxMessages() {
+		return maxMessages;
+	}
+
+	public void setMaxMessages(int maxMessages) {
+		this.maxMessages = maxMessages;
+	}
+
+	public DataSize getMaxBytes() {
+		return maxBytes;
+	}
+
+	public void setMaxBytes(DataSize maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	public Duration getLinger() {
+		return linger;
+	}
+
+	public void setLinger(Duration linger) {
+		this.linger = linger;
+	}
+
+	public boolean isAcknowledgeAfterPublish() {
+		return acknowledgeAfterPublish;
+	}
+
+	public void setAcknowledgeAfterPublish(boolean acknowledgeAfterPublish) {
+		this.acknowledgeAfterPublish = acknowledgeAfterPublish;
+	}
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+
+
+package com.solace.samples.spring.common.latency;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.integration.channel.interceptor.GlobalChannelInterceptorWrapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Spring Cloud Stream names its binding channels <function>-in-<n> and
+ * <function>-out-<n>, which is what the interceptor patterns match.
+ */
+@AutoConfiguration(afterName = "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration")
+@ConditionalOnClass({ GlobalChannelInterceptorWrapper.class, MeterRegistry.class })
+@EnableConfigurationProperties(LatencyProperties.class)
+public class LatencyAutoConfiguration {
+
+	@Bean
+	@ConditionalOnProperty(prefix = "samples.latency", name = "stamp", havingValue = "true")
+	public GlobalChannelInterceptorWrapper latencyStampingInterceptor() {
+		GlobalChannelInterceptorWrapper wrapper = new GlobalChannelInterceptorWrapper(new LatencyStampingInterceptor());
+		wrapper.setPatterns(new String[] { "*-out-*" });
+		return wrapper;
+	}
+
+	@Bean
+	@ConditionalOnBean(MeterRegistry.class)
+	@ConditionalOnProperty(prefix = "samples.latency", name = "record", havingValue = "true")
+	public GlobalChannelInterceptorWrapper latencyRecordingInterceptor(MeterRegistry registry,
+			LatencyProperties properties) {
+		GlobalChannelInterceptorWrapper wrapper = new GlobalChannelInterceptorWrapper(
+				new LatencyRecordingInterceptor(registry, properties.getPercentiles()));
+		wrapper.setPatterns(new String[] { "*-in-*" });
+		return wrapper;
+	}
+}
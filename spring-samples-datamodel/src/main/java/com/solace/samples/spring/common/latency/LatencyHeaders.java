@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+
+
+package com.solace.samples.spring.common.latency;
+
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Headers used to follow a message from the application that first published
+ * it to the one that finally consumes it.
+ *
+ * Times are wall-clock epoch nanoseconds, the only clock the applications
+ * share; the precision is that of {@link Clock#systemUTC()}, usually
+ * microseconds. Latencies measured between hosts are only as good as their
+ * clock synchronization.
+ */
+public final class LatencyHeaders {
+	/** Epoch nanoseconds at which the first application published the message. */
+	public static final String EMIT_TIME = "samples_emit_nanos";
+
+	/**
+	 * One {@code <function>=<epoch nanos>} entry, comma separated, appended by
+	 * every application that published the message, the first one included.
+	 */
+	public static final String HOPS = "samples_hops";
+
+	private static final Clock CLOCK = Clock.systemUTC();
+	private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+	private LatencyHeaders() {
+	}
+
+	public static long epochNanos() {
+		Instant now = CLOCK.instant();
+		return now.getEpochSecond() * NANOS_PER_SECOND + now.getNano();
+	}
+
+	public static String appendHop(String hops, String function, long epochNanos) {
+		String hop = function + '=' + epochNanos;
+		return hops == null || hops.isEmpty() ? hop : hops + ',' + hop;
+	}
+
+	/**
+	 * Calls {@code visitor} for each entry of a {@link #HOPS} header, in the
+	 * order the hops were made. Malformed entries are skipped.
+	 */
+	public static void forEachHop(String hops, HopVisitor visitor) {
+		if (hops == null) {
+			return;
+		}
+		int start = 0;
+		while (start < hops.length()) {
+			int end = hops.indexOf(',', start);
+			if (end < 0) {
+				end = hops.length();
+			}
+			int separator = hops.lastIndexOf('=', end - 1);
+			if (separator > start) {
+				try {
+					visitor.hop(hops.substring(start, separator), Long.parseLong(hops, separator + 1, end, 10));
+				} catch (NumberFormatException e) {
+					// not one of ours, ignore it
+				}
+			}
+			start = end + 1;
+		}
+	}
+
+	/*
+	 * Binding channels are named <function>-in-<index> / <function>-out-<index>
+	 */
+	static String functionOf(String bindingName) {
+		int index = bindingName.lastIndexOf('-');
+		if (index > 0) {
+			int direction = bindingName.lastIndexOf('-', index - 1);
+			if (direction > 0) {
+				return bindingName.substring(0, direction);
+			}
+		}
+		return bindingName;
+	}
+
+	@FunctionalInterface
+	public interface HopVisitor {
+		void hop(String function, long epochNanos);
+	}
+}
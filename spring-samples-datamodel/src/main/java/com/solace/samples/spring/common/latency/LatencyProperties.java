@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+
+
+package com.solace.samples.spring.common.latency;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * End-to-end latency tracking, for example on a processor:
+ *
+ * <pre>
+ * samples:
+ *   latency:
+ *     stamp: true     # add this hop to everything published
+ *     record: true    # time what arrives since it was first published
+ * </pre>
+ */
+@ConfigurationProperties("samples.latency")
+public class LatencyProperties {
+	private boolean stamp;
+	private boolean record;
+	private List<Double> percentiles = new ArrayList<>(List.of(0.5, 0.9, 0.99, 0.999));
+
+	public boolean isStamp() {
+		return stamp;
+	}
+
+	public void setStamp(boolean stamp) {
+		this.stamp = stamp;
+	}
+
+	public boolean isRecord() {
+		return record;
+	}
+
+	public void setRecord(boolean record) {
+		this.record = record;
+	}
+
+	public List<Double> getPercentiles() {
+		return percentiles;
+	}
+
+	public void setPercentiles(List<Double> percentiles) {
+		this.percentiles = percentiles;
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+
+
+package com.solace.samples.spring.common.latency;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.integration.support.context.NamedComponent;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.ChannelInterceptor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Applied to input bindings: records, when a stamped message arrives,
+ *
+ * <ul>
+ * <li>{@value #END_TO_END} - from {@link LatencyHeaders#EMIT_TIME} to now,
+ * tagged with the receiving function</li>
+ * <li>{@value #HOP} - between consecutive {@link LatencyHeaders#HOPS} entries
+ * and from the last one to now, tagged {@code from} and {@code to}</li>
+ * </ul>
+ *
+ * Both timers publish a percentile histogram; negative latencies, from clocks
+ * that are out of sync, are dropped.
+ */
+public class LatencyRecordingInterceptor implements ChannelInterceptor {
+	public static final String END_TO_END = "samples.latency.end-to-end";
+	public static final String HOP = "samples.latency.hop";
+
+	private final MeterRegistry registry;
+	private final double[] percentiles;
+	private final Map<String, Timer> endToEnd = new ConcurrentHashMap<>();
+	private final Map<String, Map<String, Timer>> hops = new ConcurrentHashMap<>();
+
+	public LatencyRecordingInterceptor(MeterRegistry registry, List<Double> percentiles) {
+		this.registry = registry;
+		this.percentiles = percentiles.stream().mapToDouble(Double::doubleValue).toArray();
+	}
+
+	@Override
+	public Message<?> preSend(Message<?> message, MessageChannel channel) {
+		MessageHeaders headers = message.getHeaders();
+		Long emitTime = headers.get(LatencyHeaders.EMIT_TIME, Long.class);
+		if (emitTime == null) {
+			return message;
+		}
+		long now = LatencyHeaders.epochNanos();
+		String receiver = channel instanceof NamedComponent named
+				? LatencyHeaders.functionOf(named.getComponentName())
+				: "unknown";
+
+		record(endToEnd.computeIfAbsent(receiver, this::endToEndTimer), now - emitTime);
+
+		long[] previousTime = { Long.MIN_VALUE };
+		String[] previousHop = { null };
+		LatencyHeaders.forEachHop(headers.get(LatencyHeaders.HOPS, String.class), (function, time) -> {
+			if (previousHop[0] != null) {
+				record(hopTimer(previousHop[0], function), time - previousTime[0]);
+			}
+			previousHop[0] = function;
+			previousTime[0] = time;
+		});
+		if (previousHop[0] != null) {
+			record(hopTimer(previousHop[0], receiver), now - previousTime[0]);
+		}
+		return message;
+	}
+
+	private static void record(Timer timer, long nanos) {
+		if (nanos >= 0) {
+			timer.record(nanos, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private Timer endToEndTimer(String receiver) {
+		return Timer.builder(END_TO_END)
+				.description("Time from the first publish of a message to its arrival at this function")
+				.tag("receiver", receiver)
+				.publishPercentiles(percentiles)
+				.publishPercentileHistogram()
+				.register(registry);
+	}
+
+	private Timer hopTimer(String from, String to) {
+		return hops.computeIfAbsent(from, f -> new ConcurrentHashMap<>())
+				.computeIfAbsent(to, t -> Timer.builder(HOP)
+						.description("Time between two functions handling the same message")
+						.tag("from", from)
+						.tag("to", to)
+						.publishPercentiles(percentiles)
+						.publishPercentileHistogram()
+						.register(registry));
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+
+
+package com.solace.samples.spring.common.latency;
+
+import org.springframework.integration.support.context.NamedComponent;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+
+/**
+ * Applied to output bindings: stamps {@link LatencyHeaders#EMIT_TIME} on
+ * messages that do not carry it yet and appends the publishing function to
+ * {@link LatencyHeaders#HOPS}.
+ */
+public class LatencyStampingInterceptor implements ChannelInterceptor {
+
+	@Override
+	public Message<?> preSend(Message<?> message, MessageChannel channel) {
+		long now = LatencyHeaders.epochNanos();
+		String function = channel instanceof NamedComponent named
+				? LatencyHeaders.functionOf(named.getComponentName())
+				: "unknown";
+		MessageBuilder<?> builder = MessageBuilder.fromMessage(message)
+				.setHeader(LatencyHeaders.HOPS, LatencyHeaders.appendHop(
+						message.getHeaders().get(LatencyHeaders.HOPS, String.class), function, now));
+		if (!message.getHeaders().containsKey(LatencyHeaders.EMIT_TIME)) {
+			builder.setHeader(LatencyHeaders.EMIT_TIME, now);
+		}
+		return builder.build();
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+
+/**
+ * Per-message logger for a function's hot path. Every call first asks the
+ * {@link LogMode} policy whether this message should be logged at all, so that
+ * with sampling or rate limiting the common case costs a counter update and no
+ * message formatting.
+ *
+ * Messages use SLF4J placeholders, so arguments are only turned into strings
+ * when the message is actually written. When several lines belong to the same
+ * message, decide once with {@link #shouldLog()} and log through
+ * {@link #getLogger()}:
+ *
+ * <pre>
+ * if (hotLog.shouldLog()) {
+ *     hotLog.getLogger().info("Received: {}", reading);
+ * }
+ * </pre>
+ */
+public final class HotPathLogger {
+	private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final Logger logger;
+	private final LogMode mode;
+	private final long sampleEvery;
+	private final long maxPerSecond;
+	private final LongSupplier nanoClock;
+
+	private final AtomicLong counter = new AtomicLong();
+	private final AtomicReference<Window> window;
+
+	/*
+	 * A rate-limiting window holds its own count, so starting a new window
+	 * cannot lose or reset the permits taken in it.
+	 */
+	private static final class Window {
+		final long start;
+		final AtomicLong permits = new AtomicLong();
+
+		Window(long start) {
+			this.start = start;
+		}
+	}
+
+	HotPathLogger(Logger logger, LogMode mode, long sampleEvery, long maxPerSecond) {
+		this(logger, mode, sampleEvery, maxPerSecond, System::nanoTime);
+	}
+
+	HotPathLogger(Logger logger, LogMode mode, long sampleEvery, long maxPerSecond, LongSupplier nanoClock) {
+		if (sampleEvery < 1 || maxPerSecond < 1) {
+			throw new IllegalArgumentException("sample-every and max-per-second must be at least 1");
+		}
+		this.logger = logger;
+		this.mode = mode;
+		this.sampleEvery = sampleEvery;
+		this.maxPerSecond = maxPerSecond;
+		this.nanoClock = nanoClock;
+		this.window = new AtomicReference<>(new Window(nanoClock.getAsLong()));
+	}
+
+	public static HotPathLogger full(Logger logger) {
+		return new HotPathLogger(logger, LogMode.FULL, 1, 1);
+	}
+
+	public static HotPathLogger sampled(Logger logger, long sampleEvery) {
+		return new HotPathLogger(logger, LogMode.SAMPLED, sampleEvery, 1);
+	}
+
+	public static HotPathLogger rateLimited(Logger logger, long maxPerSecond) {
+		return new HotPathLogger(logger, LogMode.RATE_LIMITED, 1, maxPerSecond);
+	}
+
+	/*
+	 * Decides whether the current message is logged. Each call counts as one
+	 * message, so call it once per message.
+	 */
+	public boolean shouldLog() {
+		switch (mode) {
+		case OFF:
+			return false;
+		case SAMPLED:
+			return logger.isInfoEnabled() && counter.getAndIncrement() % sampleEvery == 0;
+		case RATE_LIMITED:
+			return logger.isInfoEnabled() && tryAcquire();
+		default:
+			return logger.isInfoEnabled();
+		}
+	}
+
+	public void info(String format, Object arg) {
+		if (shouldLog()) {
+			logger.info(format, arg);
+		}
+	}
+
+	public void info(String format, Object arg1, Object arg2) {
+		if (shouldLog()) {
+			logger.info(format, arg1, arg2);
+		}
+	}
+
+	public Logger getLogger() {
+		return logger;
+	}
+
+	public LogMode getMode() {
+		return mode;
+	}
+
+	private boolean tryAcquire() {
+		long now = nanoClock.getAsLong();
+		Window current = window.get();
+		if (now - current.start >= ONE_SECOND) {
+			Window next = new Window(now);
+			current = window.compareAndSet(current, next) ? next : window.get();
+		}
+		return current.permits.incrementAndGet() <= maxPerSecond;
+	}
+}
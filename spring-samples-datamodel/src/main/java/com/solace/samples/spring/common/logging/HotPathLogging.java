@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.logging;
+
+import org.slf4j.Logger;
+
+/**
+ * Hands out {@link HotPathLogger}s configured from {@link HotPathLoggingProperties}.
+ * Inject it into a function bean method and create the logger once, outside
+ * the lambda.
+ */
+public class HotPathLogging {
+	private final HotPathLoggingProperties properties;
+
+	public HotPathLogging(HotPathLoggingProperties properties) {
+		this.properties = properties;
+	}
+
+	public HotPathLogger forFunction(String functionName, Logger logger) {
+		HotPathLoggingProperties.Function function = properties.getFunctions().get(functionName);
+		LogMode mode = properties.getMode();
+		long sampleEvery = properties.getSampleEvery();
+		long maxPerSecond = properties.getMaxPerSecond();
+		if (function != null) {
+			mode = function.getMode() != null ? function.getMode() : mode;
+			sampleEvery = function.getSampleEvery() != null ? function.getSampleEvery() : sampleEvery;
+			maxPerSecond = function.getMaxPerSecond() != null ? function.getMaxPerSecond() : maxPerSecond;
+		}
+		return new HotPathLogger(logger, mode, sampleEvery, maxPerSecond);
+	}
+}
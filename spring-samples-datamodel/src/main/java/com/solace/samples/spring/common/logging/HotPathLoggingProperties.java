@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.logging;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Logging policy for function hot paths, for example:
+ *
+ * <pre>
+ * samples:
+ *   logging:
+ *     mode: sampled          # default for every function
+ *     sample-every: 1000
+ *     functions:
+ *       convertFtoC:
+ *         mode: rate-limited
+ *         max-per-second: 5
+ * </pre>
+ *
+ * Settings missing from a function entry are taken from the defaults.
+ */
+@ConfigurationProperties("samples.logging")
+public class HotPathLoggingProperties {
+	private LogMode mode = LogMode.FULL;
+	private long sampleEvery = 1000;
+	private long maxPerSecond = 10;
+	private Map<String, Function> functions = new LinkedHashMap<>();
+
+	public LogMode getMode() {
+		return mode;
+	}
+
+	public void setMode(LogMode mode) {
+		this.mode = mode;
+	}
+
+	public long getSampleEvery() {
+		return sampleEvery;
+	}
+
+	public void setSampleEvery(long sampleEvery) {
+		this.sampleEvery = sampleEvery;
+	}
+
+	public long getMaxPerSecond() {
+		return maxPerSecond;
+	}
+
+	public void setMaxPerSecond(long maxPerSecond) {
+		this.maxPerSecond = maxPerSecond;
+	}
+
+	public Map<String, Function> getFunctions() {
+		return functions;
+	}
+
+	public void setFunctions(Map<String, Function> functions) {
+		this.functions = functions;
+	}
+
+	public static class Function {
+		private LogMode mode;
+		private Long sampleEvery;
+		private Long maxPerSecond;
+
+		public LogMode getMode() {
+			return mode;
+		}
+
+		public void setMode(LogMode mode) {
+			this.mode = mode;
+		}
+
+		public Long getSampleEvery() {
+			return sampleEvery;
+		}
+
+		public void setSampleEvery(Long sampleEvery) {
+			this.sampleEvery = sampleEvery;
+		}
+
+		public Long getMaxPerSecond() {
+			return maxPerSecond;
+		}
+
+		public void setMaxPerSecond(Long maxPerSecond) {
+			this.maxPerSecond = maxPerSecond;
+		}
+	}
+}
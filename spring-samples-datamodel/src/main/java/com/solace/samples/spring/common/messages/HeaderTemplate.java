@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.messages;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.messaging.support.MessageBuilder;
+
+/**
+ * Builds outbound messages carrying a fixed set of headers, such as the
+ * content type or a target destination, computed once.
+ *
+ * With header reuse, every message built from the template shares a single
+ * {@link MessageHeaders} instance that has neither an {@code id} nor a
+ * {@code timestamp}: a message costs one {@link GenericMessage}, where
+ * {@link MessageBuilder} creates a header accessor, two header maps, a random
+ * UUID and a timestamp. Neither header is read by the binders; a framework
+ * step that copies the message, such as Spring Cloud Stream converting the
+ * payload of a function's output, generates them again. Without reuse the
+ * template simply delegates to {@link MessageBuilder}.
+ */
+public final class HeaderTemplate {
+	private final Map<String, Object> constants;
+	private final MessageHeaders headers;
+	private final boolean reuse;
+
+	HeaderTemplate(Map<String, ?> constants, boolean reuse) {
+		this.constants = Collections.unmodifiableMap(new HashMap<>(constants));
+		this.headers = new TemplateHeaders(this.constants);
+		this.reuse = reuse;
+	}
+
+	public <T> Message<T> build(T payload) {
+		if (reuse) {
+			return new GenericMessage<>(payload, headers);
+		}
+		return MessageBuilder.withPayload(payload).copyHeaders(constants).build();
+	}
+
+	/* The constant headers plus one that changes from message to message */
+	public <T> Message<T> build(T payload, String name, Object value) {
+		if (reuse) {
+			Map<String, Object> map = constants.isEmpty() ? Collections.singletonMap(name, value)
+					: new PlusOne(constants, name, value);
+			return new GenericMessage<>(payload, new TemplateHeaders(map));
+		}
+		return MessageBuilder.withPayload(payload).copyHeaders(constants).setHeader(name, value).build();
+	}
+
+	public Map<String, Object> getConstants() {
+		return constants;
+	}
+
+	public boolean isReuse() {
+		return reuse;
+	}
+
+	/*
+	 * The constants plus one header, read once by the MessageHeaders
+	 * constructor; saves copying the constants into a map of their own.
+	 */
+	private static final class PlusOne extends AbstractMap<String, Object> {
+		private final Map<String, Object> constants;
+		private final Entry<String, Object> extra;
+
+		PlusOne(Map<String, Object> constants, String name, Object value) {
+			this.constants = constants;
+			this.extra = new SimpleImmutableEntry<>(name, value);
+		}
+
+		@Override
+		public int size() {
+			return constants.size() + (constants.containsKey(extra.getKey()) ? 0 : 1);
+		}
+
+		@Override
+		public Set<Entry<String, Object>> entrySet() {
+			return new AbstractSet<>() {
+				@Override
+				public int size() {
+					return PlusOne.this.size();
+				}
+
+				/* The extra header comes last, so it wins over a constant of the same name */
+				@Override
+				public Iterator<Entry<String, Object>> iterator() {
+					Iterator<Entry<String, Object>> first = constants.entrySet().iterator();
+					return new Iterator<>() {
+						private boolean extraReturned;
+
+						@Override
+						public boolean hasNext() {
+							return !extraReturned;
+						}
+
+						@Override
+						public Entry<String, Object> next() {
+							if (first.hasNext()) {
+								return first.next();
+							}
+							if (extraReturned) {
+								throw new NoSuchElementException();
+							}
+							extraReturned = true;
+							return extra;
+						}
+					};
+				}
+			};
+		}
+	}
+
+	/* MessageHeaders only leaves out the id and timestamp through its protected constructor */
+	static final class TemplateHeaders extends MessageHeaders {
+		private static final long serialVersionUID = 1L;
+
+		TemplateHeaders(Map<String, Object> headers) {
+			super(headers, ID_VALUE_NONE, -1L);
+		}
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.messages;
+
+import java.util.Map;
+
+/**
+ * Hands out {@link HeaderTemplate}s configured from
+ * {@link OutboundMessagesProperties}. Inject it into a function bean method
+ * and create the template once, outside the lambda.
+ */
+public class OutboundMessages {
+	private final OutboundMessagesProperties properties;
+
+	public OutboundMessages(OutboundMessagesProperties properties) {
+		this.properties = properties;
+	}
+
+	public HeaderTemplate template() {
+		return template(Map.of());
+	}
+
+	public HeaderTemplate template(Map<String, ?> constantHeaders) {
+		return new HeaderTemplate(constantHeaders, properties.isReuseHeaders());
+	}
+}
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.messages;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("samples.messages")
+public class OutboundMessagesProperties {
+	/**
+	 * Share one precomputed, id-less set of headers between the messages of a
+	 * {@link HeaderTemplate} instead of building each with a MessageBuilder.
+	 */
+	private boolean reuseHeaders = false;
+
+	public boolean isReuseHeaders() {
+		return reuseHeaders;
+	}
+
+	public void setReuseHeaders(boolean reuseHeaders) {
+		this.reuseHeaders = reuseHeaders;
+	}
+}
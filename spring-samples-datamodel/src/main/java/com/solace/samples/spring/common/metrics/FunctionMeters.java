@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+
+
+package com.solace.samples.spring.common.metrics;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Meters of a single function bean, all tagged with {@code function=<bean name>}:
+ *
+ * <ul>
+ * <li>{@value #DURATION} - time spent in each invocation, with percentiles</li>
+ * <li>{@value #MESSAGES} - messages handled; a batch counts each of its elements</li>
+ * <li>{@value #ERRORS} - invocations that threw, also tagged with the exception</li>
+ * <li>{@value #BATCH_SIZE} - elements per invocation, for batch consumers only</li>
+ * </ul>
+ *
+ * The meters are registered on first use so that wrapping a bean never
+ * forces the {@link MeterRegistry} to be created early.
+ */
+public class FunctionMeters {
+	public static final String DURATION = "samples.function.duration";
+	public static final String MESSAGES = "samples.function.messages";
+	public static final String ERRORS = "samples.function.errors";
+	public static final String BATCH_SIZE = "samples.function.batch.size";
+
+	private static final String FUNCTION_TAG = "function";
+
+	private final String functionName;
+	private final ObjectProvider<MeterRegistry> registryProvider;
+	private final FunctionMetricsProperties properties;
+
+	private volatile MeterRegistry registry;
+	private Timer duration;
+	private Counter messages;
+	private DistributionSummary batchSize;
+
+	public FunctionMeters(String functionName, ObjectProvider<MeterRegistry> registryProvider,
+			FunctionMetricsProperties properties) {
+		this.functionName = functionName;
+		this.registryProvider = registryProvider;
+		this.properties = properties;
+	}
+
+	public String getFunctionName() {
+		return functionName;
+	}
+
+	/**
+	 * Records a completed invocation.
+	 *
+	 * @param startNanos {@link System#nanoTime()} taken before the invocation
+	 * @param handled    the input of a function or consumer, or the output of a
+	 *                   supplier; {@code null} when no message was handled
+	 */
+	public void recordSuccess(long startNanos, Object handled) {
+		long elapsed = System.nanoTime() - startNanos;
+		registry();
+		duration.record(elapsed, TimeUnit.NANOSECONDS);
+		int batch = batchSizeOf(handled);
+		if (batch >= 0) {
+			batchSize.record(batch);
+			messages.increment(batch);
+		} else if (handled != null) {
+			messages.increment();
+		}
+	}
+
+	public void recordError(long startNanos, Throwable error) {
+		long elapsed = System.nanoTime() - startNanos;
+		MeterRegistry registry = registry();
+		duration.record(elapsed, TimeUnit.NANOSECONDS);
+		Counter.builder(ERRORS)
+				.description("Invocations of the function that threw an exception")
+				.tag(FUNCTION_TAG, functionName)
+				.tag("exception", error.getClass().getSimpleName())
+				.register(registry)
+				.increment();
+	}
+
+	private MeterRegistry registry() {
+		MeterRegistry current = registry;
+		if (current == null) {
+			synchronized (this) {
+				current = registry;
+				if (current == null) {
+					current = registryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+					duration = Timer.builder(DURATION)
+							.description("Time spent in each invocation of the function")
+							.tag(FUNCTION_TAG, functionName)
+							.publishPercentiles(toArray(properties.getPercentiles()))
+							.publishPercentileHistogram(properties.isPercentileHistogram())
+							.register(current);
+					messages = Counter.builder(MESSAGES)
+							.description("Messages handled by the function")
+							.tag(FUNCTION_TAG, functionName)
+							.register(current);
+					batchSize = DistributionSummary.builder(BATCH_SIZE)
+							.description("Messages per invocation of a batch function")
+							.tag(FUNCTION_TAG, functionName)
+							.register(current);
+					registry = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	/*
+	 * -1 for a single message. Batch consumers receive either a Message with a
+	 * List payload or the List itself.
+	 */
+	static int batchSizeOf(Object handled) {
+		Object payload = handled instanceof Message<?> message ? message.getPayload() : handled;
+		return payload instanceof Collection<?> batch ? batch.size() : -1;
+	}
+
+	private static double[] toArray(Collection<Double> values) {
+		return values.stream().mapToDouble(Double::doubleValue).toArray();
+	}
+}
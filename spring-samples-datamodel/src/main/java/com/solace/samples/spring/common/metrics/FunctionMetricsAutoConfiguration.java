@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+
+
+package com.solace.samples.spring.common.metrics;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * The post processor is created before regular beans, so its settings are
+ * bound straight from the Environment instead of injecting the properties bean.
+ * Without samples.metrics.functions, the functions bound by Spring Cloud
+ * Function are instrumented, including each function of a composition.
+ */
+@AutoConfiguration
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnProperty(prefix = "samples.metrics", name = "enabled", matchIfMissing = true)
+public class FunctionMetricsAutoConfiguration {
+
+	@Bean
+	public static FunctionMetricsPostProcessor functionMetricsPostProcessor(
+			ObjectProvider<MeterRegistry> registryProvider, Environment environment) {
+		FunctionMetricsProperties properties = Binder.get(environment)
+				.bind("samples.metrics", FunctionMetricsProperties.class)
+				.orElseGet(FunctionMetricsProperties::new);
+		if (properties.getFunctions().isEmpty()) {
+			properties.setFunctions(definedFunctions(environment.getProperty("spring.cloud.function.definition")));
+		}
+		return new FunctionMetricsPostProcessor(registryProvider, properties);
+	}
+
+	static List<String> definedFunctions(String definition) {
+		if (definition == null) {
+			return List.of();
+		}
+		return Arrays.stream(definition.split("[;|,]"))
+				.map(String::trim)
+				.filter(name -> !name.isEmpty())
+				.toList();
+	}
+}
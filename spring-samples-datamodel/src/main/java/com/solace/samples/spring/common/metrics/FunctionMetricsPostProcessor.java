@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+
+
+package com.solace.samples.spring.common.metrics;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Wraps the {@link Function}, {@link Consumer} and {@link Supplier} beans
+ * listed in {@code samples.metrics.functions} so that each invocation is
+ * recorded by a {@link FunctionMeters} named after the bean. Other beans of
+ * those types, which are not bound to a destination, are left alone.
+ *
+ * Spring Cloud Function resolves the input and output types from the bean
+ * definition, so the wrappers do not change how messages are converted.
+ * Framework beans are left alone, as are reactive functions: for those the
+ * lambda only assembles the {@link Publisher} and runs once per binding.
+ *
+ * The instrumented wrapper is the innermost one: the batching and offloading
+ * post processors come later in {@link #ORDER} and wrap around it. For an
+ * offloaded function the duration is therefore the time the function itself
+ * ran on the offload thread, without the wait for a free slot or its key, and
+ * without publishing the result.
+ */
+public class FunctionMetricsPostProcessor implements BeanPostProcessor, Ordered {
+	public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 30;
+
+	private final ObjectProvider<MeterRegistry> registryProvider;
+	private final FunctionMetricsProperties properties;
+
+	public FunctionMetricsPostProcessor(ObjectProvider<MeterRegistry> registryProvider,
+			FunctionMetricsProperties properties) {
+		this.registryProvider = registryProvider;
+		this.properties = properties;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (bean.getClass().getName().startsWith("org.springframework.")
+				|| !properties.getFunctions().contains(beanName)) {
+			return bean;
+		}
+		if (bean instanceof Function<?, ?> function) {
+			return new InstrumentedFunction<>((Function<Object, Object>) function, meters(beanName));
+		}
+		if (bean instanceof Consumer<?> consumer) {
+			return new InstrumentedConsumer<>((Consumer<Object>) consumer, meters(beanName));
+		}
+		if (bean instanceof Supplier<?> supplier) {
+			return new InstrumentedSupplier<>(supplier, meters(beanName));
+		}
+		return bean;
+	}
+
+	@Override
+	public int getOrder() {
+		return ORDER;
+	}
+
+	private FunctionMeters meters(String beanName) {
+		return new FunctionMeters(beanName, registryProvider, properties);
+	}
+
+	static final class InstrumentedFunction<T, R> implements Function<T, R> {
+		private final Function<T, R> target;
+		private final FunctionMeters meters;
+
+		InstrumentedFunction(Function<T, R> target, FunctionMeters meters) {
+			this.target = target;
+			this.meters = meters;
+		}
+
+		@Override
+		public R apply(T input) {
+			if (input instanceof Publisher<?>) {
+				return target.apply(input);
+			}
+			long start = System.nanoTime();
+			R result;
+			try {
+				result = target.apply(input);
+			} catch (RuntimeException | Error e) {
+				meters.recordError(start, e);
+				throw e;
+			}
+			meters.recordSuccess(start, input);
+			return result;
+		}
+	}
+
+	static final class InstrumentedConsumer<T> implements Consumer<T> {
+		private final Consumer<T> target;
+		private final FunctionMeters meters;
+
+		InstrumentedConsumer(Consumer<T> target, FunctionMeters meters) {
+			this.target = target;
+			this.meters = meters;
+		}
+
+		@Override
+		public void accept(T input) {
+			if (input instanceof Publisher<?>) {
+				target.accept(input);
+				return;
+			}
+			long start = System.nanoTime();
+			try {
+				target.accept(input);
+			} catch (RuntimeException | Error e) {
+				meters.recordError(start, e);
+				throw e;
+			}
+			meters.recordSuccess(start, input);
+		}
+	}
+
+	static final class InstrumentedSupplier<T> implements Supplier<T> {
+		private final Supplier<T> target;
+		private final FunctionMeters meters;
+
+		InstrumentedSupplier(Supplier<T> target, FunctionMeters meters) {
+			this.target = target;
+			this.meters = meters;
+		}
+
+		@Override
+		public T get() {
+			long start = System.nanoTime();
+			T result;
+			try {
+				result = target.get();
+			} catch (RuntimeException | Error e) {
+				meters.recordError(start, e);
+				throw e;
+			}
+			if (!(result instanceof Publisher<?>)) {
+				meters.recordSuccess(start, result);
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+
+
+package com.solace.samples.spring.common.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the function metrics, for example:
+ *
+ * <pre>
+ * samples:
+ *   metrics:
+ *     functions: convertFtoC
+ *     percentiles: 0.5, 0.99, 0.999
+ *     percentile-histogram: false
+ * </pre>
+ */
+@ConfigurationProperties("samples.metrics")
+public class FunctionMetricsProperties {
+	private boolean enabled = true;
+
+	/** Functions to instrument; the ones in spring.cloud.function.definition when empty. */
+	private List<String> functions = new ArrayList<>();
+	private List<Double> percentiles = new ArrayList<>(List.of(0.5, 0.95, 0.99));
+	private boolean percentileHistogram = true;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public List<String> getFunctions() {
+		return functions;
+	}
+
+	public void setFunctions(List<String> functions) {
+		this.functions = functions;
+	}
+
+	public List<Double> getPercentiles() {
+		return percentiles;
+	}
+
+	public void setPercentiles(List<Double> percentiles) {
+		this.percentiles = percentiles;
+	}
+
+	public boolean isPercentileHistogram() {
+		return percentileHistogram;
+	}
+
+	public void setPercentileHistogram(boolean percentileHistogram) {
+		this.percentileHistogram = percentileHistogram;
+	}
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.offload;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import com.solace.samples.spring.common.metrics.FunctionMetricsAutoConfiguration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Registered after the metrics post processor; the order of the wrappers is
+ * set by OffloadingPostProcessor.ORDER, so that the offloaded wrapper goes
+ * around the instrumented one and the metrics time the work itself rather
+ * than the hand-over.
+ */
+@AutoConfiguration(after = FunctionMetricsAutoConfiguration.class)
+@ConditionalOnClass(StreamBridge.class)
+@ConditionalOnProperty(prefix = "samples.offload", name = "enabled", havingValue = "true")
+public class OffloadAutoConfiguration {
+
+	@Bean
+	public static OffloadingPostProcessor offloadingPostProcessor(ObjectProvider<StreamBridge> streamBridge,
+			ObjectProvider<MeterRegistry> registryProvider, Environment environment) {
+		OffloadProperties properties = Binder.get(environment)
+				.bind("samples.offload", OffloadProperties.class)
+				.orElseGet(OffloadProperties::new);
+		return new OffloadingPostProcessor(properties, streamBridge, registryProvider);
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.offload;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs each task on its own thread, virtual when the JVM supports them, with
+ * two guarantees on top of a plain executor:
+ *
+ * <ul>
+ * <li>at most {@code maxInFlight} tasks are pending, {@link #execute} blocks
+ * the caller until one completes, which pushes back on the binder;</li>
+ * <li>tasks submitted with the same key run one after the other in submission
+ * order, whether the previous one succeeded or not.</li>
+ * </ul>
+ *
+ * The samples build for Java 17, so virtual threads are looked up
+ * reflectively.
+ */
+public class OffloadExecutor implements AutoCloseable {
+	private static final Logger log = LoggerFactory.getLogger(OffloadExecutor.class);
+
+	private final ExecutorService executor;
+	private final boolean virtual;
+	private final int maxInFlight;
+	private final Semaphore permits;
+	private final ConcurrentHashMap<Object, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+	public OffloadExecutor(int maxInFlight, boolean virtualThreads) {
+		if (maxInFlight < 1) {
+			throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+		}
+		ExecutorService virtualExecutor = virtualThreads ? newVirtualThreadPerTaskExecutor() : null;
+		this.virtual = virtualExecutor != null;
+		this.executor = virtual ? virtualExecutor : Executors.newCachedThreadPool(new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable task) {
+				Thread thread = new Thread(task, "offload-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.maxInFlight = maxInFlight;
+		this.permits = new Semaphore(maxInFlight);
+	}
+
+	private static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			log.warn("Virtual threads need Java 21 or later, offloading to platform threads on Java {}",
+					Runtime.version().feature());
+			return null;
+		}
+	}
+
+	/**
+	 * Schedules the task, after the last task submitted with the same key
+	 * when the key is not {@code null}.
+	 */
+	public CompletableFuture<Void> execute(Object key, Runnable task) {
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for an offload slot", e);
+		}
+		CompletableFuture<Void> future;
+		try {
+			if (key == null) {
+				future = CompletableFuture.runAsync(task, executor);
+			} else {
+				future = tails.compute(key, (k, tail) -> tail == null ? CompletableFuture.runAsync(task, executor)
+						: tail.handle((result, error) -> null).thenRunAsync(task, executor));
+			}
+		} catch (RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+		future.whenComplete((result, error) -> {
+			if (key != null) {
+				tails.remove(key, future);
+			}
+			permits.release();
+		});
+		return future;
+	}
+
+	public boolean isVirtual() {
+		return virtual;
+	}
+
+	public int getInFlight() {
+		return maxInFlight - permits.availablePermits();
+	}
+
+	/** Waits up to 30 seconds for pending tasks to complete. */
+	@Override
+	public void close() throws InterruptedException {
+		executor.shutdown();
+		if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+			log.warn("{} offloaded tasks still running", getInFlight());
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.offload;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the offloaded execution mode, for example:
+ *
+ * <pre>
+ * samples:
+ *   offload:
+ *     enabled: true
+ *     functions: manualAckFunction
+ *     max-in-flight: 500
+ * </pre>
+ */
+@ConfigurationProperties("samples.offload")
+public class OffloadProperties {
+	private boolean enabled = false;
+
+	/** Functions to offload; every Consumer and Function of the application when empty. */
+	private List<String> functions = new ArrayList<>();
+
+	/** Invocations running or waiting for their key; the binder threads wait beyond that. */
+	private int maxInFlight = 1024;
+
+	/**
+	 * Header holding the ordering key: invocations for the same key run one at
+	 * a time, in the order the messages were received. The Solace binder
+	 * carries the partition key of partitioned queues in JMSXGroupID.
+	 */
+	private String keyHeader = "JMSXGroupID";
+
+	/** Run on virtual threads when the JVM has them (Java 21+), platform threads otherwise. */
+	private boolean virtualThreads = true;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public List<String> getFunctions() {
+		return functions;
+	}
+
+	public void setFunctions(List<String> functions) {
+		this.functions = functions;
+	}
+
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	public void setMaxInFlight(int maxInFlight) {
+		this.maxInFlight = maxInFlight;
+	}
+
+	public String getKeyHeader() {
+		return keyHeader;
+	}
+
+	public void setKeyHeader(String keyHeader) {
+		this.keyHeader = keyHeader;
+	}
+
+	public boolean isVirtualThreads() {
+		return virtualThreads;
+	}
+
+	public void setVirtualThreads(boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+	}
+}
@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.offload;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.core.Ordered;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.StaticMessageHeaderAccessor;
+import org.springframework.integration.acks.AckUtils;
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.solace.samples.spring.common.batching.BatchingPostProcessor;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Moves the invocations of the selected {@link Consumer} and {@link Function}
+ * beans off the binder's consumer threads onto an {@link OffloadExecutor}, so
+ * that blocking work no longer limits a binding to {@code concurrency}
+ * messages at a time.
+ *
+ * The binder thread only takes over acknowledgment of the message and hands it
+ * over: once the invocation returns the message is accepted, or rejected if it
+ * threw, unless the function already settled it itself. By then the binder
+ * thread has moved on, so a failure is neither retried ({@code maxAttempts})
+ * nor passed to the binding's error channel; rejecting the message moves it to
+ * the queue's dead message queue, if it has one. The result of a
+ * {@link Function} is published to its {@code <function>-out-0} binding
+ * through the {@link StreamBridge}, with the headers of the input message.
+ *
+ * Only messages carrying an acknowledgment callback are offloaded. A function
+ * taking a POJO rather than a {@code Message} still runs on the binder
+ * thread: offloaded, its message would be acknowledged as soon as it was
+ * handed over, and a failure could no longer be retried or rejected.
+ *
+ * Being last in {@link #ORDER}, the offloaded wrapper goes around the
+ * batching and instrumented ones, so those run on the offload thread.
+ */
+public class OffloadingPostProcessor implements BeanPostProcessor, Ordered, DisposableBean {
+	public static final int ORDER = BatchingPostProcessor.ORDER + 10;
+
+	private static final Logger log = LoggerFactory.getLogger(OffloadingPostProcessor.class);
+
+	private final OffloadProperties properties;
+	private final ObjectProvider<StreamBridge> streamBridge;
+	private final ObjectProvider<MeterRegistry> registryProvider;
+	private final OffloadExecutor executor;
+	private volatile boolean gaugeRegistered;
+	private volatile boolean warnedNotOffloaded;
+
+	public OffloadingPostProcessor(OffloadProperties properties, ObjectProvider<StreamBridge> streamBridge,
+			ObjectProvider<MeterRegistry> registryProvider) {
+		this.properties = properties;
+		this.streamBridge = streamBridge;
+		this.registryProvider = registryProvider;
+		this.executor = new OffloadExecutor(properties.getMaxInFlight(), properties.isVirtualThreads());
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (bean.getClass().getName().startsWith("org.springframework.") || !isSelected(beanName)) {
+			return bean;
+		}
+		if (bean instanceof Function<?, ?> function) {
+			log.info("Offloading {} to {} threads", beanName, executor.isVirtual() ? "virtual" : "platform");
+			return new OffloadedFunction<>(beanName, (Function<Object, Object>) function);
+		}
+		if (bean instanceof Consumer<?> consumer) {
+			log.info("Offloading {} to {} threads", beanName, executor.isVirtual() ? "virtual" : "platform");
+			return new OffloadedConsumer<>(beanName, (Consumer<Object>) consumer);
+		}
+		return bean;
+	}
+
+	@Override
+	public int getOrder() {
+		return ORDER;
+	}
+
+	private boolean isSelected(String beanName) {
+		return properties.getFunctions().isEmpty() || properties.getFunctions().contains(beanName);
+	}
+
+	OffloadExecutor getExecutor() {
+		return executor;
+	}
+
+	/*
+	 * The registry cannot be looked up while post processors are created, the
+	 * gauge is registered with the first invocation instead.
+	 */
+	private void registerGauge() {
+		if (!gaugeRegistered) {
+			gaugeRegistered = true;
+			registryProvider.ifAvailable(registry -> Gauge
+					.builder("samples.offload.in-flight", executor, OffloadExecutor::getInFlight)
+					.description("Offloaded invocations running or waiting for their key")
+					.register(registry));
+		}
+	}
+
+	private void offload(String name, Object input, Runnable invocation) {
+		registerGauge();
+		Message<?> message = input instanceof Message<?> m ? m : null;
+		AcknowledgmentCallback ackCallback = message != null
+				? StaticMessageHeaderAccessor.getAcknowledgmentCallback(message)
+				: null;
+		if (ackCallback == null) {
+			if (!warnedNotOffloaded) {
+				warnedNotOffloaded = true;
+				log.warn("{} does not take a Message with an acknowledgment callback, running it on the binder thread",
+						name);
+			}
+			invocation.run();
+			return;
+		}
+		ackCallback.noAutoAck();
+		Object key = message != null ? message.getHeaders().get(properties.getKeyHeader()) : null;
+		executor.execute(key, () -> {
+			try {
+				invocation.run();
+				if (!ackCallback.isAcknowledged()) {
+					AckUtils.accept(ackCallback);
+				}
+			} catch (RuntimeException | Error e) {
+				log.error("Offloaded invocation of {} failed, rejecting the message", name, e);
+				if (!ackCallback.isAcknowledged()) {
+					AckUtils.reject(ackCallback);
+				}
+			}
+		});
+	}
+
+	private void publish(String name, Object input, Object result) {
+		if (result == null) {
+			return;
+		}
+		Object output = result;
+		if (!(result instanceof Message<?>) && input instanceof Message<?> message) {
+			output = MessageBuilder.withPayload(result)
+					.copyHeaders(message.getHeaders())
+					.removeHeaders(MessageHeaders.CONTENT_TYPE,
+							IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK)
+					.build();
+		}
+		streamBridge.getObject().send(name + "-out-0", output);
+	}
+
+	@Override
+	public void destroy() throws InterruptedException {
+		executor.close();
+	}
+
+	final class OffloadedFunction<T, R> implements Function<T, R> {
+		private final String name;
+		private final Function<T, R> target;
+
+		OffloadedFunction(String name, Function<T, R> target) {
+			this.name = name;
+			this.target = target;
+		}
+
+		/* Returns null, the result is published when the offloaded invocation completes */
+		@Override
+		public R apply(T input) {
+			if (input instanceof Publisher<?>) {
+				return target.apply(input);
+			}
+			offload(name, input, () -> publish(name, input, target.apply(input)));
+			return null;
+		}
+	}
+
+	final class OffloadedConsumer<T> implements Consumer<T> {
+		private final String name;
+		private final Consumer<T> target;
+
+		OffloadedConsumer(String name, Consumer<T> target) {
+			this.name = name;
+			this.target = target;
+		}
+
+		@Override
+		public void accept(T input) {
+			if (input instanceof Publisher<?>) {
+				target.accept(input);
+				return;
+			}
+			offload(name, input, () -> target.accept(input));
+		}
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.segment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import com.solace.samples.spring.common.CompactSensorReading;
+import com.solace.samples.spring.common.SensorReadingCodec;
+
+/**
+ * Layout of the sensor reading segment files shared by {@link SegmentWriter}
+ * and {@link SegmentReader}.
+ *
+ * A directory holds segments named after the sequence number of their first
+ * record, zero padded so that they sort by name, e.g.
+ * {@code 00000000000000004096.segment}. Segments are created at their full
+ * size and filled with back-to-back records, big-endian:
+ *
+ * <pre>
+ * offset  size  field
+ *      0     4  payload length, 0 past the last record
+ *      4     4  CRC32C of the payload
+ *      8     n  payload, a reading encoded by SensorReadingCodec
+ * </pre>
+ *
+ * A sealed segment has a {@link SegmentIndex} next to it with the
+ * {@value #INDEX_SUFFIX} suffix; the index of the segment being written is
+ * only kept in memory.
+ */
+public final class SegmentFormat {
+	public static final String SEGMENT_SUFFIX = ".segment";
+	public static final String INDEX_SUFFIX = ".index";
+	public static final int RECORD_HEADER_BYTES = Integer.BYTES * 2;
+	public static final long NO_TIMESTAMP = CompactSensorReading.NO_TIMESTAMP;
+
+	private SegmentFormat() {
+	}
+
+	public static Path segmentFile(Path directory, long baseSequence) {
+		return directory.resolve(String.format("%020d", baseSequence) + SEGMENT_SUFFIX);
+	}
+
+	public static Path indexFile(Path segmentFile) {
+		String name = segmentFile.getFileName().toString();
+		return segmentFile.resolveSibling(name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + INDEX_SUFFIX);
+	}
+
+	public static long baseSequence(Path segmentFile) {
+		String name = segmentFile.getFileName().toString();
+		return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+	}
+
+	/** Segments of the directory, oldest first. */
+	public static List<Path> segments(Path directory) throws IOException {
+		if (!Files.isDirectory(directory)) {
+			return List.of();
+		}
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+					.sorted()
+					.collect(Collectors.toList());
+		}
+	}
+
+	/*
+	 * Length of the payload of the record at position, or -1 when there is no
+	 * complete, intact record there: the end of the written records, or a
+	 * record torn by a crash before it was flushed.
+	 */
+	static int payloadLength(ByteBuffer segment, int position, CRC32C crc) {
+		if (position > segment.capacity() - RECORD_HEADER_BYTES) {
+			return -1;
+		}
+		int length = segment.getInt(position);
+		int payload = position + RECORD_HEADER_BYTES;
+		if (length <= 0 || length > segment.capacity() - payload) {
+			return -1;
+		}
+		crc.reset();
+		crc.update(segment.slice(payload, length));
+		return (int) crc.getValue() == segment.getInt(position + Integer.BYTES) ? length : -1;
+	}
+
+	static long timestampNanos(ByteBuffer segment, int payload) {
+		return segment.getLong(payload + SensorReadingCodec.TIMESTAMP_OFFSET);
+	}
+
+	/*
+	 * Rebuilds the index of a segment written without one, returning the
+	 * position following the last intact record.
+	 */
+	static int scan(ByteBuffer segment, SegmentIndex index, CRC32C crc) {
+		int position = 0;
+		int length;
+		while ((length = payloadLength(segment, position, crc)) > 0) {
+			int payload = position + RECORD_HEADER_BYTES;
+			index.add(position, timestampNanos(segment, payload));
+			position = payload + length;
+		}
+		return position;
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.segment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Sparse time index of a segment: one entry per block of consecutive records
+ * holding the block's first record position, its record count and the lowest
+ * and highest reading timestamps in it. Readings are not assumed to arrive in
+ * timestamp order, so a time-range lookup visits every block whose
+ * [min, max] overlaps the range rather than binary searching.
+ *
+ * On disk each entry takes {@value #ENTRY_BYTES} bytes, big-endian:
+ * position (int), records (int), min (long), max (long).
+ */
+public final class SegmentIndex {
+	public static final int ENTRY_BYTES = Integer.BYTES * 2 + Long.BYTES * 2;
+
+	private final int blockRecords;
+
+	private int[] positions = new int[16];
+	private int[] counts = new int[16];
+	private long[] mins = new long[16];
+	private long[] maxs = new long[16];
+	private int blocks;
+
+	public SegmentIndex(int blockRecords) {
+		if (blockRecords < 1) {
+			throw new IllegalArgumentException("blockRecords must be positive: " + blockRecords);
+		}
+		this.blockRecords = blockRecords;
+	}
+
+	/*
+	 * Records a reading appended at the given position; readings without a
+	 * timestamp count towards the block but never match a time range.
+	 */
+	public void add(int position, long timestampNanos) {
+		if (blocks == 0 || counts[blocks - 1] == blockRecords) {
+			openBlock(position);
+		}
+		int block = blocks - 1;
+		counts[block]++;
+		if (timestampNanos != SegmentFormat.NO_TIMESTAMP) {
+			mins[block] = Math.min(mins[block], timestampNanos);
+			maxs[block] = Math.max(maxs[block], timestampNanos);
+		}
+	}
+
+	private void openBlock(int position) {
+		if (blocks == positions.length) {
+			int length = blocks * 2;
+			positions = Arrays.copyOf(positions, length);
+			counts = Arrays.copyOf(counts, length);
+			mins = Arrays.copyOf(mins, length);
+			maxs = Arrays.copyOf(maxs, length);
+		}
+		positions[blocks] = position;
+		counts[blocks] = 0;
+		mins[blocks] = Long.MAX_VALUE;
+		maxs[blocks] = Long.MIN_VALUE;
+		blocks++;
+	}
+
+	public int blocks() {
+		return blocks;
+	}
+
+	public int position(int block) {
+		return positions[block];
+	}
+
+	public int records(int block) {
+		return counts[block];
+	}
+
+	public boolean overlaps(int block, long fromNanos, long toNanos) {
+		return mins[block] <= toNanos && maxs[block] >= fromNanos;
+	}
+
+	public long records() {
+		long records = 0;
+		for (int block = 0; block < blocks; block++) {
+			records += counts[block];
+		}
+		return records;
+	}
+
+	public void write(Path file) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(blocks * ENTRY_BYTES);
+		for (int block = 0; block < blocks; block++) {
+			buffer.putInt(positions[block]).putInt(counts[block]).putLong(mins[block]).putLong(maxs[block]);
+		}
+		buffer.flip();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(false);
+		}
+	}
+
+	public static SegmentIndex read(Path file) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+		SegmentIndex index = new SegmentIndex(Integer.MAX_VALUE);
+		while (buffer.remaining() >= ENTRY_BYTES) {
+			index.openBlock(buffer.getInt());
+			int block = index.blocks - 1;
+			index.counts[block] = buffer.getInt();
+			index.mins[block] = buffer.getLong();
+			index.maxs[block] = buffer.getLong();
+		}
+		return index;
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.segment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import com.solace.samples.spring.common.SensorReading;
+import com.solace.samples.spring.common.SensorReadingCodec;
+
+/**
+ * Streams the readings of a segment directory in the order they were written,
+ * one mapped segment at a time, optionally limited to a range of reading
+ * timestamps. Only the blocks of the {@link SegmentIndex} overlapping the
+ * range are visited.
+ *
+ * The segments are listed when the reader is opened; segments created later
+ * are not read.
+ */
+public final class SegmentReader {
+	private final List<Path> segments;
+	private final long fromNanos;
+	private final long toNanos;
+	private final boolean everything;
+	private final CRC32C crc = new CRC32C();
+
+	private int nextSegment;
+	private ByteBuffer segment;
+	private SegmentIndex index;
+	private int block;
+	private int blockRemaining;
+	private int position;
+
+	private SegmentReader(List<Path> segments, long fromNanos, long toNanos, boolean everything) {
+		this.segments = segments;
+		this.fromNanos = fromNanos;
+		this.toNanos = toNanos;
+		this.everything = everything;
+	}
+
+	/** Reads every reading, including the ones without a timestamp. */
+	public static SegmentReader open(Path directory) throws IOException {
+		return new SegmentReader(SegmentFormat.segments(directory), Long.MIN_VALUE, Long.MAX_VALUE, true);
+	}
+
+	/** Reads the readings timestamped between the two epoch nanoseconds, both inclusive. */
+	public static SegmentReader open(Path directory, long fromNanos, long toNanos) throws IOException {
+		return new SegmentReader(SegmentFormat.segments(directory), fromNanos, toNanos, false);
+	}
+
+	/** Returns the next reading, or {@code null} once all segments have been read. */
+	public SensorReading next() throws IOException {
+		while (true) {
+			if (segment == null && !openNextSegment()) {
+				return null;
+			}
+			if (blockRemaining == 0 && !nextBlock()) {
+				segment = null;
+				continue;
+			}
+			int length = SegmentFormat.payloadLength(segment, position, crc);
+			if (length < 0) {
+				// Torn tail of a segment that was not sealed
+				segment = null;
+				continue;
+			}
+			int payload = position + SegmentFormat.RECORD_HEADER_BYTES;
+			position = payload + length;
+			blockRemaining--;
+			if (everything || matches(SegmentFormat.timestampNanos(segment, payload))) {
+				return SensorReadingCodec.decode(segment.slice(payload, length));
+			}
+		}
+	}
+
+	private boolean matches(long timestampNanos) {
+		return timestampNanos != SegmentFormat.NO_TIMESTAMP && timestampNanos >= fromNanos
+				&& timestampNanos <= toNanos;
+	}
+
+	private boolean nextBlock() {
+		while (++block < index.blocks()) {
+			if (everything || index.overlaps(block, fromNanos, toNanos)) {
+				position = index.position(block);
+				blockRemaining = index.records(block);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean openNextSegment() throws IOException {
+		if (nextSegment == segments.size()) {
+			return false;
+		}
+		Path file = segments.get(nextSegment++);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			segment = channel.map(MapMode.READ_ONLY, 0, channel.size());
+		}
+		Path indexFile = SegmentFormat.indexFile(file);
+		if (Files.exists(indexFile)) {
+			index = SegmentIndex.read(indexFile);
+		} else {
+			index = new SegmentIndex(Integer.MAX_VALUE);
+			SegmentFormat.scan(segment, index, crc);
+		}
+		block = -1;
+		blockRemaining = 0;
+		return true;
+	}
+}
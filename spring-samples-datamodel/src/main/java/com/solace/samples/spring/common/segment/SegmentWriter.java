@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.segment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import com.solace.samples.spring.common.CompactSensorReading;
+import com.solace.samples.spring.common.SensorReading;
+import com.solace.samples.spring.common.SensorReadingCodec;
+
+/**
+ * Appends readings to rolling, memory-mapped segment files; see
+ * {@link SegmentFormat} for the layout.
+ *
+ * An appended record is in the page cache, and survives the JVM exiting, as
+ * soon as {@link #append} returns; it only survives the host going down once
+ * {@link #force()} has returned. On start the last segment is scanned and
+ * writing resumes after its last intact record.
+ *
+ * Not thread-safe: meant to be owned by a single writer thread.
+ */
+public final class SegmentWriter implements Closeable {
+	private static final byte[] ZEROS = new byte[64 * 1024];
+
+	private final Path directory;
+	private final int segmentBytes;
+	private final int indexBlockRecords;
+	private final CRC32C crc = new CRC32C();
+
+	private Path segmentFile;
+	private MappedByteBuffer segment;
+	private SegmentIndex index;
+	private int position;
+	private int forcedPosition;
+	private long sequence;
+
+	public SegmentWriter(Path directory, int segmentBytes, int indexBlockRecords) throws IOException {
+		if (segmentBytes <= SegmentFormat.RECORD_HEADER_BYTES + SensorReadingCodec.HEADER_BYTES) {
+			throw new IllegalArgumentException("Segment size is too small: " + segmentBytes);
+		}
+		this.directory = directory;
+		this.segmentBytes = segmentBytes;
+		this.indexBlockRecords = indexBlockRecords;
+		Files.createDirectories(directory);
+		List<Path> segments = SegmentFormat.segments(directory);
+		if (segments.isEmpty()) {
+			open(0);
+		} else {
+			recover(segments.get(segments.size() - 1));
+		}
+	}
+
+	/** Returns the sequence number of the appended record. */
+	public long append(SensorReading reading) throws IOException {
+		int length = SensorReadingCodec.encodedLength(reading);
+		if (position + SegmentFormat.RECORD_HEADER_BYTES + length > segment.capacity()) {
+			if (position == 0) {
+				throw new IllegalArgumentException("Reading does not fit in a segment: " + length + " bytes");
+			}
+			roll();
+		}
+		int payload = position + SegmentFormat.RECORD_HEADER_BYTES;
+		SensorReadingCodec.encode(reading, segment.position(payload));
+		crc.reset();
+		crc.update(segment.slice(payload, length));
+		// The length goes last: until it is written the record reads as the end of the segment
+		segment.putInt(position + Integer.BYTES, (int) crc.getValue());
+		segment.putInt(position, length);
+		index.add(position, CompactSensorReading.toEpochNanos(reading.getTimestamp()));
+		position = payload + length;
+		return sequence++;
+	}
+
+	/** Flushes the records appended since the last call to the storage device. */
+	public void force() {
+		if (position > forcedPosition) {
+			segment.force(forcedPosition, position - forcedPosition);
+			forcedPosition = position;
+		}
+	}
+
+	public long getNextSequence() {
+		return sequence;
+	}
+
+	public Path getSegmentFile() {
+		return segmentFile;
+	}
+
+	/*
+	 * The previous mapping is left to the garbage collector: there is no
+	 * supported way of unmapping a MappedByteBuffer.
+	 */
+	private void roll() throws IOException {
+		seal();
+		open(sequence);
+	}
+
+	private void seal() throws IOException {
+		force();
+		index.write(SegmentFormat.indexFile(segmentFile));
+	}
+
+	private void open(long baseSequence) throws IOException {
+		segmentFile = SegmentFormat.segmentFile(directory, baseSequence);
+		segment = map(segmentFile, segmentBytes);
+		index = new SegmentIndex(indexBlockRecords);
+		position = 0;
+		forcedPosition = 0;
+		sequence = baseSequence;
+	}
+
+	private void recover(Path file) throws IOException {
+		segmentFile = file;
+		// Keep the size the segment was created with, it may predate a configuration change
+		segment = map(file, (int) Math.max(Files.size(file), segmentBytes));
+		index = new SegmentIndex(indexBlockRecords);
+		position = SegmentFormat.scan(segment, index, crc);
+		forcedPosition = position;
+		sequence = SegmentFormat.baseSequence(file) + index.records();
+		// The index is rewritten when the segment is sealed again
+		Files.deleteIfExists(SegmentFormat.indexFile(file));
+		if (position <= segment.capacity() - Integer.BYTES && segment.getInt(position) != 0) {
+			// Torn record: clear the rest so that nothing stale follows the next append
+			segment.position(position);
+			while (segment.hasRemaining()) {
+				segment.put(ZEROS, 0, Math.min(ZEROS.length, segment.remaining()));
+			}
+			segment.force();
+		}
+	}
+
+	private static MappedByteBuffer map(Path file, int size) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			return channel.map(MapMode.READ_WRITE, 0, size);
+		}
+	}
+
+	/** Flushes and seals the current segment. */
+	@Override
+	public void close() throws IOException {
+		seal();
+	}
+}
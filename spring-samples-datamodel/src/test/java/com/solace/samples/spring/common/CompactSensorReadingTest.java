@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import com.solace.samples.spring.common.SensorReading.BaseUnit;
+
+/*
+ * CompactSensorReading lives in spring-samples-datamodel, which has no unit
+ * tests of its own; the processor's aggregator is built on it.
+ */
+public class CompactSensorReadingTest {
+
+	private final SensorIdRegistry sensorIds = new SensorIdRegistry();
+	private final CompactSensorReading compact = new CompactSensorReading(sensorIds);
+
+	private static SensorReading reading(String sensorID, String instant, Double temperature, BaseUnit baseUnit) {
+		SensorReading reading = new SensorReading();
+		reading.setSensorID(sensorID);
+		reading.setTimestamp(instant != null ? Timestamp.from(Instant.parse(instant)) : null);
+		reading.setTemperature(temperature);
+		reading.setBaseUnit(baseUnit);
+		return reading;
+	}
+
+	private static void assertSameReading(SensorReading expected, SensorReading actual) {
+		assertEquals(expected.getSensorID(), actual.getSensorID());
+		assertEquals(expected.getTimestamp(), actual.getTimestamp());
+		if (expected.getTimestamp() != null) {
+			assertEquals(expected.getTimestamp().getNanos(), actual.getTimestamp().getNanos());
+		}
+		assertEquals(expected.getTemperature(), actual.getTemperature());
+		assertEquals(expected.getBaseUnit(), actual.getBaseUnit());
+	}
+
+	@Test
+	void testRoundTripKeepsEveryField() {
+		SensorReading[] readings = {
+				reading("sensor-1", "2022-07-12T12:34:56.123456789Z", 72.5, BaseUnit.FAHRENHEIT),
+				reading("sensor-2", "2022-07-12T12:34:56.000000001Z", -40.0, BaseUnit.CELSIUS),
+				// Before the epoch the nanoseconds must not borrow from the seconds
+				reading("sensor-1", "1969-12-31T23:59:59.999999999Z", 0.0, BaseUnit.CELSIUS),
+				reading("café-7", "1970-01-01T00:00:00Z", Double.MAX_VALUE, BaseUnit.FAHRENHEIT),
+				reading(null, null, null, null) };
+
+		for (SensorReading reading : readings) {
+			assertSameReading(reading, compact.from(reading).toSensorReading());
+			// And into an existing instance, as the hot paths reuse theirs
+			assertSameReading(reading, compact.from(reading).copyTo(new SensorReading()));
+		}
+	}
+
+	@Test
+	void testTimestampNanos() {
+		Timestamp timestamp = Timestamp.from(Instant.parse("2022-07-12T12:34:56.123456789Z"));
+		long nanos = CompactSensorReading.toEpochNanos(timestamp);
+		assertEquals(Instant.parse("2022-07-12T12:34:56Z").getEpochSecond() * 1_000_000_000L + 123_456_789, nanos);
+		assertEquals(timestamp, CompactSensorReading.toTimestamp(nanos));
+
+		Timestamp beforeEpoch = Timestamp.from(Instant.parse("1969-12-31T23:59:59.5Z"));
+		assertEquals(-500_000_000L, CompactSensorReading.toEpochNanos(beforeEpoch));
+		assertEquals(beforeEpoch, CompactSensorReading.toTimestamp(-500_000_000L));
+
+		assertNull(CompactSensorReading.toTimestamp(CompactSensorReading.NO_TIMESTAMP));
+		assertEquals(CompactSensorReading.NO_TIMESTAMP, CompactSensorReading.toEpochNanos(null));
+	}
+
+	@Test
+	void testNaNTemperatureIsReadAsNull() {
+		// NaN is how the compact form carries a missing temperature
+		SensorReading reading = reading("sensor-1", "2022-07-12T12:34:56Z", Double.NaN, BaseUnit.CELSIUS);
+		assertNull(compact.from(reading).toSensorReading().getTemperature());
+	}
+
+	@Test
+	void testRoundTripBeyondTheRegistryCapacity() {
+		CompactSensorReading bounded = new CompactSensorReading(new SensorIdRegistry(1));
+		bounded.from(reading("sensor-1", null, 1.0, BaseUnit.CELSIUS));
+
+		SensorReading reading = reading("sensor-2", "2022-07-12T12:34:56.123456789Z", 2.0, BaseUnit.CELSIUS);
+		bounded.from(reading);
+		assertEquals(SensorIdRegistry.UNREGISTERED, bounded.getSensorKey());
+		assertSameReading(reading, bounded.toSensorReading());
+		// Only registered sensors fit the fixed-size record
+		assertThrows(IllegalStateException.class, () -> bounded.writeTo(ByteBuffer.allocate(CompactSensorReading.BYTES)));
+	}
+
+	@Test
+	void testFixedSizeRecord() {
+		SensorReading reading = reading("sensor-3", "2022-07-12T12:34:56.123456789Z", 21.5, BaseUnit.CELSIUS);
+		ByteBuffer buffer = ByteBuffer.allocate(CompactSensorReading.BYTES);
+		compact.from(reading).writeTo(buffer);
+		assertEquals(CompactSensorReading.BYTES, buffer.position());
+
+		CompactSensorReading read = new CompactSensorReading(sensorIds).readFrom(buffer.flip());
+		assertSameReading(reading, read.toSensorReading());
+	}
+
+	@Test
+	void testToCelsius() {
+		compact.from(reading("sensor-1", null, 212.0, BaseUnit.FAHRENHEIT)).toCelsius();
+		assertEquals(100.0, compact.getTemperature(), 1e-12);
+		assertEquals(BaseUnit.CELSIUS, compact.getBaseUnit());
+		compact.toCelsius();
+		assertEquals(100.0, compact.getTemperature(), 1e-12);
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.solace.samples.spring.common.SensorReading.BaseUnit;
+
+/*
+ * Compares the SensorReading POJO with its CompactSensorReading companion.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="SensorReadingBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SensorReadingBenchmark {
+	private static final String SENSOR_ID = "3f6c9a52-1f2b-4a57-9c1e-2f1d3b7a9e10";
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final ByteBuffer buffer = ByteBuffer.allocate(CompactSensorReading.BYTES);
+
+	private SensorReading pojo;
+	private CompactSensorReading compact;
+	private double temperature;
+
+	@Setup
+	public void setup() {
+		pojo = new SensorReading(SENSOR_ID, 70.0d, BaseUnit.FAHRENHEIT);
+		compact = new CompactSensorReading().from(pojo);
+	}
+
+	@Benchmark
+	public SensorReading constructPojo() {
+		return new SensorReading(SENSOR_ID, temperature++, BaseUnit.FAHRENHEIT);
+	}
+
+	@Benchmark
+	public CompactSensorReading constructCompact() {
+		return compact.set(compact.getSensorKey(), System.currentTimeMillis() * 1_000_000L, temperature++,
+				CompactSensorReading.encode(BaseUnit.FAHRENHEIT));
+	}
+
+	@Benchmark
+	public SensorReading convertPojo() {
+		pojo.setBaseUnit(BaseUnit.FAHRENHEIT);
+		pojo.setTemperature((pojo.getTemperature().doubleValue() - 32) * 5 / 9);
+		pojo.setBaseUnit(BaseUnit.CELSIUS);
+		return pojo;
+	}
+
+	@Benchmark
+	public CompactSensorReading convertCompact() {
+		compact.set(compact.getSensorKey(), compact.getTimestampNanos(), compact.getTemperature(),
+				CompactSensorReading.encode(BaseUnit.FAHRENHEIT));
+		return compact.toCelsius();
+	}
+
+	@Benchmark
+	public CompactSensorReading pojoToCompact() {
+		return compact.from(pojo);
+	}
+
+	@Benchmark
+	public SensorReading compactToPojo() {
+		return compact.toSensorReading();
+	}
+
+	@Benchmark
+	public byte[] serializePojoJson() throws JsonProcessingException {
+		return mapper.writeValueAsBytes(pojo);
+	}
+
+	@Benchmark
+	public ByteBuffer serializeCompact() {
+		buffer.clear();
+		compact.writeTo(buffer);
+		return buffer;
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.solace.samples.spring.common.SensorReading.BaseUnit;
+
+/*
+ * Throughput and payload size of the binary SensorReadingCodec versus Jackson JSON.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="SensorReadingCodecBenchmark -prof gc"
+ *
+ * The encoded size of one reading in each format is printed when the benchmark starts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SensorReadingCodecBenchmark {
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	private SensorReading reading;
+	private CompactSensorReading compact;
+	private byte[] json;
+	private byte[] binary;
+	private ByteBuffer buffer;
+
+	@Setup
+	public void setup() throws IOException {
+		reading = new SensorReading(UUID.randomUUID().toString(), 70.0d, BaseUnit.FAHRENHEIT);
+		compact = new CompactSensorReading().from(reading);
+		json = mapper.writeValueAsBytes(reading);
+		binary = SensorReadingCodec.encode(reading);
+		buffer = ByteBuffer.allocate(binary.length);
+		System.out.println("Payload size: json=" + json.length + " bytes, binary=" + binary.length + " bytes");
+	}
+
+	@Benchmark
+	public byte[] encodeJson() throws IOException {
+		return mapper.writeValueAsBytes(reading);
+	}
+
+	@Benchmark
+	public byte[] encodeBinary() {
+		return SensorReadingCodec.encode(reading);
+	}
+
+	@Benchmark
+	public ByteBuffer encodeBinaryCompact() {
+		buffer.clear();
+		SensorReadingCodec.encode(compact, buffer);
+		return buffer;
+	}
+
+	@Benchmark
+	public SensorReading decodeJson() throws IOException {
+		return mapper.readValue(json, SensorReading.class);
+	}
+
+	@Benchmark
+	public SensorReading decodeBinary() {
+		return SensorReadingCodec.decode(binary);
+	}
+
+	@Benchmark
+	public CompactSensorReading decodeBinaryCompact() {
+		return SensorReadingCodec.decode(ByteBuffer.wrap(binary), compact);
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.solace.samples.spring.common.SensorReading.BaseUnit;
+
+/*
+ * Like the JSON parser, the codec lives in spring-samples-datamodel;
+ * batchConsume decodes binary readings with it.
+ */
+public class SensorReadingCodecTest {
+
+	private final CompactSensorReading compact = new CompactSensorReading(new SensorIdRegistry());
+
+	private static SensorReading reading(String sensorID, Double temperature) {
+		SensorReading reading = new SensorReading(sensorID, 0, BaseUnit.FAHRENHEIT);
+		reading.setTemperature(temperature);
+		reading.setTimestamp(Timestamp.from(Instant.parse("2022-07-12T12:34:56.123456789Z")));
+		return reading;
+	}
+
+	private static void assertSameReading(SensorReading expected, SensorReading actual) {
+		assertEquals(expected.getSensorID(), actual.getSensorID());
+		assertEquals(expected.getTimestamp(), actual.getTimestamp());
+		assertEquals(expected.getTemperature(), actual.getTemperature());
+		assertEquals(expected.getBaseUnit(), actual.getBaseUnit());
+	}
+
+	/* Through both decoders, and back out of the compact form */
+	private void assertRoundTrip(SensorReading reading) {
+		byte[] encoded = SensorReadingCodec.encode(reading);
+		assertEquals(SensorReadingCodec.encodedLength(reading), encoded.length);
+		assertSameReading(reading, SensorReadingCodec.decode(encoded));
+
+		SensorReadingCodec.decode(ByteBuffer.wrap(encoded).asReadOnlyBuffer(), compact);
+		assertSameReading(reading, compact.toSensorReading());
+		byte[] reencoded = SensorReadingCodec.encode(compact);
+		assertEquals(SensorReadingCodec.encodedLength(compact), reencoded.length);
+		assertTrue(Arrays.equals(encoded, reencoded));
+	}
+
+	@Test
+	void testRoundTrip() {
+		assertRoundTrip(reading("3f2504e0-4f89-11d3-9a0c-0305e82c3301", 72.5));
+		assertEquals(56, SensorReadingCodec.encode(reading("3f2504e0-4f89-11d3-9a0c-0305e82c3301", 72.5)).length);
+		assertRoundTrip(reading("", -0.0));
+	}
+
+	@Test
+	void testNullFields() {
+		assertRoundTrip(reading(null, 1.0));
+		assertRoundTrip(reading("sensor-1", null));
+
+		SensorReading empty = new SensorReading();
+		empty.setTimestamp(null);
+		assertRoundTrip(empty);
+		assertEquals(SensorReadingCodec.HEADER_BYTES, SensorReadingCodec.encode(empty).length);
+	}
+
+	@Test
+	void testNonAsciiSensorID() {
+		SensorReading reading = reading("capteur-é-温度-🌡", 20.0);
+		assertRoundTrip(reading);
+		int utf8Length = "capteur-é-温度-🌡".getBytes(StandardCharsets.UTF_8).length;
+		assertEquals(SensorReadingCodec.HEADER_BYTES + utf8Length, SensorReadingCodec.encode(reading).length);
+	}
+
+	@Test
+	void testNaNTemperatureIsDecodedAsNull() {
+		// NaN is the encoding of a missing temperature
+		byte[] encoded = SensorReadingCodec.encode(reading("sensor-1", Double.NaN));
+		assertNull(SensorReadingCodec.decode(encoded).getTemperature());
+		assertTrue(Double.isNaN(SensorReadingCodec.decode(ByteBuffer.wrap(encoded), compact).getTemperature()));
+	}
+
+	@Test
+	void testTruncatedPayloads() {
+		byte[] encoded = SensorReadingCodec.encode(reading("sensor-1", 1.0));
+		// Cut in the header, in the ID length and in the ID itself
+		for (int length : new int[] { 0, 1, 10, SensorReadingCodec.HEADER_BYTES - 1, SensorReadingCodec.HEADER_BYTES,
+				encoded.length - 1 }) {
+			byte[] truncated = Arrays.copyOf(encoded, length);
+			assertThrows(BufferUnderflowException.class, () -> SensorReadingCodec.decode(truncated), "length " + length);
+			assertThrows(BufferUnderflowException.class,
+					() -> SensorReadingCodec.decode(ByteBuffer.wrap(truncated), compact), "length " + length);
+		}
+	}
+
+	@Test
+	void testUnsupportedVersion() {
+		byte[] encoded = SensorReadingCodec.encode(reading("sensor-1", 1.0));
+		encoded[0] = SensorReadingCodec.VERSION + 1;
+		assertThrows(IllegalArgumentException.class, () -> SensorReadingCodec.decode(encoded));
+		assertThrows(IllegalArgumentException.class, () -> SensorReadingCodec.decode(ByteBuffer.wrap(encoded), compact));
+	}
+
+	@Test
+	void testUnknownBaseUnit() {
+		for (byte code : new byte[] { (byte) BaseUnit.values().length, Byte.MAX_VALUE, -2, Byte.MIN_VALUE }) {
+			byte[] encoded = SensorReadingCodec.encode(reading("sensor-1", 1.0));
+			encoded[1] = code;
+			assertThrows(IllegalArgumentException.class, () -> SensorReadingCodec.decode(encoded), "code " + code);
+			assertThrows(IllegalArgumentException.class,
+					() -> SensorReadingCodec.decode(ByteBuffer.wrap(encoded), compact), "code " + code);
+		}
+	}
+
+	@Test
+	void testSensorIDTooLong() {
+		assertThrows(IllegalArgumentException.class, () -> SensorReadingCodec.encode(reading("x".repeat(0xFFFF), 1.0)));
+	}
+}
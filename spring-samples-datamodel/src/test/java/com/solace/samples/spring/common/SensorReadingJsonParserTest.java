@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.solace.samples.spring.common.SensorReading.BaseUnit;
+
+/*
+ * The parser lives in spring-samples-datamodel, which has no unit tests of
+ * its own; batchConsume is its main user.
+ */
+public class SensorReadingJsonParserTest {
+
+	private final SensorReadingJsonParser parser = new SensorReadingJsonParser();
+	private final CompactSensorReading reading = new CompactSensorReading(new SensorIdRegistry());
+
+	private CompactSensorReading parse(String json) {
+		return parser.parse(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer(), reading);
+	}
+
+	private static SensorReading sample() {
+		SensorReading value = new SensorReading("sensor-1", 72.5, BaseUnit.FAHRENHEIT);
+		Timestamp timestamp = Timestamp.from(Instant.parse("2022-07-12T12:34:56.789Z"));
+		value.setTimestamp(timestamp);
+		return value;
+	}
+
+	private void assertSameReading(SensorReading expected) {
+		SensorReading actual = reading.toSensorReading();
+		assertEquals(expected.getSensorID(), actual.getSensorID());
+		assertEquals(expected.getTimestamp(), actual.getTimestamp());
+		assertEquals(expected.getTemperature(), actual.getTemperature());
+		assertEquals(expected.getBaseUnit(), actual.getBaseUnit());
+	}
+
+	@Test
+	void testParsesJacksonOutput() throws Exception {
+		SensorReading expected = sample();
+		// Spring Boot writes dates as ISO-8601 strings, plain Jackson as epoch milliseconds
+		parse(new ObjectMapper().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).writeValueAsString(expected));
+		assertSameReading(expected);
+		parse(new ObjectMapper().writeValueAsString(expected));
+		assertSameReading(expected);
+	}
+
+	@Test
+	void testFieldOrderWhitespaceAndUnknownFields() {
+		parse("""
+				{ "extra": {"nested": [1, "}", {"a": null}]}, "baseUnit" : "CELSIUS",
+				  "temperature": -1.25e1, "flag": true,
+				  "timestamp": "2022-07-12T14:34:56.5+02:00", "sensorID": "sensor-2" }
+				""");
+		assertEquals("sensor-2", reading.getSensorID());
+		assertEquals(-12.5, reading.getTemperature());
+		assertEquals(BaseUnit.CELSIUS, reading.getBaseUnit());
+		assertEquals(Instant.parse("2022-07-12T12:34:56.5Z"), reading.toSensorReading().getTimestamp().toInstant());
+	}
+
+	@Test
+	void testNullsEscapesAndLongNumbers() {
+		parse("{\"sensorID\":\"caf\\u00e9 \\\"1\\\"\",\"temperature\":null,\"timestamp\":null,\"baseUnit\":null}");
+		assertEquals("café \"1\"", reading.getSensorID());
+		SensorReading value = reading.toSensorReading();
+		assertNull(value.getTemperature());
+		assertNull(value.getTimestamp());
+		assertNull(value.getBaseUnit());
+
+		parse("{\"temperature\":21.123456789012345678}");
+		assertEquals(21.123456789012345678, reading.getTemperature());
+		parse("{\"temperature\":0.1}");
+		assertEquals(0.1, reading.getTemperature());
+	}
+
+	@Test
+	void testMalformedPayloads() {
+		assertThrows(IllegalArgumentException.class, () -> parse("Hello World"));
+		assertThrows(IllegalArgumentException.class, () -> parse("{\"temperature\":}"));
+		assertThrows(IllegalArgumentException.class, () -> parse("{\"temperature\":1e"));
+		assertThrows(IllegalArgumentException.class, () -> parse("{\"baseUnit\":\"KELVIN\"}"));
+		assertThrows(IllegalArgumentException.class, () -> parse("{\"sensorID\":\"sensor-1"));
+		assertThrows(IllegalArgumentException.class, () -> parse("{\"timestamp\":\"2022-07-12\"}"));
+	}
+
+	@Test
+	void testRejectsContentAfterTheReading() {
+		parse("{\"sensorID\":\"sensor-1\"} \r\n\t");
+		assertEquals("sensor-1", reading.getSensorID());
+		assertThrows(IllegalArgumentException.class, () -> parse("{\"sensorID\":\"sensor-1\"}x"));
+		assertThrows(IllegalArgumentException.class, () -> parse("{\"sensorID\":\"sensor-1\"} {}"));
+		assertThrows(IllegalArgumentException.class, () -> parse("{\"sensorID\":\"sensor-1\"}}"));
+	}
+
+	@Test
+	void testRejectsOutOfRangeTimestamps() {
+		parse("{\"timestamp\":\"2024-02-29T23:59:59Z\"}");
+		assertEquals(Instant.parse("2024-02-29T23:59:59Z"), reading.toSensorReading().getTimestamp().toInstant());
+		assertThrows(IllegalArgumentException.class, () -> parse("{\"timestamp\":\"2022-13-01T00:00:00Z\"}"));
+		assertThrows(IllegalArgumentException.class, () -> parse("{\"timestamp\":\"2022-00-01T00:00:00Z\"}"));
+		assertThrows(IllegalArgumentException.class, () -> parse("{\"timestamp\":\"2022-02-30T00:00:00Z\"}"));
+		assertThrows(IllegalArgumentException.class, () -> parse("{\"timestamp\":\"2023-02-29T00:00:00Z\"}"));
+		assertThrows(IllegalArgumentException.class, () -> parse("{\"timestamp\":\"2022-04-31T00:00:00Z\"}"));
+		assertThrows(IllegalArgumentException.class, () -> parse("{\"timestamp\":\"2022-07-00T00:00:00Z\"}"));
+		assertThrows(IllegalArgumentException.class, () -> parse("{\"timestamp\":\"2022-07-12T24:00:00Z\"}"));
+		assertThrows(IllegalArgumentException.class, () -> parse("{\"timestamp\":\"2022-07-12T12:60:00Z\"}"));
+		assertThrows(IllegalArgumentException.class, () -> parse("{\"timestamp\":\"2022-07-12T12:00:60Z\"}"));
+		assertThrows(IllegalArgumentException.class, () -> parse("{\"timestamp\":\"2022-07-12T12:00:00+19:00\"}"));
+	}
+
+	@Test
+	void testRecognizesJsonAfterWhitespace() {
+		ByteBuffer payload = ByteBuffer.wrap(" \r\n\t{\"sensorID\":\"sensor-3\"}".getBytes(StandardCharsets.UTF_8));
+		assertTrue(SensorReadingJsonParser.isJsonObject(payload));
+		assertEquals(0, payload.position());
+		parser.parse(payload, reading);
+		assertEquals("sensor-3", reading.getSensorID());
+
+		assertFalse(SensorReadingJsonParser.isJsonObject(ByteBuffer.wrap("Hello {World}".getBytes(StandardCharsets.UTF_8))));
+		assertFalse(SensorReadingJsonParser.isJsonObject(ByteBuffer.wrap("   ".getBytes(StandardCharsets.UTF_8))));
+	}
+
+	@Test
+	void testKeepsSensorsBeyondTheRegistryCapacity() {
+		SensorIdRegistry registry = new SensorIdRegistry(1);
+		CompactSensorReading bounded = new CompactSensorReading(registry);
+		parser.parse(ByteBuffer.wrap("{\"sensorID\":\"sensor-1\"}".getBytes(StandardCharsets.UTF_8)), bounded);
+		assertEquals(0, bounded.getSensorKey());
+		for (String json : new String[] { "{\"sensorID\":\"sensor-2\"}", "{\"sensorID\":\"sensor-\\u0032\"}" }) {
+			parser.parse(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)), bounded);
+			assertEquals(SensorIdRegistry.UNREGISTERED, bounded.getSensorKey());
+			assertEquals("sensor-2", bounded.getSensorID());
+			assertEquals("sensor-2", bounded.toSensorReading().getSensorID());
+		}
+		assertEquals(1, registry.size());
+
+		// A known sensor after an unknown one must not keep the previous ID
+		parser.parse(ByteBuffer.wrap("{\"sensorID\":\"sensor-1\"}".getBytes(StandardCharsets.UTF_8)), bounded);
+		assertEquals("sensor-1", bounded.getSensorID());
+	}
+
+	@Test
+	void testDoesNotAllocateOnceTheSensorIsKnown() throws Exception {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		ByteBuffer payload = ByteBuffer.wrap(new ObjectMapper().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.writeValueAsBytes(sample()));
+		for (int i = 0; i < 20_000; i++) {
+			parser.parse(payload.rewind(), reading);
+		}
+		long before = threads.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < 10_000; i++) {
+			parser.parse(payload.rewind(), reading);
+		}
+		long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+		// Anything per parse would be at least 16 bytes a time, 160 KB in total
+		assertTrue(allocated < 16_000, "Allocated " + allocated + " bytes");
+	}
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.batching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BatchAccumulatorTest {
+	private final BatchingProperties properties = new BatchingProperties();
+	private final List<List<Message<?>>> published = new CopyOnWriteArrayList<>();
+	private final Map<List<Message<?>>, RuntimeException> failed = new ConcurrentHashMap<>();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+	@AfterEach
+	void shutdown() {
+		scheduler.shutdownNow();
+	}
+
+	private BatchAccumulator accumulator() {
+		return new BatchAccumulator("test-out-0", properties, published::add, failed::put, scheduler, registry);
+	}
+
+	private static Message<String> message(String payload) {
+		return MessageBuilder.withPayload(payload).build();
+	}
+
+	private List<List<Object>> payloads() {
+		return published.stream()
+				.map(batch -> batch.stream().<Object>map(Message::getPayload).collect(Collectors.toList()))
+				.collect(Collectors.toList());
+	}
+
+	private double flushes(String reason) {
+		return registry.get("samples.batching.flushes").tag("reason", reason).counter().count();
+	}
+
+	@Test
+	void testPublishesFullBatches() {
+		properties.setMaxMessages(3);
+		properties.setLinger(Duration.ofHours(1));
+		BatchAccumulator accumulator = accumulator();
+		for (int i = 1; i <= 7; i++) {
+			accumulator.add(message("m" + i));
+		}
+
+		assertEquals(List.of(List.of("m1", "m2", "m3"), List.of("m4", "m5", "m6")), payloads());
+		assertEquals(1, accumulator.getPending());
+		assertEquals(2, flushes("messages"));
+		assertEquals(3, registry.get("samples.batching.batch.size").summary().mean());
+	}
+
+	@Test
+	void testBoundsPayloadBytes() {
+		properties.setMaxBytes(DataSize.ofBytes(10));
+		properties.setLinger(Duration.ofHours(1));
+		BatchAccumulator accumulator = accumulator();
+		accumulator.add(message("1234"));
+		accumulator.add(message("5678"));
+		// Would make 12 bytes, the first two are published without it
+		accumulator.add(message("9012"));
+		// Larger than a batch, published on its own
+		accumulator.add(message("0123456789ABC"));
+
+		assertEquals(List.of(List.of("1234", "5678"), List.of("9012"), List.of("0123456789ABC")), payloads());
+		assertEquals(0, accumulator.getPending());
+		assertEquals(3, flushes("bytes"));
+		assertEquals(8 + 4 + 13, registry.get("samples.batching.batch.bytes").summary().totalAmount());
+	}
+
+	@Test
+	void testPublishesAfterLinger() throws InterruptedException {
+		properties.setLinger(Duration.ofMillis(20));
+		BatchAccumulator accumulator = accumulator();
+		accumulator.add(message("m1"));
+		accumulator.add(message("m2"));
+
+		long deadline = System.currentTimeMillis() + 5000;
+		while (published.isEmpty() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(List.of(List.of("m1", "m2")), payloads());
+		assertEquals(1, flushes("linger"));
+	}
+
+	@Test
+	void testPublishesTheRestOnClose() {
+		properties.setLinger(Duration.ofHours(1));
+		BatchAccumulator accumulator = accumulator();
+		accumulator.add(message("m1"));
+		accumulator.close();
+
+		assertEquals(List.of(List.of("m1")), payloads());
+		assertEquals(1, flushes("close"));
+		assertThrows(IllegalStateException.class, () -> accumulator.add(message("m2")));
+	}
+
+	@Test
+	void testDropsTheBatchTheSinkFailedToPublish() {
+		properties.setMaxMessages(2);
+		BatchAccumulator accumulator = failingAccumulator();
+		CompletableFuture<Void> batch = accumulator.add(message("m1"));
+
+		assertThrows(IllegalStateException.class, () -> accumulator.add(message("m2")));
+		assertEquals(0, accumulator.getPending());
+		assertTrue(batch.isCompletedExceptionally());
+		assertTrue(registry.get("samples.batching.flushes").counters().stream().allMatch(c -> c.count() == 0));
+		assertEquals(1, registry.get("samples.batching.failures").counter().count());
+		// Thrown to the producer, not handed to the failure handler
+		assertTrue(failed.isEmpty());
+	}
+
+	@Test
+	void testCompletesTheFutureOfAPublishedBatch() {
+		properties.setMaxMessages(2);
+		properties.setLinger(Duration.ofHours(1));
+		BatchAccumulator accumulator = accumulator();
+		CompletableFuture<Void> first = accumulator.add(message("m1"));
+		assertFalse(first.isDone());
+		assertSame(first, accumulator.add(message("m2")));
+		assertTrue(first.isDone());
+
+		CompletableFuture<Void> second = accumulator.add(message("m3"));
+		assertNotSame(first, second);
+		accumulator.close();
+		assertTrue(second.isDone());
+	}
+
+	@Test
+	void testHandsAFailedLingerFlushToTheFailureHandler() {
+		properties.setLinger(Duration.ofMillis(20));
+		BatchAccumulator accumulator = failingAccumulator();
+		CompletableFuture<Void> batch = accumulator.add(message("m1"));
+
+		ExecutionException failure = assertThrows(ExecutionException.class, () -> batch.get(5, TimeUnit.SECONDS));
+		assertEquals("Broker unavailable", failure.getCause().getMessage());
+		assertEquals(1, registry.get("samples.batching.failures").counter().count());
+		List<Message<?>> lost = failed.keySet().iterator().next();
+		assertEquals("m1", lost.get(0).getPayload());
+	}
+
+	private BatchAccumulator failingAccumulator() {
+		return new BatchAccumulator("test-out-0", properties, batch -> {
+			throw new IllegalStateException("Broker unavailable");
+		}, failed::put, scheduler, registry);
+	}
+}
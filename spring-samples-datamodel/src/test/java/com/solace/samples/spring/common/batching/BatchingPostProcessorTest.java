@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.batching;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.context.IntegrationContextUtils;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.ErrorMessage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/*
+ * With acknowledge-after-publish, a wrapped function returns only once the
+ * linger timer has published its output, so the binder acknowledges the
+ * input after the output is sent, and fails it when the output was lost.
+ */
+public class BatchingPostProcessorTest {
+	private final StreamBridge streamBridge = mock(StreamBridge.class);
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final QueueChannel errorChannel = new QueueChannel();
+	private BatchingPostProcessor batching;
+
+	@AfterEach
+	void shutdown() {
+		batching.destroy();
+	}
+
+	@SuppressWarnings("unchecked")
+	private Function<String, Object> wrap(Function<String, List<String>> function) {
+		BatchingProperties properties = new BatchingProperties();
+		properties.setFunctions(List.of("fanOut"));
+		properties.setLinger(Duration.ofMillis(20));
+		DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+		beans.registerSingleton("streamBridge", streamBridge);
+		beans.registerSingleton("meterRegistry", registry);
+		beans.registerSingleton(IntegrationContextUtils.ERROR_CHANNEL_BEAN_NAME, errorChannel);
+		batching = new BatchingPostProcessor(properties, beans.getBeanProvider(StreamBridge.class),
+				beans.getBeanProvider(BindingServiceProperties.class), beans.getBeanProvider(MeterRegistry.class));
+		batching.setBeanFactory(beans);
+		return (Function<String, Object>) batching.postProcessAfterInitialization(function, "fanOut");
+	}
+
+	@Test
+	void testReturnsOnceTheOutputIsPublished() {
+		when(streamBridge.send(anyString(), any(Object.class))).thenReturn(true);
+		Function<String, Object> fanOut = wrap(v -> List.of(v + " 1", v + " 2"));
+
+		assertNull(fanOut.apply("Payload"));
+		// Published by the linger timer before the function returned
+		verify(streamBridge, times(1)).send(anyString(), any(Object.class));
+	}
+
+	@Test
+	void testFailsWhenTheOutputCouldNotBePublished() {
+		when(streamBridge.send(anyString(), any(Object.class))).thenThrow(new IllegalStateException("Broker unavailable"));
+		Function<String, Object> fanOut = wrap(v -> List.of(v + " 1", v + " 2"));
+
+		assertThrows(IllegalStateException.class, () -> fanOut.apply("Payload"));
+		assertEquals(1, registry.get("samples.batching.failures").counter().count());
+		ErrorMessage error = (ErrorMessage) errorChannel.receive(0);
+		Message<?> batch = ((MessagingException) error.getPayload()).getFailedMessage();
+		assertEquals(List.of("Payload 1", "Payload 2"), batch.getPayload());
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.logging;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.LoggerFactory;
+
+import com.solace.samples.spring.common.SensorReading;
+import com.solace.samples.spring.common.SensorReading.BaseUnit;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+
+/*
+ * Per-message cost of the "Received: " + reading logging used by the samples,
+ * against HotPathLogger. Log events are fully formatted by a logback pattern
+ * encoder and written to a null stream, so the numbers exclude console I/O.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="HotPathLoggerBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HotPathLoggerBenchmark {
+	private final SensorReading reading = new SensorReading("sensor-1", 70.0d, BaseUnit.FAHRENHEIT);
+
+	private Logger enabled;
+	private Logger disabled;
+	private HotPathLogger full;
+	private HotPathLogger sampled;
+	private HotPathLogger rateLimited;
+	private HotPathLogger off;
+
+	@Setup
+	public void setup() {
+		LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+		context.reset();
+
+		PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+		encoder.setContext(context);
+		encoder.setPattern("%d %-5level [%thread] %logger{36} : %msg%n");
+		encoder.start();
+		OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+		appender.setContext(context);
+		appender.setEncoder(encoder);
+		appender.setOutputStream(OutputStream.nullOutputStream());
+		appender.start();
+
+		enabled = context.getLogger("enabled");
+		enabled.setLevel(Level.INFO);
+		enabled.addAppender(appender);
+		disabled = context.getLogger("disabled");
+		disabled.setLevel(Level.WARN);
+		disabled.addAppender(appender);
+
+		full = HotPathLogger.full(enabled);
+		sampled = HotPathLogger.sampled(enabled, 1000);
+		rateLimited = HotPathLogger.rateLimited(enabled, 10);
+		off = new HotPathLogger(enabled, LogMode.OFF, 1, 1);
+	}
+
+	@Benchmark
+	public void concatenatedInfoEnabled() {
+		enabled.info("Received: " + reading);
+	}
+
+	@Benchmark
+	public void concatenatedInfoDisabled() {
+		// The string is built even though nothing is logged
+		disabled.info("Received: " + reading);
+	}
+
+	@Benchmark
+	public void hotPathFull() {
+		full.info("Received: {}", reading);
+	}
+
+	@Benchmark
+	public void hotPathSampled() {
+		sampled.info("Received: {}", reading);
+	}
+
+	@Benchmark
+	public void hotPathRateLimited() {
+		rateLimited.info("Received: {}", reading);
+	}
+
+	@Benchmark
+	public void hotPathOff() {
+		off.info("Received: {}", reading);
+	}
+}
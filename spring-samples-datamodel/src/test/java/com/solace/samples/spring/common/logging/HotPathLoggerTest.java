@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * In the logger's package for its clock: time only moves when the test says so.
+ */
+public class HotPathLoggerTest {
+	private static final Logger log = LoggerFactory.getLogger(HotPathLoggerTest.class);
+	private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final AtomicLong now = new AtomicLong(42 * MILLI);
+
+	private static int logged(HotPathLogger logger, int messages) {
+		int logged = 0;
+		for (int i = 0; i < messages; i++) {
+			if (logger.shouldLog()) {
+				logged++;
+			}
+		}
+		return logged;
+	}
+
+	@Test
+	void testLogsOneMessageInEverySample() {
+		HotPathLogger logger = new HotPathLogger(log, LogMode.SAMPLED, 3, 1, now::get);
+		List<Integer> logged = new ArrayList<>();
+		for (int i = 0; i < 9; i++) {
+			if (logger.shouldLog()) {
+				logged.add(i);
+			}
+		}
+		assertEquals(List.of(0, 3, 6), logged);
+	}
+
+	@Test
+	void testLimitsMessagesPerSecond() {
+		HotPathLogger logger = new HotPathLogger(log, LogMode.RATE_LIMITED, 1, 3, now::get);
+		assertEquals(3, logged(logger, 5));
+
+		now.addAndGet(999 * MILLI);
+		assertFalse(logger.shouldLog());
+
+		now.addAndGet(MILLI);
+		assertEquals(3, logged(logger, 5));
+
+		// A quiet period does not bank permits
+		now.addAndGet(10_000 * MILLI);
+		assertEquals(3, logged(logger, 5));
+	}
+
+	@Test
+	void testStartsEachWindowWithExactlyTheLimit() throws InterruptedException {
+		HotPathLogger logger = new HotPathLogger(log, LogMode.RATE_LIMITED, 1, 100, now::get);
+		assertTrue(logger.shouldLog());
+		now.addAndGet(1000 * MILLI);
+
+		// The threads race to open the new window, which must still admit 100 messages
+		int threads = 8;
+		AtomicInteger logged = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> workers = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			Thread worker = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				logged.addAndGet(logged(logger, 1000));
+			});
+			worker.start();
+			workers.add(worker);
+		}
+		start.countDown();
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		assertEquals(100, logged.get());
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.messages;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+/*
+ * Building one outbound message, as BatchPublisher (constant content type)
+ * and DynamicDestinationProcessor (per-message target destination) do.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="HeaderTemplateBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HeaderTemplateBenchmark {
+	private static final String DESTINATION = "scst_targetDestination";
+
+	private final String payload = "Payload 1";
+	private final String topic = "pub/sub/plus/1";
+	private final Map<String, Object> contentType = Map.of(MessageHeaders.CONTENT_TYPE, "text/plain");
+	private final HeaderTemplate reused = new HeaderTemplate(contentType, true);
+	private final HeaderTemplate built = new HeaderTemplate(contentType, false);
+	private final HeaderTemplate reusedEmpty = new HeaderTemplate(Map.of(), true);
+
+	@Benchmark
+	public Message<String> messageBuilder() {
+		return MessageBuilder.withPayload(payload).setHeader(MessageHeaders.CONTENT_TYPE, "text/plain").build();
+	}
+
+	@Benchmark
+	public Message<String> templateWithBuilder() {
+		return built.build(payload);
+	}
+
+	@Benchmark
+	public Message<String> templateReused() {
+		return reused.build(payload);
+	}
+
+	@Benchmark
+	public Message<String> messageBuilderWithDestination() {
+		return MessageBuilder.withPayload(payload).setHeader(DESTINATION, topic).build();
+	}
+
+	@Benchmark
+	public Message<String> templateReusedWithDestination() {
+		return reusedEmpty.build(payload, DESTINATION, topic);
+	}
+
+	@Benchmark
+	public Message<String> templateReusedWithConstantsAndDestination() {
+		return reused.build(payload, DESTINATION, topic);
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.messages;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.stream.binder.BinderHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+
+
+public class HeaderTemplateTest {
+	private static final Map<String, Object> CONSTANTS = Map.of(MessageHeaders.CONTENT_TYPE, "text/plain",
+			BinderHeaders.TARGET_DESTINATION, "batch/consume/topic");
+
+	private static HeaderTemplate template(boolean reuse) {
+		OutboundMessagesProperties properties = new OutboundMessagesProperties();
+		properties.setReuseHeaders(reuse);
+		return new OutboundMessages(properties).template(CONSTANTS);
+	}
+
+	@Test
+	void testReusedHeadersAreShared() {
+		HeaderTemplate template = template(true);
+		Message<String> first = template.build("Payload 1");
+		Message<String> second = template.build("Payload 2");
+
+		assertSame(first.getHeaders(), second.getHeaders());
+		assertEquals(CONSTANTS, first.getHeaders());
+		assertNull(first.getHeaders().getId());
+		assertNull(first.getHeaders().getTimestamp());
+		assertEquals("Payload 2", second.getPayload());
+	}
+
+	@Test
+	void testReusedHeadersWithAVaryingHeader() {
+		HeaderTemplate template = template(true);
+		Message<String> message = template.build("Payload 1", "sensorID", "sensor-1");
+		Message<String> rerouted = template.build("Payload 2", BinderHeaders.TARGET_DESTINATION, "batch/other");
+
+		assertEquals(3, message.getHeaders().size());
+		assertEquals("text/plain", message.getHeaders().get(MessageHeaders.CONTENT_TYPE));
+		assertEquals("sensor-1", message.getHeaders().get("sensorID"));
+		assertNull(message.getHeaders().getId());
+		assertEquals(2, rerouted.getHeaders().size());
+		assertEquals("batch/other", rerouted.getHeaders().get(BinderHeaders.TARGET_DESTINATION));
+	}
+
+	@Test
+	void testWithoutReuseMessagesAreBuilt() {
+		HeaderTemplate template = template(false);
+		Message<String> first = template.build("Payload 1");
+		Message<String> second = template.build("Payload 2", "sensorID", "sensor-1");
+
+		assertNotNull(first.getHeaders().getId());
+		assertNotNull(first.getHeaders().getTimestamp());
+		assertNotEquals(first.getHeaders().getId(), second.getHeaders().getId());
+		assertEquals("batch/consume/topic", first.getHeaders().get(BinderHeaders.TARGET_DESTINATION));
+		assertEquals("sensor-1", second.getHeaders().get("sensorID"));
+	}
+}
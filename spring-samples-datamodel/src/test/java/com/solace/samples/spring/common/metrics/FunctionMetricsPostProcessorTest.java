@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.metrics;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.solace.samples.spring.common.offload.OffloadProperties;
+import com.solace.samples.spring.common.offload.OffloadingPostProcessor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class FunctionMetricsPostProcessorTest {
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final FunctionMetricsPostProcessor metrics;
+
+	public FunctionMetricsPostProcessorTest() {
+		FunctionMetricsProperties properties = new FunctionMetricsProperties();
+		properties.setFunctions(List.of("slow", "failing", "batch"));
+		DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+		beans.registerSingleton("meterRegistry", registry);
+		metrics = new FunctionMetricsPostProcessor(beans.getBeanProvider(MeterRegistry.class), properties);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T wrap(T bean, String name) {
+		return (T) metrics.postProcessAfterInitialization(bean, name);
+	}
+
+	private Timer duration(String function) {
+		return registry.get(FunctionMeters.DURATION).tag("function", function).timer();
+	}
+
+	private static double percentile(Timer timer, double percentile) {
+		return Arrays.stream(timer.takeSnapshot().percentileValues())
+				.filter(value -> value.percentile() == percentile)
+				.mapToDouble(value -> value.value(TimeUnit.MILLISECONDS))
+				.findFirst()
+				.orElseThrow();
+	}
+
+	@Test
+	void testRecordsTheDurationOfEachInvocation() {
+		Function<String, String> slow = wrap((Function<String, String>) input -> {
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+			return input.toUpperCase();
+		}, "slow");
+
+		assertEquals("A", slow.apply("a"));
+		assertEquals("B", slow.apply("b"));
+
+		Timer duration = duration("slow");
+		assertEquals(2, duration.count());
+		assertTrue(duration.totalTime(TimeUnit.MILLISECONDS) >= 40, duration.totalTime(TimeUnit.MILLISECONDS) + " ms");
+		assertEquals(2, registry.get(FunctionMeters.MESSAGES).tag("function", "slow").counter().count());
+	}
+
+	@Test
+	void testPublishesPercentilesOfTheRecordedDurations() {
+		Function<Long, Long> slow = wrap((Function<Long, Long>) millis -> {
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+			return millis;
+		}, "slow");
+		for (int i = 0; i < 99; i++) {
+			slow.apply(2L);
+		}
+		slow.apply(50L);
+
+		Timer duration = duration("slow");
+		double p50 = percentile(duration, 0.5);
+		double p99 = percentile(duration, 0.99);
+		double max = duration.max(TimeUnit.MILLISECONDS);
+		// Percentiles are approximated by histogram buckets, allow for their width
+		assertTrue(p50 >= 2 * 0.8 && p50 < 50 * 0.8, "p50 " + p50 + " ms");
+		assertTrue(p99 >= p50, "p99 " + p99 + " ms, p50 " + p50 + " ms");
+		assertTrue(p99 <= max * 1.25, "p99 " + p99 + " ms, max " + max + " ms");
+	}
+
+	@Test
+	void testCountsErrorsByException() {
+		Consumer<String> failing = wrap((Consumer<String>) input -> {
+			throw new IllegalStateException("Cannot handle " + input);
+		}, "failing");
+
+		assertThrows(IllegalStateException.class, () -> failing.accept("a"));
+		assertThrows(IllegalStateException.class, () -> failing.accept("b"));
+
+		assertEquals(2, registry.get(FunctionMeters.ERRORS).tag("function", "failing")
+				.tag("exception", "IllegalStateException").counter().count());
+		// Failed invocations are timed, but handled no message
+		assertEquals(2, duration("failing").count());
+		assertEquals(0, registry.get(FunctionMeters.MESSAGES).tag("function", "failing").counter().count());
+	}
+
+	@Test
+	void testCountsTheElementsOfABatch() {
+		Consumer<Object> batch = wrap((Consumer<Object>) input -> {
+		}, "batch");
+
+		batch.accept(MessageBuilder.withPayload(List.of("a", "b", "c")).build());
+
+		assertEquals(3, registry.get(FunctionMeters.MESSAGES).tag("function", "batch").counter().count());
+		assertEquals(3, registry.get(FunctionMeters.BATCH_SIZE).tag("function", "batch").summary().mean());
+	}
+
+	@Test
+	void testOnlyWrapsTheListedFunctions() {
+		Function<String, String> listed = String::trim;
+		Function<String, String> helper = String::trim;
+
+		assertNotSame(listed, wrap(listed, "slow"));
+		assertSame(helper, wrap(helper, "helper"));
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	static class OffloadedConsumer {
+		static final CountDownLatch acknowledged = new CountDownLatch(1);
+
+		// Declared before the metrics, the order of the wrappers must not depend on it
+		@Bean
+		static OffloadingPostProcessor offloadingPostProcessor(ObjectProvider<StreamBridge> streamBridge,
+				ObjectProvider<MeterRegistry> registryProvider) {
+			return new OffloadingPostProcessor(new OffloadProperties(), streamBridge, registryProvider);
+		}
+
+		@Bean
+		static FunctionMetricsPostProcessor functionMetricsPostProcessor(
+				ObjectProvider<MeterRegistry> registryProvider) {
+			FunctionMetricsProperties properties = new FunctionMetricsProperties();
+			properties.setFunctions(List.of("slow"));
+			return new FunctionMetricsPostProcessor(registryProvider, properties);
+		}
+
+		@Bean
+		SimpleMeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+		@Bean
+		Consumer<Message<String>> slow() {
+			return message -> LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(200));
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testTimesTheOffloadedInvocation() {
+		AcknowledgmentCallback ackCallback = new AcknowledgmentCallback() {
+			@Override
+			public void acknowledge(Status status) {
+				OffloadedConsumer.acknowledged.countDown();
+			}
+
+			@Override
+			public void noAutoAck() {
+			}
+		};
+
+		new ApplicationContextRunner().withUserConfiguration(OffloadedConsumer.class).run(context -> {
+			Consumer<Message<String>> slow = context.getBean("slow", Consumer.class);
+			slow.accept(MessageBuilder.withPayload("a")
+					.setHeader(IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK, ackCallback)
+					.build());
+			assertTrue(OffloadedConsumer.acknowledged.await(10, TimeUnit.SECONDS));
+
+			// Timed on the offload thread, around the work rather than the hand-over
+			Timer duration = context.getBean(SimpleMeterRegistry.class).get(FunctionMeters.DURATION)
+					.tag("function", "slow").timer();
+			assertEquals(1, duration.count());
+			assertTrue(duration.totalTime(TimeUnit.MILLISECONDS) >= 200,
+					duration.totalTime(TimeUnit.MILLISECONDS) + " ms");
+		});
+	}
+}
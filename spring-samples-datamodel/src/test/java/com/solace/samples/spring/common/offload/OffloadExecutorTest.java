@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+
+package com.solace.samples.spring.common.offload;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+
+public class OffloadExecutorTest {
+
+	private OffloadExecutor executor;
+
+	@AfterEach
+	void close() throws Exception {
+		executor.close();
+	}
+
+	@Test
+	void testSameKeyRunsInSubmissionOrder() throws Exception {
+		executor = new OffloadExecutor(1000, true);
+		Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			String key = "sensor-" + i % 3;
+			int sequence = i;
+			futures.add(executor.execute(key, () -> {
+				seen.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>())).add(sequence);
+				if (sequence % 50 == 0) {
+					throw new IllegalStateException("Failures do not break the chain");
+				}
+			}));
+		}
+		CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).handle((r, e) -> null).get(10,
+				TimeUnit.SECONDS);
+
+		for (int k = 0; k < 3; k++) {
+			List<Integer> sequences = seen.get("sensor-" + k);
+			assertEquals(100, sequences.size());
+			for (int n = 0; n < 100; n++) {
+				assertEquals(n * 3 + k, sequences.get(n));
+			}
+		}
+	}
+
+	@Test
+	void testBlocksBeyondMaxInFlight() throws Exception {
+		executor = new OffloadExecutor(2, true);
+		CountDownLatch release = new CountDownLatch(1);
+		for (int i = 0; i < 2; i++) {
+			executor.execute(null, () -> await(release));
+		}
+		assertEquals(2, executor.getInFlight());
+
+		CompletableFuture<Void> third = CompletableFuture.runAsync(() -> executor.execute(null, () -> {
+		}));
+		Thread.sleep(100);
+		assertFalse(third.isDone());
+
+		release.countDown();
+		third.get(10, TimeUnit.SECONDS);
+		// Permits are released once the tasks are done, after the third was let in
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (executor.getInFlight() > 0 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(0, executor.getInFlight());
+	}
+
+	@Test
+	void testUnkeyedTasksRunConcurrently() throws Exception {
+		executor = new OffloadExecutor(100, true);
+		CountDownLatch allStarted = new CountDownLatch(50);
+		CountDownLatch release = new CountDownLatch(1);
+		for (int i = 0; i < 50; i++) {
+			executor.execute(null, () -> {
+				allStarted.countDown();
+				await(release);
+			});
+		}
+		// Fifty blocked tasks at once: far more than a binder's concurrency
+		assertTrue(allStarted.await(10, TimeUnit.SECONDS));
+		release.countDown();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}